@@ -0,0 +1,46 @@
+// k6 load test of GET /authorization, used to compare platform and virtual threads.
+//
+//   k6 run -e BASE_URL=https://localhost:8443 -e APPLICATION=app -e AUTHENTICATOR=keycloak \
+//          -e USERS=10000 -e VUS=2000 benchmark/load/authorization.js
+//
+// Run it once against an instance started with AUCTORITAS_VIRTUAL_THREADS=false and once with
+// AUCTORITAS_VIRTUAL_THREADS=true, with the same database and data set, and compare the summaries.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'https://localhost:8443';
+const APPLICATION = __ENV.APPLICATION || 'app';
+const AUTHENTICATOR = __ENV.AUTHENTICATOR || 'authenticator';
+const USERS = parseInt(__ENV.USERS || '10000');
+const VUS = parseInt(__ENV.VUS || '2000');
+
+export const options = {
+    insecureSkipTLSVerify: true,
+    discardResponseBodies: true,
+    scenarios: {
+        authorization: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: '2m', target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        http_req_duration: ['p(99)<1000'],
+    },
+    summaryTrendStats: ['avg', 'med', 'p(90)', 'p(99)', 'max'],
+};
+
+export default function () {
+    // A bounded set of users, so that the run mixes cache hits with database lookups
+    const user = `load-user-${Math.floor(Math.random() * USERS)}`;
+    const url = `${BASE_URL}/authorization?applicationName=${APPLICATION}`
+        + `&authenticatorName=${AUTHENTICATOR}&externalUserId=${user}`;
+    const response = http.get(url, { tags: { name: 'authorization' } });
+    check(response, { 'status is 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,69 @@
+package it.aredegalli.auctoritas.benchmark;
+
+import it.aredegalli.auctoritas.util.HashUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HMAC-SHA256 of an external user id, per-call {@code Mac} setup vs the pooled {@link HashUtil}.
+ * <p>
+ * Run with {@code -prof gc} to get the allocation rate ({@code gc.alloc.rate.norm}, bytes per op) next to the
+ * throughput, and with {@code -t 4} or more to exercise the pool under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HmacBenchmark {
+
+    private static final String EXTERNAL_USER_ID = "google-oauth2|104857262938475610293";
+
+    private LegacyHashUtil legacy;
+    private HashUtil pooled;
+    private ByteBuffer input;
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString("benchmark-secret-key-0123456789ab".getBytes(StandardCharsets.US_ASCII));
+        legacy = new LegacyHashUtil(secret);
+        pooled = new HashUtil(secret);
+        input = ByteBuffer.wrap(EXTERNAL_USER_ID.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @State(Scope.Thread)
+    public static class Output {
+        final ByteBuffer buffer = ByteBuffer.allocate(32);
+    }
+
+    @Benchmark
+    public String legacyString() {
+        return legacy.hmacSha256(EXTERNAL_USER_ID);
+    }
+
+    @Benchmark
+    public String pooledString() {
+        return pooled.hmacSha256(EXTERNAL_USER_ID);
+    }
+
+    @Benchmark
+    public ByteBuffer pooledByteBuffer(Output output) {
+        output.buffer.clear();
+        pooled.hmacSha256(input.duplicate(), output.buffer);
+        return output.buffer;
+    }
+}
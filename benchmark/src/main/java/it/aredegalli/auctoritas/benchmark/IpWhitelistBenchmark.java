@@ -0,0 +1,100 @@
+package it.aredegalli.auctoritas.benchmark;
+
+import it.aredegalli.auctoritas.security.whitelist.IpWhitelistMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whitelist lookup cost for 1, 100 and 10k rules, legacy per-request parsing vs the compiled matcher.
+ * <p>
+ * The rule set mixes IPv4 CIDR blocks, exact IPv4 and IPv6 addresses and wildcard patterns (roughly 60/30/10).
+ * Probed addresses alternate between hits and misses so neither path can short-circuit on the first rule.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IpWhitelistBenchmark {
+
+    private static final int ADDRESS_COUNT = 1024;
+
+    @Param({"1", "100", "10000"})
+    public int rules;
+
+    private String rawRules;
+    private IpWhitelistMatcher matcher;
+    private String[] addresses;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        StringJoiner joiner = new StringJoiner(",");
+        List<String> hits = new ArrayList<>();
+
+        for (int i = 0; i < rules; i++) {
+            int kind = random.nextInt(10);
+            int a = 11 + random.nextInt(100);
+            int b = random.nextInt(256);
+            int c = random.nextInt(256);
+            if (kind < 6) {
+                joiner.add(a + "." + b + ".0.0/16");
+                hits.add(a + "." + b + "." + c + "." + random.nextInt(256));
+            } else if (kind < 8) {
+                String ip = a + "." + b + "." + c + "." + random.nextInt(256);
+                joiner.add(ip);
+                hits.add(ip);
+            } else if (kind < 9) {
+                String ip = "2001:db8:" + Integer.toHexString(b) + "::" + Integer.toHexString(c);
+                joiner.add(ip);
+                hits.add(ip);
+            } else {
+                joiner.add(a + "." + b + ".*");
+                hits.add(a + "." + b + "." + c + ".7");
+            }
+        }
+
+        rawRules = joiner.toString();
+        matcher = IpWhitelistMatcher.compile(rawRules);
+
+        // Misses come from 200.0.0.0/8, which no generated rule covers
+        addresses = new String[ADDRESS_COUNT];
+        for (int i = 0; i < ADDRESS_COUNT; i++) {
+            addresses[i] = i % 2 == 0
+                    ? hits.get(random.nextInt(hits.size()))
+                    : "200." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+        }
+    }
+
+    private String nextAddress() {
+        return addresses[cursor++ & (ADDRESS_COUNT - 1)];
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        return LegacyIpWhitelist.isWhitelisted(rawRules, nextAddress());
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return matcher.matches(nextAddress());
+    }
+}
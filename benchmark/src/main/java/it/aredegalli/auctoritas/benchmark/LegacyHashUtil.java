@@ -0,0 +1,32 @@
+package it.aredegalli.auctoritas.benchmark;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Verbatim copy of {@code HashUtil.hmacSha256} before the key and {@code Mac} were reused, kept as the
+ * benchmark baseline.
+ */
+final class LegacyHashUtil {
+
+    private final String secretKey;
+
+    LegacyHashUtil(String secretKey) {
+        this.secretKey = secretKey;
+    }
+
+    String hmacSha256(String data) {
+        try {
+            byte[] keyBytes = Base64.getDecoder().decode(secretKey);
+            Mac mac = Mac.getInstance("HmacSHA256");
+            SecretKeySpec secretKeySpec = new SecretKeySpec(keyBytes, "HmacSHA256");
+            mac.init(secretKeySpec);
+            byte[] hashBytes = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hashBytes);
+        } catch (Exception e) {
+            throw new RuntimeException("HMAC-SHA256 error", e);
+        }
+    }
+}
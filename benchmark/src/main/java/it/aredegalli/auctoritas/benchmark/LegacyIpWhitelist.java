@@ -0,0 +1,60 @@
+package it.aredegalli.auctoritas.benchmark;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Verbatim copy of the whitelist check {@code HostRequestFilter} performed before
+ * {@link it.aredegalli.auctoritas.security.whitelist.IpWhitelistMatcher}, kept as the benchmark baseline.
+ */
+final class LegacyIpWhitelist {
+
+    private LegacyIpWhitelist() {
+    }
+
+    static boolean isWhitelisted(String whitelistIps, String remoteAddr) {
+        List<String> allowedPatterns = Arrays.asList(whitelistIps.split(","));
+        return allowedPatterns.stream().anyMatch(pattern -> matches(remoteAddr, pattern));
+    }
+
+    private static boolean matches(String remoteAddr, String pattern) {
+        if (pattern.contains("*")) {
+            String regex = pattern.replace(".", "\\.").replace("*", ".*");
+            return Pattern.matches(regex, remoteAddr);
+        }
+        if (pattern.contains("/")) {
+            try {
+                return isInSubnet(remoteAddr, pattern);
+            } catch (Exception ignored) {
+            }
+        }
+        return remoteAddr.equals(pattern);
+    }
+
+    private static boolean isInSubnet(String ip, String cidr) throws UnknownHostException {
+        String[] parts = cidr.split("/");
+        InetAddress inetAddress = InetAddress.getByName(parts[0]);
+        InetAddress remote = InetAddress.getByName(ip);
+
+        int prefix = Integer.parseInt(parts[1]);
+        byte[] subnetBytes = inetAddress.getAddress();
+        byte[] ipBytes = remote.getAddress();
+
+        int byteCount = prefix / 8;
+        int bitRemainder = prefix % 8;
+
+        for (int i = 0; i < byteCount; i++) {
+            if (subnetBytes[i] != ipBytes[i]) return false;
+        }
+
+        if (bitRemainder > 0) {
+            int mask = (-1) << (8 - bitRemainder);
+            return (subnetBytes[byteCount] & mask) == (ipBytes[byteCount] & mask);
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+-- Converts an existing, unpartitioned audit_logs table to the partitioned layout of tables.sql.
+--
+-- The existing rows are kept as one partition of the default retention class ('standard' here, match
+-- auctoritas.audit.retention.default-class), covering everything up to the end of the current month.
+-- The application drops it as a whole once its newest possible row is past the retention of the class.
+-- Run it while the application is stopped.
+
+BEGIN;
+
+ALTER TABLE audit_logs RENAME TO audit_logs_legacy;
+ALTER TABLE audit_logs_legacy DROP CONSTRAINT audit_logs_pkey;
+
+UPDATE audit_logs_legacy SET timestamp = CURRENT_TIMESTAMP WHERE timestamp IS NULL;
+ALTER TABLE audit_logs_legacy ALTER COLUMN timestamp SET NOT NULL;
+ALTER TABLE audit_logs_legacy ADD COLUMN IF NOT EXISTS retention_class VARCHAR(20);
+UPDATE audit_logs_legacy SET retention_class = 'standard' WHERE retention_class IS NULL;
+ALTER TABLE audit_logs_legacy ALTER COLUMN retention_class SET NOT NULL;
+ALTER TABLE audit_logs_legacy ALTER COLUMN retention_class SET DEFAULT 'standard';
+
+CREATE TABLE audit_logs
+(
+    id               UUID        NOT NULL DEFAULT gen_random_uuid(),
+    timestamp        TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    event_type       UUID REFERENCES audit_event_type (id) ON DELETE SET NULL,
+    user_id          UUID REFERENCES users (id) ON DELETE SET NULL,
+    application_name VARCHAR(100),
+    description      TEXT,
+    metadata         JSONB,
+    retention_class  VARCHAR(20) NOT NULL DEFAULT 'standard',
+    PRIMARY KEY (id, retention_class, timestamp)
+) PARTITION BY LIST (retention_class);
+
+CREATE INDEX audit_logs_timestamp_brin ON audit_logs USING BRIN (timestamp);
+CREATE INDEX audit_logs_user_id_idx ON audit_logs (user_id, timestamp);
+CREATE INDEX audit_logs_application_name_idx ON audit_logs (application_name, timestamp);
+
+CREATE TABLE audit_logs_standard PARTITION OF audit_logs
+    FOR VALUES IN ('standard') PARTITION BY RANGE (timestamp);
+
+ALTER TABLE audit_logs_standard ATTACH PARTITION audit_logs_legacy
+    FOR VALUES FROM (MINVALUE) TO (date_trunc('month', CURRENT_TIMESTAMP)::timestamp + INTERVAL '1 month');
+
+COMMIT;
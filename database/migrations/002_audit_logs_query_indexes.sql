@@ -0,0 +1,11 @@
+-- Indexes backing the filters and the keyset pagination of GET /api/audit.
+-- Indexes created on the partitioned parent cascade to every existing and future partition.
+
+DROP INDEX IF EXISTS audit_logs_user_id_idx;
+DROP INDEX IF EXISTS audit_logs_application_name_idx;
+
+CREATE INDEX audit_logs_keyset_idx ON audit_logs (timestamp, id);
+CREATE INDEX audit_logs_user_id_idx ON audit_logs (user_id, timestamp, id);
+CREATE INDEX audit_logs_application_name_idx ON audit_logs (application_name, timestamp, id);
+CREATE INDEX audit_logs_event_type_idx ON audit_logs (event_type, timestamp, id);
+CREATE INDEX audit_logs_metadata_idx ON audit_logs USING GIN (metadata jsonb_path_ops);
@@ -0,0 +1,46 @@
+-- Moves the repeated audit strings to audit_dictionary: application names, descriptions and user agents become
+-- integer columns, metadata keys become dictionary ids and the user agent leaves the metadata.
+-- Rewrites every audit_logs row; run it while the application is stopped.
+
+BEGIN;
+
+CREATE TABLE audit_dictionary
+(
+    id    INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    value TEXT NOT NULL UNIQUE
+);
+
+INSERT INTO audit_dictionary (value)
+SELECT application_name FROM audit_logs WHERE application_name IS NOT NULL
+UNION
+SELECT description FROM audit_logs WHERE description IS NOT NULL
+UNION
+SELECT metadata ->> 'user-agent' FROM audit_logs WHERE metadata ->> 'user-agent' IS NOT NULL
+UNION
+SELECT jsonb_object_keys(metadata) FROM audit_logs WHERE jsonb_typeof(metadata) = 'object'
+ON CONFLICT (value) DO NOTHING;
+
+ALTER TABLE audit_logs ADD COLUMN application_name_id INTEGER;
+ALTER TABLE audit_logs ADD COLUMN description_id INTEGER;
+ALTER TABLE audit_logs ADD COLUMN user_agent_id INTEGER;
+
+UPDATE audit_logs a
+SET application_name_id = (SELECT id FROM audit_dictionary WHERE value = a.application_name),
+    description_id      = (SELECT id FROM audit_dictionary WHERE value = a.description),
+    user_agent_id       = (SELECT id FROM audit_dictionary WHERE value = a.metadata ->> 'user-agent'),
+    metadata            = CASE WHEN a.metadata IS NULL THEN NULL
+                               ELSE COALESCE((SELECT jsonb_object_agg(d.id::text, m.value)
+                                              FROM jsonb_each(a.metadata) AS m
+                                              JOIN audit_dictionary d ON d.value = m.key
+                                              WHERE m.key <> 'user-agent'), '{}'::jsonb)
+                          END;
+
+DROP INDEX IF EXISTS audit_logs_application_name_idx;
+ALTER TABLE audit_logs DROP COLUMN application_name;
+ALTER TABLE audit_logs DROP COLUMN description;
+CREATE INDEX audit_logs_application_name_idx ON audit_logs (application_name_id, timestamp, id);
+
+COMMIT;
+
+-- The rewrite leaves one dead tuple per row behind
+VACUUM ANALYZE audit_logs;
@@ -0,0 +1,19 @@
+-- Makes the foreign keys of the authorization graph deferrable, still checked per statement by default.
+-- Snapshot imports defer them to commit with SET CONSTRAINTS ALL DEFERRED, so tables can be loaded in any order.
+
+BEGIN;
+
+ALTER TABLE user_auth_mappings ALTER CONSTRAINT user_auth_mappings_user_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE user_auth_mappings ALTER CONSTRAINT user_auth_mappings_authenticator_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE applications ALTER CONSTRAINT applications_default_role_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE permissions_role ALTER CONSTRAINT permissions_role_role_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE permissions_role ALTER CONSTRAINT permissions_role_permission_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE application_roles ALTER CONSTRAINT application_roles_application_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE application_roles ALTER CONSTRAINT application_roles_role_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE users_roles_application ALTER CONSTRAINT users_roles_application_user_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE users_roles_application ALTER CONSTRAINT users_roles_application_application_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE users_roles_application ALTER CONSTRAINT users_roles_application_role_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE application_authenticators ALTER CONSTRAINT application_authenticators_application_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+ALTER TABLE application_authenticators ALTER CONSTRAINT application_authenticators_authenticator_id_fkey DEFERRABLE INITIALLY IMMEDIATE;
+
+COMMIT;
@@ -0,0 +1,36 @@
+-- Makes audit_event_type.description unique, as in tables.sql. Concurrent registrations before the constraint
+-- may have inserted the same description twice: audit_logs rows are moved to one id per description and the
+-- other rows are deleted first.
+
+BEGIN;
+
+CREATE TEMPORARY TABLE audit_event_type_duplicates ON COMMIT DROP AS
+SELECT id, first_value(id) OVER (PARTITION BY description ORDER BY id) AS kept_id
+FROM audit_event_type;
+
+DELETE FROM audit_event_type_duplicates WHERE id = kept_id;
+
+UPDATE audit_logs a
+SET event_type = d.kept_id
+FROM audit_event_type_duplicates d
+WHERE a.event_type = d.id;
+
+DELETE FROM audit_event_type t
+USING audit_event_type_duplicates d
+WHERE t.id = d.id;
+
+-- Databases created from the current tables.sql already have it
+DO
+$$
+    BEGIN
+        IF NOT EXISTS (SELECT 1
+                       FROM pg_constraint
+                       WHERE conrelid = 'audit_event_type'::regclass
+                         AND conname = 'audit_event_type_description_key') THEN
+            ALTER TABLE audit_event_type
+                ADD CONSTRAINT audit_event_type_description_key UNIQUE (description);
+        END IF;
+    END
+$$;
+
+COMMIT;
@@ -0,0 +1,25 @@
+-- Keeps client-controlled strings out of audit_dictionary: the user agent moves back into the metadata as a plain
+-- value, and the dictionary becomes unique by the MD5 digest of its values instead of the text itself, whose btree
+-- entry fails past about 2.7KB.
+-- Rewrites the audit_logs rows that have a user agent; run it while the application is stopped.
+
+BEGIN;
+
+INSERT INTO audit_dictionary (value)
+SELECT 'user-agent'
+WHERE NOT EXISTS (SELECT 1 FROM audit_dictionary WHERE value = 'user-agent');
+
+UPDATE audit_logs a
+SET metadata = COALESCE(a.metadata, '{}'::jsonb)
+                   || jsonb_build_object((SELECT id FROM audit_dictionary WHERE value = 'user-agent')::text, ua.value)
+FROM audit_dictionary ua
+WHERE ua.id = a.user_agent_id;
+
+ALTER TABLE audit_logs DROP COLUMN user_agent_id;
+
+-- User agents interned so far stay behind, unreferenced
+ALTER TABLE audit_dictionary ADD COLUMN value_digest UUID GENERATED ALWAYS AS (md5(value)::uuid) STORED;
+ALTER TABLE audit_dictionary ADD CONSTRAINT audit_dictionary_value_digest_key UNIQUE (value_digest);
+ALTER TABLE audit_dictionary DROP CONSTRAINT audit_dictionary_value_key;
+
+COMMIT;
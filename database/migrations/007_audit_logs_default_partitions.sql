@@ -0,0 +1,25 @@
+-- Gives every retention class partition of audit_logs a DEFAULT partition, so rows outside the premade time
+-- partitions are kept instead of failing their batch. The application creates it for classes added later, moves
+-- such rows to their time partition when it creates it, and deletes the expired ones.
+-- Run it after 001_partition_audit_logs.sql.
+
+BEGIN;
+
+DO
+$$
+    DECLARE
+        class_table TEXT;
+    BEGIN
+        FOR class_table IN
+            SELECT c.relname
+            FROM pg_inherits i
+                     JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'audit_logs'::regclass
+              AND c.relkind = 'p'
+            LOOP
+                EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I DEFAULT', class_table || '_default', class_table);
+            END LOOP;
+    END
+$$;
+
+COMMIT;
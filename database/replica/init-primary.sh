@@ -0,0 +1,3 @@
+#!/bin/sh
+# Lets the replica of docker-compose.replica.yml stream from this instance
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -17,26 +17,19 @@ CREATE TABLE authenticators
     is_active BOOLEAN          DEFAULT TRUE
 );
 
+-- The foreign keys of tables 3 to 10 are DEFERRABLE, so snapshot imports can check them at commit
+
 -- 3. USER AUTH MAPPINGS TABLE
 CREATE TABLE user_auth_mappings
 (
     id               UUID PRIMARY KEY DEFAULT gen_random_uuid(),
-    user_id          UUID         NOT NULL REFERENCES users (id) ON DELETE CASCADE,
-    authenticator_id UUID         NOT NULL REFERENCES authenticators (id) ON DELETE CASCADE,
+    user_id          UUID         NOT NULL REFERENCES users (id) ON DELETE CASCADE DEFERRABLE,
+    authenticator_id UUID         NOT NULL REFERENCES authenticators (id) ON DELETE CASCADE DEFERRABLE,
     external_user_id VARCHAR(100) NOT NULL,
     UNIQUE (authenticator_id, external_user_id)
 );
 
--- 4. APPLICATIONS TABLE
-CREATE TABLE applications
-(
-    id              UUID PRIMARY KEY DEFAULT gen_random_uuid(),
-    name            VARCHAR(100) UNIQUE NOT NULL,
-    description     TEXT,
-    default_role_id UUID REFERENCES roles (id)
-);
-
--- 5. ROLES TABLE
+-- 4. ROLES TABLE
 CREATE TABLE roles
 (
     id          UUID PRIMARY KEY DEFAULT gen_random_uuid(),
@@ -44,6 +37,15 @@ CREATE TABLE roles
     description TEXT
 );
 
+-- 5. APPLICATIONS TABLE
+CREATE TABLE applications
+(
+    id              UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    name            VARCHAR(100) UNIQUE NOT NULL,
+    description     TEXT,
+    default_role_id UUID REFERENCES roles (id) DEFERRABLE
+);
+
 -- 6. PERMISSIONS TABLE
 CREATE TABLE permissions
 (
@@ -56,8 +58,8 @@ CREATE TABLE permissions
 CREATE TABLE permissions_role
 (
     id            UUID PRIMARY KEY DEFAULT gen_random_uuid(),
-    role_id       UUID NOT NULL REFERENCES roles (id) ON DELETE CASCADE,
-    permission_id UUID NOT NULL REFERENCES permissions (id) ON DELETE CASCADE,
+    role_id       UUID NOT NULL REFERENCES roles (id) ON DELETE CASCADE DEFERRABLE,
+    permission_id UUID NOT NULL REFERENCES permissions (id) ON DELETE CASCADE DEFERRABLE,
     UNIQUE (role_id, permission_id)
 );
 
@@ -65,8 +67,8 @@ CREATE TABLE permissions_role
 CREATE TABLE application_roles
 (
     id             UUID PRIMARY KEY DEFAULT gen_random_uuid(),
-    application_id UUID NOT NULL REFERENCES applications (id) ON DELETE CASCADE,
-    role_id        UUID NOT NULL REFERENCES roles (id) ON DELETE CASCADE,
+    application_id UUID NOT NULL REFERENCES applications (id) ON DELETE CASCADE DEFERRABLE,
+    role_id        UUID NOT NULL REFERENCES roles (id) ON DELETE CASCADE DEFERRABLE,
     UNIQUE (application_id, role_id)
 );
 
@@ -74,9 +76,9 @@ CREATE TABLE application_roles
 CREATE TABLE users_roles_application
 (
     id             UUID PRIMARY KEY DEFAULT gen_random_uuid(),
-    user_id        UUID NOT NULL REFERENCES users (id) ON DELETE CASCADE,
-    application_id UUID NOT NULL REFERENCES applications (id) ON DELETE CASCADE,
-    role_id        UUID NOT NULL REFERENCES roles (id) ON DELETE CASCADE,
+    user_id        UUID NOT NULL REFERENCES users (id) ON DELETE CASCADE DEFERRABLE,
+    application_id UUID NOT NULL REFERENCES applications (id) ON DELETE CASCADE DEFERRABLE,
+    role_id        UUID NOT NULL REFERENCES roles (id) ON DELETE CASCADE DEFERRABLE,
     UNIQUE (user_id, application_id, role_id)
 );
 
@@ -84,8 +86,8 @@ CREATE TABLE users_roles_application
 CREATE TABLE application_authenticators
 (
     id               UUID PRIMARY KEY DEFAULT gen_random_uuid(),
-    application_id   UUID NOT NULL REFERENCES applications (id) ON DELETE CASCADE,
-    authenticator_id UUID NOT NULL REFERENCES authenticators (id) ON DELETE CASCADE,
+    application_id   UUID NOT NULL REFERENCES applications (id) ON DELETE CASCADE DEFERRABLE,
+    authenticator_id UUID NOT NULL REFERENCES authenticators (id) ON DELETE CASCADE DEFERRABLE,
     display_order    INT  NOT NULL    DEFAULT 0,
     is_active        BOOLEAN          DEFAULT TRUE,
     config           JSONB,
@@ -96,17 +98,43 @@ CREATE TABLE application_authenticators
 CREATE TABLE audit_event_type
 (
     id          UUID PRIMARY KEY DEFAULT gen_random_uuid(),
-    description VARCHAR(50) NOT NULL
+    description VARCHAR(50) NOT NULL UNIQUE
 );
 
--- 12. AUDIT_LOGS TABLE
-CREATE TABLE audit_logs
+-- 12. AUDIT_DICTIONARY TABLE
+-- Repeated audit strings (descriptions, application names, metadata keys), referenced by id. Unique by digest:
+-- a btree entry of the text itself would fail past about 2.7KB.
+CREATE TABLE audit_dictionary
 (
-    id               UUID PRIMARY KEY DEFAULT gen_random_uuid(),
-    timestamp        TIMESTAMP        DEFAULT CURRENT_TIMESTAMP,
-    event_type       UUID REFERENCES audit_event_type (id) ON DELETE SET NULL,
-    user_id          UUID REFERENCES users (id) ON DELETE SET NULL,
-    application_name VARCHAR(100),
-    description      TEXT,
-    metadata         JSONB
+    id           INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    value        TEXT NOT NULL,
+    value_digest UUID GENERATED ALWAYS AS (md5(value)::uuid) STORED UNIQUE
 );
+
+-- 13. AUDIT_LOGS TABLE
+-- Partitioned by retention class, then by timestamp. The application creates the class and time partitions,
+-- plus a DEFAULT partition per class for rows outside the time partitions, and drops the expired ones (see
+-- auctoritas.audit.retention and auctoritas.audit.partitioning).
+CREATE TABLE audit_logs
+(
+    id                  UUID        NOT NULL DEFAULT gen_random_uuid(),
+    timestamp           TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    event_type          UUID REFERENCES audit_event_type (id) ON DELETE SET NULL,
+    user_id             UUID REFERENCES users (id) ON DELETE SET NULL,
+    -- audit_dictionary ids; no foreign keys, dictionary entries are never deleted
+    application_name_id INTEGER,
+    description_id      INTEGER,
+    -- Keys are audit_dictionary ids, values are stored as they are
+    metadata            JSONB,
+    retention_class     VARCHAR(20) NOT NULL DEFAULT 'standard',
+    PRIMARY KEY (id, retention_class, timestamp)
+) PARTITION BY LIST (retention_class);
+
+-- Rows are appended in time order, so a BRIN index covers time ranges at a fraction of a btree's size
+CREATE INDEX audit_logs_timestamp_brin ON audit_logs USING BRIN (timestamp);
+-- Keyset pagination orders by (timestamp, id): one btree per filter of GET /api/audit, plus one without filters
+CREATE INDEX audit_logs_keyset_idx ON audit_logs (timestamp, id);
+CREATE INDEX audit_logs_user_id_idx ON audit_logs (user_id, timestamp, id);
+CREATE INDEX audit_logs_application_name_idx ON audit_logs (application_name_id, timestamp, id);
+CREATE INDEX audit_logs_event_type_idx ON audit_logs (event_type, timestamp, id);
+CREATE INDEX audit_logs_metadata_idx ON audit_logs USING GIN (metadata jsonb_path_ops);
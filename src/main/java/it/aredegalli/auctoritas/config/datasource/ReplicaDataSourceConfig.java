@@ -0,0 +1,82 @@
+package it.aredegalli.auctoritas.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replica routing, switched on with {@code auctoritas.datasource.replica.enabled}.
+ * <p>
+ * Replaces the auto-configured data source with a {@link LazyConnectionDataSourceProxy} over the primary pool,
+ * whose read-only transactions go through a {@link ReplicaRoutingDataSource}. Each replica gets its own Hikari
+ * pool, with the same Micrometer pool metrics as the primary under its own pool name.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "auctoritas.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private static final String REPLICA_POOL = "auctoritas-replica-";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            DataSourceProperties properties,
+            MeterRegistry registry,
+            @Value("${auctoritas.datasource.replica.urls}") List<String> urls,
+            @Value("${auctoritas.datasource.replica.username}") String username,
+            @Value("${auctoritas.datasource.replica.password}") String password,
+            @Value("${auctoritas.datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${auctoritas.datasource.replica.max-lag:PT5S}") Duration maxLag,
+            @Value("${auctoritas.datasource.replica.routed-paths:/api/**}") List<String> routedPaths) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName(REPLICA_POOL + (replicas.size() + 1));
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replicas.put(replica.getPoolName(), replica);
+        }
+        log.info("[DATASOURCE] Routing read-only transactions of GET {} to {} replicas, at most {} behind",
+                routedPaths, replicas.size(), maxLag);
+        return new ReplicaRoutingDataSource(primary, replicas, maxLag, routedPaths, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
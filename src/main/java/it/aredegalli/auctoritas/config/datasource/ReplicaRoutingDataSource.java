@@ -0,0 +1,217 @@
+package it.aredegalli.auctoritas.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out the connections of read-only transactions: from a read replica when the transaction runs in a GET
+ * request on one of {@code auctoritas.datasource.replica.routed-paths}, from the primary otherwise.
+ * <p>
+ * It is the read-only target of a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which
+ * fetches the physical connection at the first statement, once the transaction has marked it read-only. The
+ * persistence context of a request keeps its first connection until the request ends, so routing is limited to
+ * requests that never write: a replica connection must not be handed to a later write of the same request.
+ * <p>
+ * Replicas are picked round-robin among those within {@code max-lag} of the primary, as last measured by
+ * {@link #checkReplicas()}. Lagging or unreachable replicas are skipped until a check finds them caught up; with
+ * none left, the primary serves the transaction.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final String CONNECTIONS = "auctoritas.datasource.read.connections";
+    private static final String FALLBACKS = "auctoritas.datasource.replica.fallbacks";
+    private static final String LAG = "auctoritas.datasource.replica.lag";
+
+    // Replay lag of a standby; 0 when it has replayed all it received, or when it is not a standby at all
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final List<String> routedPaths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryConnections;
+    private final Counter fallbacks;
+
+    /**
+     * @param primary     the primary, for reads that are not routed and for fallbacks
+     * @param replicas    the replica pools by pool name
+     * @param maxLag      the replay lag past which a replica is skipped
+     * @param routedPaths the Ant patterns of the GET requests whose read-only transactions may use a replica
+     * @param registry    the registry of the routing meters
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    List<String> routedPaths, MeterRegistry registry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.routedPaths = List.copyOf(routedPaths);
+        replicas.forEach((pool, dataSource) -> this.replicas.add(new Replica(pool, dataSource, registry)));
+        this.primaryConnections = Counter.builder(CONNECTIONS)
+                .description("Connections handed out to read-only transactions")
+                .tag("pool", "primary")
+                .register(registry);
+        this.fallbacks = Counter.builder(FALLBACKS)
+                .description("Routed reads served by the primary because no replica was usable")
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Measures the replay lag of every replica and updates which ones reads may be routed to.
+     */
+    @Scheduled(fixedDelayString = "${auctoritas.datasource.replica.lag-check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasUsable = replica.isUsable(maxLagSeconds);
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                replica.lagSeconds = rs.getDouble(1);
+                replica.available = true;
+            } catch (SQLException | RuntimeException e) {
+                replica.lagSeconds = Double.NaN;
+                replica.available = false;
+                if (wasUsable) {
+                    log.warn("[DATASOURCE] Lag check of replica {} failed, routing its reads to the primary", replica.pool, e);
+                }
+                continue;
+            }
+
+            boolean usable = replica.isUsable(maxLagSeconds);
+            if (wasUsable && !usable) {
+                log.warn("[DATASOURCE] Replica {} is {}s behind, routing its reads to the primary", replica.pool, replica.lagSeconds);
+            } else if (!wasUsable && usable) {
+                log.info("[DATASOURCE] Replica {} is {}s behind, routing reads to it", replica.pool, replica.lagSeconds);
+            }
+        }
+    }
+
+    /**
+     * Closes the replica pools.
+     */
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("[DATASOURCE] Failed to close replica {}", replica.pool, e);
+                }
+            }
+        }
+    }
+
+    private Connection route(Connector connector) throws SQLException {
+        if (!isRoutedRequest()) {
+            primaryConnections.increment();
+            return connector.connect(primary);
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isUsable(maxLagSeconds)) {
+                continue;
+            }
+            try {
+                Connection connection = connector.connect(replica.dataSource);
+                replica.connections.increment();
+                return connection;
+            } catch (SQLFeatureNotSupportedException e) {
+                // The call is not supported by the pool, e.g. HikariCP with explicit credentials: not an outage
+                throw e;
+            } catch (SQLException e) {
+                replica.available = false;
+                log.warn("[DATASOURCE] Replica {} unavailable, skipping it until the next lag check: {}", replica.pool, e.getMessage());
+            }
+        }
+
+        fallbacks.increment();
+        primaryConnections.increment();
+        return connector.connect(primary);
+    }
+
+    private boolean isRoutedRequest() {
+        if (replicas.isEmpty() || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return routedPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final String pool;
+        private final DataSource dataSource;
+        private final Counter connections;
+        // Unusable until the first lag check
+        private volatile double lagSeconds = Double.NaN;
+        private volatile boolean available;
+
+        private Replica(String pool, DataSource dataSource, MeterRegistry registry) {
+            this.pool = pool;
+            this.dataSource = dataSource;
+            this.connections = Counter.builder(CONNECTIONS)
+                    .description("Connections handed out to read-only transactions")
+                    .tag("pool", pool)
+                    .register(registry);
+            Gauge.builder(LAG, this, replica -> replica.lagSeconds)
+                    .description("Replay lag of the replica at the last check, NaN when unreachable")
+                    .baseUnit("seconds")
+                    .tag("pool", pool)
+                    .register(registry);
+        }
+
+        private boolean isUsable(double maxLagSeconds) {
+            return available && lagSeconds <= maxLagSeconds;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package it.aredegalli.auctoritas.config.thread;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "execution")
+public class ExecutionEndpoint {
+
+    private final Environment environment;
+    private final ObjectProvider<DataSource> dataSource;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+    public ExecutionEndpoint(Environment environment, ObjectProvider<DataSource> dataSource,
+                             ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor) {
+        this.environment = environment;
+        this.dataSource = dataSource;
+        this.pinningMonitor = pinningMonitor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> execution() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("mode", Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform");
+
+        // Behind the replica routing proxy when replicas are enabled
+        DataSource current = dataSource.getIfAvailable();
+        ConnectionLimitingDataSource limited = current != null ? DataSourceUnwrapper.unwrap(current, ConnectionLimitingDataSource.class) : null;
+        if (limited != null) {
+            details.put("connectionPermits", limited.maxPermits());
+            details.put("availableConnectionPermits", limited.availablePermits());
+            details.put("threadsWaitingForConnection", limited.waitingThreads());
+        }
+
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        if (monitor != null) {
+            details.put("pinnedEvents", monitor.events());
+            details.put("pinnedTime", monitor.pinnedTime());
+            details.put("topPinningSites", monitor.topSites());
+        }
+        return details;
+    }
+}
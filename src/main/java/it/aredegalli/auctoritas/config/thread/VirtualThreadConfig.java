@@ -0,0 +1,48 @@
+package it.aredegalli.auctoritas.config.thread;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Virtual thread execution mode, switched on with {@code spring.threads.virtual.enabled}.
+ * <p>
+ * Spring Boot then runs Tomcat requests, the {@code @Async} executor and {@code @Scheduled} tasks on virtual
+ * threads. This configuration adds what the blocking JPA path needs on top of it: a semaphore in front of
+ * the connection pool and a monitor of pinned virtual threads.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "auctoritas.execution.connection-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    log.info("[EXECUTION] Database access limited to {} concurrent connections", hikari.getMaximumPoolSize());
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(),
+                            Duration.ofMillis(hikari.getConnectionTimeout()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${auctoritas.execution.pinning.threshold:PT0.02S}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(threshold);
+    }
+}
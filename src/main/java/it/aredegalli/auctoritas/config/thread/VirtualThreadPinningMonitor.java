@@ -0,0 +1,110 @@
+package it.aredegalli.auctoritas.config.thread;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records virtual threads pinned to their carrier, from the {@code jdk.VirtualThreadPinned} JFR event.
+ * <p>
+ * A virtual thread that blocks while holding a monitor or inside a native frame keeps its carrier thread, so
+ * a few of them can stall every request. Events are grouped by the first application frame of their stack,
+ * which is where a {@code synchronized} block to replace usually is.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements DisposableBean {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "it.aredegalli.";
+    private static final int TOP_SITES = 10;
+
+    private final Duration threshold;
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong pinnedNanos = new AtomicLong();
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(EVENT, this::record);
+            recording.startAsync();
+            stream = recording;
+            log.info("[EXECUTION] Virtual thread pinning monitor started, threshold {}", threshold);
+        } catch (RuntimeException e) {
+            log.warn("[EXECUTION] Virtual thread pinning monitor unavailable: {}", e.getMessage());
+        }
+    }
+
+    public long events() {
+        return events.get();
+    }
+
+    public Duration pinnedTime() {
+        return Duration.ofNanos(pinnedNanos.get());
+    }
+
+    /**
+     * Returns the sites that pinned most often, most frequent first.
+     *
+     * @return pinning frame to number of events
+     */
+    public Map<String, Long> topSites() {
+        Map<String, Long> top = new LinkedHashMap<>();
+        sites.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(TOP_SITES)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    @Override
+    public void destroy() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        events.incrementAndGet();
+        pinnedNanos.addAndGet(event.getDuration().toNanos());
+        sites.computeIfAbsent(siteOf(event.getStackTrace()), k -> new LongAdder()).increment();
+    }
+
+    private static String siteOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                return format(frame);
+            }
+        }
+        return format(stackTrace.getFrames().getFirst());
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
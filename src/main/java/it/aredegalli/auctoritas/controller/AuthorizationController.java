@@ -4,18 +4,29 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationBatchRequestDto;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationBatchResultDto;
 import it.aredegalli.auctoritas.dto.authorization.AuthorizationResultDto;
+import it.aredegalli.auctoritas.dto.authorization.PermissionCheckBatchRequestDto;
+import it.aredegalli.auctoritas.dto.authorization.PermissionCheckResultDto;
 import it.aredegalli.auctoritas.service.authorization.AuthorizationService;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.UUID;
+
 @Slf4j
 @RestController
 @RequestMapping("/authorization")
@@ -39,13 +50,63 @@ public class AuthorizationController {
             @RequestParam @NotBlank String authenticatorName,
 
             @Parameter(description = "External user ID from the authenticator")
-            @RequestParam @NotBlank String externalUserId) {
+            @RequestParam @NotBlank String externalUserId,
+
+            @Parameter(description = "Also return the effective permissions of the granted roles")
+            @RequestParam(defaultValue = "false") boolean includePermissions) {
+
+        log.info("[API] authorizeAccess: application={}, authenticator={}, externalId={}, includePermissions={}",
+                applicationName, authenticatorName, externalUserId, includePermissions);
+
+        AuthorizationResultDto result = includePermissions
+                ? authorizationService.authorizeAccessWithPermissions(applicationName, authenticatorName, externalUserId)
+                : authorizationService.authorizeAccess(applicationName, authenticatorName, externalUserId);
+        return ResponseEntity.status(HttpStatus.OK).body(result);
+    }
 
-        log.info("[API] authorizeAccess: application={}, authenticator={}, externalId={}",
-                applicationName, authenticatorName, externalUserId);
+    @Operation(summary = "Authorize Access in Batch", description = "Authorize many users at once. Each item gets its own result or error.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results"),
+            @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<AuthorizationBatchResultDto> authorizeBatch(@Valid @RequestBody AuthorizationBatchRequestDto request) {
+        log.info("[API] authorizeBatch: {} items", request.getItems().size());
 
-        AuthorizationResultDto result = authorizationService.authorizeAccess(applicationName, authenticatorName, externalUserId);
+        AuthorizationBatchResultDto result = authorizationService.authorizeBatch(request.getItems(), request.isIncludePermissions());
         return ResponseEntity.status(HttpStatus.OK).body(result);
     }
 
+    @Operation(summary = "Check Permission", description = "Check whether a user holds a permission in an application.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Check evaluated"),
+            @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    @GetMapping("/check")
+    public ResponseEntity<PermissionCheckResultDto> checkPermission(
+            @Parameter(description = "User ID")
+            @RequestParam @NotNull UUID userId,
+
+            @Parameter(description = "Application ID")
+            @RequestParam @NotNull UUID applicationId,
+
+            @Parameter(description = "Permission name")
+            @RequestParam @NotBlank String permission) {
+
+        log.debug("[API] checkPermission: user={}, application={}, permission={}", userId, applicationId, permission);
+
+        return ResponseEntity.ok(authorizationService.checkPermission(userId, applicationId, permission));
+    }
+
+    @Operation(summary = "Check Permissions in Bulk", description = "Evaluate many (user, application, permission) checks at once.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Checks evaluated, in request order"),
+            @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    @PostMapping("/check")
+    public ResponseEntity<List<PermissionCheckResultDto>> checkPermissions(@Valid @RequestBody PermissionCheckBatchRequestDto request) {
+        log.debug("[API] checkPermissions: {} checks", request.getChecks().size());
+
+        return ResponseEntity.ok(authorizationService.checkPermissions(request.getChecks()));
+    }
 }
@@ -4,13 +4,19 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import it.aredegalli.auctoritas.dto.application.ApplicationCatalogDto;
+import it.aredegalli.auctoritas.dto.application.ApplicationCatalogSyncDto;
 import it.aredegalli.auctoritas.dto.application.ApplicationDto;
 import it.aredegalli.auctoritas.dto.application.ApplicationSaveDto;
+import it.aredegalli.auctoritas.dto.page.PageDto;
 import it.aredegalli.auctoritas.service.api.application.ApplicationService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -51,6 +57,18 @@ public class ApplicationController {
         return ResponseEntity.status(HttpStatus.OK).body(applicationService.getAllApplications());
     }
 
+    @Operation(summary = "Get Applications Page", description = "Applications ordered by name, paginated with the cursor returned by the previous page.")
+    @GetMapping("/page")
+    public ResponseEntity<PageDto<ApplicationDto>> getApplicationsPage(
+            @Parameter(description = "Only applications whose name starts with it, case-sensitive")
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(PageDto.MAX_LIMIT) int limit) {
+        log.info("[API] getApplicationsPage: prefix={}, direction={}, limit={}", prefix, direction, limit);
+        return ResponseEntity.ok(applicationService.getApplicationsPage(prefix, direction, cursor, limit));
+    }
+
     @Operation(summary = "Create Application", description = "Create a new application entry in the system.")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Application created successfully"),
@@ -79,4 +97,22 @@ public class ApplicationController {
         log.info("[API] updateApplication with id {} with dto: {}", id, saveDto);
         return ResponseEntity.status(HttpStatus.OK).body(applicationService.updateApplication(id, saveDto));
     }
+
+    @Operation(summary = "Sync Application Catalog", description = "Replace the roles of an application and the permissions of those roles "
+            + "with the given catalog, applying only the difference. Roles left out are unlinked from the application; "
+            + "the permissions of a listed role are shared by every application using it.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Catalog in place, with the number of changes applied"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Application, role or permission not found")
+    })
+    @PutMapping("/{id}/catalog")
+    public ResponseEntity<ApplicationCatalogSyncDto> syncCatalog(
+            @Parameter(description = "UUID of the application")
+            @PathVariable @NotNull UUID id,
+            @Parameter(description = "The desired roles of the application and their permissions, by name")
+            @Valid @RequestBody ApplicationCatalogDto catalog) {
+        log.info("[API] syncCatalog of application {}: {} roles", id, catalog.getRoles().size());
+        return ResponseEntity.ok(applicationService.syncCatalog(id, catalog));
+    }
 }
@@ -0,0 +1,109 @@
+package it.aredegalli.auctoritas.controller.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import it.aredegalli.auctoritas.dto.audit.AuditLogPageDto;
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import it.aredegalli.auctoritas.enums.AuditExportFormatEnum;
+import it.aredegalli.auctoritas.service.api.audit.AuditLogService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Validated
+@Slf4j
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+public class AuditController {
+
+    public static final int MAX_LIMIT = 500;
+
+    private final AuditLogService auditLogService;
+
+    @Operation(summary = "Search Audit Logs", description = "Newest first, paginated with the cursor returned by the previous page.")
+    @GetMapping
+    public ResponseEntity<AuditLogPageDto> searchAuditLogs(
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) String applicationName,
+            @RequestParam(required = false) AuditEventTypeEnum eventType,
+
+            @Parameter(description = "Inclusive lower bound, ISO-8601")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Exclusive upper bound, ISO-8601")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Metadata entries as key:value, e.g. ip:10.0.0.1")
+            @RequestParam(required = false) List<String> metadata,
+
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(MAX_LIMIT) int limit) {
+
+        log.info("[API] searchAuditLogs: userId={}, application={}, eventType={}, from={}, to={}, metadata={}, limit={}",
+                userId, applicationName, eventType, from, to, metadata, limit);
+        return ResponseEntity.ok(auditLogService.searchAuditLogs(userId, applicationName, eventType, from, to,
+                parseMetadata(metadata), cursor, limit));
+    }
+
+    @Operation(summary = "Export Audit Logs", description = "Streams every matching audit log, oldest first, as NDJSON or CSV.")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) String applicationName,
+            @RequestParam(required = false) AuditEventTypeEnum eventType,
+
+            @Parameter(description = "Inclusive lower bound, ISO-8601")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Exclusive upper bound, ISO-8601")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Metadata entries as key:value, e.g. ip:10.0.0.1")
+            @RequestParam(required = false) List<String> metadata,
+
+            @RequestParam(defaultValue = "NDJSON") AuditExportFormatEnum format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        log.info("[API] exportAuditLogs: userId={}, application={}, eventType={}, from={}, to={}, metadata={}, format={}, gzip={}",
+                userId, applicationName, eventType, from, to, metadata, format, gzip);
+        StreamingResponseBody body = auditLogService.exportAuditLogs(userId, applicationName, eventType, from, to,
+                parseMetadata(metadata), format, gzip);
+
+        String filename = "audit-logs." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    private static Map<String, String> parseMetadata(List<String> metadata) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        if (metadata == null) {
+            return parsed;
+        }
+        for (String entry : metadata) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key:value, got '" + entry + "'");
+            }
+            parsed.put(entry.substring(0, separator), entry.substring(separator + 1));
+        }
+        return parsed;
+    }
+}
@@ -1,15 +1,20 @@
 package it.aredegalli.auctoritas.controller.api;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import it.aredegalli.auctoritas.dto.authenticator.ApplicationAuthenticatorDto;
 import it.aredegalli.auctoritas.dto.authenticator.AuthenticatorDto;
 import it.aredegalli.auctoritas.dto.authenticator.AuthenticatorSaveDto;
 import it.aredegalli.auctoritas.dto.authenticator.UserAuthMappingDto;
+import it.aredegalli.auctoritas.dto.page.PageDto;
 import it.aredegalli.auctoritas.service.api.authenticator.AuthenticatorService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -48,6 +53,26 @@ public class AuthenticatorController {
         return ResponseEntity.ok(authenticatorService.getAllAuthenticators());
     }
 
+    @Operation(summary = "Get authenticators page", description = "Authenticators ordered by name, paginated with the cursor returned by the previous page.")
+    @GetMapping("/page")
+    public ResponseEntity<PageDto<AuthenticatorDto>> getAuthenticatorsPage(
+            @Parameter(description = "Only authenticators whose name starts with it, case-sensitive")
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String authType,
+            @RequestParam(required = false) Boolean active,
+
+            @Parameter(description = "Whether to decrypt and return the config of each authenticator")
+            @RequestParam(defaultValue = "false") boolean includeConfig,
+
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(PageDto.MAX_LIMIT) int limit) {
+        log.info("[API] getAuthenticatorsPage: prefix={}, authType={}, active={}, includeConfig={}, direction={}, limit={}",
+                prefix, authType, active, includeConfig, direction, limit);
+        return ResponseEntity.ok(authenticatorService.getAuthenticatorsPage(prefix, authType, active, includeConfig,
+                direction, cursor, limit));
+    }
+
     @Operation(summary = "Create a new authenticator")
     @PostMapping
     public ResponseEntity<UUID> createAuthenticator(@Valid @RequestBody AuthenticatorSaveDto dto) {
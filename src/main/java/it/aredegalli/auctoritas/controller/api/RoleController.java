@@ -1,15 +1,21 @@
 package it.aredegalli.auctoritas.controller.api;
 
 import io.swagger.v3.oas.annotations.Operation;
+import it.aredegalli.auctoritas.dto.page.PageDto;
 import it.aredegalli.auctoritas.dto.role.PermissionDto;
 import it.aredegalli.auctoritas.dto.role.PermissionSaveDto;
 import it.aredegalli.auctoritas.dto.role.RoleDto;
 import it.aredegalli.auctoritas.dto.role.RoleSaveDto;
+import it.aredegalli.auctoritas.dto.role.UserRoleBulkRequestDto;
+import it.aredegalli.auctoritas.dto.role.UserRoleBulkResultDto;
 import it.aredegalli.auctoritas.service.api.role.RoleService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -41,6 +47,17 @@ public class RoleController {
         return ResponseEntity.ok(roleService.getAllRoles());
     }
 
+    @Operation(summary = "Get Roles Page", description = "Roles ordered by name, paginated with the cursor returned by the previous page.")
+    @GetMapping("/page")
+    public ResponseEntity<PageDto<RoleDto>> getRolesPage(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(PageDto.MAX_LIMIT) int limit) {
+        log.info("[API] getRolesPage: prefix={}, direction={}, limit={}", prefix, direction, limit);
+        return ResponseEntity.ok(roleService.getRolesPage(prefix, direction, cursor, limit));
+    }
+
     @Operation(summary = "Create a new Role")
     @PostMapping
     public ResponseEntity<UUID> createRole(@Valid @RequestBody RoleSaveDto dto) {
@@ -118,6 +135,14 @@ public class RoleController {
         return ResponseEntity.ok(roleService.removeRoleFromUser(userId, roleId, applicationId));
     }
 
+    @Operation(summary = "Bulk Assign or Remove User Roles", description = "Applies up to " + UserRoleBulkRequestDto.MAX_ITEMS
+            + " additions and removals in one transaction and reports the outcome of every item.")
+    @PostMapping("/user/bulk")
+    public ResponseEntity<UserRoleBulkResultDto> bulkUpdateUserRoles(@Valid @RequestBody UserRoleBulkRequestDto request) {
+        log.info("[API] bulkUpdateUserRoles: {} items", request.getItems().size());
+        return ResponseEntity.ok(roleService.bulkUpdateUserRoles(request.getItems()));
+    }
+
     @Operation(summary = "Get Permission by ID")
     @GetMapping("/permission/{id}")
     public ResponseEntity<PermissionDto> getPermissionById(@PathVariable UUID id) {
@@ -132,6 +157,17 @@ public class RoleController {
         return ResponseEntity.ok(roleService.getAllPermissions());
     }
 
+    @Operation(summary = "Get Permissions Page", description = "Permissions ordered by name, paginated with the cursor returned by the previous page.")
+    @GetMapping("/permission/page")
+    public ResponseEntity<PageDto<PermissionDto>> getPermissionsPage(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(PageDto.MAX_LIMIT) int limit) {
+        log.info("[API] getPermissionsPage: prefix={}, direction={}, limit={}", prefix, direction, limit);
+        return ResponseEntity.ok(roleService.getPermissionsPage(prefix, direction, cursor, limit));
+    }
+
     @Operation(summary = "Create a new Permission")
     @PostMapping("/permission")
     public ResponseEntity<UUID> createPermission(@Valid @RequestBody PermissionSaveDto dto) {
@@ -0,0 +1,60 @@
+package it.aredegalli.auctoritas.controller.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import it.aredegalli.auctoritas.dto.snapshot.SnapshotImportDto;
+import it.aredegalli.auctoritas.service.api.snapshot.SnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Validated
+@Slf4j
+@RestController
+@RequestMapping("/api/snapshot")
+@RequiredArgsConstructor
+public class SnapshotController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String GZIP = "application/gzip";
+
+    private final SnapshotService snapshotService;
+
+    @Operation(summary = "Export Snapshot", description = "Stream every application, role, permission, authenticator, user and "
+            + "their links as a versioned NDJSON snapshot, read in one consistent transaction.")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSnapshot(@RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("[API] exportSnapshot: gzip={}", gzip);
+        String filename = "auctoritas-snapshot.ndjson" + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? GZIP : NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(snapshotService.exportSnapshot(gzip));
+    }
+
+    @Operation(summary = "Import Snapshot", description = "Load an exported snapshot into an empty database, in one transaction.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Snapshot loaded, with the rows loaded per table"),
+            @ApiResponse(responseCode = "400", description = "Malformed, truncated or unsupported snapshot"),
+            @ApiResponse(responseCode = "409", description = "The database already holds data")
+    })
+    @PostMapping(value = "/import", consumes = {NDJSON, GZIP, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<SnapshotImportDto> importSnapshot(
+            @Parameter(description = "Whether the body is gzipped")
+            @RequestParam(defaultValue = "false") boolean gzip,
+            InputStream body) throws IOException {
+        log.info("[API] importSnapshot: gzip={}", gzip);
+        return ResponseEntity.ok(snapshotService.importSnapshot(gzip, body));
+    }
+}
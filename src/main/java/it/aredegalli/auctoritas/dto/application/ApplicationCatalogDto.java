@@ -0,0 +1,27 @@
+package it.aredegalli.auctoritas.dto.application;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The desired roles of an application, with the permissions of each role.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApplicationCatalogDto {
+
+    public static final int MAX_ROLES = 1_000;
+
+    @NotNull
+    @Size(max = MAX_ROLES)
+    private List<@Valid ApplicationCatalogRoleDto> roles;
+}
@@ -0,0 +1,21 @@
+package it.aredegalli.auctoritas.dto.application;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApplicationCatalogRoleDto {
+    @NotBlank
+    private String name;
+    @NotNull
+    private Set<@NotBlank String> permissions;
+}
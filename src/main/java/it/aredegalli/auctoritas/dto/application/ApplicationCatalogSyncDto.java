@@ -0,0 +1,20 @@
+package it.aredegalli.auctoritas.dto.application;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The changes applied to reach the desired catalog. All zero when it was already in place.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApplicationCatalogSyncDto {
+    private int rolesAdded;
+    private int rolesRemoved;
+    private int permissionsGranted;
+    private int permissionsRevoked;
+}
@@ -0,0 +1,24 @@
+package it.aredegalli.auctoritas.dto.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditLogDto {
+    private UUID id;
+    private Instant timestamp;
+    private String eventType;
+    private UUID userId;
+    private String applicationName;
+    private String description;
+    private Map<String, Object> metadata;
+}
@@ -0,0 +1,20 @@
+package it.aredegalli.auctoritas.dto.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditLogPageDto {
+    private List<AuditLogDto> items;
+    /**
+     * Cursor of the next page, null on the last page.
+     */
+    private String nextCursor;
+}
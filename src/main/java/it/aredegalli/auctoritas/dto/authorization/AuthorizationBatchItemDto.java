@@ -0,0 +1,20 @@
+package it.aredegalli.auctoritas.dto.authorization;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuthorizationBatchItemDto {
+    @NotBlank
+    private String applicationName;
+    @NotBlank
+    private String authenticatorName;
+    @NotBlank
+    private String externalUserId;
+}
@@ -0,0 +1,30 @@
+package it.aredegalli.auctoritas.dto.authorization;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outcome of one batch item: either {@code userId}, {@code roles} and, when requested,
+ * {@code permissions}, or {@code error}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AuthorizationBatchItemResultDto {
+    private int index;
+    private String applicationName;
+    private String authenticatorName;
+    private String externalUserId;
+    private UUID userId;
+    private Map<UUID, String> roles;
+    private Map<UUID, String> permissions;
+    private String error;
+}
@@ -0,0 +1,25 @@
+package it.aredegalli.auctoritas.dto.authorization;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuthorizationBatchRequestDto {
+    public static final int MAX_ITEMS = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_ITEMS)
+    private List<@Valid AuthorizationBatchItemDto> items;
+
+    private boolean includePermissions;
+}
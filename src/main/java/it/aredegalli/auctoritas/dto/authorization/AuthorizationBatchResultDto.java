@@ -0,0 +1,18 @@
+package it.aredegalli.auctoritas.dto.authorization;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuthorizationBatchResultDto {
+    private int granted;
+    private int failed;
+    private List<AuthorizationBatchItemResultDto> results;
+}
@@ -0,0 +1,25 @@
+package it.aredegalli.auctoritas.dto.authorization;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link AuthorizationResultDto} extended with the effective permissions of the granted roles.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class AuthorizationPermissionsResultDto extends AuthorizationResultDto {
+    private Map<UUID, String> permissions;
+
+    public AuthorizationPermissionsResultDto(AuthorizationResultDto result, Map<UUID, String> permissions) {
+        super(result.getUserId(), result.getRoles());
+        this.permissions = permissions;
+    }
+}
@@ -0,0 +1,23 @@
+package it.aredegalli.auctoritas.dto.authorization;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PermissionCheckBatchRequestDto {
+    public static final int MAX_CHECKS = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_CHECKS)
+    private List<@Valid PermissionCheckDto> checks;
+}
@@ -0,0 +1,23 @@
+package it.aredegalli.auctoritas.dto.authorization;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PermissionCheckDto {
+    @NotNull
+    private UUID userId;
+    @NotNull
+    private UUID applicationId;
+    @NotBlank
+    private String permission;
+}
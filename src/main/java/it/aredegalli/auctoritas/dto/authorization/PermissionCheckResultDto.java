@@ -0,0 +1,19 @@
+package it.aredegalli.auctoritas.dto.authorization;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PermissionCheckResultDto {
+    private UUID userId;
+    private UUID applicationId;
+    private String permission;
+    private boolean granted;
+}
@@ -0,0 +1,26 @@
+package it.aredegalli.auctoritas.dto.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageDto<T> {
+
+    /**
+     * Largest page size served by the paginated list endpoints.
+     */
+    public static final int MAX_LIMIT = 500;
+
+    private List<T> items;
+    /**
+     * Cursor of the next page, null on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,25 @@
+package it.aredegalli.auctoritas.dto.role;
+
+import it.aredegalli.auctoritas.enums.UserRoleBulkActionEnum;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserRoleBulkItemDto {
+    @NotNull
+    private UserRoleBulkActionEnum action;
+    @NotNull
+    private UUID userId;
+    @NotNull
+    private UUID roleId;
+    @NotNull
+    private UUID applicationId;
+}
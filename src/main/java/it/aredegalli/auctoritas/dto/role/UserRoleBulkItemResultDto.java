@@ -0,0 +1,23 @@
+package it.aredegalli.auctoritas.dto.role;
+
+import it.aredegalli.auctoritas.enums.UserRoleBulkActionEnum;
+import it.aredegalli.auctoritas.enums.UserRoleBulkOutcomeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserRoleBulkItemResultDto {
+    private int index;
+    private UserRoleBulkActionEnum action;
+    private UUID userId;
+    private UUID roleId;
+    private UUID applicationId;
+    private UserRoleBulkOutcomeEnum outcome;
+}
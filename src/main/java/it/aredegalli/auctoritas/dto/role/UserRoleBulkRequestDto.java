@@ -0,0 +1,24 @@
+package it.aredegalli.auctoritas.dto.role;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserRoleBulkRequestDto {
+
+    public static final int MAX_ITEMS = 50_000;
+
+    @NotEmpty
+    @Size(max = MAX_ITEMS)
+    private List<@Valid UserRoleBulkItemDto> items;
+}
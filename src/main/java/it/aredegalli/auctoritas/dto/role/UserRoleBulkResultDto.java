@@ -0,0 +1,26 @@
+package it.aredegalli.auctoritas.dto.role;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserRoleBulkResultDto {
+    private int added;
+    private int removed;
+    /**
+     * Items with nothing to do: role already assigned, or not assigned on removal.
+     */
+    private int unchanged;
+    /**
+     * Items referencing a user, role or application that does not exist.
+     */
+    private int failed;
+    private List<UserRoleBulkItemResultDto> results;
+}
@@ -0,0 +1,30 @@
+package it.aredegalli.auctoritas.dto.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Report of a snapshot import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SnapshotImportDto {
+    private int version;
+    /**
+     * When the imported snapshot was exported.
+     */
+    private Instant createdAt;
+    /**
+     * Rows loaded per table, in load order.
+     */
+    private Map<String, Long> rows;
+    private long chunks;
+    private long elapsedMillis;
+}
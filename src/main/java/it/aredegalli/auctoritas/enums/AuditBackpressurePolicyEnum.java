@@ -0,0 +1,20 @@
+package it.aredegalli.auctoritas.enums;
+
+public enum AuditBackpressurePolicyEnum {
+
+    /**
+     * The producing thread waits until the drainer frees a slot.
+     */
+    BLOCK,
+
+    /**
+     * The event is discarded and counted.
+     */
+    DROP,
+
+    /**
+     * The event is appended to a local spill file and replayed once the buffer has drained.
+     */
+    SPILL,
+
+}
@@ -34,10 +34,12 @@ public enum AuditEventTypeEnum {
     USER_ROLE_GET,
     USER_ROLE_CREATE,
     USER_ROLE_DELETE,
+    USER_ROLE_BULK,
 
     APPLICATION_ROLE_GET,
     APPLICATION_ROLE_CREATE,
     APPLICATION_ROLE_DELETE,
+    APPLICATION_CATALOG_SYNC,
 
     AUTHENTICATOR_ACTIVE,
     AUTHENTICATOR_GET,
@@ -55,4 +57,10 @@ public enum AuditEventTypeEnum {
     APPLICATION_AUTHENTICATOR_CREATE,
     APPLICATION_AUTHENTICATOR_DELETE,
 
+    AUDIT_LOG_SEARCH,
+    AUDIT_LOG_EXPORT,
+
+    SNAPSHOT_EXPORT,
+    SNAPSHOT_IMPORT,
+
 }
@@ -0,0 +1,24 @@
+package it.aredegalli.auctoritas.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum AuditExportFormatEnum {
+
+    /**
+     * One JSON object per line, with the metadata as a nested object.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * RFC 4180 CSV with a header row, with the metadata as a JSON string column.
+     */
+    CSV("text/csv", "csv"),
+
+    ;
+
+    private final String contentType;
+    private final String extension;
+}
@@ -0,0 +1,15 @@
+package it.aredegalli.auctoritas.enums;
+
+public enum AuditPartitionIntervalEnum {
+
+    /**
+     * One audit_logs partition per retention class and day, for short retentions or high volumes.
+     */
+    DAILY,
+
+    /**
+     * One audit_logs partition per retention class and month.
+     */
+    MONTHLY,
+
+}
@@ -0,0 +1,40 @@
+package it.aredegalli.auctoritas.enums;
+
+public enum AuthorizationStageEnum {
+
+    /**
+     * HMAC of the external user id.
+     */
+    HMAC,
+
+    /**
+     * Lookup of the decision cache.
+     */
+    DECISION_CACHE,
+
+    /**
+     * Lookup of the authenticator in the reference data.
+     */
+    AUTHENTICATOR,
+
+    /**
+     * Lookup of the application and of its link to the authenticator in the reference data.
+     */
+    APPLICATION,
+
+    /**
+     * Resolution of the user mapping, creating the user on first login.
+     */
+    USER,
+
+    /**
+     * Resolution of the user roles, assigning the default role if needed.
+     */
+    ROLES,
+
+    /**
+     * Hand-over of an audit event to the audit writer.
+     */
+    AUDIT,
+
+}
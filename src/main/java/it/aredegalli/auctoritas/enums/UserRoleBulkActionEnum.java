@@ -0,0 +1,15 @@
+package it.aredegalli.auctoritas.enums;
+
+public enum UserRoleBulkActionEnum {
+
+    /**
+     * Assign the role to the user in the application.
+     */
+    ADD,
+
+    /**
+     * Remove the role from the user in the application.
+     */
+    REMOVE,
+
+}
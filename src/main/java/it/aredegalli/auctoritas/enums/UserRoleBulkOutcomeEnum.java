@@ -0,0 +1,40 @@
+package it.aredegalli.auctoritas.enums;
+
+public enum UserRoleBulkOutcomeEnum {
+
+    /**
+     * The role was assigned.
+     */
+    ADDED,
+
+    /**
+     * The role was removed.
+     */
+    REMOVED,
+
+    /**
+     * Nothing to add: the user already had the role in the application.
+     */
+    ALREADY_ASSIGNED,
+
+    /**
+     * Nothing to remove: the user did not have the role in the application.
+     */
+    NOT_ASSIGNED,
+
+    /**
+     * The user does not exist.
+     */
+    USER_NOT_FOUND,
+
+    /**
+     * The role does not exist.
+     */
+    ROLE_NOT_FOUND,
+
+    /**
+     * The application does not exist.
+     */
+    APPLICATION_NOT_FOUND,
+
+}
@@ -20,7 +20,7 @@ public class AuditEventType {
     @UuidGenerator
     private UUID id;
 
-    @Column(name = "description", nullable = false, length = 50)
+    @Column(name = "description", nullable = false, unique = true, length = 50)
     private String description;
 
 }
@@ -36,15 +36,18 @@ public class AuditLog {
     @JoinColumn(name = "event_type")
     private AuditEventType eventType;
 
-    @Column(name = "application_name", length = 100)
-    private String applicationName;
+    // Ids of audit_dictionary entries, see AuditDictionary
+    @Column(name = "application_name_id")
+    private Integer applicationNameId;
 
-    @Column(columnDefinition = "TEXT")
-    private String description;
+    @Column(name = "description_id")
+    private Integer descriptionId;
 
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> metadata;
 
+    @Column(name = "retention_class", length = 20)
+    private String retentionClass;
 
 }
@@ -0,0 +1,117 @@
+package it.aredegalli.auctoritas.repository;
+
+import it.aredegalli.auctoritas.dto.page.PageDto;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination of a table whose {@code name} column is unique.
+ * <p>
+ * Rows are ordered by name and a page starts after the last name of the previous one, so every page is a range
+ * scan of the unique index on name, however deep it is. Only the columns the caller asks for are selected.
+ */
+public final class NamePage {
+
+    private NamePage() {
+    }
+
+    /**
+     * @param prefix    only names starting with it, case-sensitive; null for all names
+     * @param direction the name order
+     * @param after     the last name of the previous page, null for the first page
+     * @param limit     the maximum number of rows
+     */
+    public record Request(String prefix, Sort.Direction direction, String after, int limit) {
+    }
+
+    /**
+     * Builds the request of a page of at most {@code limit} items. One more row is fetched to tell whether a
+     * next page exists.
+     *
+     * @param prefix    only names starting with it, null for all names
+     * @param direction the name order, null for ascending
+     * @param cursor    the cursor returned with the previous page, null for the first page
+     * @param limit     the page size
+     * @return the request to pass to the repository
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Request request(String prefix, Sort.Direction direction, String cursor, int limit) {
+        return new Request(prefix, direction != null ? direction : Sort.Direction.ASC, decodeCursor(cursor), limit + 1);
+    }
+
+    /**
+     * Builds the page returned to the client from the rows fetched for {@link #request}.
+     *
+     * @param rows  the fetched rows, at most {@code limit + 1}
+     * @param limit the page size
+     * @param name  the name of a row
+     * @return the first {@code limit} rows, with the cursor of the next page if there is one
+     */
+    public static <T> PageDto<T> page(List<T> rows, int limit, Function<T, String> name) {
+        if (rows.size() <= limit) {
+            return new PageDto<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new PageDto<>(List.copyOf(items), encodeCursor(name.apply(items.get(limit - 1))));
+    }
+
+    static String encodeCursor(String name) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Builds the query of a page.
+     *
+     * @param columns the selected columns
+     * @param table   the table
+     * @param request the page
+     * @param filters column to required value, null values are ignored
+     * @param params  receives the query parameters
+     * @return the SQL
+     */
+    public static String query(String columns, String table, Request request, Map<String, Object> filters,
+                               MapSqlParameterSource params) {
+        boolean descending = request.direction() == Sort.Direction.DESC;
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(" FROM ").append(table).append(" WHERE TRUE");
+
+        if (request.prefix() != null && !request.prefix().isEmpty()) {
+            sql.append(" AND name LIKE :prefix ESCAPE '\\'");
+            params.addValue("prefix", escapeLike(request.prefix()) + "%");
+        }
+        if (request.after() != null) {
+            sql.append(descending ? " AND name < :after" : " AND name > :after");
+            params.addValue("after", request.after());
+        }
+        filters.forEach((column, value) -> {
+            if (value != null) {
+                sql.append(" AND ").append(column).append(" = :").append(column);
+                params.addValue(column, value);
+            }
+        });
+
+        sql.append(descending ? " ORDER BY name DESC" : " ORDER BY name").append(" LIMIT :limit");
+        params.addValue("limit", request.limit());
+        return sql.toString();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
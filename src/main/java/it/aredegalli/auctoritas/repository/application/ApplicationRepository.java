@@ -2,11 +2,16 @@ package it.aredegalli.auctoritas.repository.application;
 
 import it.aredegalli.auctoritas.model.application.Application;
 import it.aredegalli.auctoritas.repository.UUIDRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface ApplicationRepository extends UUIDRepository<Application> {
+public interface ApplicationRepository extends UUIDRepository<Application>, ApplicationRepositoryCustom {
     Optional<Application> findByName(String name);
 
     boolean existsByName(String name);
+
+    @Query("select a from Application a left join fetch a.defaultRole")
+    List<Application> findAllWithDefaultRole();
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package it.aredegalli.auctoritas.repository.application;
+
+import it.aredegalli.auctoritas.dto.application.ApplicationDto;
+import it.aredegalli.auctoritas.repository.NamePage;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Projection and locking queries on {@code applications}, implemented with plain JDBC.
+ */
+public interface ApplicationRepositoryCustom {
+
+    /**
+     * Loads a page of applications ordered by name, selecting only the columns of {@link ApplicationDto}.
+     *
+     * @param request the page
+     * @return the applications of the page
+     */
+    List<ApplicationDto> findPage(NamePage.Request request);
+
+    /**
+     * Locks an application row until the end of the current transaction, so that concurrent writers of its
+     * catalog run one after the other.
+     *
+     * @param id the application id
+     * @return whether the application exists
+     */
+    boolean lockById(UUID id);
+}
@@ -0,0 +1,32 @@
+package it.aredegalli.auctoritas.repository.application;
+
+import it.aredegalli.auctoritas.dto.application.ApplicationDto;
+import it.aredegalli.auctoritas.repository.NamePage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class ApplicationRepositoryCustomImpl implements ApplicationRepositoryCustom {
+
+    private static final String LOCK_SQL = "SELECT id FROM applications WHERE id = :id FOR UPDATE";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public List<ApplicationDto> findPage(NamePage.Request request) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = NamePage.query("id, name, description", "applications", request, Map.of(), params);
+        return namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new ApplicationDto(rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("description")));
+    }
+
+    @Override
+    public boolean lockById(UUID id) {
+        return !namedParameterJdbcTemplate.queryForList(LOCK_SQL, Map.of("id", id), UUID.class).isEmpty();
+    }
+}
@@ -6,7 +6,7 @@ import it.aredegalli.auctoritas.repository.UUIDRepository;
 import java.util.List;
 import java.util.UUID;
 
-public interface UserRoleApplicationRepository extends UUIDRepository<UserRoleApplication> {
+public interface UserRoleApplicationRepository extends UUIDRepository<UserRoleApplication>, UserRoleApplicationRepositoryCustom {
     List<UserRoleApplication> findAllByUserIdAndApplicationId(UUID userId, UUID applicationId);
 
     boolean existsByUserIdAndRoleIdAndApplicationId(UUID userId, UUID roleId, UUID applicationId);
@@ -0,0 +1,67 @@
+package it.aredegalli.auctoritas.repository.application;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based operations on {@code users_roles_application}, implemented with plain JDBC.
+ */
+public interface UserRoleApplicationRepositoryCustom {
+
+    /**
+     * Loads the roles of many (user, application) pairs in a single query.
+     *
+     * @param keys the pairs to load
+     * @return role id to role name for every pair that has at least one role; pairs without roles are absent
+     */
+    Map<UserApplication, Map<UUID, String>> findRoleNamesByUserApplications(Collection<UserApplication> keys);
+
+    /**
+     * Assigns one role per (user, application) pair with a single multi-row insert. Existing assignments
+     * are left untouched.
+     *
+     * @param roleIds the role to assign to each pair
+     */
+    void assignRoles(Map<UserApplication, UUID> roleIds);
+
+    /**
+     * Checks which of the given users, roles and applications exist, with a single query.
+     *
+     * @param userIds        the user ids to check
+     * @param roleIds        the role ids to check
+     * @param applicationIds the application ids to check
+     * @return the ids that exist
+     */
+    ExistingIds findExistingIds(Collection<UUID> userIds, Collection<UUID> roleIds, Collection<UUID> applicationIds);
+
+    /**
+     * Inserts many assignments with a single multi-row insert. Existing assignments are left untouched.
+     *
+     * @param assignments the assignments to insert
+     * @return the assignments actually inserted
+     */
+    Set<Assignment> insertAssignments(Collection<Assignment> assignments);
+
+    /**
+     * Deletes many assignments with a single statement.
+     *
+     * @param assignments the assignments to delete
+     * @return the assignments actually deleted
+     */
+    Set<Assignment> deleteAssignments(Collection<Assignment> assignments);
+
+    record UserApplication(UUID userId, UUID applicationId) {
+    }
+
+    record Assignment(UUID userId, UUID roleId, UUID applicationId) {
+
+        public UserApplication userApplication() {
+            return new UserApplication(userId, applicationId);
+        }
+    }
+
+    record ExistingIds(Set<UUID> userIds, Set<UUID> roleIds, Set<UUID> applicationIds) {
+    }
+}
@@ -0,0 +1,148 @@
+package it.aredegalli.auctoritas.repository.application;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class UserRoleApplicationRepositoryCustomImpl implements UserRoleApplicationRepositoryCustom {
+
+    private static final String FIND_SQL = """
+            SELECT ura.user_id, ura.application_id, r.id AS role_id, r.name AS role_name
+            FROM users_roles_application ura
+            JOIN unnest(?, ?) AS k(user_id, application_id)
+              ON ura.user_id = k.user_id AND ura.application_id = k.application_id
+            JOIN roles r ON r.id = ura.role_id
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO users_roles_application (id, user_id, application_id, role_id)
+            SELECT gen_random_uuid(), k.user_id, k.application_id, k.role_id
+            FROM unnest(?, ?, ?) AS k(user_id, application_id, role_id)
+            ON CONFLICT (user_id, application_id, role_id) DO NOTHING
+            RETURNING user_id, application_id, role_id
+            """;
+
+    private static final String EXISTING_IDS_SQL = """
+            SELECT 'user' AS kind, id FROM users WHERE id = ANY(?)
+            UNION ALL
+            SELECT 'role', id FROM roles WHERE id = ANY(?)
+            UNION ALL
+            SELECT 'application', id FROM applications WHERE id = ANY(?)
+            """;
+
+    private static final String DELETE_ASSIGNMENTS_SQL = """
+            DELETE FROM users_roles_application ura
+            USING unnest(?, ?, ?) AS k(user_id, application_id, role_id)
+            WHERE ura.user_id = k.user_id AND ura.application_id = k.application_id AND ura.role_id = k.role_id
+            RETURNING ura.user_id, ura.application_id, ura.role_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<UserApplication, Map<UUID, String>> findRoleNamesByUserApplications(Collection<UserApplication> keys) {
+        Map<UserApplication, Map<UUID, String>> roles = new HashMap<>();
+        if (keys.isEmpty()) {
+            return roles;
+        }
+
+        UUID[] userIds = new UUID[keys.size()];
+        UUID[] applicationIds = new UUID[keys.size()];
+        int i = 0;
+        for (UserApplication key : keys) {
+            userIds[i] = key.userId();
+            applicationIds[i++] = key.applicationId();
+        }
+
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(FIND_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", userIds));
+            ps.setArray(2, con.createArrayOf("uuid", applicationIds));
+            return ps;
+        }, rs -> {
+            UserApplication key = new UserApplication(rs.getObject("user_id", UUID.class), rs.getObject("application_id", UUID.class));
+            roles.computeIfAbsent(key, k -> new HashMap<>()).put(rs.getObject("role_id", UUID.class), rs.getString("role_name"));
+        });
+        return roles;
+    }
+
+    @Override
+    public void assignRoles(Map<UserApplication, UUID> roleIds) {
+        List<Assignment> assignments = new ArrayList<>(roleIds.size());
+        roleIds.forEach((key, roleId) -> assignments.add(new Assignment(key.userId(), roleId, key.applicationId())));
+        insertAssignments(assignments);
+    }
+
+    @Override
+    public ExistingIds findExistingIds(Collection<UUID> userIds, Collection<UUID> roleIds, Collection<UUID> applicationIds) {
+        ExistingIds existing = new ExistingIds(new HashSet<>(), new HashSet<>(), new HashSet<>());
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(EXISTING_IDS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", userIds.toArray()));
+            ps.setArray(2, con.createArrayOf("uuid", roleIds.toArray()));
+            ps.setArray(3, con.createArrayOf("uuid", applicationIds.toArray()));
+            return ps;
+        }, rs -> {
+            UUID id = rs.getObject("id", UUID.class);
+            switch (rs.getString("kind")) {
+                case "user" -> existing.userIds().add(id);
+                case "role" -> existing.roleIds().add(id);
+                default -> existing.applicationIds().add(id);
+            }
+        });
+        return existing;
+    }
+
+    @Override
+    public Set<Assignment> insertAssignments(Collection<Assignment> assignments) {
+        return changeAssignments(INSERT_SQL, assignments);
+    }
+
+    @Override
+    public Set<Assignment> deleteAssignments(Collection<Assignment> assignments) {
+        return changeAssignments(DELETE_ASSIGNMENTS_SQL, assignments);
+    }
+
+    private Set<Assignment> changeAssignments(String sql, Collection<Assignment> assignments) {
+        Set<Assignment> changed = new HashSet<>();
+        if (assignments.isEmpty()) {
+            return changed;
+        }
+
+        jdbcTemplate.query(con -> prepareAssignments(con, sql, assignments), rs -> {
+            changed.add(new Assignment(rs.getObject("user_id", UUID.class), rs.getObject("role_id", UUID.class),
+                    rs.getObject("application_id", UUID.class)));
+        });
+        return changed;
+    }
+
+    private static PreparedStatement prepareAssignments(Connection con, String sql, Collection<Assignment> assignments) throws SQLException {
+        UUID[] userIds = new UUID[assignments.size()];
+        UUID[] applicationIds = new UUID[assignments.size()];
+        UUID[] roleIds = new UUID[assignments.size()];
+        int i = 0;
+        for (Assignment assignment : assignments) {
+            userIds[i] = assignment.userId();
+            applicationIds[i] = assignment.applicationId();
+            roleIds[i++] = assignment.roleId();
+        }
+
+        PreparedStatement ps = con.prepareStatement(sql);
+        ps.setArray(1, con.createArrayOf("uuid", userIds));
+        ps.setArray(2, con.createArrayOf("uuid", applicationIds));
+        ps.setArray(3, con.createArrayOf("uuid", roleIds));
+        return ps;
+    }
+}
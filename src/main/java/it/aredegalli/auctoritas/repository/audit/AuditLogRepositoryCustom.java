@@ -0,0 +1,65 @@
+package it.aredegalli.auctoritas.repository.audit;
+
+import it.aredegalli.auctoritas.dto.audit.AuditLogDto;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Audit log queries, implemented with plain JDBC and read straight into DTOs.
+ */
+public interface AuditLogRepositoryCustom {
+
+    /**
+     * Finds the audit logs matching a filter, newest first, starting after a keyset position.
+     * <p>
+     * Each filter is backed by an index on {@code (column, timestamp, id)}, the metadata filter by the GIN
+     * index on {@code metadata}, so a page costs the same wherever it is in the result.
+     *
+     * @param filter the filter, null fields are ignored
+     * @param after  the position of the last row of the previous page, or null for the first page
+     * @param limit  the maximum number of rows
+     * @return the matching audit logs, ordered by timestamp and id descending
+     */
+    List<AuditLogDto> search(AuditLogFilter filter, Position after, int limit);
+
+    /**
+     * Streams every audit log matching a filter, oldest first, over a forward-only cursor.
+     * <p>
+     * Must run inside a transaction: the PostgreSQL driver only fetches {@code fetchSize} rows at a time when
+     * auto-commit is off, otherwise it reads the whole result into memory.
+     *
+     * @param filter    the filter, null fields are ignored
+     * @param fetchSize the number of rows fetched per round trip
+     * @param handler   receives each row
+     * @return the number of rows streamed
+     */
+    long export(AuditLogFilter filter, int fetchSize, ExportRowHandler handler);
+
+    /**
+     * Audit log filter, with strings already replaced by their audit dictionary ids.
+     *
+     * @param metadata metadata entries the logs must contain, keyed by dictionary id
+     */
+    record AuditLogFilter(UUID userId, Integer applicationNameId, UUID eventTypeId, Instant from, Instant to,
+                          Map<String, String> metadata) {
+    }
+
+    record Position(Instant timestamp, UUID id) {
+    }
+
+    /**
+     * An exported row, with the metadata left as the JSON text read from the database.
+     */
+    record ExportRow(UUID id, Instant timestamp, String eventType, UUID userId, String applicationName,
+                     String description, String metadata) {
+    }
+
+    @FunctionalInterface
+    interface ExportRowHandler {
+        void handle(ExportRow row) throws IOException;
+    }
+}
@@ -0,0 +1,148 @@
+package it.aredegalli.auctoritas.repository.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.aredegalli.auctoritas.dto.audit.AuditLogDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class AuditLogRepositoryCustomImpl implements AuditLogRepositoryCustom {
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    // Decodes the dictionary-encoded columns and metadata keys, see AuditMetadataCodec
+    private static final String SELECT_SQL = """
+            SELECT a.id, a.timestamp, t.description AS event_type, a.user_id,
+                   app.value AS application_name, d.value AS description,
+                   CASE WHEN a.metadata IS NULL THEN NULL
+                        ELSE COALESCE((SELECT jsonb_object_agg(COALESCE(k.value, substr(m.key, 2)), m.value)
+                                       FROM jsonb_each(a.metadata) AS m
+                                       LEFT JOIN audit_dictionary k
+                                              ON k.id = CASE WHEN m.key LIKE '~%' THEN NULL ELSE m.key::integer END
+                                       WHERE k.id IS NOT NULL OR m.key LIKE '~%'), '{}'::jsonb)
+                   END AS metadata
+            FROM audit_logs a
+            LEFT JOIN audit_event_type t ON t.id = a.event_type
+            LEFT JOIN audit_dictionary app ON app.id = a.application_name_id
+            LEFT JOIN audit_dictionary d ON d.id = a.description_id
+            WHERE TRUE
+            """;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public List<AuditLogDto> search(AuditLogFilter filter, Position after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        StringBuilder sql = where(filter, params);
+        if (after != null) {
+            sql.append(" AND (a.timestamp, a.id) < (:afterTimestamp, :afterId)");
+            params.addValue("afterTimestamp", Timestamp.from(after.timestamp()));
+            params.addValue("afterId", after.id());
+        }
+        sql.append(" ORDER BY a.timestamp DESC, a.id DESC LIMIT :limit");
+
+        return namedParameterJdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> toDto(rs));
+    }
+
+    @Override
+    public long export(AuditLogFilter filter, int fetchSize, ExportRowHandler handler) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = where(filter, params).append(" ORDER BY a.timestamp, a.id").toString();
+
+        long[] rows = new long[1];
+        namedParameterJdbcTemplate.getJdbcOperations().query(con -> {
+            PreparedStatement ps = con.prepareStatement(NamedParameterUtils.substituteNamedParameters(sql, params),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(NamedParameterUtils.buildValueArray(sql, params.getValues()))
+                    .setValues(ps);
+            return ps;
+        }, rs -> {
+            try {
+                handler.handle(new ExportRow(rs.getObject("id", UUID.class), rs.getTimestamp("timestamp").toInstant(),
+                        rs.getString("event_type"), rs.getObject("user_id", UUID.class), rs.getString("application_name"),
+                        rs.getString("description"), rs.getString("metadata")));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private StringBuilder where(AuditLogFilter filter, MapSqlParameterSource params) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        if (filter.userId() != null) {
+            sql.append(" AND a.user_id = :userId");
+            params.addValue("userId", filter.userId());
+        }
+        if (filter.applicationNameId() != null) {
+            sql.append(" AND a.application_name_id = :applicationNameId");
+            params.addValue("applicationNameId", filter.applicationNameId());
+        }
+        if (filter.eventTypeId() != null) {
+            sql.append(" AND a.event_type = :eventType");
+            params.addValue("eventType", filter.eventTypeId());
+        }
+        if (filter.from() != null) {
+            sql.append(" AND a.timestamp >= :from");
+            params.addValue("from", Timestamp.from(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND a.timestamp < :to");
+            params.addValue("to", Timestamp.from(filter.to()));
+        }
+        if (filter.metadata() != null && !filter.metadata().isEmpty()) {
+            // Containment is what the jsonb_path_ops GIN index supports
+            sql.append(" AND a.metadata @> CAST(:metadata AS jsonb)");
+            params.addValue("metadata", toJson(filter.metadata()));
+        }
+        return sql;
+    }
+
+    private AuditLogDto toDto(ResultSet rs) throws SQLException {
+        String metadata = rs.getString("metadata");
+        return AuditLogDto.builder()
+                .id(rs.getObject("id", UUID.class))
+                .timestamp(rs.getTimestamp("timestamp").toInstant())
+                .eventType(rs.getString("event_type"))
+                .userId(rs.getObject("user_id", UUID.class))
+                .applicationName(rs.getString("application_name"))
+                .description(rs.getString("description"))
+                .metadata(metadata != null ? fromJson(metadata) : null)
+                .build();
+    }
+
+    private String toJson(Map<String, String> metadata) {
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid metadata filter", e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String metadata) {
+        try {
+            return objectMapper.readValue(metadata, METADATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid audit metadata", e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package it.aredegalli.auctoritas.repository.authenticator;
 
 import it.aredegalli.auctoritas.model.authenticator.ApplicationAuthenticator;
 import it.aredegalli.auctoritas.repository.UUIDRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,4 +16,7 @@ public interface ApplicationAuthenticatorRepository extends UUIDRepository<Appli
     boolean existsByApplicationIdAndAuthenticatorId(UUID applicationId, UUID authenticatorId);
 
     Optional<ApplicationAuthenticator> findByApplicationIdAndAuthenticatorId(UUID applicationId, UUID authenticatorId);
+
+    @Query("select aa from ApplicationAuthenticator aa join fetch aa.application join fetch aa.authenticator")
+    List<ApplicationAuthenticator> findAllWithApplicationAndAuthenticator();
 }
\ No newline at end of file
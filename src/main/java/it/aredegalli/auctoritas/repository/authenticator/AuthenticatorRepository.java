@@ -5,7 +5,7 @@ import it.aredegalli.auctoritas.repository.UUIDRepository;
 
 import java.util.Optional;
 
-public interface AuthenticatorRepository extends UUIDRepository<Authenticator> {
+public interface AuthenticatorRepository extends UUIDRepository<Authenticator>, AuthenticatorRepositoryCustom {
 
     boolean existsByName(String name);
 
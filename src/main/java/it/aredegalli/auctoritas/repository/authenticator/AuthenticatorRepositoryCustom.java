@@ -0,0 +1,23 @@
+package it.aredegalli.auctoritas.repository.authenticator;
+
+import it.aredegalli.auctoritas.dto.authenticator.AuthenticatorDto;
+import it.aredegalli.auctoritas.repository.NamePage;
+
+import java.util.List;
+
+/**
+ * Projection queries on {@code authenticators}, implemented with plain JDBC.
+ */
+public interface AuthenticatorRepositoryCustom {
+
+    /**
+     * Loads a page of authenticators ordered by name, selecting only the columns of {@link AuthenticatorDto}.
+     *
+     * @param request       the page
+     * @param authType      only authenticators of this type, null for all
+     * @param active        only active or inactive authenticators, null for both
+     * @param includeConfig whether to read the config column; when false the config of the results is null
+     * @return the authenticators of the page, with their config still encrypted
+     */
+    List<AuthenticatorDto> findPage(NamePage.Request request, String authType, Boolean active, boolean includeConfig);
+}
@@ -0,0 +1,37 @@
+package it.aredegalli.auctoritas.repository.authenticator;
+
+import it.aredegalli.auctoritas.dto.authenticator.AuthenticatorDto;
+import it.aredegalli.auctoritas.repository.NamePage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class AuthenticatorRepositoryCustomImpl implements AuthenticatorRepositoryCustom {
+
+    private static final String COLUMNS = "id, name, auth_type, is_active";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public List<AuthenticatorDto> findPage(NamePage.Request request, String authType, Boolean active, boolean includeConfig) {
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("auth_type", authType);
+        filters.put("is_active", active);
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = NamePage.query(includeConfig ? COLUMNS + ", config" : COLUMNS, "authenticators", request, filters, params);
+        return namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) -> AuthenticatorDto.builder()
+                .id(rs.getObject("id", UUID.class))
+                .name(rs.getString("name"))
+                .authType(rs.getString("auth_type"))
+                .config(includeConfig ? rs.getString("config") : null)
+                .isActive(rs.getBoolean("is_active"))
+                .build());
+    }
+}
@@ -6,7 +6,7 @@ import it.aredegalli.auctoritas.repository.UUIDRepository;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface UserAuthMappingRepository extends UUIDRepository<UserAuthMapping> {
+public interface UserAuthMappingRepository extends UUIDRepository<UserAuthMapping>, UserAuthMappingRepositoryCustom {
     Optional<UserAuthMapping> findByAuthenticatorIdAndExternalUserId(UUID authenticatorId, String externalUserId);
 
     Optional<UserAuthMapping> findByUserId(UUID userId);
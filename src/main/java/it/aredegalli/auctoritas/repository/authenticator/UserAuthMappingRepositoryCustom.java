@@ -0,0 +1,49 @@
+package it.aredegalli.auctoritas.repository.authenticator;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based operations on {@code user_auth_mappings}, implemented with plain JDBC.
+ */
+public interface UserAuthMappingRepositoryCustom {
+
+    /**
+     * Resolves the users mapped to many external identities in a single query.
+     *
+     * @param identities the identities to resolve
+     * @return the user id of every identity that is mapped; unmapped identities are absent
+     */
+    Map<ExternalIdentity, UUID> findUserIdsByIdentities(Collection<ExternalIdentity> identities);
+
+    /**
+     * Creates a user and a mapping for every identity with multi-row inserts. Identities mapped concurrently
+     * by another transaction resolve to the existing user, and the users created for them are removed.
+     *
+     * @param identities identities that are not mapped yet
+     * @return the user id of every identity and the identities mapped by this call
+     */
+    ProvisionedUsers provisionUsers(Collection<ExternalIdentity> identities);
+
+    /**
+     * Creates a user, its mapping and, if a default role is given, its assignment on an application in a single
+     * statement. If another transaction maps the identity first, nothing is created and its user is returned.
+     *
+     * @param identity      an identity that is not mapped yet
+     * @param applicationId the application to assign the default role on
+     * @param defaultRoleId the role to assign to the created user, or {@code null} for none
+     * @return the user of the identity and what was created for it
+     */
+    Provisioning provisionUser(ExternalIdentity identity, UUID applicationId, UUID defaultRoleId);
+
+    record ExternalIdentity(UUID authenticatorId, String externalUserId) {
+    }
+
+    record Provisioning(UUID userId, boolean created, boolean defaultRoleAssigned) {
+    }
+
+    record ProvisionedUsers(Map<ExternalIdentity, UUID> userIds, Set<ExternalIdentity> created) {
+    }
+}
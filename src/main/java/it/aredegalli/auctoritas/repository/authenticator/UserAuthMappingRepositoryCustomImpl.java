@@ -0,0 +1,176 @@
+package it.aredegalli.auctoritas.repository.authenticator;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class UserAuthMappingRepositoryCustomImpl implements UserAuthMappingRepositoryCustom {
+
+    private static final String FIND_SQL = """
+            SELECT m.user_id, m.authenticator_id, m.external_user_id
+            FROM user_auth_mappings m
+            JOIN unnest(?, ?) AS k(authenticator_id, external_user_id)
+              ON m.authenticator_id = k.authenticator_id AND m.external_user_id = k.external_user_id
+            """;
+
+    private static final String INSERT_USERS_SQL = "INSERT INTO users (id) SELECT unnest(?)";
+
+    private static final String INSERT_MAPPINGS_SQL = """
+            INSERT INTO user_auth_mappings (id, user_id, authenticator_id, external_user_id)
+            SELECT gen_random_uuid(), k.user_id, k.authenticator_id, k.external_user_id
+            FROM unnest(?, ?, ?) AS k(user_id, authenticator_id, external_user_id)
+            ON CONFLICT (authenticator_id, external_user_id) DO NOTHING
+            RETURNING user_id, authenticator_id, external_user_id
+            """;
+
+    private static final String DELETE_USERS_SQL = "DELETE FROM users WHERE id = ANY(?)";
+
+    /*
+     * The mapping is inserted first and the user only if the mapping was, so losing the race leaves no orphan
+     * user behind. Foreign keys are checked at the end of the statement, when the user exists. The last branch
+     * reads the statement snapshot, so it only finds mappings committed before the statement started.
+     */
+    private static final String PROVISION_SQL = """
+            WITH mapping AS (
+                INSERT INTO user_auth_mappings (id, user_id, authenticator_id, external_user_id)
+                VALUES (gen_random_uuid(), gen_random_uuid(), ?, ?)
+                ON CONFLICT (authenticator_id, external_user_id) DO NOTHING
+                RETURNING user_id
+            ), new_user AS (
+                INSERT INTO users (id)
+                SELECT user_id FROM mapping
+                RETURNING id
+            ), default_role AS (
+                INSERT INTO users_roles_application (id, user_id, application_id, role_id)
+                SELECT gen_random_uuid(), u.id, k.application_id, k.role_id
+                FROM new_user u
+                CROSS JOIN (VALUES (?::uuid, ?::uuid)) AS k(application_id, role_id)
+                WHERE k.role_id IS NOT NULL
+                RETURNING user_id
+            )
+            SELECT u.id AS user_id, TRUE AS created, EXISTS (SELECT 1 FROM default_role) AS default_role_assigned
+            FROM new_user u
+            UNION ALL
+            SELECT m.user_id, FALSE, FALSE
+            FROM user_auth_mappings m
+            WHERE m.authenticator_id = ? AND m.external_user_id = ?
+            """;
+
+    private static final int PROVISION_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<ExternalIdentity, UUID> findUserIdsByIdentities(Collection<ExternalIdentity> identities) {
+        Map<ExternalIdentity, UUID> userIds = new HashMap<>();
+        if (identities.isEmpty()) {
+            return userIds;
+        }
+
+        UUID[] authenticatorIds = new UUID[identities.size()];
+        String[] externalUserIds = new String[identities.size()];
+        int i = 0;
+        for (ExternalIdentity identity : identities) {
+            authenticatorIds[i] = identity.authenticatorId();
+            externalUserIds[i++] = identity.externalUserId();
+        }
+
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(FIND_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", authenticatorIds));
+            ps.setArray(2, con.createArrayOf("varchar", externalUserIds));
+            return ps;
+        }, rs -> {
+            userIds.put(identity(rs), rs.getObject("user_id", UUID.class));
+        });
+        return userIds;
+    }
+
+    @Override
+    public ProvisionedUsers provisionUsers(Collection<ExternalIdentity> identities) {
+        Map<ExternalIdentity, UUID> userIds = new HashMap<>();
+        if (identities.isEmpty()) {
+            return new ProvisionedUsers(userIds, Set.of());
+        }
+
+        UUID[] newUserIds = new UUID[identities.size()];
+        UUID[] authenticatorIds = new UUID[identities.size()];
+        String[] externalUserIds = new String[identities.size()];
+        int i = 0;
+        for (ExternalIdentity identity : identities) {
+            newUserIds[i] = UUID.randomUUID();
+            authenticatorIds[i] = identity.authenticatorId();
+            externalUserIds[i++] = identity.externalUserId();
+        }
+
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(INSERT_USERS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", newUserIds));
+            return ps;
+        });
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(INSERT_MAPPINGS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", newUserIds));
+            ps.setArray(2, con.createArrayOf("uuid", authenticatorIds));
+            ps.setArray(3, con.createArrayOf("varchar", externalUserIds));
+            return ps;
+        }, rs -> {
+            userIds.put(identity(rs), rs.getObject("user_id", UUID.class));
+        });
+        // RETURNING only yields the mappings inserted here
+        Set<ExternalIdentity> created = new HashSet<>(userIds.keySet());
+
+        if (userIds.size() < identities.size()) {
+            // Lost the race for some identities: adopt the winners' users and drop the ones created here
+            List<ExternalIdentity> conflicting = new ArrayList<>();
+            List<UUID> orphans = new ArrayList<>();
+            i = 0;
+            for (ExternalIdentity identity : identities) {
+                if (!userIds.containsKey(identity)) {
+                    conflicting.add(identity);
+                    orphans.add(newUserIds[i]);
+                }
+                i++;
+            }
+            userIds.putAll(findUserIdsByIdentities(conflicting));
+            jdbcTemplate.update(con -> {
+                var ps = con.prepareStatement(DELETE_USERS_SQL);
+                ps.setArray(1, con.createArrayOf("uuid", orphans.toArray()));
+                return ps;
+            });
+        }
+        return new ProvisionedUsers(userIds, created);
+    }
+
+    @Override
+    public Provisioning provisionUser(ExternalIdentity identity, UUID applicationId, UUID defaultRoleId) {
+        for (int attempt = 0; attempt < PROVISION_ATTEMPTS; attempt++) {
+            List<Provisioning> result = jdbcTemplate.query(PROVISION_SQL, (rs, rowNum) -> new Provisioning(
+                            rs.getObject("user_id", UUID.class),
+                            rs.getBoolean("created"),
+                            rs.getBoolean("default_role_assigned")),
+                    identity.authenticatorId(), identity.externalUserId(), applicationId, defaultRoleId,
+                    identity.authenticatorId(), identity.externalUserId());
+            if (!result.isEmpty()) {
+                return result.getFirst();
+            }
+            // The conflicting mapping was committed after the statement snapshot: the next statement sees it
+        }
+        throw new IllegalStateException("Could not provision user for authenticator " + identity.authenticatorId());
+    }
+
+    private static ExternalIdentity identity(ResultSet rs) throws SQLException {
+        return new ExternalIdentity(rs.getObject("authenticator_id", UUID.class), rs.getString("external_user_id"));
+    }
+}
@@ -6,7 +6,7 @@ import it.aredegalli.auctoritas.repository.UUIDRepository;
 import java.util.List;
 import java.util.UUID;
 
-public interface ApplicationRoleRepository extends UUIDRepository<ApplicationRole> {
+public interface ApplicationRoleRepository extends UUIDRepository<ApplicationRole>, ApplicationRoleRepositoryCustom {
     List<ApplicationRole> findByApplicationId(UUID applicationId);
 
     boolean existsByRoleIdAndApplicationId(UUID roleId, UUID applicationId);
@@ -0,0 +1,53 @@
+package it.aredegalli.auctoritas.repository.role;
+
+import it.aredegalli.auctoritas.repository.role.PermissionRoleRepositoryCustom.RolePermission;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based operations on {@code application_roles}, implemented with plain JDBC.
+ */
+public interface ApplicationRoleRepositoryCustom {
+
+    /**
+     * Loads, with a single query, everything needed to diff an application catalog: the ids of the named roles
+     * and permissions, the roles currently linked to the application and the permissions of the named roles.
+     *
+     * @param applicationId   the application
+     * @param roleNames       the role names of the desired catalog
+     * @param permissionNames the permission names of the desired catalog
+     * @return the current state; unknown names are absent from the id maps
+     */
+    CatalogState findCatalogState(UUID applicationId, Collection<String> roleNames, Collection<String> permissionNames);
+
+    /**
+     * Links many roles to an application with a single multi-row insert. Existing links are left untouched.
+     *
+     * @param applicationId the application
+     * @param roleIds       the roles to link
+     * @return the number of links actually inserted
+     */
+    int insertApplicationRoles(UUID applicationId, Collection<UUID> roleIds);
+
+    /**
+     * Unlinks many roles from an application with a single statement.
+     *
+     * @param applicationId the application
+     * @param roleIds       the roles to unlink
+     * @return the number of links actually deleted
+     */
+    int deleteApplicationRoles(UUID applicationId, Collection<UUID> roleIds);
+
+    /**
+     * @param roleIds            role name to id, for the requested names that exist
+     * @param permissionIds      permission name to id, for the requested names that exist
+     * @param applicationRoleIds the roles linked to the application
+     * @param grants             the permissions of the requested roles
+     */
+    record CatalogState(Map<String, UUID> roleIds, Map<String, UUID> permissionIds, Set<UUID> applicationRoleIds,
+                        Set<RolePermission> grants) {
+    }
+}
@@ -0,0 +1,84 @@
+package it.aredegalli.auctoritas.repository.role;
+
+import it.aredegalli.auctoritas.repository.role.PermissionRoleRepositoryCustom.RolePermission;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class ApplicationRoleRepositoryCustomImpl implements ApplicationRoleRepositoryCustom {
+
+    private static final String CATALOG_STATE_SQL = """
+            SELECT 'role' AS kind, id, name, NULL::uuid AS permission_id FROM roles WHERE name = ANY(?)
+            UNION ALL
+            SELECT 'permission', id, name, NULL FROM permissions WHERE name = ANY(?)
+            UNION ALL
+            SELECT 'application_role', role_id, NULL, NULL FROM application_roles WHERE application_id = ?
+            UNION ALL
+            SELECT 'grant', pr.role_id, NULL, pr.permission_id
+            FROM permissions_role pr JOIN roles r ON r.id = pr.role_id
+            WHERE r.name = ANY(?)
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO application_roles (id, application_id, role_id)
+            SELECT gen_random_uuid(), ?, k.role_id
+            FROM unnest(?) AS k(role_id)
+            ON CONFLICT (application_id, role_id) DO NOTHING
+            """;
+
+    private static final String DELETE_SQL = """
+            DELETE FROM application_roles WHERE application_id = ? AND role_id = ANY(?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public CatalogState findCatalogState(UUID applicationId, Collection<String> roleNames, Collection<String> permissionNames) {
+        CatalogState state = new CatalogState(new HashMap<>(), new HashMap<>(), new HashSet<>(), new HashSet<>());
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(CATALOG_STATE_SQL);
+            var roles = con.createArrayOf("varchar", roleNames.toArray());
+            ps.setArray(1, roles);
+            ps.setArray(2, con.createArrayOf("varchar", permissionNames.toArray()));
+            ps.setObject(3, applicationId);
+            ps.setArray(4, roles);
+            return ps;
+        }, rs -> {
+            UUID id = rs.getObject("id", UUID.class);
+            switch (rs.getString("kind")) {
+                case "role" -> state.roleIds().put(rs.getString("name"), id);
+                case "permission" -> state.permissionIds().put(rs.getString("name"), id);
+                case "application_role" -> state.applicationRoleIds().add(id);
+                default -> state.grants().add(new RolePermission(id, rs.getObject("permission_id", UUID.class)));
+            }
+        });
+        return state;
+    }
+
+    @Override
+    public int insertApplicationRoles(UUID applicationId, Collection<UUID> roleIds) {
+        return update(INSERT_SQL, applicationId, roleIds);
+    }
+
+    @Override
+    public int deleteApplicationRoles(UUID applicationId, Collection<UUID> roleIds) {
+        return update(DELETE_SQL, applicationId, roleIds);
+    }
+
+    private int update(String sql, UUID applicationId, Collection<UUID> roleIds) {
+        if (roleIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setObject(1, applicationId);
+            ps.setArray(2, con.createArrayOf("uuid", roleIds.toArray()));
+            return ps;
+        });
+    }
+}
@@ -5,6 +5,6 @@ import it.aredegalli.auctoritas.repository.UUIDRepository;
 
 import java.util.Optional;
 
-public interface PermissionRepository extends UUIDRepository<Permission> {
+public interface PermissionRepository extends UUIDRepository<Permission>, PermissionRepositoryCustom {
     Optional<Permission> findByName(String name);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package it.aredegalli.auctoritas.repository.role;
+
+import it.aredegalli.auctoritas.dto.role.PermissionDto;
+import it.aredegalli.auctoritas.repository.NamePage;
+
+import java.util.List;
+
+/**
+ * Projection queries on {@code permissions}, implemented with plain JDBC.
+ */
+public interface PermissionRepositoryCustom {
+
+    /**
+     * Loads a page of permissions ordered by name, selecting only the columns of {@link PermissionDto}.
+     *
+     * @param request the page
+     * @return the permissions of the page
+     */
+    List<PermissionDto> findPage(NamePage.Request request);
+}
@@ -0,0 +1,25 @@
+package it.aredegalli.auctoritas.repository.role;
+
+import it.aredegalli.auctoritas.dto.role.PermissionDto;
+import it.aredegalli.auctoritas.repository.NamePage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class PermissionRepositoryCustomImpl implements PermissionRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public List<PermissionDto> findPage(NamePage.Request request) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = NamePage.query("id, name, description", "permissions", request, Map.of(), params);
+        return namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new PermissionDto(rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("description")));
+    }
+}
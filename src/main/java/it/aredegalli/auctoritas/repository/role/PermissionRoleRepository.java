@@ -2,13 +2,17 @@ package it.aredegalli.auctoritas.repository.role;
 
 import it.aredegalli.auctoritas.model.role.PermissionRole;
 import it.aredegalli.auctoritas.repository.UUIDRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.UUID;
 
-public interface PermissionRoleRepository extends UUIDRepository<PermissionRole> {
+public interface PermissionRoleRepository extends UUIDRepository<PermissionRole>, PermissionRoleRepositoryCustom {
     List<PermissionRole> findByRoleId(UUID roleId);
 
+    @Query("select pr from PermissionRole pr join fetch pr.permission")
+    List<PermissionRole> findAllWithPermission();
+
     boolean existsByRoleIdAndPermissionId(UUID roleId, UUID permissionId);
 
     PermissionRole deleteByRoleIdAndPermissionId(UUID roleId, UUID permissionId);
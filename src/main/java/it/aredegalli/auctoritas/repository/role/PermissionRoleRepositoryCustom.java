@@ -0,0 +1,29 @@
+package it.aredegalli.auctoritas.repository.role;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Set-based operations on {@code permissions_role}, implemented with plain JDBC.
+ */
+public interface PermissionRoleRepositoryCustom {
+
+    /**
+     * Grants many permissions with a single multi-row insert. Existing grants are left untouched.
+     *
+     * @param grants the grants to insert
+     * @return the number of grants actually inserted
+     */
+    int insertGrants(Collection<RolePermission> grants);
+
+    /**
+     * Revokes many permissions with a single statement.
+     *
+     * @param grants the grants to delete
+     * @return the number of grants actually deleted
+     */
+    int deleteGrants(Collection<RolePermission> grants);
+
+    record RolePermission(UUID roleId, UUID permissionId) {
+    }
+}
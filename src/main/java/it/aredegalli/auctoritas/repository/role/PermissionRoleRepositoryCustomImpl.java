@@ -0,0 +1,57 @@
+package it.aredegalli.auctoritas.repository.role;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class PermissionRoleRepositoryCustomImpl implements PermissionRoleRepositoryCustom {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO permissions_role (id, role_id, permission_id)
+            SELECT gen_random_uuid(), k.role_id, k.permission_id
+            FROM unnest(?, ?) AS k(role_id, permission_id)
+            ON CONFLICT (role_id, permission_id) DO NOTHING
+            """;
+
+    private static final String DELETE_SQL = """
+            DELETE FROM permissions_role pr
+            USING unnest(?, ?) AS k(role_id, permission_id)
+            WHERE pr.role_id = k.role_id AND pr.permission_id = k.permission_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertGrants(Collection<RolePermission> grants) {
+        return update(INSERT_SQL, grants);
+    }
+
+    @Override
+    public int deleteGrants(Collection<RolePermission> grants) {
+        return update(DELETE_SQL, grants);
+    }
+
+    private int update(String sql, Collection<RolePermission> grants) {
+        if (grants.isEmpty()) {
+            return 0;
+        }
+
+        UUID[] roleIds = new UUID[grants.size()];
+        UUID[] permissionIds = new UUID[grants.size()];
+        int i = 0;
+        for (RolePermission grant : grants) {
+            roleIds[i] = grant.roleId();
+            permissionIds[i++] = grant.permissionId();
+        }
+
+        return jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", roleIds));
+            ps.setArray(2, con.createArrayOf("uuid", permissionIds));
+            return ps;
+        });
+    }
+}
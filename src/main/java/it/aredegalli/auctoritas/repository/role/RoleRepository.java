@@ -3,5 +3,5 @@ package it.aredegalli.auctoritas.repository.role;
 import it.aredegalli.auctoritas.model.role.Role;
 import it.aredegalli.auctoritas.repository.UUIDRepository;
 
-public interface RoleRepository extends UUIDRepository<Role> {
+public interface RoleRepository extends UUIDRepository<Role>, RoleRepositoryCustom {
 }
@@ -0,0 +1,20 @@
+package it.aredegalli.auctoritas.repository.role;
+
+import it.aredegalli.auctoritas.dto.role.RoleDto;
+import it.aredegalli.auctoritas.repository.NamePage;
+
+import java.util.List;
+
+/**
+ * Projection queries on {@code roles}, implemented with plain JDBC.
+ */
+public interface RoleRepositoryCustom {
+
+    /**
+     * Loads a page of roles ordered by name, selecting only the columns of {@link RoleDto}.
+     *
+     * @param request the page
+     * @return the roles of the page
+     */
+    List<RoleDto> findPage(NamePage.Request request);
+}
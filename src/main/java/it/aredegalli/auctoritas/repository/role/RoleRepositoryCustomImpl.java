@@ -0,0 +1,25 @@
+package it.aredegalli.auctoritas.repository.role;
+
+import it.aredegalli.auctoritas.dto.role.RoleDto;
+import it.aredegalli.auctoritas.repository.NamePage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class RoleRepositoryCustomImpl implements RoleRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public List<RoleDto> findPage(NamePage.Request request) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = NamePage.query("id, name, description", "roles", request, Map.of(), params);
+        return namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new RoleDto(rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("description")));
+    }
+}
@@ -1,44 +1,28 @@
 package it.aredegalli.auctoritas.scheduled;
 
+import it.aredegalli.auctoritas.service.audit.retention.AuditPartitionManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
-//@EnableScheduling
 @RequiredArgsConstructor
 public class EventLogCleanupScheduler {
 
-    // TODO
-
-    /*private final AuditEventTypeRepository auditEventTypeRepository;
-    private final AuditLogRepository auditLogRepository;
-
-    @Scheduled(cron = "0 0 3 * * *")
-    public void cleanupAccessDeniedLogs() {
-        cleanupLogs(AuditEventTypeEnum.ACCESS_DENIED, 30);
-    }
-
-    @Scheduled(cron = "0 0 4 * * *")
-    public void cleanupAccessGrantedLogs() {
-        cleanupLogs(AuditEventTypeEnum.ACCESS_GRANTED, 14);
-    }
-
-    @Scheduled(cron = "0 0 5 * * *")
-    public void cleanupGetRequestLogs() {
-        cleanupLogs(AuditEventTypeEnum.GET_REQUEST, 7);
-    }
-
-    private void cleanupLogs(AuditEventTypeEnum typeEnum, int daysToKeep) {
-        AuditEventType eventType = auditEventTypeRepository.findByDescription(typeEnum.name()).orElse(null);
-        if (eventType == null) {
-            log.warn("[SCHEDULER] Event type {} not found, skipping cleanup", typeEnum);
-            return;
+    private final AuditPartitionManager auditPartitionManager;
+
+    /**
+     * Creates the upcoming audit_logs partitions and drops the ones past their retention.
+     */
+    @Scheduled(cron = "${auctoritas.audit.retention.cron:0 0 3 * * *}")
+    public void cleanupAuditLogs() {
+        try {
+            int dropped = auditPartitionManager.maintain();
+            log.info("[SCHEDULER] Audit log maintenance done, {} partitions dropped", dropped);
+        } catch (Exception e) {
+            log.error("[SCHEDULER] Audit log maintenance failed", e);
         }
-
-        Instant cutoffDate = Instant.now().minus(daysToKeep, ChronoUnit.DAYS);
-        Long deleted = auditLogRepository.deleteByEventTypeAndTimestampBefore(eventType, cutoffDate);
-        log.info("[SCHEDULER] Deleted {} logs of type {} older than {} days", deleted, typeEnum, daysToKeep);
-    }*/
-}
\ No newline at end of file
+    }
+}
@@ -0,0 +1,35 @@
+package it.aredegalli.auctoritas.scheduled;
+
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataRefreshScheduler {
+
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final RolePermissionIndex rolePermissionIndex;
+
+    /**
+     * Picks up reference data written by other instances.
+     */
+    @Scheduled(fixedDelayString = "${auctoritas.reference-data.refresh-interval:PT5M}",
+            initialDelayString = "${auctoritas.reference-data.refresh-interval:PT5M}")
+    public void refreshReferenceData() {
+        try {
+            referenceDataRegistry.reload();
+        } catch (Exception e) {
+            log.error("[SCHEDULER] Reference data refresh failed, keeping current snapshot", e);
+        }
+        try {
+            rolePermissionIndex.reload();
+        } catch (Exception e) {
+            log.error("[SCHEDULER] Role permission index refresh failed, keeping current index", e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package it.aredegalli.auctoritas.security;
 
 import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import it.aredegalli.auctoritas.security.whitelist.IpWhitelistMatcher;
 import it.aredegalli.auctoritas.service.audit.AuditService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -13,13 +14,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 @Component
 @RequiredArgsConstructor
@@ -31,42 +27,22 @@ public class HostRequestFilter extends OncePerRequestFilter {
 
     private final AuditService auditService;
 
-    private static boolean matches(String remoteAddr, String pattern) {
-        if (pattern.contains("*")) {
-            String regex = pattern.replace(".", "\\.").replace("*", ".*");
-            return Pattern.matches(regex, remoteAddr);
-        }
-        if (pattern.contains("/")) {
-            try {
-                return isInSubnet(remoteAddr, pattern);
-            } catch (Exception ignored) {
-            }
-        }
-        return remoteAddr.equals(pattern);
-    }
-
-    private static boolean isInSubnet(String ip, String cidr) throws UnknownHostException {
-        String[] parts = cidr.split("/");
-        InetAddress inetAddress = InetAddress.getByName(parts[0]);
-        InetAddress remote = InetAddress.getByName(ip);
-
-        int prefix = Integer.parseInt(parts[1]);
-        byte[] subnetBytes = inetAddress.getAddress();
-        byte[] ipBytes = remote.getAddress();
-
-        int byteCount = prefix / 8;
-        int bitRemainder = prefix % 8;
+    private volatile IpWhitelistMatcher whitelist = IpWhitelistMatcher.compile(null);
 
-        for (int i = 0; i < byteCount; i++) {
-            if (subnetBytes[i] != ipBytes[i]) return false;
-        }
-
-        if (bitRemainder > 0) {
-            int mask = (-1) << (8 - bitRemainder);
-            return (subnetBytes[byteCount] & mask) == (ipBytes[byteCount] & mask);
-        }
+    @Override
+    protected void initFilterBean() {
+        reloadWhitelist(whitelistIps);
+    }
 
-        return true;
+    /**
+     * Recompiles the whitelist. Invalid rules are logged and skipped, as the other rules still apply.
+     *
+     * @param rules comma separated IPs, CIDR blocks or wildcard patterns
+     */
+    public void reloadWhitelist(String rules) {
+        IpWhitelistMatcher compiled = IpWhitelistMatcher.compile(rules);
+        whitelist = compiled;
+        log.info("[SECURITY] Whitelist compilata: {} regole", compiled.ruleCount());
     }
 
     @Override
@@ -75,9 +51,8 @@ public class HostRequestFilter extends OncePerRequestFilter {
 
         String method = request.getMethod();
         String remoteAddr = request.getRemoteAddr();
-        List<String> allowedPatterns = Arrays.asList(whitelistIps.split(","));
 
-        boolean isWhitelisted = allowedPatterns.stream().anyMatch(pattern -> matches(remoteAddr, pattern));
+        boolean isWhitelisted = whitelist.matches(remoteAddr);
 
         Map<String, Object> metadata = new HashMap<>();
         metadata.put("method", method);
@@ -86,13 +61,13 @@ public class HostRequestFilter extends OncePerRequestFilter {
 
         if (!isWhitelisted) {
             log.warn("[SECURITY] Tentativo bloccato: IP={} metodo={}", remoteAddr, method);
-            auditService.logEvent(null, AuditEventTypeEnum.API_ACCESS_DENIED, "Auctoritas", "Tentativo non autorizzato da IP: " + remoteAddr, metadata);
+            auditService.logEvent(null, AuditEventTypeEnum.API_ACCESS_DENIED, "Auctoritas", "Tentativo non autorizzato", metadata);
             response.sendError(HttpServletResponse.SC_FORBIDDEN, "Accesso riservato");
             return;
         }
 
         log.info("[SECURITY] Accesso consentito: IP={} metodo={}", remoteAddr, method);
-        auditService.logEvent(null, AuditEventTypeEnum.API_ACCESS_GRANTED, "Auctoritas", "Accesso consentito da IP: " + remoteAddr, metadata);
+        auditService.logEvent(null, AuditEventTypeEnum.API_ACCESS_GRANTED, "Auctoritas", "Accesso consentito", metadata);
 
         filterChain.doFilter(request, response);
     }
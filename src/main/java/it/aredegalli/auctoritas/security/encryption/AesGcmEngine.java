@@ -0,0 +1,179 @@
+package it.aredegalli.auctoritas.security.encryption;
+
+import it.aredegalli.auctoritas.util.BoundedObjectPool;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * AES-GCM encryption with a versioned binary header.
+ * <p>
+ * Layout of a ciphertext:
+ * <pre>
+ * | magic (2) | format (1) | key id (1) | nonce (12) | ciphertext + tag (n + 16) |
+ * </pre>
+ * The first four bytes are authenticated as additional data, and the key id selects the key among the
+ * configured ones, so keys can be rotated without re-encrypting existing data. Values without the header,
+ * or whose tag does not verify and whose length is a whole number of AES blocks, are read as legacy
+ * {@code AES/ECB/PKCS5Padding} ciphertext produced before this format existed.
+ * <p>
+ * Instances are thread-safe: ciphers are borrowed from {@link BoundedObjectPool}s and re-initialized per call.
+ */
+public final class AesGcmEngine {
+
+    static final byte MAGIC_0 = (byte) 0xAE;
+    static final byte MAGIC_1 = (byte) 0x5C;
+    static final byte FORMAT_V1 = 1;
+
+    private static final int HEADER_LENGTH = 4;
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final int PREFIX_LENGTH = HEADER_LENGTH + NONCE_LENGTH;
+    private static final int AES_BLOCK = 16;
+
+    private final Map<Integer, SecretKey> keys;
+    private final int currentKeyId;
+    private final SecretKey legacyKey;
+    private final SecureRandom random = new SecureRandom();
+    private final BoundedObjectPool<Cipher> gcmCiphers;
+    private final BoundedObjectPool<Cipher> legacyCiphers;
+
+    /**
+     * @param keys         every key that may appear in a header, by id (0-255)
+     * @param currentKeyId the id of the key new values are encrypted with
+     * @param legacyKey    the key legacy ECB values were encrypted with, or null if there are none
+     */
+    public AesGcmEngine(Map<Integer, SecretKey> keys, int currentKeyId, SecretKey legacyKey) {
+        if (!keys.containsKey(currentKeyId)) {
+            throw new IllegalArgumentException("No key configured for current key id " + currentKeyId);
+        }
+        keys.keySet().forEach(id -> {
+            if (id < 0 || id > 255) {
+                throw new IllegalArgumentException("Key ids must be between 0 and 255, got " + id);
+            }
+        });
+        this.keys = Map.copyOf(keys);
+        this.currentKeyId = currentKeyId;
+        this.legacyKey = legacyKey;
+
+        int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+        this.gcmCiphers = new BoundedObjectPool<>(poolSize, cipherFactory("AES/GCM/NoPadding"));
+        this.legacyCiphers = new BoundedObjectPool<>(poolSize, cipherFactory("AES/ECB/PKCS5Padding"));
+        // Fail fast on a JCE without GCM rather than on the first request
+        gcmCiphers.release(gcmCiphers.acquire());
+    }
+
+    public int currentKeyId() {
+        return currentKeyId;
+    }
+
+    /**
+     * Encrypts with the current key and a fresh random nonce.
+     *
+     * @param plaintext the bytes to encrypt
+     * @return header, nonce and authenticated ciphertext
+     */
+    public byte[] encrypt(byte[] plaintext) throws GeneralSecurityException {
+        byte[] output = new byte[PREFIX_LENGTH + plaintext.length + TAG_BITS / 8];
+        output[0] = MAGIC_0;
+        output[1] = MAGIC_1;
+        output[2] = FORMAT_V1;
+        output[3] = (byte) currentKeyId;
+        byte[] nonce = new byte[NONCE_LENGTH];
+        random.nextBytes(nonce);
+        System.arraycopy(nonce, 0, output, HEADER_LENGTH, NONCE_LENGTH);
+
+        Cipher cipher = gcmCiphers.acquire();
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, keys.get(currentKeyId), new GCMParameterSpec(TAG_BITS, nonce));
+            cipher.updateAAD(output, 0, HEADER_LENGTH);
+            cipher.doFinal(plaintext, 0, plaintext.length, output, PREFIX_LENGTH);
+            return output;
+        } finally {
+            gcmCiphers.release(cipher);
+        }
+    }
+
+    /**
+     * Decrypts a value in the current format or, failing that, in the legacy ECB format.
+     *
+     * @param ciphertext the bytes produced by {@link #encrypt} or by the legacy ECB code
+     * @return the plaintext
+     * @throws GeneralSecurityException if the value cannot be decrypted in either format
+     */
+    public byte[] decrypt(byte[] ciphertext) throws GeneralSecurityException {
+        SecretKey key = hasHeader(ciphertext) ? keys.get(ciphertext[3] & 0xff) : null;
+        if (key == null) {
+            return decryptLegacy(ciphertext);
+        }
+        try {
+            return decryptGcm(ciphertext, key);
+        } catch (AEADBadTagException e) {
+            // A legacy value may start with the header bytes by chance; it is then a whole number of blocks
+            if (legacyKey != null && ciphertext.length % AES_BLOCK == 0) {
+                return decryptLegacy(ciphertext);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Tells whether a value was encrypted in the current format with the current key, i.e. does not need
+     * re-encryption after a key rotation.
+     *
+     * @param ciphertext the stored value
+     * @return true if up to date
+     */
+    public boolean isCurrent(byte[] ciphertext) {
+        return hasHeader(ciphertext) && (ciphertext[3] & 0xff) == currentKeyId;
+    }
+
+    private byte[] decryptGcm(byte[] ciphertext, SecretKey key) throws GeneralSecurityException {
+        Cipher cipher = gcmCiphers.acquire();
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, ciphertext, HEADER_LENGTH, NONCE_LENGTH));
+            cipher.updateAAD(ciphertext, 0, HEADER_LENGTH);
+            return cipher.doFinal(ciphertext, PREFIX_LENGTH, ciphertext.length - PREFIX_LENGTH);
+        } finally {
+            gcmCiphers.release(cipher);
+        }
+    }
+
+    private byte[] decryptLegacy(byte[] ciphertext) throws GeneralSecurityException {
+        if (legacyKey == null) {
+            throw new GeneralSecurityException("Value has no known encryption header and no legacy key is configured");
+        }
+        Cipher cipher = legacyCiphers.acquire();
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, legacyKey);
+            return cipher.doFinal(ciphertext);
+        } finally {
+            legacyCiphers.release(cipher);
+        }
+    }
+
+    private static boolean hasHeader(byte[] value) {
+        return value.length >= PREFIX_LENGTH + TAG_BITS / 8
+                && value[0] == MAGIC_0
+                && value[1] == MAGIC_1
+                && value[2] == FORMAT_V1;
+    }
+
+    private static Supplier<Cipher> cipherFactory(String transformation) {
+        return () -> {
+            try {
+                return Cipher.getInstance(transformation);
+            } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+                throw new IllegalStateException(transformation + " not supported", e);
+            }
+        };
+    }
+}
@@ -1,46 +1,138 @@
 package it.aredegalli.auctoritas.security.encryption;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import it.aredegalli.auctoritas.util.BoundedObjectPool;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Encrypts secrets at rest, such as authenticator configurations, with {@link AesGcmEngine}.
+ * <p>
+ * Keys are decoded once at startup. {@code security.crypto.key-id} is the id new values are written with;
+ * keys rotated out stay readable through {@code security.crypto.retired-keys} ({@code id:base64key,...}).
+ * Values written before the GCM format are read with {@code security.crypto.legacy-key}, which defaults to the
+ * current key.
+ * <p>
+ * Decrypted values are kept in a bounded cache keyed by the SHA-256 of the ciphertext, so listing endpoints do
+ * not run a cipher per row on every request.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
-public class EncryptionService {
+public class EncryptionService implements MeterBinder {
 
-    @Value("${security.crypto.aes-secret-key}")
-    private String aesBase64Key;
+    private final SecretKey key;
+    private final AesGcmEngine engine;
+    private final Cache<ByteBuffer, String> plaintexts;
+    private final BoundedObjectPool<MessageDigest> digests;
+
+    public EncryptionService(@Value("${security.crypto.aes-secret-key}") String aesBase64Key,
+                             @Value("${security.crypto.key-id:1}") int keyId,
+                             @Value("${security.crypto.retired-keys:}") String retiredKeys,
+                             @Value("${security.crypto.legacy-key:${security.crypto.aes-secret-key}}") String legacyBase64Key,
+                             @Value("${security.crypto.decrypt-cache.maximum-size:1000}") long cacheSize,
+                             @Value("${security.crypto.decrypt-cache.ttl:PT10M}") Duration cacheTtl) {
+        this.key = toKey(aesBase64Key);
+
+        Map<Integer, SecretKey> keys = new HashMap<>();
+        for (String entry : retiredKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Retired keys must be formatted as id:base64key");
+            }
+            keys.put(Integer.parseInt(parts[0].trim()), toKey(parts[1].trim()));
+        }
+        keys.put(keyId, key);
+
+        SecretKey legacyKey = legacyBase64Key == null || legacyBase64Key.isBlank() ? null : toKey(legacyBase64Key);
+        this.engine = new AesGcmEngine(keys, keyId, legacyKey);
+        this.plaintexts = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(cacheTtl)
+                .recordStats()
+                .build();
+        this.digests = new BoundedObjectPool<>(Runtime.getRuntime().availableProcessors() * 2, () -> {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not supported", e);
+            }
+        });
+
+        log.info("[SECURITY] Encryption ready: key id {}, {} readable keys, legacy format {}",
+                keyId, keys.size(), legacyKey != null ? "enabled" : "disabled");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, plaintexts, "encryption.plaintexts");
+    }
 
     public SecretKey getKey() {
-        byte[] decodedKey = Base64.getDecoder().decode(aesBase64Key);
-        return new SecretKeySpec(decodedKey, 0, decodedKey.length, "AES");
+        return key;
     }
 
     public String encrypt(String plaintext) {
         try {
-            Cipher cipher = Cipher.getInstance("AES");
-            cipher.init(Cipher.ENCRYPT_MODE, getKey());
-            byte[] encryptedBytes = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+            byte[] encryptedBytes = engine.encrypt(plaintext.getBytes(StandardCharsets.UTF_8));
+            plaintexts.put(digest(encryptedBytes), plaintext);
             return Base64.getEncoder().encodeToString(encryptedBytes);
-        } catch (Exception e) {
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException("Encryption failed", e);
         }
     }
 
     public String decrypt(String encryptedText) {
+        byte[] encryptedBytes = Base64.getDecoder().decode(encryptedText);
+        return plaintexts.get(digest(encryptedBytes), k -> {
+            try {
+                return new String(engine.decrypt(encryptedBytes), StandardCharsets.UTF_8);
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException("Decryption failed", e);
+            }
+        });
+    }
+
+    /**
+     * Tells whether a stored value predates the GCM format or the current key and should be rewritten.
+     *
+     * @param encryptedText the stored value
+     * @return true if the value should be re-encrypted
+     */
+    public boolean needsReEncryption(String encryptedText) {
+        return !engine.isCurrent(Base64.getDecoder().decode(encryptedText));
+    }
+
+    private ByteBuffer digest(byte[] value) {
+        MessageDigest digest = digests.acquire();
         try {
-            Cipher cipher = Cipher.getInstance("AES");
-            cipher.init(Cipher.DECRYPT_MODE, getKey());
-            byte[] decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(encryptedText));
-            return new String(decryptedBytes, StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            throw new RuntimeException("Decryption failed", e);
+            return ByteBuffer.wrap(digest.digest(value));
+        } finally {
+            digests.release(digest);
         }
     }
+
+    private static SecretKey toKey(String base64Key) {
+        byte[] decodedKey = Base64.getDecoder().decode(base64Key);
+        return new SecretKeySpec(decodedKey, 0, decodedKey.length, "AES");
+    }
 }
@@ -0,0 +1,524 @@
+package it.aredegalli.auctoritas.security.whitelist;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiled form of the {@code security.whitelist.ips} rules.
+ * <p>
+ * Rules are comma separated and may be:
+ * <ul>
+ *     <li>an IPv4 or IPv6 address, or a CIDR block such as {@code 10.0.0.0/8} or {@code fd00::/8},
+ *     stored in a binary prefix trie per address family;</li>
+ *     <li>a pattern containing {@code *}, matched as a glob against the textual address; patterns whose only
+ *     wildcard is a trailing {@code *} (such as {@code 192.168.*}) share a character prefix trie;</li>
+ *     <li>anything else, matched verbatim through a hash set.</li>
+ * </ul>
+ * IPv4-mapped IPv6 rules such as {@code ::ffff:10.0.0.0/104} apply to IPv4 addresses in either form. Malformed
+ * CIDR rules are logged and skipped. Instances are immutable. {@link #matches(String)} parses the address in place and walks at most one trie
+ * path per family, without allocating.
+ */
+@Slf4j
+public final class IpWhitelistMatcher {
+
+    private static final long IPV4_MAPPED_PREFIX = 0xffffL;
+    private static final int IPV4_MAPPED_PREFIX_LENGTH = 96;
+
+    private final Set<String> exact;
+    private final PrefixTrie ipv4;
+    private final PrefixTrie ipv6;
+    private final TextPrefixTrie wildcardPrefixes;
+    private final String[] wildcards;
+    private final int ruleCount;
+
+    private IpWhitelistMatcher(Set<String> exact, PrefixTrie ipv4, PrefixTrie ipv6, TextPrefixTrie wildcardPrefixes,
+                               String[] wildcards, int ruleCount) {
+        this.exact = exact;
+        this.ipv4 = ipv4;
+        this.ipv6 = ipv6;
+        this.wildcardPrefixes = wildcardPrefixes;
+        this.wildcards = wildcards;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * Compiles a comma separated list of whitelist rules.
+     *
+     * @param rules the rules, may be null or blank
+     * @return the compiled matcher
+     */
+    public static IpWhitelistMatcher compile(String rules) {
+        Set<String> exact = new HashSet<>();
+        PrefixTrie ipv4 = new PrefixTrie(32);
+        PrefixTrie ipv6 = new PrefixTrie(128);
+        TextPrefixTrie wildcardPrefixes = new TextPrefixTrie();
+        List<String> wildcards = new ArrayList<>();
+        int count = 0;
+
+        if (rules != null) {
+            for (String raw : rules.split(",")) {
+                String rule = raw.trim();
+                if (rule.isEmpty()) {
+                    continue;
+                }
+
+                int star = rule.indexOf('*');
+                if (star >= 0) {
+                    if (star == rule.length() - 1) {
+                        wildcardPrefixes.insert(rule, star);
+                    } else {
+                        wildcards.add(rule);
+                    }
+                    count++;
+                    continue;
+                }
+
+                int slash = rule.indexOf('/');
+                String address = slash >= 0 ? rule.substring(0, slash) : rule;
+                if (isIpLiteral(address)) {
+                    try {
+                        insertAddress(rule, address, slash, ipv4, ipv6);
+                    } catch (IllegalArgumentException e) {
+                        log.warn("[SECURITY] Regola whitelist non valida ignorata: {}", rule);
+                        continue;
+                    }
+                } else if (slash >= 0) {
+                    log.warn("[SECURITY] Regola whitelist non valida ignorata: {}", rule);
+                    continue;
+                }
+                // Keep the literal too, so an address reported in an unusual textual form still matches verbatim
+                exact.add(rule);
+                count++;
+            }
+        }
+
+        return new IpWhitelistMatcher(Set.copyOf(exact), ipv4, ipv6, wildcardPrefixes, wildcards.toArray(String[]::new), count);
+    }
+
+    /**
+     * Checks whether an address is whitelisted.
+     *
+     * @param address the textual remote address
+     * @return true if any rule matches
+     */
+    public boolean matches(String address) {
+        if (address == null || address.isEmpty()) {
+            return false;
+        }
+        if (exact.contains(address)) {
+            return true;
+        }
+        if (address.indexOf(':') >= 0 ? matchesIpv6(address) : matchesIpv4(address)) {
+            return true;
+        }
+        if (wildcardPrefixes.matchesPrefixOf(address)) {
+            return true;
+        }
+        for (String wildcard : wildcards) {
+            if (globMatches(wildcard, address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int ruleCount() {
+        return ruleCount;
+    }
+
+    private boolean matchesIpv4(String address) {
+        long value = parseIpv4(address, 0, address.length());
+        return value >= 0 && ipv4.contains(0, value);
+    }
+
+    private boolean matchesIpv6(String address) {
+        int end = address.indexOf('%');
+        if (end < 0) {
+            end = address.length();
+        }
+
+        // Groups before "::" accumulate in (hi, lo), groups after it in (tailHi, tailLo)
+        long hi = 0;
+        long lo = 0;
+        int count = 0;
+        long tailHi = 0;
+        long tailLo = 0;
+        int tailCount = 0;
+        boolean gap = false;
+
+        int i = 0;
+        if (end >= 2 && address.charAt(0) == ':' && address.charAt(1) == ':') {
+            gap = true;
+            i = 2;
+        } else if (end > 0 && address.charAt(0) == ':') {
+            return false;
+        }
+
+        while (i < end) {
+            int j = i;
+            int group = 0;
+            int digits = 0;
+            boolean dotted = false;
+            while (j < end && address.charAt(j) != ':') {
+                char c = address.charAt(j);
+                if (c == '.') {
+                    dotted = true;
+                    break;
+                }
+                int digit = Character.digit(c, 16);
+                if (digit < 0 || ++digits > 4) {
+                    return false;
+                }
+                group = (group << 4) | digit;
+                j++;
+            }
+
+            if (dotted) {
+                long v4 = parseIpv4(address, i, end);
+                if (v4 < 0) {
+                    return false;
+                }
+                for (int half = 0; half < 2; half++) {
+                    long value = half == 0 ? v4 >>> 16 : v4 & 0xffff;
+                    if (gap) {
+                        tailHi = (tailHi << 16) | (tailLo >>> 48);
+                        tailLo = (tailLo << 16) | value;
+                        tailCount++;
+                    } else {
+                        hi = (hi << 16) | (lo >>> 48);
+                        lo = (lo << 16) | value;
+                        count++;
+                    }
+                }
+                break;
+            }
+
+            if (digits == 0) {
+                return false;
+            }
+            if (gap) {
+                tailHi = (tailHi << 16) | (tailLo >>> 48);
+                tailLo = (tailLo << 16) | group;
+                tailCount++;
+            } else {
+                hi = (hi << 16) | (lo >>> 48);
+                lo = (lo << 16) | group;
+                count++;
+            }
+
+            if (j == end) {
+                break;
+            }
+            if (j + 1 < end && address.charAt(j + 1) == ':') {
+                if (gap) {
+                    return false;
+                }
+                gap = true;
+                i = j + 2;
+            } else {
+                i = j + 1;
+                if (i == end) {
+                    return false;
+                }
+            }
+        }
+
+        int total = count + tailCount;
+        if (gap ? total > 7 : total != 8) {
+            return false;
+        }
+        for (int k = count; k < 8; k++) {
+            hi = (hi << 16) | (lo >>> 48);
+            lo = lo << 16;
+        }
+        hi |= tailHi;
+        lo |= tailLo;
+
+        if (ipv6.contains(hi, lo)) {
+            return true;
+        }
+        // IPv4-mapped addresses (::ffff:a.b.c.d) are also checked against the IPv4 rules
+        return hi == 0 && (lo >>> 32) == IPV4_MAPPED_PREFIX && ipv4.contains(0, lo & 0xffffffffL);
+    }
+
+    /**
+     * Parses a dotted quad without allocating.
+     *
+     * @return the address as an unsigned 32-bit value, or -1 if invalid
+     */
+    private static long parseIpv4(String address, int from, int to) {
+        long value = 0;
+        int octets = 0;
+        int octet = 0;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            char c = address.charAt(i);
+            if (c == '.') {
+                if (digits == 0 || ++octets > 3) {
+                    return -1;
+                }
+                value = (value << 8) | octet;
+                octet = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return -1;
+                }
+            } else {
+                return -1;
+            }
+        }
+        if (digits == 0 || octets != 3) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    /**
+     * Glob match supporting {@code *} only, with single-star backtracking.
+     */
+    static boolean globMatches(String pattern, String text) {
+        int p = 0;
+        int t = 0;
+        int star = -1;
+        int mark = 0;
+        while (t < text.length()) {
+            if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                mark = t;
+            } else if (p < pattern.length() && pattern.charAt(p) == text.charAt(t)) {
+                p++;
+                t++;
+            } else if (star >= 0) {
+                p = star + 1;
+                t = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    private static boolean isIpLiteral(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        boolean colon = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ':') {
+                colon = true;
+            } else if (!(c == '.' || Character.digit(c, 16) >= 0)) {
+                return false;
+            }
+        }
+        return colon || parseIpv4(value, 0, value.length()) >= 0;
+    }
+
+    /**
+     * Adds an address or CIDR rule to the trie of its family. IPv4-mapped IPv6 rules covering at most the mapped
+     * range go to the IPv4 trie, which mapped addresses are also checked against.
+     *
+     * @throws IllegalArgumentException if the address or prefix length is invalid
+     */
+    private static void insertAddress(String rule, String address, int slash, PrefixTrie ipv4, PrefixTrie ipv6) {
+        byte[] bytes = toBytes(address, rule);
+        // InetAddress returns the IPv4 address of an IPv4-mapped literal, whose prefix is still out of 128 bits
+        boolean mapped = bytes.length == 4 && address.indexOf(':') >= 0;
+        int maxPrefix = mapped ? 128 : bytes.length * 8;
+        int prefix = slash >= 0 ? parsePrefix(rule.substring(slash + 1), maxPrefix, rule) : maxPrefix;
+        if (mapped) {
+            if (prefix >= IPV4_MAPPED_PREFIX_LENGTH) {
+                ipv4.insert(0, toLong(bytes), prefix - IPV4_MAPPED_PREFIX_LENGTH);
+            } else {
+                ipv6.insert(0, (IPV4_MAPPED_PREFIX << 32) | toLong(bytes), prefix);
+            }
+            return;
+        }
+
+        long hi = 0;
+        long lo = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes.length == 16 && i < 8) {
+                hi = (hi << 8) | (bytes[i] & 0xff);
+            } else {
+                lo = (lo << 8) | (bytes[i] & 0xff);
+            }
+        }
+        (bytes.length == 4 ? ipv4 : ipv6).insert(hi, lo, prefix);
+    }
+
+    private static long toLong(byte[] ipv4) {
+        long value = 0;
+        for (byte b : ipv4) {
+            value = (value << 8) | (b & 0xff);
+        }
+        return value;
+    }
+
+    private static byte[] toBytes(String address, String rule) {
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid whitelist rule: " + rule, e);
+        }
+    }
+
+    private static int parsePrefix(String value, int maxPrefix, String rule) {
+        try {
+            int prefix = Integer.parseInt(value.trim());
+            if (prefix < 0 || prefix > maxPrefix) {
+                throw new IllegalArgumentException("Invalid prefix length in whitelist rule: " + rule);
+            }
+            return prefix;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid prefix length in whitelist rule: " + rule, e);
+        }
+    }
+
+    /**
+     * Binary trie over address bits, stored as parallel arrays. Node 0 is the root; a child index of 0 means
+     * "no child". A terminal node marks the end of a whitelisted prefix.
+     */
+    private static final class PrefixTrie {
+
+        private final int width;
+        private int[] zero = new int[16];
+        private int[] one = new int[16];
+        private boolean[] terminal = new boolean[16];
+        private int size = 1;
+
+        private PrefixTrie(int width) {
+            this.width = width;
+        }
+
+        private void insert(long hi, long lo, int prefix) {
+            int node = 0;
+            for (int i = 0; i < prefix && !terminal[node]; i++) {
+                int[] children = bit(hi, lo, i) == 0 ? zero : one;
+                if (children[node] == 0) {
+                    children = grow(children);
+                    children[node] = size++;
+                }
+                node = children[node];
+            }
+            terminal[node] = true;
+        }
+
+        private boolean contains(long hi, long lo) {
+            if (size == 1 && !terminal[0]) {
+                return false;
+            }
+            int node = 0;
+            for (int i = 0; i < width; i++) {
+                if (terminal[node]) {
+                    return true;
+                }
+                node = bit(hi, lo, i) == 0 ? zero[node] : one[node];
+                if (node == 0) {
+                    return false;
+                }
+            }
+            return terminal[node];
+        }
+
+        private long bit(long hi, long lo, int index) {
+            if (width == 32) {
+                return (lo >>> (31 - index)) & 1;
+            }
+            return index < 64 ? (hi >>> (63 - index)) & 1 : (lo >>> (127 - index)) & 1;
+        }
+
+        /**
+         * Ensures room for one more node and returns the (possibly reallocated) array passed in.
+         */
+        private int[] grow(int[] children) {
+            if (size < terminal.length) {
+                return children;
+            }
+            boolean isZero = children == zero;
+            int capacity = terminal.length * 2;
+            zero = Arrays.copyOf(zero, capacity);
+            one = Arrays.copyOf(one, capacity);
+            terminal = Arrays.copyOf(terminal, capacity);
+            return isZero ? zero : one;
+        }
+    }
+
+    /**
+     * Character trie of literal prefixes, stored as first-child / next-sibling arrays.
+     * Used for wildcard rules ending in their only {@code *}.
+     */
+    private static final class TextPrefixTrie {
+
+        private char[] label = new char[16];
+        private int[] firstChild = new int[16];
+        private int[] nextSibling = new int[16];
+        private boolean[] terminal = new boolean[16];
+        private int size = 1;
+
+        private void insert(String text, int length) {
+            int node = 0;
+            for (int i = 0; i < length && !terminal[node]; i++) {
+                char c = text.charAt(i);
+                int child = find(node, c);
+                if (child == 0) {
+                    ensureCapacity();
+                    child = size++;
+                    label[child] = c;
+                    nextSibling[child] = firstChild[node];
+                    firstChild[node] = child;
+                }
+                node = child;
+            }
+            terminal[node] = true;
+        }
+
+        private boolean matchesPrefixOf(String text) {
+            if (size == 1 && !terminal[0]) {
+                return false;
+            }
+            int node = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (terminal[node]) {
+                    return true;
+                }
+                node = find(node, text.charAt(i));
+                if (node == 0) {
+                    return false;
+                }
+            }
+            return terminal[node];
+        }
+
+        private int find(int node, char c) {
+            int child = firstChild[node];
+            while (child != 0 && label[child] != c) {
+                child = nextSibling[child];
+            }
+            return child;
+        }
+
+        private void ensureCapacity() {
+            if (size < terminal.length) {
+                return;
+            }
+            int capacity = terminal.length * 2;
+            label = Arrays.copyOf(label, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            terminal = Arrays.copyOf(terminal, capacity);
+        }
+    }
+}
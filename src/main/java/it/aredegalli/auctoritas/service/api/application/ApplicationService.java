@@ -1,9 +1,13 @@
 package it.aredegalli.auctoritas.service.api.application;
 
+import it.aredegalli.auctoritas.dto.application.ApplicationCatalogDto;
+import it.aredegalli.auctoritas.dto.application.ApplicationCatalogSyncDto;
 import it.aredegalli.auctoritas.dto.application.ApplicationDto;
 import it.aredegalli.auctoritas.dto.application.ApplicationSaveDto;
+import it.aredegalli.auctoritas.dto.page.PageDto;
 import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
 import it.aredegalli.auctoritas.service.audit.annotation.Audit;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.UUID;
@@ -25,6 +29,18 @@ public interface ApplicationService {
     @Audit(event = AuditEventTypeEnum.APPLICATION_GET_ALL, description = "Get all applications")
     List<ApplicationDto> getAllApplications();
 
+    /**
+     * Retrieves a page of applications ordered by name.
+     *
+     * @param prefix    only applications whose name starts with it, null for all applications
+     * @param direction the name order, null for ascending
+     * @param cursor    the cursor returned with the previous page, null for the first page
+     * @param limit     the page size
+     * @return the applications of the page and the cursor of the next one
+     */
+    @Audit(event = AuditEventTypeEnum.APPLICATION_GET_ALL, description = "Get applications page")
+    PageDto<ApplicationDto> getApplicationsPage(String prefix, Sort.Direction direction, String cursor, int limit);
+
     /**
      * Updates an existing application.
      *
@@ -41,4 +57,17 @@ public interface ApplicationService {
      * @return the ID of the created application
      */
     UUID createApplication(ApplicationSaveDto saveDto);
+
+    /**
+     * Brings the roles of an application and the permissions of those roles to the desired catalog, applying
+     * only the difference with the current state, in one transaction.
+     * <p>
+     * Roles missing from the catalog are unlinked from the application but keep their permissions. The
+     * permissions of a listed role are replaced: they are shared by every application using the role.
+     *
+     * @param id      the ID of the application
+     * @param catalog the desired roles and their permissions, referenced by name
+     * @return the number of links added and removed
+     */
+    ApplicationCatalogSyncDto syncCatalog(UUID id, ApplicationCatalogDto catalog);
 }
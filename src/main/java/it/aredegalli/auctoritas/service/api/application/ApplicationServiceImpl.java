@@ -1,19 +1,41 @@
 package it.aredegalli.auctoritas.service.api.application;
 
 
+import it.aredegalli.auctoritas.dto.application.ApplicationCatalogDto;
+import it.aredegalli.auctoritas.dto.application.ApplicationCatalogRoleDto;
+import it.aredegalli.auctoritas.dto.application.ApplicationCatalogSyncDto;
 import it.aredegalli.auctoritas.dto.application.ApplicationDto;
 import it.aredegalli.auctoritas.dto.application.ApplicationSaveDto;
+import it.aredegalli.auctoritas.dto.page.PageDto;
 import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
 import it.aredegalli.auctoritas.model.application.Application;
+import it.aredegalli.auctoritas.repository.NamePage;
 import it.aredegalli.auctoritas.repository.application.ApplicationRepository;
+import it.aredegalli.auctoritas.repository.role.ApplicationRoleRepository;
+import it.aredegalli.auctoritas.repository.role.ApplicationRoleRepositoryCustom.CatalogState;
+import it.aredegalli.auctoritas.repository.role.PermissionRoleRepository;
+import it.aredegalli.auctoritas.repository.role.PermissionRoleRepositoryCustom.RolePermission;
 import it.aredegalli.auctoritas.service.audit.annotation.Audit;
+import it.aredegalli.auctoritas.service.audit.annotation.AuditMetadata;
+import it.aredegalli.auctoritas.service.authorization.AuthorizationDecisionCache;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
 import it.aredegalli.auctoritas.service.validation.EntityValidationHelper;
+import it.aredegalli.auctoritas.service.validation.RequestEntityCache;
 import it.aredegalli.auctoritas.service.validation.annotation.EntityExistence;
+import it.aredegalli.common.exception.NotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 
@@ -24,17 +46,27 @@ public class ApplicationServiceImpl implements ApplicationService {
 
     private final ApplicationRepository applicationRepository;
     private final EntityValidationHelper entityValidationHelper;
+    private final AuthorizationDecisionCache decisionCache;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final RequestEntityCache entityCache;
+    private final ApplicationRoleRepository applicationRoleRepository;
+    private final PermissionRoleRepository permissionRoleRepository;
+    private final RolePermissionIndex rolePermissionIndex;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
-    @EntityExistence(repository = ApplicationRepository.class, idParam = "name", method = "existsByName")
+    @Transactional(readOnly = true)
+    @EntityExistence(repository = ApplicationRepository.class, idParam = "name", method = "findByName", fetch = true)
     @Audit(event = AuditEventTypeEnum.APPLICATION_GET, description = "Get application by name")
     public ApplicationDto getApplicationByName(String name) {
-        return this.applicationRepository.findByName(name)
+        return this.entityCache.<Application>find(this.applicationRepository, "findByName", name,
+                        () -> this.applicationRepository.findByName(name))
                 .map(ApplicationDto::new)
                 .orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Audit(event = AuditEventTypeEnum.APPLICATION_GET_ALL, description = "Get all applications")
     public List<ApplicationDto> getAllApplications() {
         return this.applicationRepository.findAll()
@@ -44,10 +76,18 @@ public class ApplicationServiceImpl implements ApplicationService {
     }
 
     @Override
-    @EntityExistence(repository = ApplicationRepository.class, idParam = "id")
+    @Transactional(readOnly = true)
+    @Audit(event = AuditEventTypeEnum.APPLICATION_GET_ALL, description = "Get applications page")
+    public PageDto<ApplicationDto> getApplicationsPage(String prefix, Sort.Direction direction, String cursor, int limit) {
+        List<ApplicationDto> rows = this.applicationRepository.findPage(NamePage.request(prefix, direction, cursor, limit));
+        return NamePage.page(rows, limit, ApplicationDto::getName);
+    }
+
+    @Override
+    @EntityExistence(repository = ApplicationRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.APPLICATION_UPDATE, description = "Update Application")
     public UUID updateApplication(UUID id, ApplicationSaveDto saveDto) {
-        Application application = this.applicationRepository.findById(id)
+        Application application = this.entityCache.findById(this.applicationRepository, id)
                 .orElse(null);
 
         assert application != null;
@@ -55,6 +95,8 @@ public class ApplicationServiceImpl implements ApplicationService {
         application.setDescription(saveDto.getDescription());
 
         application = this.applicationRepository.save(application);
+        this.referenceDataRegistry.reload();
+        this.decisionCache.invalidateApplication(application.getId());
         log.info("[API] Application {} updated with dto: {}", application.getId(), saveDto);
 
         return application.getId();
@@ -70,9 +112,65 @@ public class ApplicationServiceImpl implements ApplicationService {
                 .build();
 
         application = this.applicationRepository.save(application);
+        this.referenceDataRegistry.reload();
         log.info("[API] Application {} created with dto: {}", application.getId(), saveDto);
 
         return application.getId();
     }
 
+    @Override
+    @Audit(event = AuditEventTypeEnum.APPLICATION_CATALOG_SYNC, description = "Sync application catalog", callParams = false)
+    @AuditMetadata(key = "param_id", value = "#{args[0]}")
+    public ApplicationCatalogSyncDto syncCatalog(UUID id, ApplicationCatalogDto catalog) {
+        Map<String, Set<String>> desired = new HashMap<>();
+        for (ApplicationCatalogRoleDto role : catalog.getRoles()) {
+            desired.computeIfAbsent(role.getName(), name -> new HashSet<>()).addAll(role.getPermissions());
+        }
+        Set<String> permissionNames = new HashSet<>();
+        desired.values().forEach(permissionNames::addAll);
+
+        ApplicationCatalogSyncDto result = this.transactionTemplate.execute(status -> {
+            if (!this.applicationRepository.lockById(id)) {
+                throw new NotFoundException("Application not found");
+            }
+            CatalogState state = this.applicationRoleRepository.findCatalogState(id, desired.keySet(), permissionNames);
+            checkAllFound("Roles", desired.keySet(), state.roleIds());
+            checkAllFound("Permissions", permissionNames, state.permissionIds());
+
+            Set<UUID> roleIds = new HashSet<>(state.roleIds().values());
+            Set<RolePermission> grants = new HashSet<>();
+            desired.forEach((role, permissions) -> permissions.forEach(permission ->
+                    grants.add(new RolePermission(state.roleIds().get(role), state.permissionIds().get(permission)))));
+
+            return ApplicationCatalogSyncDto.builder()
+                    .rolesRemoved(this.applicationRoleRepository.deleteApplicationRoles(id, difference(state.applicationRoleIds(), roleIds)))
+                    .rolesAdded(this.applicationRoleRepository.insertApplicationRoles(id, difference(roleIds, state.applicationRoleIds())))
+                    .permissionsRevoked(this.permissionRoleRepository.deleteGrants(difference(state.grants(), grants)))
+                    .permissionsGranted(this.permissionRoleRepository.insertGrants(difference(grants, state.grants())))
+                    .build();
+        });
+        assert result != null;
+
+        if (result.getPermissionsGranted() > 0 || result.getPermissionsRevoked() > 0) {
+            this.rolePermissionIndex.reload();
+        }
+        log.info("[API] Application {} catalog synced: {}", id, result);
+
+        return result;
+    }
+
+    private static void checkAllFound(String kind, Set<String> names, Map<String, UUID> found) {
+        if (found.size() < names.size()) {
+            List<String> missing = names.stream().filter(name -> !found.containsKey(name)).sorted().toList();
+            log.warn("[API] {} not found: {}", kind, missing);
+            throw new NotFoundException(kind + " not found: " + missing);
+        }
+    }
+
+    private static <T> Set<T> difference(Set<T> from, Set<T> remove) {
+        Set<T> difference = new HashSet<>(from);
+        difference.removeAll(remove);
+        return difference;
+    }
+
 }
@@ -0,0 +1,203 @@
+package it.aredegalli.auctoritas.service.api.audit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.aredegalli.auctoritas.enums.AuditExportFormatEnum;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepository;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepositoryCustom.AuditLogFilter;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepositoryCustom.ExportRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes audit logs to a stream as NDJSON or CSV, optionally gzipped.
+ * <p>
+ * Rows are read over a forward-only cursor, {@code auctoritas.audit.export.fetch-size} at a time, and written
+ * as they arrive, so memory use does not depend on the size of the export. The metadata is copied as the JSON
+ * text read from the database, without parsing it.
+ */
+@Slf4j
+@Component
+public class AuditLogExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,timestamp,event_type,user_id,application_name,description,metadata\r\n";
+
+    private final AuditLogRepository auditLogRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+
+    public AuditLogExporter(AuditLogRepository auditLogRepository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${auctoritas.audit.export.fetch-size:1000}") int fetchSize) {
+        this.auditLogRepository = auditLogRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The cursor only streams with auto-commit off
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Exports the audit logs matching a filter, oldest first.
+     *
+     * @param filter the filter, null fields are ignored
+     * @param format the output format
+     * @param gzip   whether to gzip the output
+     * @param out    the stream to write to, left open
+     * @throws IOException if writing fails
+     */
+    public void export(AuditLogFilter filter, AuditExportFormatEnum format, boolean gzip, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        OutputStream target = gzip ? new GZIPOutputStream(counting, BUFFER_SIZE) : counting;
+
+        long rows;
+        try {
+            rows = switch (format) {
+                case NDJSON -> exportNdjson(filter, target);
+                case CSV -> exportCsv(filter, target);
+            };
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+            counting.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("[AUDIT] Exported {} audit logs as {}{}: {} bytes in {} ms ({} rows/s, {} KiB/s)",
+                rows, format, gzip ? " (gzip)" : "", counting.count(), elapsedMillis,
+                rows * 1000 / elapsedMillis, counting.count() * 1000 / 1024 / elapsedMillis);
+    }
+
+    private long exportNdjson(AuditLogFilter filter, OutputStream target) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+
+            long rows = inTransaction(() -> auditLogRepository.export(filter, fetchSize, row -> writeJson(generator, row)));
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+            return rows;
+        }
+    }
+
+    private static void writeJson(JsonGenerator generator, ExportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", row.id().toString());
+        generator.writeStringField("timestamp", row.timestamp().toString());
+        generator.writeStringField("eventType", row.eventType());
+        generator.writeStringField("userId", row.userId() != null ? row.userId().toString() : null);
+        generator.writeStringField("applicationName", row.applicationName());
+        generator.writeStringField("description", row.description());
+        generator.writeFieldName("metadata");
+        if (row.metadata() != null) {
+            generator.writeRawValue(row.metadata());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeEndObject();
+    }
+
+    private long exportCsv(AuditLogFilter filter, OutputStream target) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        long rows = inTransaction(() -> auditLogRepository.export(filter, fetchSize, row -> writeCsv(writer, row)));
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsv(Writer writer, ExportRow row) throws IOException {
+        writer.write(row.id().toString());
+        writer.write(',');
+        writer.write(row.timestamp().toString());
+        writer.write(',');
+        writeCsvField(writer, row.eventType());
+        writer.write(',');
+        writer.write(row.userId() != null ? row.userId().toString() : "");
+        writer.write(',');
+        writeCsvField(writer, row.applicationName());
+        writer.write(',');
+        writeCsvField(writer, row.description());
+        writer.write(',');
+        writeCsvField(writer, row.metadata());
+        writer.write("\r\n");
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private long inTransaction(LongSupplier export) {
+        Long rows = transactionTemplate.execute(status -> export.getAsLong());
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Counts the bytes actually written to the response, after compression.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The response stream is closed by the container
+            flush();
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
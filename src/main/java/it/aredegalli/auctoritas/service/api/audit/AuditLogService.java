@@ -0,0 +1,52 @@
+package it.aredegalli.auctoritas.service.api.audit;
+
+import it.aredegalli.auctoritas.dto.audit.AuditLogPageDto;
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import it.aredegalli.auctoritas.enums.AuditExportFormatEnum;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service interface for querying the audit logs.
+ */
+public interface AuditLogService {
+
+    /**
+     * Retrieves one page of audit logs, newest first.
+     *
+     * @param userId          only logs of this user, if not null
+     * @param applicationName only logs of this application, if not null
+     * @param eventType       only logs of this event type, if not null
+     * @param from            only logs at or after this instant, if not null
+     * @param to              only logs before this instant, if not null
+     * @param metadata        only logs whose metadata contains all these entries
+     * @param cursor          the cursor returned with the previous page, or null for the first page
+     * @param limit           the page size
+     * @return the page and the cursor of the next one
+     */
+    AuditLogPageDto searchAuditLogs(UUID userId, String applicationName, AuditEventTypeEnum eventType,
+                                    Instant from, Instant to, Map<String, String> metadata, String cursor, int limit);
+
+    /**
+     * Prepares the export of every audit log matching a filter, oldest first.
+     * <p>
+     * The filter is resolved on the calling thread; the rows are read and written only when the returned body
+     * is written to the response.
+     *
+     * @param userId          only logs of this user, if not null
+     * @param applicationName only logs of this application, if not null
+     * @param eventType       only logs of this event type, if not null
+     * @param from            only logs at or after this instant, if not null
+     * @param to              only logs before this instant, if not null
+     * @param metadata        only logs whose metadata contains all these entries
+     * @param format          the output format
+     * @param gzip            whether to gzip the output
+     * @return the response body streaming the export
+     */
+    StreamingResponseBody exportAuditLogs(UUID userId, String applicationName, AuditEventTypeEnum eventType,
+                                          Instant from, Instant to, Map<String, String> metadata,
+                                          AuditExportFormatEnum format, boolean gzip);
+}
@@ -0,0 +1,105 @@
+package it.aredegalli.auctoritas.service.api.audit;
+
+import it.aredegalli.auctoritas.dto.audit.AuditLogDto;
+import it.aredegalli.auctoritas.dto.audit.AuditLogPageDto;
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import it.aredegalli.auctoritas.enums.AuditExportFormatEnum;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepository;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepositoryCustom.AuditLogFilter;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepositoryCustom.Position;
+import it.aredegalli.auctoritas.service.audit.AuditDictionary;
+import it.aredegalli.auctoritas.service.audit.AuditEventTypeRegistry;
+import it.aredegalli.auctoritas.service.audit.AuditMetadataCodec;
+import it.aredegalli.auctoritas.service.audit.annotation.Audit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class AuditLogServiceImpl implements AuditLogService {
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditEventTypeRegistry eventTypeRegistry;
+    private final AuditDictionary auditDictionary;
+    private final AuditLogExporter auditLogExporter;
+
+    @Override
+    @Audit(event = AuditEventTypeEnum.AUDIT_LOG_SEARCH, description = "Search audit logs")
+    public AuditLogPageDto searchAuditLogs(UUID userId, String applicationName, AuditEventTypeEnum eventType,
+                                           Instant from, Instant to, Map<String, String> metadata, String cursor, int limit) {
+        AuditLogFilter filter = filterOf(userId, applicationName, eventType, from, to, metadata);
+
+        // One extra row tells whether there is a next page without counting
+        List<AuditLogDto> rows = auditLogRepository.search(filter, decodeCursor(cursor), limit + 1);
+        if (rows.size() <= limit) {
+            return new AuditLogPageDto(rows, null);
+        }
+
+        List<AuditLogDto> page = rows.subList(0, limit);
+        AuditLogDto last = page.get(limit - 1);
+        return new AuditLogPageDto(List.copyOf(page), encodeCursor(new Position(last.getTimestamp(), last.getId())));
+    }
+
+    @Override
+    @Audit(event = AuditEventTypeEnum.AUDIT_LOG_EXPORT, description = "Export audit logs")
+    public StreamingResponseBody exportAuditLogs(UUID userId, String applicationName, AuditEventTypeEnum eventType,
+                                                 Instant from, Instant to, Map<String, String> metadata,
+                                                 AuditExportFormatEnum format, boolean gzip) {
+        AuditLogFilter filter = filterOf(userId, applicationName, eventType, from, to, metadata);
+        return out -> auditLogExporter.export(filter, format, gzip, out);
+    }
+
+    private AuditLogFilter filterOf(UUID userId, String applicationName, AuditEventTypeEnum eventType,
+                                    Instant from, Instant to, Map<String, String> metadata) {
+        Map<String, String> entries = metadata != null ? metadata : Map.of();
+        Map<String, Integer> keyIds = HashMap.newHashMap(entries.size());
+        for (String key : entries.keySet()) {
+            // Keys missing from the dictionary are matched as the raw keys the writer stores for them
+            Integer id = auditDictionary.find(key);
+            if (id != null) {
+                keyIds.put(key, id);
+            }
+        }
+
+        return new AuditLogFilter(userId,
+                applicationName != null ? dictionaryId(applicationName) : null,
+                eventType != null ? eventTypeRegistry.resolve(eventType) : null,
+                from, to,
+                AuditMetadataCodec.encode(entries, keyIds));
+    }
+
+    private int dictionaryId(String value) {
+        // A string no audit log ever used matches nothing
+        Integer id = auditDictionary.find(value);
+        return id != null ? id : AuditDictionary.UNKNOWN_ID;
+    }
+
+    static String encodeCursor(Position position) {
+        String value = position.timestamp() + "|" + position.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Position decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            return new Position(Instant.parse(value.substring(0, separator)), UUID.fromString(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid audit cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package it.aredegalli.auctoritas.service.api.authenticator;
+
+import it.aredegalli.auctoritas.model.authenticator.ApplicationAuthenticator;
+import it.aredegalli.auctoritas.model.authenticator.Authenticator;
+import it.aredegalli.auctoritas.repository.UUIDRepository;
+import it.aredegalli.auctoritas.repository.authenticator.ApplicationAuthenticatorRepository;
+import it.aredegalli.auctoritas.repository.authenticator.AuthenticatorRepository;
+import it.aredegalli.auctoritas.security.encryption.EncryptionService;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Rewrites the authenticator and application authenticator configurations still encrypted in the legacy format
+ * or with a retired key, so a rotated key can be dropped from {@code security.crypto.retired-keys} once every
+ * instance has started with the new one. Runs at startup unless {@code security.crypto.re-encrypt-on-startup} is
+ * false.
+ */
+@Slf4j
+@Component
+public class AuthenticatorConfigReEncryptor {
+
+    private final AuthenticatorRepository authenticatorRepository;
+    private final ApplicationAuthenticatorRepository applicationAuthenticatorRepository;
+    private final EncryptionService encryptionService;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    public AuthenticatorConfigReEncryptor(AuthenticatorRepository authenticatorRepository,
+                                          ApplicationAuthenticatorRepository applicationAuthenticatorRepository, EncryptionService encryptionService,
+                                          ReferenceDataRegistry referenceDataRegistry, PlatformTransactionManager transactionManager,
+                                          @Value("${security.crypto.re-encrypt-on-startup:true}") boolean enabled) {
+        this.authenticatorRepository = authenticatorRepository;
+        this.applicationAuthenticatorRepository = applicationAuthenticatorRepository;
+        this.encryptionService = encryptionService;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            reEncrypt();
+        }
+    }
+
+    /**
+     * Re-encrypts with the current key every configuration that needs it.
+     *
+     * @return the number of configurations rewritten
+     */
+    public int reEncrypt() {
+        Integer rewritten = transactionTemplate.execute(status ->
+                reEncrypt(authenticatorRepository, Authenticator::getConfig, Authenticator::setConfig)
+                        + reEncrypt(applicationAuthenticatorRepository, ApplicationAuthenticator::getConfig, ApplicationAuthenticator::setConfig));
+
+        if (rewritten != null && rewritten > 0) {
+            referenceDataRegistry.reload();
+            log.info("[SECURITY] Re-encrypted {} authenticator configurations with the current key", rewritten);
+        }
+        return rewritten != null ? rewritten : 0;
+    }
+
+    private <T> int reEncrypt(UUIDRepository<T> repository, Function<T, String> config, BiConsumer<T, String> setConfig) {
+        List<T> stale = new ArrayList<>();
+        for (T entity : repository.findAll()) {
+            String value = config.apply(entity);
+            if (value != null && encryptionService.needsReEncryption(value)) {
+                setConfig.accept(entity, encryptionService.encrypt(encryptionService.decrypt(value)));
+                stale.add(entity);
+            }
+        }
+        repository.saveAll(stale);
+        return stale.size();
+    }
+}
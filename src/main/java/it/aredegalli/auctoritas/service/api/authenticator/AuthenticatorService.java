@@ -4,6 +4,7 @@ import it.aredegalli.auctoritas.dto.authenticator.ApplicationAuthenticatorDto;
 import it.aredegalli.auctoritas.dto.authenticator.AuthenticatorDto;
 import it.aredegalli.auctoritas.dto.authenticator.AuthenticatorSaveDto;
 import it.aredegalli.auctoritas.dto.authenticator.UserAuthMappingDto;
+import it.aredegalli.auctoritas.dto.page.PageDto;
 import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
 import it.aredegalli.auctoritas.repository.application.ApplicationRepository;
 import it.aredegalli.auctoritas.repository.authenticator.ApplicationAuthenticatorRepository;
@@ -11,6 +12,7 @@ import it.aredegalli.auctoritas.repository.authenticator.AuthenticatorRepository
 import it.aredegalli.auctoritas.repository.user.UserRepository;
 import it.aredegalli.auctoritas.service.audit.annotation.Audit;
 import it.aredegalli.auctoritas.service.validation.annotation.EntityExistence;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.UUID;
@@ -22,7 +24,7 @@ public interface AuthenticatorService {
      * @param authenticatorId the UUID of the authenticator
      * @return true if the authenticator is active, false otherwise
      */
-    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "authenticatorId")
+    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "authenticatorId", fetch = true)
     @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_ACTIVE, description = "Authenticator activated check")
     boolean isAuthenticatorActive(UUID authenticatorId);
 
@@ -32,7 +34,7 @@ public interface AuthenticatorService {
      * @param name the name of the authenticator
      * @return the AuthenticatorDto object
      */
-    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "name", method = "findByName")
+    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "name", method = "findByName", fetch = true)
     @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_GET, description = "Get authenticator by name")
     AuthenticatorDto getAuthenticatorByName(String name);
 
@@ -44,6 +46,22 @@ public interface AuthenticatorService {
     @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_GET_ALL, description = "Get all authenticators")
     List<AuthenticatorDto> getAllAuthenticators();
 
+    /**
+     * Retrieves a page of authenticators ordered by name. Configs are decrypted only when requested.
+     *
+     * @param prefix        only authenticators whose name starts with it, null for all authenticators
+     * @param authType      only authenticators of this type, null for all types
+     * @param active        only active or inactive authenticators, null for both
+     * @param includeConfig whether to return the decrypted config; when false it is null
+     * @param direction     the name order, null for ascending
+     * @param cursor        the cursor returned with the previous page, null for the first page
+     * @param limit         the page size
+     * @return the authenticators of the page and the cursor of the next one
+     */
+    @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_GET_ALL, description = "Get authenticators page")
+    PageDto<AuthenticatorDto> getAuthenticatorsPage(String prefix, String authType, Boolean active, boolean includeConfig,
+                                                    Sort.Direction direction, String cursor, int limit);
+
     /**
      * Creates a new authenticator.
      *
@@ -60,7 +78,7 @@ public interface AuthenticatorService {
      * @param saveDto the data transfer object containing the updated authenticator details
      * @return the UUID of the updated authenticator
      */
-    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "id")
+    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_UPDATE, description = "Update authenticator")
     UUID updateAuthenticator(UUID id, AuthenticatorSaveDto saveDto);
 
@@ -108,7 +126,7 @@ public interface AuthenticatorService {
      * @param id the UUID of the application authenticator
      * @return true if the application authenticator is active, false otherwise
      */
-    @EntityExistence(repository = ApplicationAuthenticatorRepository.class, idParam = "id")
+    @EntityExistence(repository = ApplicationAuthenticatorRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.APPLICATION_AUTHENTICATOR_ACTIVE, description = "Check app authenticator active")
     boolean isAppAuthenticatorActive(UUID id);
 
@@ -139,7 +157,7 @@ public interface AuthenticatorService {
      *
      * @param id the UUID of the application authenticator to delete
      */
-    @EntityExistence(repository = ApplicationAuthenticatorRepository.class, idParam = "id")
+    @EntityExistence(repository = ApplicationAuthenticatorRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.APPLICATION_AUTHENTICATOR_DELETE, description = "Delete app authenticator")
     void deleteAppAuthenticator(UUID id);
 }
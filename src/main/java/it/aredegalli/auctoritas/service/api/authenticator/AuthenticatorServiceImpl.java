@@ -4,12 +4,14 @@ import it.aredegalli.auctoritas.dto.authenticator.ApplicationAuthenticatorDto;
 import it.aredegalli.auctoritas.dto.authenticator.AuthenticatorDto;
 import it.aredegalli.auctoritas.dto.authenticator.AuthenticatorSaveDto;
 import it.aredegalli.auctoritas.dto.authenticator.UserAuthMappingDto;
+import it.aredegalli.auctoritas.dto.page.PageDto;
 import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
 import it.aredegalli.auctoritas.model.application.Application;
 import it.aredegalli.auctoritas.model.authenticator.ApplicationAuthenticator;
 import it.aredegalli.auctoritas.model.authenticator.Authenticator;
 import it.aredegalli.auctoritas.model.authenticator.UserAuthMapping;
 import it.aredegalli.auctoritas.model.user.User;
+import it.aredegalli.auctoritas.repository.NamePage;
 import it.aredegalli.auctoritas.repository.application.ApplicationRepository;
 import it.aredegalli.auctoritas.repository.authenticator.ApplicationAuthenticatorRepository;
 import it.aredegalli.auctoritas.repository.authenticator.AuthenticatorRepository;
@@ -17,12 +19,17 @@ import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingReposito
 import it.aredegalli.auctoritas.repository.user.UserRepository;
 import it.aredegalli.auctoritas.security.encryption.EncryptionService;
 import it.aredegalli.auctoritas.service.audit.annotation.Audit;
+import it.aredegalli.auctoritas.service.authorization.AuthorizationDecisionCache;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import it.aredegalli.auctoritas.service.validation.RequestEntityCache;
 import it.aredegalli.auctoritas.service.validation.annotation.EntityExistence;
 import it.aredegalli.auctoritas.util.HashUtil;
 import it.aredegalli.common.exception.ConflictException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -39,12 +46,16 @@ public class AuthenticatorServiceImpl implements AuthenticatorService {
     private final UserRepository userRepository;
     private final EncryptionService encryptionService;
     private final HashUtil hashUtil;
+    private final AuthorizationDecisionCache decisionCache;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final RequestEntityCache entityCache;
 
     @Override
-    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "authenticatorId")
+    @Transactional(readOnly = true)
+    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "authenticatorId", fetch = true)
     @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_ACTIVE, description = "Authenticator active status check")
     public boolean isAuthenticatorActive(UUID authenticatorId) {
-        boolean active = authenticatorRepository.findById(authenticatorId)
+        boolean active = entityCache.findById(authenticatorRepository, authenticatorId)
                 .map(Authenticator::isActive)
                 .orElse(false);
         log.info("[API] Authenticator {} active status: {}", authenticatorId, active);
@@ -52,10 +63,12 @@ public class AuthenticatorServiceImpl implements AuthenticatorService {
     }
 
     @Override
-    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "name", method = "findByName")
+    @Transactional(readOnly = true)
+    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "name", method = "findByName", fetch = true)
     @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_GET, description = "Get authenticator by name")
     public AuthenticatorDto getAuthenticatorByName(String name) {
-        Authenticator authenticator = authenticatorRepository.findByName(name).orElse(null);
+        Authenticator authenticator = entityCache.<Authenticator>find(authenticatorRepository, "findByName", name,
+                () -> authenticatorRepository.findByName(name)).orElse(null);
         assert authenticator != null;
         AuthenticatorDto dto = AuthenticatorDto.builder().id(authenticator.getId())
                 .name(authenticator.getName())
@@ -68,6 +81,7 @@ public class AuthenticatorServiceImpl implements AuthenticatorService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_GET_ALL, description = "Get all authenticators")
     public List<AuthenticatorDto> getAllAuthenticators() {
         return this.authenticatorRepository.findAll()
@@ -82,6 +96,20 @@ public class AuthenticatorServiceImpl implements AuthenticatorService {
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_GET_ALL, description = "Get authenticators page")
+    public PageDto<AuthenticatorDto> getAuthenticatorsPage(String prefix, String authType, Boolean active, boolean includeConfig,
+                                                           Sort.Direction direction, String cursor, int limit) {
+        List<AuthenticatorDto> rows = this.authenticatorRepository.findPage(NamePage.request(prefix, direction, cursor, limit),
+                authType, active, includeConfig);
+        PageDto<AuthenticatorDto> page = NamePage.page(rows, limit, AuthenticatorDto::getName);
+        if (includeConfig) {
+            page.getItems().forEach(dto -> dto.setConfig(this.encryptionService.decrypt(dto.getConfig())));
+        }
+        return page;
+    }
+
     @Override
     @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_CREATE, description = "Create authenticator")
     public UUID createAuthenticator(AuthenticatorSaveDto saveDto) {
@@ -93,21 +121,24 @@ public class AuthenticatorServiceImpl implements AuthenticatorService {
                 .config(encryptedConfig)
                 .build();
         authenticator = authenticatorRepository.save(authenticator);
+        referenceDataRegistry.reload();
         log.info("[API] Created authenticator {} with dto: {}", authenticator.getId(), saveDto);
         return authenticator.getId();
     }
 
     @Override
-    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "id")
+    @EntityExistence(repository = AuthenticatorRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_UPDATE, description = "Update authenticator")
     public UUID updateAuthenticator(UUID id, AuthenticatorSaveDto saveDto) {
         String encryptedConfig = this.encryptionService.encrypt(saveDto.getConfig());
-        Authenticator authenticator = authenticatorRepository.findById(id).orElse(null);
+        Authenticator authenticator = entityCache.findById(authenticatorRepository, id).orElse(null);
         assert authenticator != null;
         authenticator.setName(saveDto.getName());
         authenticator.setAuthType(saveDto.getAuthType());
         authenticator.setConfig(encryptedConfig);
         authenticatorRepository.save(authenticator);
+        referenceDataRegistry.reload();
+        decisionCache.invalidateAuthenticator(id);
         log.info("[API] Updated authenticator {} with dto: {}", id, saveDto);
         return id;
     }
@@ -117,10 +148,14 @@ public class AuthenticatorServiceImpl implements AuthenticatorService {
     @Audit(event = AuditEventTypeEnum.AUTHENTICATOR_DELETE, description = "Delete authenticator")
     public void deleteAuthenticator(UUID id) {
         authenticatorRepository.deleteById(id);
+        entityCache.evict(authenticatorRepository);
+        referenceDataRegistry.reload();
+        decisionCache.invalidateAuthenticator(id);
         log.info("[API] Deleted authenticator {}", id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     @EntityExistence(repository = UserRepository.class, idParam = "userId")
     @Audit(event = AuditEventTypeEnum.USER_AUTHENTICATOR_MAPPING_GET, description = "Get mappings by user")
     public List<UserAuthMappingDto> getMappingsByUserId(UUID userId) {
@@ -154,15 +189,22 @@ public class AuthenticatorServiceImpl implements AuthenticatorService {
     @Override
     @Audit(event = AuditEventTypeEnum.USER_AUTHENTICATOR_MAPPING_DELETE, description = "Delete user auth mapping")
     public void deleteMapping(UUID mappingId) {
+        UUID userId = userAuthMappingRepository.findById(mappingId)
+                .map(mapping -> mapping.getUser().getId())
+                .orElse(null);
         userAuthMappingRepository.deleteById(mappingId);
+        if (userId != null) {
+            decisionCache.invalidateUser(userId);
+        }
         log.info("[API] Deleted auth mapping {}", mappingId);
     }
 
     @Override
-    @EntityExistence(repository = ApplicationAuthenticatorRepository.class, idParam = "id")
+    @Transactional(readOnly = true)
+    @EntityExistence(repository = ApplicationAuthenticatorRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.APPLICATION_AUTHENTICATOR_ACTIVE, description = "Check app authenticator active")
     public boolean isAppAuthenticatorActive(UUID id) {
-        boolean active = applicationAuthenticatorRepository.findById(id)
+        boolean active = entityCache.findById(applicationAuthenticatorRepository, id)
                 .map(ApplicationAuthenticator::isActive)
                 .orElse(false);
         log.info("[API] AppAuthenticator {} active status: {}", id, active);
@@ -170,6 +212,7 @@ public class AuthenticatorServiceImpl implements AuthenticatorService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @EntityExistence(repository = ApplicationRepository.class, idParam = "applicationId")
     @Audit(event = AuditEventTypeEnum.APPLICATION_AUTHENTICATOR_GET, description = "Get app authenticators")
     public List<ApplicationAuthenticatorDto> getAppAuthenticators(UUID applicationId) {
@@ -205,15 +248,22 @@ public class AuthenticatorServiceImpl implements AuthenticatorService {
                 .isActive(true)
                 .build();
         appAuth = applicationAuthenticatorRepository.save(appAuth);
+        referenceDataRegistry.reload();
         log.info("[API] Created app authenticator {} for app {}", appAuth.getId(), applicationId);
         return appAuth.getId();
     }
 
     @Override
-    @EntityExistence(repository = ApplicationAuthenticatorRepository.class, idParam = "id")
+    @EntityExistence(repository = ApplicationAuthenticatorRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.APPLICATION_AUTHENTICATOR_DELETE, description = "Delete app authenticator")
     public void deleteAppAuthenticator(UUID id) {
+        ApplicationAuthenticator appAuth = entityCache.findById(applicationAuthenticatorRepository, id).orElse(null);
         applicationAuthenticatorRepository.deleteById(id);
+        entityCache.evict(applicationAuthenticatorRepository);
+        referenceDataRegistry.reload();
+        if (appAuth != null) {
+            decisionCache.invalidateApplicationAuthenticator(appAuth.getApplication().getId(), appAuth.getAuthenticator().getId());
+        }
         log.info("[API] Deleted app authenticator {}", id);
     }
 }
@@ -1,9 +1,13 @@
 package it.aredegalli.auctoritas.service.api.role;
 
+import it.aredegalli.auctoritas.dto.page.PageDto;
 import it.aredegalli.auctoritas.dto.role.PermissionDto;
 import it.aredegalli.auctoritas.dto.role.PermissionSaveDto;
 import it.aredegalli.auctoritas.dto.role.RoleDto;
 import it.aredegalli.auctoritas.dto.role.RoleSaveDto;
+import it.aredegalli.auctoritas.dto.role.UserRoleBulkItemDto;
+import it.aredegalli.auctoritas.dto.role.UserRoleBulkResultDto;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.UUID;
@@ -43,6 +47,28 @@ public interface RoleService {
      */
     List<PermissionDto> getAllPermissions();
 
+    /**
+     * Retrieves a page of roles ordered by name.
+     *
+     * @param prefix    only roles whose name starts with it, null for all roles
+     * @param direction the name order, null for ascending
+     * @param cursor    the cursor returned with the previous page, null for the first page
+     * @param limit     the page size
+     * @return the roles of the page and the cursor of the next one
+     */
+    PageDto<RoleDto> getRolesPage(String prefix, Sort.Direction direction, String cursor, int limit);
+
+    /**
+     * Retrieves a page of permissions ordered by name.
+     *
+     * @param prefix    only permissions whose name starts with it, null for all permissions
+     * @param direction the name order, null for ascending
+     * @param cursor    the cursor returned with the previous page, null for the first page
+     * @param limit     the page size
+     * @return the permissions of the page and the cursor of the next one
+     */
+    PageDto<PermissionDto> getPermissionsPage(String prefix, Sort.Direction direction, String cursor, int limit);
+
     /**
      * Updates a role with the given ID.
      *
@@ -132,6 +158,15 @@ public interface RoleService {
      */
     UUID removeRoleFromUser(UUID userId, UUID roleId, UUID applicationId);
 
+    /**
+     * Adds and removes many user roles in one transaction. Items referencing a missing user, role or application
+     * are reported and skipped; the others are applied, removals first.
+     *
+     * @param items the assignments to add or remove
+     * @return the outcome of every item, in request order, with the totals
+     */
+    UserRoleBulkResultDto bulkUpdateUserRoles(List<UserRoleBulkItemDto> items);
+
     /**
      * Retrieves a list of roles by application ID.
      *
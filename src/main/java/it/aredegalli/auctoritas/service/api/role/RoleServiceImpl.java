@@ -1,10 +1,16 @@
 package it.aredegalli.auctoritas.service.api.role;
 
+import it.aredegalli.auctoritas.dto.page.PageDto;
 import it.aredegalli.auctoritas.dto.role.PermissionDto;
 import it.aredegalli.auctoritas.dto.role.PermissionSaveDto;
 import it.aredegalli.auctoritas.dto.role.RoleDto;
 import it.aredegalli.auctoritas.dto.role.RoleSaveDto;
+import it.aredegalli.auctoritas.dto.role.UserRoleBulkItemDto;
+import it.aredegalli.auctoritas.dto.role.UserRoleBulkItemResultDto;
+import it.aredegalli.auctoritas.dto.role.UserRoleBulkResultDto;
 import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import it.aredegalli.auctoritas.enums.UserRoleBulkActionEnum;
+import it.aredegalli.auctoritas.enums.UserRoleBulkOutcomeEnum;
 import it.aredegalli.auctoritas.model.application.Application;
 import it.aredegalli.auctoritas.model.application.UserRoleApplication;
 import it.aredegalli.auctoritas.model.role.ApplicationRole;
@@ -12,21 +18,40 @@ import it.aredegalli.auctoritas.model.role.Permission;
 import it.aredegalli.auctoritas.model.role.PermissionRole;
 import it.aredegalli.auctoritas.model.role.Role;
 import it.aredegalli.auctoritas.model.user.User;
+import it.aredegalli.auctoritas.repository.NamePage;
 import it.aredegalli.auctoritas.repository.application.ApplicationRepository;
 import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepository;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepositoryCustom.Assignment;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepositoryCustom.ExistingIds;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepositoryCustom.UserApplication;
 import it.aredegalli.auctoritas.repository.role.ApplicationRoleRepository;
 import it.aredegalli.auctoritas.repository.role.PermissionRepository;
 import it.aredegalli.auctoritas.repository.role.PermissionRoleRepository;
 import it.aredegalli.auctoritas.repository.role.RoleRepository;
 import it.aredegalli.auctoritas.repository.user.UserRepository;
+import it.aredegalli.auctoritas.service.audit.AuditService;
 import it.aredegalli.auctoritas.service.audit.annotation.Audit;
+import it.aredegalli.auctoritas.service.authorization.AuthorizationDecisionCache;
+import it.aredegalli.auctoritas.service.authorization.PermissionEvaluationEngine;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
+import it.aredegalli.auctoritas.service.validation.RequestEntityCache;
 import it.aredegalli.auctoritas.service.validation.annotation.EntityExistence;
 import it.aredegalli.common.exception.NotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -41,44 +66,73 @@ public class RoleServiceImpl implements RoleService {
     private final UserRepository userRepository;
     private final ApplicationRepository applicationRepository;
     private final ApplicationRoleRepository applicationRoleRepository;
+    private final AuthorizationDecisionCache decisionCache;
+    private final PermissionEvaluationEngine permissionEvaluationEngine;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final RolePermissionIndex rolePermissionIndex;
+    private final RequestEntityCache entityCache;
+    private final AuditService auditService;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
-    @EntityExistence(repository = RoleRepository.class, idParam = "id")
+    @Transactional(readOnly = true)
+    @EntityExistence(repository = RoleRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.ROLE_GET, description = "Get role by id")
     public RoleDto getRoleById(UUID id) {
-        return this.roleRepository.findById(id).map(RoleDto::new).orElse(null);
+        return this.entityCache.findById(this.roleRepository, id).map(RoleDto::new).orElse(null);
     }
 
     @Override
-    @EntityExistence(repository = PermissionRepository.class, idParam = "id")
+    @Transactional(readOnly = true)
+    @EntityExistence(repository = PermissionRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.PERMISSION_GET, description = "Get permission by id")
     public PermissionDto getPermissionById(UUID id) {
-        return this.permissionRepository.findById(id).map(PermissionDto::new).orElse(null);
+        return this.entityCache.findById(this.permissionRepository, id).map(PermissionDto::new).orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Audit(event = AuditEventTypeEnum.ROLE_GET_ALL, description = "Get all roles")
     public List<RoleDto> getAllRoles() {
         return this.roleRepository.findAll().stream().map(RoleDto::new).toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Audit(event = AuditEventTypeEnum.PERMISSION_GET_ALL, description = "Get all permissions")
     public List<PermissionDto> getAllPermissions() {
         return this.permissionRepository.findAll().stream().map(PermissionDto::new).toList();
     }
 
     @Override
-    @EntityExistence(repository = RoleRepository.class, idParam = "id")
+    @Transactional(readOnly = true)
+    @Audit(event = AuditEventTypeEnum.ROLE_GET_ALL, description = "Get roles page")
+    public PageDto<RoleDto> getRolesPage(String prefix, Sort.Direction direction, String cursor, int limit) {
+        List<RoleDto> rows = this.roleRepository.findPage(NamePage.request(prefix, direction, cursor, limit));
+        return NamePage.page(rows, limit, RoleDto::getName);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Audit(event = AuditEventTypeEnum.PERMISSION_GET_ALL, description = "Get permissions page")
+    public PageDto<PermissionDto> getPermissionsPage(String prefix, Sort.Direction direction, String cursor, int limit) {
+        List<PermissionDto> rows = this.permissionRepository.findPage(NamePage.request(prefix, direction, cursor, limit));
+        return NamePage.page(rows, limit, PermissionDto::getName);
+    }
+
+    @Override
+    @EntityExistence(repository = RoleRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.ROLE_UPDATE, description = "Update Role")
     public UUID updateRole(UUID id, RoleSaveDto roleDto) {
-        Role role = this.roleRepository.findById(id).orElse(null);
+        Role role = this.entityCache.findById(this.roleRepository, id).orElse(null);
 
         assert role != null;
         role.setName(roleDto.getName());
         role.setDescription(roleDto.getDescription());
 
         this.roleRepository.save(role);
+        this.referenceDataRegistry.reload();
+        this.decisionCache.invalidateAll();
         log.info("[API] Role {} updated with dto: {}", id, roleDto);
 
         return role.getId();
@@ -99,16 +153,17 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
-    @EntityExistence(repository = PermissionRepository.class, idParam = "id")
+    @EntityExistence(repository = PermissionRepository.class, idParam = "id", fetch = true)
     @Audit(event = AuditEventTypeEnum.PERMISSION_UPDATE, description = "Update Permission")
     public UUID updatePermission(UUID id, PermissionSaveDto permissionDto) {
-        Permission permission = this.permissionRepository.findById(id).orElse(null);
+        Permission permission = this.entityCache.findById(this.permissionRepository, id).orElse(null);
 
         assert permission != null;
         permission.setName(permissionDto.getName());
         permission.setDescription(permissionDto.getDescription());
 
         this.permissionRepository.save(permission);
+        this.rolePermissionIndex.rename(permission);
         log.info("[API] Permission {} updated with dto: {}", id, permissionDto);
 
         return permission.getId();
@@ -129,6 +184,7 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @EntityExistence(repository = RoleRepository.class, idParam = "roleId")
     @Audit(event = AuditEventTypeEnum.PERMISSION_ROLE_GET, description = "Get permissions by role")
     public List<PermissionDto> getPermissionsByRoleId(UUID roleId) {
@@ -138,12 +194,12 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
-    @EntityExistence(repository = RoleRepository.class, idParam = "roleId")
-    @EntityExistence(repository = PermissionRepository.class, idParam = "permissionId")
+    @EntityExistence(repository = RoleRepository.class, idParam = "roleId", fetch = true)
+    @EntityExistence(repository = PermissionRepository.class, idParam = "permissionId", fetch = true)
     @Audit(event = AuditEventTypeEnum.PERMISSION_ROLE_CREATE, description = "Add permission to role")
     public UUID addPermissionToRole(UUID roleId, UUID permissionId) {
-        Role role = this.roleRepository.findById(roleId).orElse(null);
-        Permission permission = this.permissionRepository.findById(permissionId).orElse(null);
+        Role role = this.entityCache.findById(this.roleRepository, roleId).orElse(null);
+        Permission permission = this.entityCache.findById(this.permissionRepository, permissionId).orElse(null);
 
         if (this.permissionRoleRepository.existsByRoleIdAndPermissionId(roleId, permissionId)) {
             log.warn("[API] Role {} already have Permission {}", roleId, permissionId);
@@ -154,17 +210,18 @@ public class RoleServiceImpl implements RoleService {
                 .role(role)
                 .permission(permission)
                 .build()).getId();
+        this.rolePermissionIndex.grant(roleId, permission);
         log.info("[API] Permission {} added to Role {}", permissionId, roleId);
 
         return returnId;
     }
 
     @Override
-    @EntityExistence(repository = RoleRepository.class, idParam = "roleId")
+    @EntityExistence(repository = RoleRepository.class, idParam = "roleId", fetch = true)
     @EntityExistence(repository = PermissionRepository.class, idParam = "permissionId")
     @Audit(event = AuditEventTypeEnum.PERMISSION_ROLE_DELETE, description = "Remove permission from role")
     public UUID removePermissionFromRole(UUID roleId, UUID permissionId) {
-        Role role = this.roleRepository.findById(roleId).orElse(null);
+        Role role = this.entityCache.findById(this.roleRepository, roleId).orElse(null);
 
         if (!this.permissionRoleRepository.existsByRoleIdAndPermissionId(roleId, permissionId)) {
             log.warn("[API] Role {} does not have Permission {}", roleId, permissionId);
@@ -173,12 +230,14 @@ public class RoleServiceImpl implements RoleService {
 
         assert role != null;
         this.permissionRoleRepository.deleteByRoleIdAndPermissionId(roleId, permissionId);
+        this.rolePermissionIndex.revoke(roleId, permissionId);
         log.info("[API] Permission {} removed from Role {}", permissionId, roleId);
 
         return role.getId();
     }
 
     @Override
+    @Transactional(readOnly = true)
     @EntityExistence(repository = UserRepository.class, idParam = "userId")
     @EntityExistence(repository = ApplicationRepository.class, idParam = "applicationId")
     @Audit(event = AuditEventTypeEnum.USER_ROLE_GET, description = "Get roles by user and application")
@@ -193,14 +252,14 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
-    @EntityExistence(repository = UserRepository.class, idParam = "userId")
-    @EntityExistence(repository = RoleRepository.class, idParam = "roleId")
-    @EntityExistence(repository = ApplicationRepository.class, idParam = "applicationId")
+    @EntityExistence(repository = UserRepository.class, idParam = "userId", fetch = true)
+    @EntityExistence(repository = RoleRepository.class, idParam = "roleId", fetch = true)
+    @EntityExistence(repository = ApplicationRepository.class, idParam = "applicationId", fetch = true)
     @Audit(event = AuditEventTypeEnum.USER_ROLE_CREATE, description = "Add role to user")
     public UUID addRoleToUser(UUID userId, UUID roleId, UUID applicationId) {
-        User user = this.userRepository.findById(userId).orElse(null);
-        Role role = this.roleRepository.findById(roleId).orElse(null);
-        Application application = this.applicationRepository.findById(applicationId).orElse(null);
+        User user = this.entityCache.findById(this.userRepository, userId).orElse(null);
+        Role role = this.entityCache.findById(this.roleRepository, roleId).orElse(null);
+        Application application = this.entityCache.findById(this.applicationRepository, applicationId).orElse(null);
         UserRoleApplication userRoleApplication = this.userRoleApplicationRepository.findByUserIdAndRoleIdAndApplicationId(userId, roleId, applicationId);
 
         if (userRoleApplication != null) {
@@ -216,6 +275,8 @@ public class RoleServiceImpl implements RoleService {
                 .build();
 
         userRoleApplication = this.userRoleApplicationRepository.save(userRoleApplication);
+        this.decisionCache.invalidateUserApplication(userId, applicationId);
+        this.permissionEvaluationEngine.invalidate(userId, applicationId);
         log.info("[API] Role {} added to User {} in Application {}", roleId, userId, applicationId);
 
         return userRoleApplication.getId();
@@ -235,12 +296,132 @@ public class RoleServiceImpl implements RoleService {
         }
 
         this.userRoleApplicationRepository.delete(userRoleApplication);
+        this.decisionCache.invalidateUserApplication(userId, applicationId);
+        this.permissionEvaluationEngine.invalidate(userId, applicationId);
         log.info("[API] Role {} removed from User {} in Application {}", roleId, userId, applicationId);
 
         return userRoleApplication.getId();
     }
 
     @Override
+    public UserRoleBulkResultDto bulkUpdateUserRoles(List<UserRoleBulkItemDto> items) {
+        Set<UUID> userIds = new HashSet<>();
+        Set<UUID> roleIds = new HashSet<>();
+        Set<UUID> applicationIds = new HashSet<>();
+        for (UserRoleBulkItemDto item : items) {
+            userIds.add(item.getUserId());
+            roleIds.add(item.getRoleId());
+            applicationIds.add(item.getApplicationId());
+        }
+        ExistingIds existing = this.userRoleApplicationRepository.findExistingIds(userIds, roleIds, applicationIds);
+
+        Set<Assignment> additions = new LinkedHashSet<>();
+        Set<Assignment> removals = new LinkedHashSet<>();
+        for (UserRoleBulkItemDto item : items) {
+            if (missingReference(item, existing) == null) {
+                (item.getAction() == UserRoleBulkActionEnum.ADD ? additions : removals).add(assignmentOf(item));
+            }
+        }
+
+        // Removals first, so that removing and re-adding the same role in one request leaves it assigned
+        BulkChanges changes = this.transactionTemplate.execute(status -> new BulkChanges(
+                this.userRoleApplicationRepository.deleteAssignments(removals),
+                this.userRoleApplicationRepository.insertAssignments(additions)));
+        assert changes != null;
+
+        UserRoleBulkResultDto result = resultOf(items, existing, changes);
+
+        Set<UserApplication> changed = new HashSet<>();
+        changes.inserted().forEach(assignment -> changed.add(assignment.userApplication()));
+        changes.deleted().forEach(assignment -> changed.add(assignment.userApplication()));
+        if (!changed.isEmpty()) {
+            this.decisionCache.invalidateUserApplications(changed);
+            this.permissionEvaluationEngine.invalidate(changed);
+        }
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("items", items.size());
+        metadata.put("added", result.getAdded());
+        metadata.put("removed", result.getRemoved());
+        metadata.put("unchanged", result.getUnchanged());
+        metadata.put("failed", result.getFailed());
+        this.auditService.logEvent(null, AuditEventTypeEnum.USER_ROLE_BULK, "Auctoritas", "Bulk update user roles",
+                this.auditService.buildMetadata(metadata));
+        log.info("[API] Bulk user roles: {} items, {} added, {} removed, {} unchanged, {} failed", items.size(),
+                result.getAdded(), result.getRemoved(), result.getUnchanged(), result.getFailed());
+
+        return result;
+    }
+
+    /**
+     * Builds the outcome of every item. When the same assignment appears more than once, only its first
+     * occurrence is reported as added or removed.
+     */
+    private static UserRoleBulkResultDto resultOf(List<UserRoleBulkItemDto> items, ExistingIds existing, BulkChanges changes) {
+        Set<Assignment> reportedInserts = new HashSet<>();
+        Set<Assignment> reportedDeletes = new HashSet<>();
+        List<UserRoleBulkItemResultDto> results = new ArrayList<>(items.size());
+        int added = 0, removed = 0, unchanged = 0, failed = 0;
+
+        for (int i = 0; i < items.size(); i++) {
+            UserRoleBulkItemDto item = items.get(i);
+            UserRoleBulkOutcomeEnum outcome = missingReference(item, existing);
+
+            if (outcome != null) {
+                failed++;
+            } else if (item.getAction() == UserRoleBulkActionEnum.ADD) {
+                Assignment assignment = assignmentOf(item);
+                boolean inserted = changes.inserted().contains(assignment) && reportedInserts.add(assignment);
+                outcome = inserted ? UserRoleBulkOutcomeEnum.ADDED : UserRoleBulkOutcomeEnum.ALREADY_ASSIGNED;
+            } else {
+                Assignment assignment = assignmentOf(item);
+                boolean deleted = changes.deleted().contains(assignment) && reportedDeletes.add(assignment);
+                outcome = deleted ? UserRoleBulkOutcomeEnum.REMOVED : UserRoleBulkOutcomeEnum.NOT_ASSIGNED;
+            }
+
+            switch (outcome) {
+                case ADDED -> added++;
+                case REMOVED -> removed++;
+                case ALREADY_ASSIGNED, NOT_ASSIGNED -> unchanged++;
+                default -> {
+                }
+            }
+
+            results.add(UserRoleBulkItemResultDto.builder()
+                    .index(i)
+                    .action(item.getAction())
+                    .userId(item.getUserId())
+                    .roleId(item.getRoleId())
+                    .applicationId(item.getApplicationId())
+                    .outcome(outcome)
+                    .build());
+        }
+
+        return new UserRoleBulkResultDto(added, removed, unchanged, failed, results);
+    }
+
+    private static UserRoleBulkOutcomeEnum missingReference(UserRoleBulkItemDto item, ExistingIds existing) {
+        if (!existing.userIds().contains(item.getUserId())) {
+            return UserRoleBulkOutcomeEnum.USER_NOT_FOUND;
+        }
+        if (!existing.roleIds().contains(item.getRoleId())) {
+            return UserRoleBulkOutcomeEnum.ROLE_NOT_FOUND;
+        }
+        if (!existing.applicationIds().contains(item.getApplicationId())) {
+            return UserRoleBulkOutcomeEnum.APPLICATION_NOT_FOUND;
+        }
+        return null;
+    }
+
+    private static Assignment assignmentOf(UserRoleBulkItemDto item) {
+        return new Assignment(item.getUserId(), item.getRoleId(), item.getApplicationId());
+    }
+
+    private record BulkChanges(Set<Assignment> deleted, Set<Assignment> inserted) {
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     @Audit(event = AuditEventTypeEnum.APPLICATION_ROLE_GET, description = "Get roles by application")
     public List<RoleDto> getRolesByApplicationId(UUID applicationId) {
         List<RoleDto> roles = this.applicationRoleRepository.findByApplicationId(applicationId).stream()
@@ -253,12 +434,12 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
-    @EntityExistence(repository = RoleRepository.class, idParam = "roleId")
-    @EntityExistence(repository = ApplicationRepository.class, idParam = "applicationId")
+    @EntityExistence(repository = RoleRepository.class, idParam = "roleId", fetch = true)
+    @EntityExistence(repository = ApplicationRepository.class, idParam = "applicationId", fetch = true)
     @Audit(event = AuditEventTypeEnum.APPLICATION_ROLE_CREATE, description = "Add role to application")
     public UUID addRoleToApplication(UUID roleId, UUID applicationId) {
-        Role role = this.roleRepository.findById(roleId).orElse(null);
-        Application application = this.applicationRepository.findById(applicationId).orElse(null);
+        Role role = this.entityCache.findById(this.roleRepository, roleId).orElse(null);
+        Application application = this.entityCache.findById(this.applicationRepository, applicationId).orElse(null);
         ApplicationRole applicationRole = this.applicationRoleRepository.findByRoleIdAndApplicationId(roleId, applicationId);
 
         if (applicationRole != null) {
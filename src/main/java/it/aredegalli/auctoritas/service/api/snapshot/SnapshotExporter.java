@@ -0,0 +1,189 @@
+package it.aredegalli.auctoritas.service.api.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.aredegalli.auctoritas.service.api.snapshot.SnapshotSchema.Column;
+import it.aredegalli.auctoritas.service.api.snapshot.SnapshotSchema.Table;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the authorization graph to a stream in the {@link SnapshotSchema} format, optionally gzipped.
+ * <p>
+ * All tables are read in one repeatable-read transaction, so the snapshot is consistent even while the graph
+ * changes. Every table is read over a forward-only cursor, {@code auctoritas.snapshot.fetch-size} rows at a
+ * time, and written as it arrives, so memory use does not depend on the size of the graph.
+ */
+@Slf4j
+@Component
+public class SnapshotExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+    private final int chunkSize;
+
+    public SnapshotExporter(JdbcTemplate jdbcTemplate,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${auctoritas.snapshot.fetch-size:1000}") int fetchSize,
+                            @Value("${auctoritas.snapshot.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The cursor only streams with auto-commit off
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.fetchSize = fetchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Exports every table of the snapshot.
+     *
+     * @param gzip whether to gzip the output
+     * @param out  the stream to write to, left open
+     * @throws IOException if writing fails
+     */
+    public void export(boolean gzip, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+
+        Map<String, Long> rows;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+
+            generator.writeStartObject();
+            generator.writeStringField("format", SnapshotSchema.FORMAT);
+            generator.writeNumberField("version", SnapshotSchema.VERSION);
+            generator.writeStringField("createdAt", Instant.now().toString());
+            generator.writeEndObject();
+
+            rows = transactionTemplate.execute(status -> exportTables(generator));
+
+            generator.writeStartObject();
+            generator.writeBooleanField("end", true);
+            generator.writeObjectFieldStart("rows");
+            for (Map.Entry<String, Long> entry : rows.entrySet()) {
+                generator.writeNumberField(entry.getKey(), entry.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        out.flush();
+
+        log.info("[SNAPSHOT] Exported {}{} in {} ms", rows, gzip ? " (gzip)" : "", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Map<String, Long> exportTables(JsonGenerator generator) {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        for (Table table : SnapshotSchema.TABLES) {
+            rows.put(table.name(), exportTable(generator, table));
+        }
+        return rows;
+    }
+
+    private long exportTable(JsonGenerator generator, Table table) {
+        long[] rows = new long[1];
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("table", table.name());
+            generator.writeArrayFieldStart("columns");
+            for (String column : table.columnNames()) {
+                generator.writeString(column);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+
+            String sql = "SELECT " + table.columnList() + " FROM " + table.name() + " ORDER BY id";
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, rs -> {
+                try {
+                    if (rows[0] % chunkSize == 0) {
+                        if (rows[0] > 0) {
+                            endChunk(generator);
+                        }
+                        generator.writeStartObject();
+                        generator.writeStringField("table", table.name());
+                        generator.writeArrayFieldStart("rows");
+                    }
+                    writeRow(generator, table, rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+
+            if (rows[0] > 0) {
+                endChunk(generator);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("[SNAPSHOT] Exported {} rows of {}", rows[0], table.name());
+        return rows[0];
+    }
+
+    private static void endChunk(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static void writeRow(JsonGenerator generator, Table table, ResultSet rs) throws IOException, SQLException {
+        generator.writeStartArray();
+        int index = 1;
+        for (Column column : table.columns()) {
+            switch (column.type()) {
+                case BOOLEAN -> {
+                    boolean value = rs.getBoolean(index);
+                    if (rs.wasNull()) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeBoolean(value);
+                    }
+                }
+                case INTEGER -> {
+                    int value = rs.getInt(index);
+                    if (rs.wasNull()) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeNumber(value);
+                    }
+                }
+                default -> generator.writeString(rs.getString(index));
+            }
+            index++;
+        }
+        generator.writeEndArray();
+    }
+}
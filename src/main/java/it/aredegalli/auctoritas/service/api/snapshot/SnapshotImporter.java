@@ -0,0 +1,354 @@
+package it.aredegalli.auctoritas.service.api.snapshot;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.aredegalli.auctoritas.dto.snapshot.SnapshotImportDto;
+import it.aredegalli.auctoritas.service.api.snapshot.SnapshotSchema.Table;
+import it.aredegalli.common.exception.ConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads a snapshot written by {@link SnapshotExporter} into an empty authorization graph.
+ * <p>
+ * The whole import is one transaction with foreign key checks deferred to commit, so tables can be loaded in
+ * any order and a failed import leaves nothing behind. The stream is parsed token by token and every table is
+ * fed to a {@code COPY ... FROM STDIN} as its rows arrive, so memory use does not depend on the size of the
+ * snapshot. The row counts of the trailer are checked before committing, which rejects truncated uploads.
+ */
+@Slf4j
+@Component
+public class SnapshotImporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String DEFER_SQL = "SET CONSTRAINTS ALL DEFERRED";
+    private static final String NOT_EMPTY_SQL = "SELECT " + SnapshotSchema.TABLES.stream()
+            .map(table -> "EXISTS (SELECT 1 FROM " + table.name() + ")")
+            .collect(Collectors.joining(" OR "));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public SnapshotImporter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Imports a snapshot.
+     *
+     * @param gzip whether the input is gzipped
+     * @param in   the snapshot, left open
+     * @return the rows loaded per table
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if the snapshot is malformed, of another version or truncated
+     * @throws ConflictException        if the graph is not empty
+     */
+    public SnapshotImportDto importSnapshot(boolean gzip, InputStream in) throws IOException {
+        long start = System.nanoTime();
+        InputStream source = gzip ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+
+        SnapshotImportDto report;
+        try {
+            report = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<SnapshotImportDto>) con -> {
+                if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(NOT_EMPTY_SQL, Boolean.class))) {
+                    throw new ConflictException("Snapshots can only be imported into an empty authorization graph");
+                }
+                try (Statement statement = con.createStatement()) {
+                    statement.execute(DEFER_SQL);
+                }
+
+                CopySink sink = new CopySink(con.unwrap(PGConnection.class));
+                try {
+                    return read(source, sink);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    sink.cancel();
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        assert report != null;
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        log.info("[SNAPSHOT] Imported snapshot v{} of {}: {} in {} chunks, {} ms", report.getVersion(), report.getCreatedAt(),
+                report.getRows(), report.getChunks(), report.getElapsedMillis());
+        return report;
+    }
+
+    /**
+     * Parses a snapshot and writes the rows of every table to the sink as COPY CSV.
+     */
+    SnapshotImportDto read(InputStream in, TableSink sink) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            SnapshotImportDto report = readHeader(parser);
+
+            Map<String, Long> rows = new LinkedHashMap<>();
+            long chunks = 0;
+            Table current = null;
+            Writer writer = null;
+            while (true) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw invalid("the snapshot ends before its trailer");
+                }
+                String field = nextField(parser);
+                if ("end".equals(field)) {
+                    parser.nextToken();
+                    closeTable(writer, current, rows);
+                    checkTrailer(parser, rows);
+                    break;
+                }
+                if (!"table".equals(field)) {
+                    throw invalid("unexpected field " + field);
+                }
+                String name = nextText(parser);
+
+                String kind = nextField(parser);
+                if ("columns".equals(kind)) {
+                    Table table = SnapshotSchema.table(name);
+                    if (rows.containsKey(name)) {
+                        throw invalid("table " + name + " appears twice");
+                    }
+                    List<String> columns = readStrings(parser);
+                    if (!columns.equals(table.columnNames())) {
+                        throw invalid("columns of " + name + " are " + columns + ", expected " + table.columnNames());
+                    }
+                    closeTable(writer, current, rows);
+                    writer = sink.open(table);
+                    current = table;
+                    rows.put(name, 0L);
+                } else if ("rows".equals(kind)) {
+                    if (current == null || !current.name().equals(name)) {
+                        throw invalid("rows of " + name + " come before its columns");
+                    }
+                    rows.merge(name, copyRows(parser, current, writer), Long::sum);
+                    chunks++;
+                } else {
+                    throw invalid("unexpected field " + kind);
+                }
+                if (parser.nextToken() != JsonToken.END_OBJECT) {
+                    throw invalid("unexpected content after " + kind + " of " + name);
+                }
+            }
+
+            report.setRows(rows);
+            report.setChunks(chunks);
+            return report;
+        }
+    }
+
+    private static SnapshotImportDto readHeader(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw invalid("missing header");
+        }
+        SnapshotImportDto report = new SnapshotImportDto();
+        String format = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "format" -> format = parser.getValueAsString();
+                case "version" -> report.setVersion(parser.getValueAsInt());
+                case "createdAt" -> report.setCreatedAt(Instant.parse(parser.getValueAsString()));
+                default -> parser.skipChildren();
+            }
+        }
+        if (!SnapshotSchema.FORMAT.equals(format)) {
+            throw invalid("not an " + SnapshotSchema.FORMAT);
+        }
+        if (report.getVersion() != SnapshotSchema.VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + report.getVersion()
+                    + ", expected " + SnapshotSchema.VERSION);
+        }
+        return report;
+    }
+
+    private static long copyRows(JsonParser parser, Table table, Writer writer) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw invalid("rows of " + table.name() + " are not an array");
+        }
+        int width = table.columns().size();
+        long rows = 0;
+        while (parser.nextToken() == JsonToken.START_ARRAY) {
+            for (int i = 0; i < width; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(writer, parser.nextToken(), parser, table);
+            }
+            if (parser.nextToken() != JsonToken.END_ARRAY) {
+                throw invalid("a row of " + table.name() + " has more than " + width + " values");
+            }
+            writer.write('\n');
+            rows++;
+        }
+        if (parser.currentToken() != JsonToken.END_ARRAY) {
+            throw invalid("a row of " + table.name() + " is not an array");
+        }
+        return rows;
+    }
+
+    /**
+     * Writes one value in COPY CSV: strings are always quoted, so that an unquoted empty field is NULL and a
+     * quoted one is the empty string.
+     */
+    private static void writeCsvValue(Writer writer, JsonToken token, JsonParser parser, Table table) throws IOException {
+        switch (token) {
+            case VALUE_NULL -> {
+            }
+            case VALUE_STRING -> {
+                writer.write('"');
+                writer.write(parser.getText().replace("\"", "\"\""));
+                writer.write('"');
+            }
+            case VALUE_TRUE -> writer.write("true");
+            case VALUE_FALSE -> writer.write("false");
+            case VALUE_NUMBER_INT -> writer.write(parser.getText());
+            case END_ARRAY -> throw invalid("a row of " + table.name() + " has fewer than " + table.columns().size() + " values");
+            default -> throw invalid("unexpected " + token + " in a row of " + table.name());
+        }
+    }
+
+    private static void closeTable(Writer writer, Table table, Map<String, Long> rows) throws IOException {
+        if (writer != null) {
+            writer.close();
+            log.info("[SNAPSHOT] Loaded {} rows into {}", rows.get(table.name()), table.name());
+        }
+    }
+
+    private static void checkTrailer(JsonParser parser, Map<String, Long> rows) throws IOException {
+        Map<String, Long> expected = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (!"rows".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String table = parser.currentName();
+                parser.nextToken();
+                expected.put(table, parser.getValueAsLong());
+            }
+        }
+
+        List<String> missing = SnapshotSchema.TABLES.stream().map(Table::name).filter(name -> !rows.containsKey(name)).toList();
+        if (!missing.isEmpty()) {
+            throw invalid("missing tables " + missing);
+        }
+        if (!expected.equals(rows)) {
+            throw invalid("loaded " + rows + ", the trailer expects " + expected);
+        }
+    }
+
+    private static String nextField(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.FIELD_NAME) {
+            throw invalid("expected a field, got " + parser.currentToken());
+        }
+        return parser.currentName();
+    }
+
+    private static String nextText(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.VALUE_STRING) {
+            throw invalid("expected a string, got " + parser.currentToken());
+        }
+        return parser.getText();
+    }
+
+    private static List<String> readStrings(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw invalid("expected an array, got " + parser.currentToken());
+        }
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.VALUE_STRING) {
+            values.add(parser.getText());
+        }
+        if (parser.currentToken() != JsonToken.END_ARRAY) {
+            throw invalid("expected a string, got " + parser.currentToken());
+        }
+        return values;
+    }
+
+    private static IllegalArgumentException invalid(String reason) {
+        return new IllegalArgumentException("Invalid snapshot: " + reason);
+    }
+
+    /**
+     * Receives the rows of each table, one table at a time.
+     */
+    interface TableSink {
+
+        /**
+         * Opens the writer of a table. It is closed before the next table is opened.
+         *
+         * @param table the table
+         * @return the writer receiving the rows as COPY CSV
+         */
+        Writer open(Table table) throws IOException;
+    }
+
+    /**
+     * Feeds every table to a {@code COPY FROM STDIN} on the transaction connection.
+     */
+    private static final class CopySink implements TableSink {
+
+        private final PGConnection connection;
+        private PGCopyOutputStream copy;
+
+        CopySink(PGConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Writer open(Table table) throws IOException {
+            String sql = "COPY " + table.name() + " (" + table.columnList() + ") FROM STDIN WITH (FORMAT csv)";
+            try {
+                copy = new PGCopyOutputStream(connection, sql, BUFFER_SIZE);
+            } catch (SQLException e) {
+                throw new IOException("Failed to start loading " + table.name(), e);
+            }
+            return new OutputStreamWriter(copy, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Aborts the COPY in progress, if a failure interrupted it, so the connection can roll back.
+         */
+        void cancel() {
+            if (copy != null && copy.isActive()) {
+                try {
+                    copy.cancelCopy();
+                } catch (SQLException e) {
+                    log.warn("[SNAPSHOT] Failed to cancel COPY: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
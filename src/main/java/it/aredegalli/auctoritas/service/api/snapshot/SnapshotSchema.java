@@ -0,0 +1,103 @@
+package it.aredegalli.auctoritas.service.api.snapshot;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The tables of the authorization graph carried by a snapshot, with every column of {@code database/tables.sql},
+ * listed parents first.
+ * <p>
+ * Version 1 of the format is one JSON object per line: a header, then for every table a line with its columns
+ * followed by lines of at most {@code chunk-size} rows, and a trailer with the number of rows of each table:
+ * <pre>
+ * {"format":"auctoritas-snapshot","version":1,"createdAt":"2026-10-18T10:00:00Z"}
+ * {"table":"roles","columns":["id","name","description"]}
+ * {"table":"roles","rows":[["5f0c...","admin",null],["9a1e...","viewer","Read only"]]}
+ * {"end":true,"rows":{"users":0,"roles":2,...}}
+ * </pre>
+ * Values are JSON strings, booleans, numbers or null; JSONB columns are carried as their JSON text.
+ */
+public final class SnapshotSchema {
+
+    public static final String FORMAT = "auctoritas-snapshot";
+    public static final int VERSION = 1;
+
+    public static final List<Table> TABLES = List.of(
+            table("users", uuid("id")),
+            table("authenticators", uuid("id"), text("name"), text("auth_type"), jsonb("config"), bool("is_active")),
+            table("roles", uuid("id"), text("name"), text("description")),
+            table("permissions", uuid("id"), text("name"), text("description")),
+            table("applications", uuid("id"), text("name"), text("description"), uuid("default_role_id")),
+            table("user_auth_mappings", uuid("id"), uuid("user_id"), uuid("authenticator_id"), text("external_user_id")),
+            table("permissions_role", uuid("id"), uuid("role_id"), uuid("permission_id")),
+            table("application_roles", uuid("id"), uuid("application_id"), uuid("role_id")),
+            table("users_roles_application", uuid("id"), uuid("user_id"), uuid("application_id"), uuid("role_id")),
+            table("application_authenticators", uuid("id"), uuid("application_id"), uuid("authenticator_id"),
+                    integer("display_order"), bool("is_active"), jsonb("config")));
+
+    private SnapshotSchema() {
+    }
+
+    /**
+     * Returns the table with the given name.
+     *
+     * @param name the table name
+     * @return the table
+     * @throws IllegalArgumentException if the table is not part of the snapshot
+     */
+    public static Table table(String name) {
+        return TABLES.stream()
+                .filter(table -> table.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown snapshot table " + name));
+    }
+
+    public enum ColumnType {
+        UUID,
+        TEXT,
+        BOOLEAN,
+        INTEGER,
+        JSONB,
+    }
+
+    public record Column(String name, ColumnType type) {
+    }
+
+    public record Table(String name, List<Column> columns) {
+
+        public List<String> columnNames() {
+            return columns.stream().map(Column::name).toList();
+        }
+
+        /**
+         * @return the column list, comma separated
+         */
+        public String columnList() {
+            return columns.stream().map(Column::name).collect(Collectors.joining(", "));
+        }
+    }
+
+    private static Table table(String name, Column... columns) {
+        return new Table(name, List.of(columns));
+    }
+
+    private static Column uuid(String name) {
+        return new Column(name, ColumnType.UUID);
+    }
+
+    private static Column text(String name) {
+        return new Column(name, ColumnType.TEXT);
+    }
+
+    private static Column bool(String name) {
+        return new Column(name, ColumnType.BOOLEAN);
+    }
+
+    private static Column integer(String name) {
+        return new Column(name, ColumnType.INTEGER);
+    }
+
+    private static Column jsonb(String name) {
+        return new Column(name, ColumnType.JSONB);
+    }
+}
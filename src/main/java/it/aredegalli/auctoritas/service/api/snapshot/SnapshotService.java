@@ -0,0 +1,33 @@
+package it.aredegalli.auctoritas.service.api.snapshot;
+
+import it.aredegalli.auctoritas.dto.snapshot.SnapshotImportDto;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Service interface for copying the whole authorization graph between environments.
+ */
+public interface SnapshotService {
+
+    /**
+     * Prepares the export of the authorization graph. The tables are read and written only when the returned
+     * body is written to the response.
+     *
+     * @param gzip whether to gzip the output
+     * @return the response body writing the snapshot
+     */
+    StreamingResponseBody exportSnapshot(boolean gzip);
+
+    /**
+     * Loads a snapshot into an empty authorization graph, in one transaction, and refreshes the in-memory
+     * reference data.
+     *
+     * @param gzip whether the input is gzipped
+     * @param in   the snapshot
+     * @return the rows loaded per table
+     * @throws IOException if reading fails
+     */
+    SnapshotImportDto importSnapshot(boolean gzip, InputStream in) throws IOException;
+}
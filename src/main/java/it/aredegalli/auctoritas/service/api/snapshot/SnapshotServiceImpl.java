@@ -0,0 +1,48 @@
+package it.aredegalli.auctoritas.service.api.snapshot;
+
+import it.aredegalli.auctoritas.dto.snapshot.SnapshotImportDto;
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import it.aredegalli.auctoritas.service.audit.annotation.Audit;
+import it.aredegalli.auctoritas.service.authorization.AuthorizationDecisionCache;
+import it.aredegalli.auctoritas.service.authorization.PermissionEvaluationEngine;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class SnapshotServiceImpl implements SnapshotService {
+
+    private final SnapshotExporter snapshotExporter;
+    private final SnapshotImporter snapshotImporter;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final RolePermissionIndex rolePermissionIndex;
+    private final AuthorizationDecisionCache decisionCache;
+    private final PermissionEvaluationEngine permissionEvaluationEngine;
+
+    @Override
+    @Audit(event = AuditEventTypeEnum.SNAPSHOT_EXPORT, description = "Export snapshot")
+    public StreamingResponseBody exportSnapshot(boolean gzip) {
+        return out -> snapshotExporter.export(gzip, out);
+    }
+
+    @Override
+    @Audit(event = AuditEventTypeEnum.SNAPSHOT_IMPORT, description = "Import snapshot", callParams = false)
+    public SnapshotImportDto importSnapshot(boolean gzip, InputStream in) throws IOException {
+        SnapshotImportDto report = snapshotImporter.importSnapshot(gzip, in);
+
+        this.referenceDataRegistry.reload();
+        this.rolePermissionIndex.reload();
+        this.decisionCache.invalidateAll();
+        this.permissionEvaluationEngine.invalidateAll();
+
+        return report;
+    }
+}
@@ -0,0 +1,122 @@
+package it.aredegalli.auctoritas.service.audit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interns the repeated strings of audit logs into {@code audit_dictionary}.
+ * <p>
+ * Descriptions, application names and metadata keys are stored in audit_logs as the integer id of their
+ * dictionary entry. Only strings chosen by the application belong here: a value a client controls, such as an IP
+ * or a user agent, would grow the table without bound. Values are unique by their
+ * MD5 digest rather than by the text itself, which keeps the index small and accepts strings of any length.
+ * <p>
+ * Ids are cached by value; the strings of a whole batch that are not cached yet are inserted and read back with
+ * two statements. Entries are never updated nor deleted, so cached ids never go stale.
+ */
+@Slf4j
+@Component
+public class AuditDictionary implements MeterBinder {
+
+    /**
+     * Id that no entry has, used to filter on strings missing from the dictionary.
+     */
+    public static final int UNKNOWN_ID = -1;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_dictionary (value)
+            SELECT v FROM unnest(?) AS v
+            WHERE NOT EXISTS (SELECT 1 FROM audit_dictionary d WHERE d.value_digest = md5(v)::uuid)
+            ON CONFLICT (value_digest) DO NOTHING
+            """;
+    private static final String SELECT_SQL = """
+            SELECT id, value FROM audit_dictionary
+            WHERE value_digest IN (SELECT md5(v)::uuid FROM unnest(?) AS v)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Integer> ids;
+
+    public AuditDictionary(JdbcTemplate jdbcTemplate,
+                           @Value("${auctoritas.audit.dictionary.cache-size:10000}") long cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, ids, "audit.dictionary");
+    }
+
+    /**
+     * Returns the ids of the given strings, adding the missing ones to the dictionary.
+     *
+     * @param values the strings to intern, nulls are ignored
+     * @return the id of every non-null string
+     */
+    public Map<String, Integer> intern(Collection<String> values) {
+        Map<String, Integer> result = HashMap.newHashMap(values.size());
+        Set<String> missing = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value == null || result.containsKey(value)) {
+                continue;
+            }
+            Integer id = ids.getIfPresent(value);
+            if (id != null) {
+                result.put(value, id);
+            } else {
+                missing.add(value);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        String[] array = missing.toArray(String[]::new);
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(INSERT_SQL);
+            ps.setArray(1, con.createArrayOf("text", array));
+            return ps;
+        });
+        result.putAll(select(array));
+        log.debug("[AUDIT] Interned {} audit dictionary entries", missing.size());
+        return result;
+    }
+
+    /**
+     * Returns the id of a string, without adding it to the dictionary.
+     *
+     * @param value the string
+     * @return its id, or null if no audit log ever used it
+     */
+    public Integer find(String value) {
+        Integer id = ids.getIfPresent(value);
+        return id != null ? id : select(new String[]{value}).get(value);
+    }
+
+    private Map<String, Integer> select(String[] values) {
+        Map<String, Integer> found = HashMap.newHashMap(values.length);
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(SELECT_SQL);
+            ps.setArray(1, con.createArrayOf("text", values));
+            return ps;
+        }, rs -> {
+            found.put(rs.getString("value"), rs.getInt("id"));
+        });
+        ids.putAll(found);
+        return found;
+    }
+}
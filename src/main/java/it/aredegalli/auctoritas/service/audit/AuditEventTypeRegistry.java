@@ -0,0 +1,111 @@
+package it.aredegalli.auctoritas.service.audit;
+
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resolves {@link AuditEventTypeEnum} constants to their audit_event_type ids.
+ * <p>
+ * Every constant is upserted once at startup under a transaction-scoped advisory lock, so concurrent
+ * instances cannot insert duplicates. Lookups are plain reads of an immutable {@link EnumMap}; a type
+ * missing from it (for instance because the database was unreachable at startup) is registered by a
+ * single thread while the others wait for its result.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditEventTypeRegistry implements SmartInitializingSingleton {
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('audit_event_type'))";
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_event_type (id, description)
+            SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM audit_event_type WHERE description = ?)
+            """;
+    private static final String SELECT_SQL = """
+            SELECT description, id FROM audit_event_type
+            WHERE description IN (:descriptions)
+            ORDER BY description, id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock registerLock = new ReentrantLock();
+
+    private volatile Map<AuditEventTypeEnum, UUID> ids = new EnumMap<>(AuditEventTypeEnum.class);
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            ids = upsert(Arrays.asList(AuditEventTypeEnum.values()));
+            log.info("[AUDIT] Registered {} audit event types", ids.size());
+        } catch (Exception e) {
+            log.error("[AUDIT] Unable to preload audit event types, they will be registered on first use", e);
+        }
+    }
+
+    /**
+     * Returns the id of the given event type, registering it if needed.
+     *
+     * @param eventEnum the event type
+     * @return the audit_event_type id
+     */
+    public UUID resolve(AuditEventTypeEnum eventEnum) {
+        UUID id = ids.get(eventEnum);
+        return id != null ? id : register(eventEnum);
+    }
+
+    private UUID register(AuditEventTypeEnum eventEnum) {
+        registerLock.lock();
+        try {
+            UUID id = ids.get(eventEnum);
+            if (id != null) {
+                return id;
+            }
+
+            Map<AuditEventTypeEnum, UUID> next = new EnumMap<>(AuditEventTypeEnum.class);
+            next.putAll(ids);
+            next.putAll(upsert(List.of(eventEnum)));
+            ids = next;
+
+            log.info("[AUDIT] Registered audit event type {}", eventEnum);
+            return next.get(eventEnum);
+        } finally {
+            registerLock.unlock();
+        }
+    }
+
+    private Map<AuditEventTypeEnum, UUID> upsert(Collection<AuditEventTypeEnum> events) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(LOCK_SQL);
+            jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+                ps.setObject(1, UUID.randomUUID());
+                ps.setString(2, event.name());
+                ps.setString(3, event.name());
+            });
+
+            Map<AuditEventTypeEnum, UUID> result = new EnumMap<>(AuditEventTypeEnum.class);
+            MapSqlParameterSource params = new MapSqlParameterSource("descriptions",
+                    events.stream().map(AuditEventTypeEnum::name).toList());
+            namedParameterJdbcTemplate.query(SELECT_SQL, params, rs -> {
+                result.putIfAbsent(AuditEventTypeEnum.valueOf(rs.getString("description")), rs.getObject("id", UUID.class));
+            });
+            return result;
+        });
+    }
+}
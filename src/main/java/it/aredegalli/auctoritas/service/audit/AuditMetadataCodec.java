@@ -0,0 +1,54 @@
+package it.aredegalli.auctoritas.service.audit;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact form of the audit metadata, as stored in {@code audit_logs.metadata}.
+ * <p>
+ * Keys are replaced by the id of their {@link AuditDictionary} entry; values, such as the client IP or the user
+ * agent, are stored as they are. A key without an id is kept as it is behind {@link #RAW_KEY_PREFIX}, which no id
+ * starts with. Audit queries decode the keys back in SQL, so readers always see the original keys.
+ */
+public final class AuditMetadataCodec {
+
+    /**
+     * Marks a key stored as it is rather than by dictionary id.
+     */
+    public static final String RAW_KEY_PREFIX = "~";
+
+    private AuditMetadataCodec() {
+    }
+
+    /**
+     * Adds the strings of a metadata map that go through the dictionary.
+     *
+     * @param metadata the metadata, may be null
+     * @param strings  receives the keys
+     */
+    public static void collectStrings(Map<String, Object> metadata, Collection<String> strings) {
+        if (metadata != null) {
+            strings.addAll(metadata.keySet());
+        }
+    }
+
+    /**
+     * Encodes a metadata map.
+     *
+     * @param metadata the metadata, may be null
+     * @param ids      the dictionary ids of its keys; keys without one are kept raw
+     * @return the encoded metadata, or null if the metadata is null
+     */
+    public static <V> Map<String, V> encode(Map<String, V> metadata, Map<String, Integer> ids) {
+        if (metadata == null) {
+            return null;
+        }
+        Map<String, V> encoded = new LinkedHashMap<>(metadata.size());
+        for (Map.Entry<String, V> entry : metadata.entrySet()) {
+            Integer id = ids.get(entry.getKey());
+            encoded.put(id != null ? String.valueOf(id) : RAW_KEY_PREFIX + entry.getKey(), entry.getValue());
+        }
+        return encoded;
+    }
+}
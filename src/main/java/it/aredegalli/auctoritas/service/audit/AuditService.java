@@ -2,7 +2,6 @@ package it.aredegalli.auctoritas.service.audit;
 
 import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
 import it.aredegalli.auctoritas.model.user.User;
-import org.springframework.scheduling.annotation.Async;
 
 import java.util.Map;
 
@@ -13,6 +12,9 @@ public interface AuditService {
 
     /**
      * Logs an audit event asynchronously.
+     * <p>
+     * The event is buffered and persisted in batches by a background writer. When called inside a
+     * transaction the event is handed over once the transaction completes.
      *
      * @param user        the user associated with the event
      * @param eventEnum   the type of audit event
@@ -20,7 +22,6 @@ public interface AuditService {
      * @param description a description of the event
      * @param metadata    additional metadata related to the event
      */
-    @Async
     void logEvent(User user, AuditEventTypeEnum eventEnum, String appName, String description, Map<String, Object> metadata);
 
     /**
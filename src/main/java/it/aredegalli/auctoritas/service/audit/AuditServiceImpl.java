@@ -1,17 +1,16 @@
 package it.aredegalli.auctoritas.service.audit;
 
 import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
-import it.aredegalli.auctoritas.model.audit.AuditEventType;
-import it.aredegalli.auctoritas.model.audit.AuditLog;
 import it.aredegalli.auctoritas.model.user.User;
-import it.aredegalli.auctoritas.repository.audit.AuditEventTypeRepository;
-import it.aredegalli.auctoritas.repository.audit.AuditLogRepository;
+import it.aredegalli.auctoritas.service.audit.writer.AuditBatchWriter;
+import it.aredegalli.auctoritas.service.audit.writer.AuditEvent;
 import it.aredegalli.auctoritas.util.RequestUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -21,28 +20,33 @@ import java.util.Map;
 @Service
 @RequiredArgsConstructor
 public class AuditServiceImpl implements AuditService {
-    private final AuditLogRepository auditLogRepository;
-    private final AuditEventTypeRepository eventTypeRepository;
+    private final AuditBatchWriter auditBatchWriter;
     private final HttpServletRequest httpServletRequest;
 
-    @Async
     @Override
     public void logEvent(User user, AuditEventTypeEnum eventEnum, String appName, String description, Map<String, Object> metadata) {
-        AuditEventType eventType = eventTypeRepository.findByDescription(eventEnum.name())
-                .orElseGet(() -> eventTypeRepository.save(AuditEventType.builder().description(eventEnum.name()).build()));
+        AuditEvent event = new AuditEvent(
+                Instant.now(),
+                user != null ? user.getId() : null,
+                eventEnum,
+                appName,
+                description,
+                metadata != null ? new HashMap<>(metadata) : null);
 
-        AuditLog audit = AuditLog.builder()
-                .user(user)
-                .eventType(eventType)
-                .applicationName(appName)
-                .description(description)
-                .metadata(metadata)
-                .timestamp(Instant.now())
-                .build();
+        log.debug("[AUDIT] Audit event: {}", event);
 
-        log.debug("[AUDIT] Audit event: {}", audit);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            auditBatchWriter.enqueue(event);
+            return;
+        }
 
-        auditLogRepository.save(audit);
+        // The user row may only become visible on commit: hand the event over once the transaction is over
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                auditBatchWriter.enqueue(status == STATUS_COMMITTED ? event : event.withoutUser());
+            }
+        });
     }
 
     @Override
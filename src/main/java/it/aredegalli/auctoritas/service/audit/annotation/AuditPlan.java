@@ -0,0 +1,135 @@
+package it.aredegalli.auctoritas.service.audit.annotation;
+
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Metadata extraction plan of an {@link Audit} method, compiled once by {@link AuditAspect}.
+ * <p>
+ * The {@link AuditMetadata} expressions are resolved up front to argument indices, request attributes or
+ * constants, and the {@code param_} keys are built once, so an invocation only reads its arguments into a
+ * map sized for the entries it will hold.
+ */
+@Slf4j
+final class AuditPlan {
+
+    private static final String ARGS_PREFIX = "#{args[";
+
+    private final AuditEventTypeEnum event;
+    private final String appName;
+    private final String description;
+    private final Entry[] entries;
+    private final String[] paramKeys;
+    private final int capacity;
+
+    private AuditPlan(Audit audit, Entry[] entries, String[] paramKeys) {
+        this.event = audit.event();
+        this.appName = audit.appName();
+        this.description = audit.description();
+        this.entries = entries;
+        this.paramKeys = paramKeys;
+        // metadata entries, parameters, ip, user-agent, event and success
+        this.capacity = entries.length + paramKeys.length + 4;
+    }
+
+    /**
+     * Compiles the plan of an audited method.
+     *
+     * @param method     the audited method
+     * @param paramNames the parameter names of the method, or null if not available
+     * @param audit      the audit annotation of the method
+     * @return the compiled plan
+     */
+    static AuditPlan compile(Method method, String[] paramNames, Audit audit) {
+        int parameterCount = method.getParameterCount();
+
+        AuditMetadata[] annotations = method.getAnnotationsByType(AuditMetadata.class);
+        Entry[] entries = new Entry[annotations.length];
+        for (int i = 0; i < annotations.length; i++) {
+            entries[i] = compileEntry(method, annotations[i], parameterCount);
+        }
+
+        String[] paramKeys = new String[audit.callParams() ? parameterCount : 0];
+        for (int i = 0; i < paramKeys.length; i++) {
+            paramKeys[i] = "param_" + (paramNames != null && i < paramNames.length ? paramNames[i] : "arg" + i);
+        }
+
+        return new AuditPlan(audit, entries, paramKeys);
+    }
+
+    private static Entry compileEntry(Method method, AuditMetadata meta, int parameterCount) {
+        String expression = meta.value();
+        if (expression.startsWith(ARGS_PREFIX)) {
+            try {
+                int index = Integer.parseInt(expression.substring(ARGS_PREFIX.length(), expression.indexOf(']')));
+                if (index >= 0 && index < parameterCount) {
+                    return new Entry(meta.key(), Source.ARGUMENT, index, null);
+                }
+            } catch (RuntimeException ignored) {
+                // reported below
+            }
+            log.error("[AUDIT] Failed to compile metadata expression '{}' of {}", expression, method);
+            return new Entry(meta.key(), Source.CONSTANT, -1, "error");
+        }
+        return switch (expression) {
+            case "#{clientIp}" -> new Entry(meta.key(), Source.REMOTE_ADDRESS, -1, null);
+            case "#{userAgent}" -> new Entry(meta.key(), Source.USER_AGENT, -1, null);
+            default -> new Entry(meta.key(), Source.CONSTANT, -1, expression);
+        };
+    }
+
+    AuditEventTypeEnum event() {
+        return event;
+    }
+
+    String appName() {
+        return appName;
+    }
+
+    String description() {
+        return description;
+    }
+
+    /**
+     * Runs the plan against an invocation.
+     *
+     * @param args          the invocation arguments
+     * @param remoteAddress the remote address of the request
+     * @param clientIp      the client IP of the request, honouring proxy headers
+     * @param userAgent     the user agent of the request
+     * @return the audit metadata, still missing the {@code success} entry
+     */
+    Map<String, Object> execute(Object[] args, String remoteAddress, String clientIp, String userAgent) {
+        Map<String, Object> metadata = HashMap.newHashMap(capacity);
+
+        for (Entry entry : entries) {
+            metadata.put(entry.key(), switch (entry.source()) {
+                case ARGUMENT -> String.valueOf(args[entry.index()]);
+                case REMOTE_ADDRESS -> remoteAddress;
+                case USER_AGENT -> userAgent;
+                case CONSTANT -> entry.constant();
+            });
+        }
+
+        for (int i = 0; i < paramKeys.length; i++) {
+            metadata.put(paramKeys[i], String.valueOf(args[i]));
+        }
+
+        metadata.put("ip", clientIp);
+        metadata.put("user-agent", userAgent);
+        metadata.put("event", event.name());
+
+        return metadata;
+    }
+
+    private enum Source {
+        ARGUMENT, REMOTE_ADDRESS, USER_AGENT, CONSTANT
+    }
+
+    private record Entry(String key, Source source, int index, String constant) {
+    }
+}
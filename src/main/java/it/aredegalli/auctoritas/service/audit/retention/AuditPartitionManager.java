@@ -0,0 +1,288 @@
+package it.aredegalli.auctoritas.service.audit.retention;
+
+import it.aredegalli.auctoritas.enums.AuditPartitionIntervalEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the partitions of {@code audit_logs}.
+ * <p>
+ * {@code audit_logs} is list-partitioned by retention class, and every class is range-partitioned by timestamp
+ * in {@link AuditPartitionIntervalEnum} steps. The manager creates the class partitions and the upcoming time
+ * partitions ahead of the writer, and enforces retention by detaching and dropping the time partitions that
+ * lie entirely before the retention cutoff of their class, so no row is ever deleted one by one.
+ * <p>
+ * Every class also has a DEFAULT partition, so a row outside the premade range, written while maintenance could
+ * not run or with a skewed timestamp, is kept instead of failing its batch. Such rows move to their time
+ * partition when it is created, and the expired ones left in the DEFAULT partition are deleted.
+ * <p>
+ * Timestamps are stored without time zone in the JVM zone, so partition bounds are computed in the same zone.
+ */
+@Slf4j
+@Component
+public class AuditPartitionManager implements SmartInitializingSingleton {
+
+    private static final String PARENT = "audit_logs";
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter DAILY_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter MONTHLY_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String DEFAULT_SUFFIX = "_default";
+
+    private static final String PARTITIONED_SQL = "SELECT relkind = 'p' FROM pg_class WHERE oid = to_regclass(?)";
+    private static final String EXISTS_SQL = "SELECT to_regclass(?) IS NOT NULL";
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('audit_logs_partitions'))";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('audit_logs_partitions'))";
+    private static final String CHILDREN_SQL = """
+            SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass(?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRetentionPolicy retentionPolicy;
+    private final AuditPartitionIntervalEnum interval;
+    private final int premake;
+    private final Clock clock;
+
+    public AuditPartitionManager(JdbcTemplate jdbcTemplate,
+                                 AuditRetentionPolicy retentionPolicy,
+                                 @Value("${auctoritas.audit.partitioning.interval:MONTHLY}") AuditPartitionIntervalEnum interval,
+                                 @Value("${auctoritas.audit.partitioning.premake:3}") int premake) {
+        this(jdbcTemplate, retentionPolicy, interval, premake, Clock.systemDefaultZone());
+    }
+
+    AuditPartitionManager(JdbcTemplate jdbcTemplate, AuditRetentionPolicy retentionPolicy,
+                          AuditPartitionIntervalEnum interval, int premake, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionPolicy = retentionPolicy;
+        this.interval = interval;
+        this.premake = premake;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates the partitions the writer needs before it starts.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            if (isPartitioned()) {
+                withMaintenanceLock(session -> {
+                    createPartitions(session);
+                    return 0;
+                });
+            }
+        } catch (Exception e) {
+            log.error("[AUDIT] Unable to create audit_logs partitions, they will be created by the next maintenance run", e);
+        }
+    }
+
+    /**
+     * Creates the upcoming partitions and drops the expired ones.
+     *
+     * @return the number of dropped partitions
+     */
+    public int maintain() {
+        if (!isPartitioned()) {
+            log.warn("[AUDIT] audit_logs is not partitioned, retention is disabled; see database/migrations");
+            return 0;
+        }
+        return withMaintenanceLock(session -> {
+            createPartitions(session);
+            return dropExpiredPartitions(session);
+        });
+    }
+
+    /**
+     * Creates the partition of every retention class, its DEFAULT partition and its time partitions from the
+     * current period up to {@code premake} periods ahead. Existing partitions are left untouched.
+     *
+     * @param session the connection holding the maintenance lock
+     */
+    void createPartitions(JdbcTemplate session) {
+        LocalDate current = floor(LocalDate.now(clock));
+        for (String retentionClass : retentionPolicy.retentions().keySet()) {
+            String classTable = PARENT + "_" + retentionClass;
+            String defaultPartition = classTable + DEFAULT_SUFFIX;
+            session.execute("CREATE TABLE IF NOT EXISTS " + classTable + " PARTITION OF " + PARENT
+                    + " FOR VALUES IN ('" + retentionClass + "') PARTITION BY RANGE (timestamp)");
+            session.execute("CREATE TABLE IF NOT EXISTS " + defaultPartition + " PARTITION OF " + classTable + " DEFAULT");
+
+            LocalDate from = current;
+            for (int i = 0; i <= premake; i++) {
+                LocalDate to = next(from);
+                String partition = classTable + "_p" + suffix(from);
+                try {
+                    createPartition(session, classTable, defaultPartition, partition,
+                            from.atStartOfDay().format(BOUND_FORMAT), to.atStartOfDay().format(BOUND_FORMAT));
+                } catch (DataAccessException e) {
+                    // Typically a legacy partition already covering the range
+                    log.warn("[AUDIT] Unable to create partition {}: {}", partition, e.getMostSpecificCause().getMessage());
+                }
+                from = to;
+            }
+        }
+    }
+
+    /**
+     * Creates a time partition. Rows of its range already in the DEFAULT partition would make the plain
+     * {@code PARTITION OF} fail, so they are moved into a new table that is then attached, in one transaction.
+     */
+    private void createPartition(JdbcTemplate session, String classTable, String defaultPartition, String partition,
+                                 String from, String to) {
+        if (exists(session, partition)) {
+            return;
+        }
+        String range = "timestamp >= '" + from + "' AND timestamp < '" + to + "'";
+        if (!Boolean.TRUE.equals(session.queryForObject("SELECT EXISTS (SELECT 1 FROM " + defaultPartition + " WHERE " + range + ")",
+                Boolean.class))) {
+            session.execute("CREATE TABLE " + partition + " PARTITION OF " + classTable
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            return;
+        }
+
+        session.execute((ConnectionCallback<Void>) connection -> {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE " + partition + " (LIKE " + classTable + " INCLUDING DEFAULTS)");
+                int moved = statement.executeUpdate("WITH moved AS (DELETE FROM " + defaultPartition + " WHERE " + range
+                        + " RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved");
+                statement.execute("ALTER TABLE " + classTable + " ATTACH PARTITION " + partition
+                        + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+                connection.commit();
+                log.info("[AUDIT] Created partition {} with {} rows moved from {}", partition, moved, defaultPartition);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Detaches and drops the time partitions whose upper bound is older than the retention of their class, and
+     * deletes the expired rows of its DEFAULT partition.
+     *
+     * @param session the connection holding the maintenance lock
+     * @return the number of dropped partitions
+     */
+    int dropExpiredPartitions(JdbcTemplate session) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        int dropped = 0;
+        for (Map.Entry<String, Duration> retention : retentionPolicy.retentions().entrySet()) {
+            String classTable = PARENT + "_" + retention.getKey();
+            LocalDateTime cutoff = now.minus(retention.getValue());
+
+            String defaultPartition = classTable + DEFAULT_SUFFIX;
+            if (exists(session, defaultPartition)) {
+                int deleted = session.update("DELETE FROM " + defaultPartition + " WHERE timestamp < ?", cutoff);
+                if (deleted > 0) {
+                    log.info("[AUDIT] Deleted {} expired rows from {} (before {})", deleted, defaultPartition, cutoff);
+                }
+            }
+
+            List<Map.Entry<String, String>> children = session.query(CHILDREN_SQL,
+                    (rs, rowNum) -> Map.entry(rs.getString(1), rs.getString(2)), classTable);
+            for (Map.Entry<String, String> child : children) {
+                LocalDateTime upperBound = upperBoundOf(child.getValue());
+                if (upperBound == null || upperBound.isAfter(cutoff)) {
+                    continue;
+                }
+                session.execute("ALTER TABLE " + classTable + " DETACH PARTITION " + child.getKey());
+                session.execute("DROP TABLE " + child.getKey());
+                dropped++;
+                log.info("[AUDIT] Dropped partition {} of class {} (before {}, retention {})",
+                        child.getKey(), retention.getKey(), upperBound, retention.getValue());
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Runs partition maintenance on a single autocommit connection holding a session advisory lock, so that
+     * several instances never create or drop the same partitions concurrently.
+     *
+     * @param maintenance the maintenance to run
+     * @return the result of the maintenance, or 0 if another instance holds the lock
+     */
+    private int withMaintenanceLock(Function<JdbcTemplate, Integer> maintenance) {
+        Integer result = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Boolean.TRUE.equals(session.queryForObject(TRY_LOCK_SQL, Boolean.class))) {
+                log.info("[AUDIT] Partition maintenance already running on another instance");
+                return 0;
+            }
+            try {
+                return maintenance.apply(session);
+            } finally {
+                session.queryForObject(UNLOCK_SQL, Boolean.class);
+            }
+        });
+        return result != null ? result : 0;
+    }
+
+    private static boolean exists(JdbcTemplate session, String table) {
+        return Boolean.TRUE.equals(session.queryForObject(EXISTS_SQL, Boolean.class, table));
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.query(PARTITIONED_SQL, rs -> rs.next() ? rs.getBoolean(1) : null, PARENT));
+    }
+
+    private LocalDate floor(LocalDate date) {
+        return interval == AuditPartitionIntervalEnum.DAILY ? date : date.with(TemporalAdjusters.firstDayOfMonth());
+    }
+
+    private LocalDate next(LocalDate from) {
+        return interval == AuditPartitionIntervalEnum.DAILY ? from.plusDays(1) : from.plusMonths(1);
+    }
+
+    private String suffix(LocalDate from) {
+        return from.format(interval == AuditPartitionIntervalEnum.DAILY ? DAILY_SUFFIX : MONTHLY_SUFFIX);
+    }
+
+    /**
+     * Extracts the upper bound of a range partition.
+     *
+     * @param bound the partition bound, as returned by {@code pg_get_expr}
+     * @return the exclusive upper bound, or null for {@code MAXVALUE} and non-range partitions
+     */
+    static LocalDateTime upperBoundOf(String bound) {
+        if (bound == null) {
+            return null;
+        }
+        Matcher matcher = UPPER_BOUND.matcher(bound);
+        if (!matcher.find()) {
+            return null;
+        }
+        String value = matcher.group(1);
+        // pg_get_expr renders fractional seconds only when present
+        int fraction = value.indexOf('.');
+        return LocalDateTime.parse(fraction > 0 ? value.substring(0, fraction) : value, BOUND_FORMAT);
+    }
+}
@@ -0,0 +1,101 @@
+package it.aredegalli.auctoritas.service.audit.retention;
+
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Retention of audit events, by retention class.
+ * <p>
+ * Every event type belongs to one retention class, and {@code audit_logs} is partitioned by class first, so
+ * expired events can be dropped a whole partition at a time. Classes are configured as
+ * {@code name=duration} pairs in {@code auctoritas.audit.retention.classes}, event types as
+ * {@code EVENT=class} pairs in {@code auctoritas.audit.retention.events}; unlisted event types use the default
+ * class.
+ */
+@Slf4j
+@Component
+public class AuditRetentionPolicy {
+
+    // Class names end up in partition names and partition bounds
+    private static final Pattern CLASS_NAME = Pattern.compile("[a-z][a-z0-9_]{0,19}");
+
+    private final Map<String, Duration> retentions;
+    private final Map<AuditEventTypeEnum, String> classes = new EnumMap<>(AuditEventTypeEnum.class);
+    private final String defaultClass;
+
+    public AuditRetentionPolicy(@Value("${auctoritas.audit.retention.classes:standard=P365D}") String classes,
+                                @Value("${auctoritas.audit.retention.events:}") String events,
+                                @Value("${auctoritas.audit.retention.default-class:standard}") String defaultClass) {
+        Map<String, Duration> retentions = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : parse(classes).entrySet()) {
+            if (!CLASS_NAME.matcher(entry.getKey()).matches()) {
+                throw new IllegalArgumentException("Invalid audit retention class name: " + entry.getKey());
+            }
+            retentions.put(entry.getKey(), Duration.parse(entry.getValue()));
+        }
+        if (!retentions.containsKey(defaultClass)) {
+            throw new IllegalArgumentException("Default audit retention class '" + defaultClass + "' is not configured");
+        }
+        this.retentions = Collections.unmodifiableMap(retentions);
+        this.defaultClass = defaultClass;
+
+        for (AuditEventTypeEnum event : AuditEventTypeEnum.values()) {
+            this.classes.put(event, defaultClass);
+        }
+        for (Map.Entry<String, String> entry : parse(events).entrySet()) {
+            if (!retentions.containsKey(entry.getValue())) {
+                throw new IllegalArgumentException("Unknown audit retention class '" + entry.getValue() + "' for " + entry.getKey());
+            }
+            this.classes.put(AuditEventTypeEnum.valueOf(entry.getKey()), entry.getValue());
+        }
+
+        log.info("[AUDIT] Retention classes: {}", this.retentions);
+    }
+
+    /**
+     * Returns the retention class of an event type.
+     *
+     * @param eventType the event type
+     * @return the retention class name
+     */
+    public String classOf(AuditEventTypeEnum eventType) {
+        return eventType != null ? classes.get(eventType) : defaultClass;
+    }
+
+    /**
+     * Returns every retention class with how long its events are kept.
+     *
+     * @return retention by class name
+     */
+    public Map<String, Duration> retentions() {
+        return retentions;
+    }
+
+    public String defaultClass() {
+        return defaultClass;
+    }
+
+    private static Map<String, String> parse(String pairs) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        for (String pair : pairs.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            String[] parts = pair.trim().split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected name=value, got '" + pair.trim() + "'");
+            }
+            parsed.put(parts[0].trim(), parts[1].trim());
+        }
+        return parsed;
+    }
+}
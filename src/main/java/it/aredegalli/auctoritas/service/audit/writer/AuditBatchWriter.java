@@ -0,0 +1,448 @@
+package it.aredegalli.auctoritas.service.audit.writer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import it.aredegalli.auctoritas.enums.AuditBackpressurePolicyEnum;
+import it.aredegalli.auctoritas.service.audit.AuditDictionary;
+import it.aredegalli.auctoritas.service.audit.AuditEventTypeRegistry;
+import it.aredegalli.auctoritas.service.audit.AuditMetadataCodec;
+import it.aredegalli.auctoritas.service.audit.retention.AuditRetentionPolicy;
+import it.aredegalli.auctoritas.util.MpscRingBuffer;
+import it.aredegalli.auctoritas.util.TimeOrderedUuid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persists audit events off the request thread.
+ * <p>
+ * Producers publish into a bounded {@link MpscRingBuffer}; a single drainer thread writes JDBC batches
+ * whenever a full batch is available or the flush interval has elapsed. When the buffer is full the
+ * configured {@link AuditBackpressurePolicyEnum} applies. On shutdown the drainer empties the buffer and
+ * any spill files before the datasource is closed.
+ * <p>
+ * A batch that fails for any reason is retried one event at a time, and an event that still fails is dropped, so
+ * one bad event never stops the drainer. Spill lines that cannot be parsed are skipped the same way.
+ */
+@Slf4j
+@Component
+public class AuditBatchWriter implements SmartLifecycle, MeterBinder {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_logs (id, timestamp, event_type, user_id, application_name_id, description_id, metadata,
+                                    retention_class)
+            VALUES (?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?)
+            """;
+
+    private static final String SPILL_FILE = "audit-spill.ndjson";
+    private static final String REPLAY_SUFFIX = ".replay";
+    private static final String BAD_SUFFIX = ".bad";
+    private static final long BLOCK_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditEventTypeRegistry eventTypeRegistry;
+    private final AuditDictionary dictionary;
+    private final AuditRetentionPolicy retentionPolicy;
+    private final MpscRingBuffer<AuditEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final AuditBackpressurePolicyEnum backpressure;
+    private final Path spillDirectory;
+    private final Duration shutdownTimeout;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final ReentrantLock spillLock = new ReentrantLock();
+    private BufferedWriter spillWriter;
+    // Set when events are spilled, cleared once the drainer has rotated the spill file for replay
+    private volatile boolean replayPending;
+
+    private volatile boolean running;
+    private volatile Thread drainer;
+
+    public AuditBatchWriter(JdbcTemplate jdbcTemplate,
+                            ObjectMapper objectMapper,
+                            AuditEventTypeRegistry eventTypeRegistry,
+                            AuditDictionary dictionary,
+                            AuditRetentionPolicy retentionPolicy,
+                            @Value("${auctoritas.audit.writer.buffer-capacity:8192}") int bufferCapacity,
+                            @Value("${auctoritas.audit.writer.batch-size:500}") int batchSize,
+                            @Value("${auctoritas.audit.writer.flush-interval:PT1S}") Duration flushInterval,
+                            @Value("${auctoritas.audit.writer.backpressure:DROP}") AuditBackpressurePolicyEnum backpressure,
+                            @Value("${auctoritas.audit.writer.spill-directory:${java.io.tmpdir}/auctoritas-audit-spill}") Path spillDirectory,
+                            @Value("${auctoritas.audit.writer.shutdown-timeout:PT10S}") Duration shutdownTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventTypeRegistry = eventTypeRegistry;
+        this.dictionary = dictionary;
+        this.retentionPolicy = retentionPolicy;
+        this.buffer = new MpscRingBuffer<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.backpressure = backpressure;
+        this.spillDirectory = spillDirectory;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auctoritas.audit.writer.pending", this, AuditBatchWriter::getPendingCount)
+                .description("Audit events waiting in the buffer")
+                .register(registry);
+        Gauge.builder("auctoritas.audit.writer.capacity", this, AuditBatchWriter::getCapacity)
+                .description("Capacity of the audit buffer")
+                .register(registry);
+        FunctionCounter.builder("auctoritas.audit.writer.events", this, AuditBatchWriter::getWrittenCount)
+                .tag("outcome", "written")
+                .register(registry);
+        FunctionCounter.builder("auctoritas.audit.writer.events", this, AuditBatchWriter::getDroppedCount)
+                .tag("outcome", "dropped")
+                .register(registry);
+        FunctionCounter.builder("auctoritas.audit.writer.events", this, AuditBatchWriter::getSpilledCount)
+                .tag("outcome", "spilled")
+                .register(registry);
+    }
+
+    /**
+     * Hands an event over to the writer. Never performs I/O on the calling thread unless the writer
+     * is stopped or the SPILL policy is triggered.
+     *
+     * @param event the event to persist
+     */
+    public void enqueue(AuditEvent event) {
+        if (!running) {
+            write(List.of(event));
+            return;
+        }
+        if (buffer.offer(event)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(drainer);
+            }
+            return;
+        }
+
+        switch (backpressure) {
+            case BLOCK -> {
+                while (!buffer.offer(event)) {
+                    if (!running) {
+                        write(List.of(event));
+                        return;
+                    }
+                    LockSupport.unpark(drainer);
+                    LockSupport.parkNanos(BLOCK_BACKOFF_NANOS);
+                }
+            }
+            case SPILL -> spill(event);
+            default -> {
+                long count = dropped.incrementAndGet();
+                if ((count & (count - 1)) == 0) {
+                    log.warn("[AUDIT] Buffer full, {} events dropped so far", count);
+                }
+            }
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getSpilledCount() {
+        return spilled.get();
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        replayPending = hasReplayableSpill();
+        drainer = Thread.ofPlatform().name("audit-writer").daemon(true).start(this::drain);
+        log.info("[AUDIT] Writer started: capacity={}, batchSize={}, backpressure={}", buffer.capacity(), batchSize, backpressure);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = drainer;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            if (!thread.join(shutdownTimeout)) {
+                log.warn("[AUDIT] Writer did not drain within {}, {} events left in buffer", shutdownTimeout, buffer.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("[AUDIT] Writer stopped: written={}, dropped={}, spilled={}", written.get(), dropped.get(), spilled.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the embedded web server, so in-flight requests can still audit.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+
+        while (running || buffer.size() > 0) {
+            try {
+                lastFlush = drainOnce(batch, lastFlush);
+            } catch (RuntimeException e) {
+                // write() drops what it cannot insert: anything else must not end the only drainer
+                log.error("[AUDIT] Unexpected error in audit writer, dropping {} buffered events", batch.size(), e);
+                dropped.addAndGet(batch.size());
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+        replaySpill();
+    }
+
+    /**
+     * Runs one round of the drain loop: writes the batch if full or due, else replays spill files or parks.
+     *
+     * @return the time of the last flush
+     */
+    private long drainOnce(List<AuditEvent> batch, long lastFlush) {
+        AuditEvent event;
+        while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+            batch.add(event);
+        }
+
+        long now = System.nanoTime();
+        boolean due = now - lastFlush >= flushIntervalNanos;
+        if (batch.size() >= batchSize || (!batch.isEmpty() && (due || !running))) {
+            write(batch);
+            batch.clear();
+            return now;
+        }
+
+        if (batch.isEmpty() && replayPending) {
+            replaySpill();
+            return lastFlush;
+        }
+        LockSupport.parkNanos(this, batch.isEmpty() ? flushIntervalNanos : flushIntervalNanos - (now - lastFlush));
+        return lastFlush;
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            Map<String, Integer> ids = dictionary.intern(stringsOf(batch));
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> bind(ps, event, ids));
+            written.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            log.error("[AUDIT] Batch of {} events failed, retrying one by one", batch.size(), e);
+            for (AuditEvent event : batch) {
+                try {
+                    Map<String, Integer> ids = dictionary.intern(stringsOf(List.of(event)));
+                    jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, event, ids));
+                    written.incrementAndGet();
+                } catch (RuntimeException ex) {
+                    dropped.incrementAndGet();
+                    log.error("[AUDIT] Dropping audit event {}: {}", event, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static List<String> stringsOf(List<AuditEvent> batch) {
+        List<String> strings = new ArrayList<>(batch.size() * 6);
+        for (AuditEvent event : batch) {
+            strings.add(event.applicationName());
+            strings.add(event.description());
+            AuditMetadataCodec.collectStrings(event.metadata(), strings);
+        }
+        return strings;
+    }
+
+    private void bind(PreparedStatement ps, AuditEvent event, Map<String, Integer> ids) throws SQLException {
+        ps.setObject(1, TimeOrderedUuid.generate(event.timestamp().toEpochMilli()), Types.OTHER);
+        ps.setTimestamp(2, Timestamp.from(event.timestamp()));
+        ps.setObject(3, eventTypeRegistry.resolve(event.eventType()), Types.OTHER);
+        ps.setObject(4, event.userId(), Types.OTHER);
+        ps.setObject(5, idOf(ids, event.applicationName()), Types.INTEGER);
+        ps.setObject(6, idOf(ids, event.description()), Types.INTEGER);
+        ps.setString(7, toJson(AuditMetadataCodec.encode(event.metadata(), ids)));
+        ps.setString(8, retentionPolicy.classOf(event.eventType()));
+    }
+
+    private static Integer idOf(Map<String, Integer> ids, String value) {
+        return value != null ? ids.get(value) : null;
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.error("[AUDIT] Unable to serialize audit metadata", e);
+            return null;
+        }
+    }
+
+    private void spill(AuditEvent event) {
+        spillLock.lock();
+        try {
+            if (spillWriter == null) {
+                Files.createDirectories(spillDirectory);
+                spillWriter = Files.newBufferedWriter(spillDirectory.resolve(SPILL_FILE), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            spillWriter.write(objectMapper.writeValueAsString(event));
+            spillWriter.newLine();
+            spillWriter.flush();
+            spilled.incrementAndGet();
+            replayPending = true;
+        } catch (IOException e) {
+            dropped.incrementAndGet();
+            log.error("[AUDIT] Unable to spill audit event, dropping it", e);
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    private void replaySpill() {
+        spillLock.lock();
+        try {
+            if (spillWriter != null) {
+                spillWriter.close();
+                spillWriter = null;
+            }
+            Path current = spillDirectory.resolve(SPILL_FILE);
+            if (Files.exists(current)) {
+                Files.move(current, spillDirectory.resolve(SPILL_FILE + "." + System.nanoTime() + REPLAY_SUFFIX));
+            }
+        } catch (IOException e) {
+            log.error("[AUDIT] Unable to rotate spill file", e);
+            return;
+        } finally {
+            replayPending = false;
+            spillLock.unlock();
+        }
+
+        if (!Files.isDirectory(spillDirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDirectory, "*" + REPLAY_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    replayFile(file);
+                } catch (IOException | RuntimeException e) {
+                    // Part of the file may be written already: set it aside rather than replay it twice
+                    log.error("[AUDIT] Unable to replay spill file {}, moving it aside", file.getFileName(), e);
+                    setAside(file);
+                }
+            }
+        } catch (IOException e) {
+            log.error("[AUDIT] Unable to list spill files in {}", spillDirectory, e);
+        }
+    }
+
+    private void replayFile(Path file) throws IOException {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long replayed = 0;
+        long lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, AuditEvent.class));
+                } catch (JsonProcessingException e) {
+                    // A corrupt or truncated line, e.g. from a crash while spilling
+                    dropped.incrementAndGet();
+                    log.error("[AUDIT] Skipping unreadable line {} of spill file {}: {}", lineNumber, file.getFileName(), e.getOriginalMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    write(batch);
+                    replayed += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+            replayed += batch.size();
+        }
+        Files.delete(file);
+        log.info("[AUDIT] Replayed {} spilled events from {}", replayed, file.getFileName());
+    }
+
+    private static void setAside(Path file) {
+        try {
+            Files.move(file, file.resolveSibling(file.getFileName() + BAD_SUFFIX));
+        } catch (IOException e) {
+            log.error("[AUDIT] Unable to move spill file {} aside", file.getFileName(), e);
+        }
+    }
+
+    private boolean hasReplayableSpill() {
+        if (!Files.isDirectory(spillDirectory)) {
+            return false;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDirectory, "{" + SPILL_FILE + ",*" + REPLAY_SUFFIX + "}")) {
+            return files.iterator().hasNext();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package it.aredegalli.auctoritas.service.audit.writer;
+
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An audit event waiting to be persisted.
+ */
+public record AuditEvent(Instant timestamp,
+                         UUID userId,
+                         AuditEventTypeEnum eventType,
+                         String applicationName,
+                         String description,
+                         Map<String, Object> metadata) {
+
+    /**
+     * Detaches the event from its user, for events whose user row may not have been committed.
+     *
+     * @return a copy of this event without user reference
+     */
+    public AuditEvent withoutUser() {
+        return new AuditEvent(timestamp, null, eventType, applicationName, description, metadata);
+    }
+}
@@ -0,0 +1,130 @@
+package it.aredegalli.auctoritas.service.authorization;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationResultDto;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepositoryCustom.UserApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache of granted authorization decisions, keyed by application name, authenticator name
+ * and hashed external user id.
+ * <p>
+ * Every invalidation bumps a generation counter: a decision loaded while an invalidation was in flight
+ * is discarded instead of being cached, so a concurrent admin write can never be shadowed by a stale entry.
+ */
+@Slf4j
+@Component
+public class AuthorizationDecisionCache implements MeterBinder {
+
+    private final Cache<DecisionKey, Decision> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthorizationDecisionCache(@Value("${auctoritas.authorization.cache.maximum-size:10000}") long maximumSize,
+                                      @Value("${auctoritas.authorization.cache.ttl:PT5M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "authorization.decisions");
+    }
+
+    /**
+     * Returns the current invalidation generation. Callers read it before loading a decision
+     * and hand it back to {@link #put}.
+     *
+     * @return the current generation
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Retrieves a cached decision.
+     *
+     * @param applicationName      the application name
+     * @param authenticatorName    the authenticator name
+     * @param hashedExternalUserId the HMAC of the external user id
+     * @return the cached decision, or null if absent or expired
+     */
+    public Decision get(String applicationName, String authenticatorName, String hashedExternalUserId) {
+        return cache.getIfPresent(new DecisionKey(applicationName, authenticatorName, hashedExternalUserId));
+    }
+
+    /**
+     * Caches a decision unless an invalidation happened since {@code loadGeneration} was read.
+     *
+     * @param loadGeneration       the generation read before the decision was loaded
+     * @param applicationName      the application name
+     * @param authenticatorName    the authenticator name
+     * @param hashedExternalUserId the HMAC of the external user id
+     * @param decision             the decision to cache
+     */
+    public void put(long loadGeneration, String applicationName, String authenticatorName, String hashedExternalUserId, Decision decision) {
+        DecisionKey key = new DecisionKey(applicationName, authenticatorName, hashedExternalUserId);
+        cache.put(key, decision);
+        if (generation.get() != loadGeneration) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidateUser(UUID userId) {
+        invalidate(decision -> decision.userId().equals(userId));
+    }
+
+    public void invalidateUserApplication(UUID userId, UUID applicationId) {
+        invalidate(decision -> decision.userId().equals(userId) && decision.applicationId().equals(applicationId));
+    }
+
+    public void invalidateUserApplications(Set<UserApplication> keys) {
+        invalidate(decision -> keys.contains(new UserApplication(decision.userId(), decision.applicationId())));
+    }
+
+    public void invalidateApplication(UUID applicationId) {
+        invalidate(decision -> decision.applicationId().equals(applicationId));
+    }
+
+    public void invalidateAuthenticator(UUID authenticatorId) {
+        invalidate(decision -> decision.authenticatorId().equals(authenticatorId));
+    }
+
+    public void invalidateApplicationAuthenticator(UUID applicationId, UUID authenticatorId) {
+        invalidate(decision -> decision.applicationId().equals(applicationId) && decision.authenticatorId().equals(authenticatorId));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        log.debug("[AUTH] Decision cache cleared");
+    }
+
+    private void invalidate(Predicate<Decision> predicate) {
+        generation.incrementAndGet();
+        cache.asMap().values().removeIf(predicate);
+    }
+
+    private record DecisionKey(String applicationName, String authenticatorName, String hashedExternalUserId) {
+    }
+
+    /**
+     * A granted decision together with the identifiers it depends on.
+     */
+    public record Decision(UUID userId, UUID applicationId, UUID authenticatorId, AuthorizationResultDto result) {
+    }
+}
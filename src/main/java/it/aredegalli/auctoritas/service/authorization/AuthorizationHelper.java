@@ -1,6 +1,7 @@
 package it.aredegalli.auctoritas.service.authorization;
 
 import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import it.aredegalli.auctoritas.enums.AuthorizationStageEnum;
 import it.aredegalli.auctoritas.model.role.Role;
 import it.aredegalli.auctoritas.model.user.User;
 import it.aredegalli.auctoritas.service.audit.AuditService;
@@ -17,27 +18,22 @@ import java.util.Map;
 public class AuthorizationHelper {
 
     private final AuditService auditService;
+    private final AuthorizationMetrics metrics;
 
     public void logAccessGranted(User user, String appName, String description, Map<String, Object> metadata) {
         log.info("[AUTH] ACCESS GRANTED: user={} app={} desc={} meta={}",
                 user != null ? user.getId() : "anonymous", appName, description, metadata);
+        long start = System.nanoTime();
         auditService.logEvent(user, AuditEventTypeEnum.ACCESS_GRANTED, appName, description, metadata);
+        metrics.record(AuthorizationStageEnum.AUDIT, start);
     }
 
     public void logAccessDenied(User user, String appName, String description, Map<String, Object> metadata) {
         log.warn("[AUTH] ACCESS DENIED: user={} app={} desc={} meta={}",
                 user != null ? user.getId() : "anonymous", appName, description, metadata);
+        long start = System.nanoTime();
         auditService.logEvent(user, AuditEventTypeEnum.ACCESS_DENIED, appName, description, metadata);
-    }
-
-    @EntityExistence(repository = it.aredegalli.auctoritas.repository.application.ApplicationRepository.class, idParam = "name", method = "existsByName")
-    public void validateApplicationExists(String name) {
-        log.debug("[VALIDATION] Application exists: {}", name);
-    }
-
-    @EntityExistence(repository = it.aredegalli.auctoritas.repository.authenticator.AuthenticatorRepository.class, idParam = "name", method = "existsByName")
-    public void validateAuthenticatorExists(String name) {
-        log.debug("[VALIDATION] Authenticator exists: {}", name);
+        metrics.record(AuthorizationStageEnum.AUDIT, start);
     }
 
     @EntityExistence(repository = it.aredegalli.auctoritas.repository.role.RoleRepository.class, idParam = "id")
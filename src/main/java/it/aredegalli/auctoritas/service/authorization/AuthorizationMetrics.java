@@ -0,0 +1,100 @@
+package it.aredegalli.auctoritas.service.authorization;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.aredegalli.auctoritas.enums.AuthorizationStageEnum;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the authorization flow.
+ * <p>
+ * Every {@link AuthorizationStageEnum} has a timer with a percentile histogram, registered up front so recording
+ * is a map read and an atomic update. Outcome counters are tagged with the application name; they are only
+ * incremented once the application has been resolved, so the tag only takes registered application names.
+ */
+@Component
+public class AuthorizationMetrics {
+
+    private static final String STAGE_TIMER = "auctoritas.authorization.stage";
+    private static final String DECISIONS = "auctoritas.authorization.decisions";
+    private static final String USERS_CREATED = "auctoritas.authorization.users.created";
+
+    private final MeterRegistry registry;
+    private final Map<AuthorizationStageEnum, Timer> stages = new EnumMap<>(AuthorizationStageEnum.class);
+    private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    public AuthorizationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (AuthorizationStageEnum stage : AuthorizationStageEnum.values()) {
+            stages.put(stage, Timer.builder(STAGE_TIMER)
+                    .description("Duration of a stage of the authorization flow")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Records the duration of a stage.
+     *
+     * @param stage      the stage
+     * @param startNanos the {@link System#nanoTime()} at which the stage started
+     */
+    public void record(AuthorizationStageEnum stage, long startNanos) {
+        stages.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a granted access.
+     *
+     * @param applicationName the application name
+     * @param cached          whether the decision came from the decision cache
+     */
+    public void granted(String applicationName, boolean cached) {
+        counter(DECISIONS, cached ? "granted_cached" : "granted", applicationName).increment();
+    }
+
+    /**
+     * Counts a denied access.
+     *
+     * @param applicationName the application name
+     */
+    public void denied(String applicationName) {
+        counter(DECISIONS, "denied", applicationName).increment();
+    }
+
+    /**
+     * Counts users created on their first login.
+     *
+     * @param applicationName the application name
+     * @param count           the number of users created
+     */
+    public void usersCreated(String applicationName, int count) {
+        counter(USERS_CREATED, null, applicationName).increment(count);
+    }
+
+    private Counter counter(String name, String outcome, String applicationName) {
+        CounterKey key = new CounterKey(name, outcome, applicationName);
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> {
+                Counter.Builder builder = Counter.builder(k.name()).tag("application", String.valueOf(k.applicationName()));
+                if (k.outcome() != null) {
+                    builder.tag("outcome", k.outcome());
+                }
+                return builder.register(registry);
+            });
+        }
+        return counter;
+    }
+
+    private record CounterKey(String name, String outcome, String applicationName) {
+    }
+}
@@ -1,9 +1,57 @@
 package it.aredegalli.auctoritas.service.authorization;
 
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationBatchItemDto;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationBatchResultDto;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationPermissionsResultDto;
 import it.aredegalli.auctoritas.dto.authorization.AuthorizationResultDto;
-import org.springframework.transaction.annotation.Transactional;
+import it.aredegalli.auctoritas.dto.authorization.PermissionCheckDto;
+import it.aredegalli.auctoritas.dto.authorization.PermissionCheckResultDto;
+
+import java.util.List;
+import java.util.UUID;
 
 public interface AuthorizationService {
-    @Transactional
     AuthorizationResultDto authorizeAccess(String applicationName, String authenticatorName, String externalUserId);
+
+    /**
+     * Same as {@link #authorizeAccess}, with the effective permissions of the granted roles resolved from the
+     * in-memory role permission index.
+     *
+     * @param applicationName   the application name
+     * @param authenticatorName the authenticator name
+     * @param externalUserId    the external user id
+     * @return the granted roles and permissions
+     */
+    AuthorizationPermissionsResultDto authorizeAccessWithPermissions(String applicationName, String authenticatorName, String externalUserId);
+
+    /**
+     * Authorizes many users at once. Items are resolved with set-based queries and users that do not exist
+     * yet are provisioned together; a failing item does not affect the others. A user is not provisioned when
+     * all its items are denied, so the batch leaves no user behind that {@link #authorizeAccess} would not.
+     *
+     * @param items              the (application, authenticator, external user id) tuples
+     * @param includePermissions whether granted items also carry their effective permissions
+     * @return one result per item, in request order, with either the granted roles or an error
+     */
+    AuthorizationBatchResultDto authorizeBatch(List<AuthorizationBatchItemDto> items, boolean includePermissions);
+
+    /**
+     * Checks whether a user holds a permission in an application, through any of its roles there.
+     * Answered from memory once the user's roles in the application are cached; not audited.
+     *
+     * @param userId         the user id
+     * @param applicationId  the application id
+     * @param permissionName the permission name
+     * @return the check outcome
+     */
+    PermissionCheckResultDto checkPermission(UUID userId, UUID applicationId, String permissionName);
+
+    /**
+     * Bulk variant of {@link #checkPermission}. Role assignments of all uncached (user, application) pairs
+     * are loaded with a single query.
+     *
+     * @param checks the checks to evaluate
+     * @return one outcome per check, in request order
+     */
+    List<PermissionCheckResultDto> checkPermissions(List<PermissionCheckDto> checks);
 }
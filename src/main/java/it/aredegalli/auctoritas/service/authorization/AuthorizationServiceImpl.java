@@ -1,6 +1,13 @@
 package it.aredegalli.auctoritas.service.authorization;
 
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationBatchItemDto;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationBatchItemResultDto;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationBatchResultDto;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationPermissionsResultDto;
 import it.aredegalli.auctoritas.dto.authorization.AuthorizationResultDto;
+import it.aredegalli.auctoritas.dto.authorization.PermissionCheckDto;
+import it.aredegalli.auctoritas.dto.authorization.PermissionCheckResultDto;
+import it.aredegalli.auctoritas.enums.AuthorizationStageEnum;
 import it.aredegalli.auctoritas.model.application.Application;
 import it.aredegalli.auctoritas.model.application.UserRoleApplication;
 import it.aredegalli.auctoritas.model.authenticator.ApplicationAuthenticator;
@@ -8,22 +15,32 @@ import it.aredegalli.auctoritas.model.authenticator.Authenticator;
 import it.aredegalli.auctoritas.model.authenticator.UserAuthMapping;
 import it.aredegalli.auctoritas.model.role.Role;
 import it.aredegalli.auctoritas.model.user.User;
-import it.aredegalli.auctoritas.repository.application.ApplicationRepository;
 import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepository;
-import it.aredegalli.auctoritas.repository.authenticator.ApplicationAuthenticatorRepository;
-import it.aredegalli.auctoritas.repository.authenticator.AuthenticatorRepository;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepositoryCustom.UserApplication;
 import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingRepository;
+import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingRepositoryCustom.ExternalIdentity;
+import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingRepositoryCustom.ProvisionedUsers;
+import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingRepositoryCustom.Provisioning;
 import it.aredegalli.auctoritas.repository.user.UserRepository;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
 import it.aredegalli.auctoritas.util.HashUtil;
 import it.aredegalli.common.exception.NotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -31,99 +48,402 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class AuthorizationServiceImpl implements AuthorizationService {
-    private final AuthenticatorRepository authenticatorRepository;
-    private final ApplicationRepository applicationRepository;
-    private final ApplicationAuthenticatorRepository appAuthRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final RolePermissionIndex rolePermissionIndex;
     private final UserAuthMappingRepository userAuthMappingRepository;
     private final UserRepository userRepository;
     private final UserRoleApplicationRepository userRoleApplicationRepository;
     private final HashUtil hashUtil;
     private final AuthorizationHelper authorizationHelper;
+    private final AuthorizationDecisionCache decisionCache;
+    private final PermissionEvaluationEngine permissionEvaluationEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final AuthorizationMetrics metrics;
 
     @Override
-    @Transactional
     public AuthorizationResultDto authorizeAccess(String applicationName, String authenticatorName, String externalUserId) {
+        long start = System.nanoTime();
         String hashedExternalUserId = hashUtil.hmacSha256(externalUserId);
+        metrics.record(AuthorizationStageEnum.HMAC, start);
 
         Map<String, Object> metadata = new HashMap<>();
         metadata.put("applicationName", applicationName);
         metadata.put("authenticatorName", authenticatorName);
         metadata.put("externalUserId", hashedExternalUserId);
 
-        Authenticator authenticator = getActiveAuthenticator(authenticatorName, metadata);
-        Application application = getApplication(applicationName, metadata);
+        start = System.nanoTime();
+        AuthorizationDecisionCache.Decision cached = decisionCache.get(applicationName, authenticatorName, hashedExternalUserId);
+        metrics.record(AuthorizationStageEnum.DECISION_CACHE, start);
+        if (cached != null) {
+            AuthorizationResultDto result = cached.result();
+            metadata.put("userId", result.getUserId());
+            metadata.put("roles", result.getRoles());
+            metadata.put("cached", true);
+
+            log.info("[AUTH] Authorized user {} with cached roles {} on app {}", result.getUserId(), result.getRoles().values(), applicationName);
+            authorizationHelper.logAccessGranted(userRepository.getReferenceById(result.getUserId()), applicationName, "Access granted with assigned roles.", metadata);
+            metrics.granted(applicationName, true);
+            return result;
+        }
+
+        long generation = decisionCache.generation();
+        AuthorizationDecisionCache.Decision decision = Objects.requireNonNull(transactionTemplate.execute(status ->
+                resolveDecision(applicationName, authenticatorName, hashedExternalUserId, metadata)),
+                "Authorization transaction returned no decision");
+        decisionCache.put(generation, applicationName, authenticatorName, hashedExternalUserId, decision);
+
+        return decision.result();
+    }
+
+    @Override
+    public AuthorizationPermissionsResultDto authorizeAccessWithPermissions(String applicationName, String authenticatorName, String externalUserId) {
+        AuthorizationResultDto result = authorizeAccess(applicationName, authenticatorName, externalUserId);
+        return new AuthorizationPermissionsResultDto(result, rolePermissionIndex.resolve(result.getRoles().keySet()));
+    }
+
+    @Override
+    public AuthorizationBatchResultDto authorizeBatch(List<AuthorizationBatchItemDto> items, boolean includePermissions) {
+        AuthorizationBatchItemResultDto[] results = new AuthorizationBatchItemResultDto[items.size()];
+        List<PendingItem> pending = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            AuthorizationBatchItemDto item = items.get(i);
+            long start = System.nanoTime();
+            String hashedExternalUserId = hashUtil.hmacSha256(item.getExternalUserId());
+            metrics.record(AuthorizationStageEnum.HMAC, start);
+
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("applicationName", item.getApplicationName());
+            metadata.put("authenticatorName", item.getAuthenticatorName());
+            metadata.put("externalUserId", hashedExternalUserId);
+            metadata.put("batch", true);
+
+            start = System.nanoTime();
+            AuthorizationDecisionCache.Decision cached = decisionCache.get(item.getApplicationName(), item.getAuthenticatorName(), hashedExternalUserId);
+            metrics.record(AuthorizationStageEnum.DECISION_CACHE, start);
+            if (cached != null) {
+                AuthorizationResultDto result = cached.result();
+                metadata.put("userId", result.getUserId());
+                metadata.put("roles", result.getRoles());
+                metadata.put("cached", true);
+                authorizationHelper.logAccessGranted(userRepository.getReferenceById(result.getUserId()), item.getApplicationName(), "Access granted with assigned roles.", metadata);
+                metrics.granted(item.getApplicationName(), true);
+                results[i] = granted(i, item, result);
+                continue;
+            }
+
+            try {
+                start = System.nanoTime();
+                Authenticator authenticator = getActiveAuthenticator(item.getAuthenticatorName());
+                metrics.record(AuthorizationStageEnum.AUTHENTICATOR, start);
+
+                start = System.nanoTime();
+                Application application = getApplication(item.getApplicationName());
+                validateApplicationAuthenticator(application, authenticator);
+                metrics.record(AuthorizationStageEnum.APPLICATION, start);
+                pending.add(new PendingItem(i, item, hashedExternalUserId, authenticator, application, metadata));
+            } catch (NotFoundException e) {
+                results[i] = failed(i, item, e.getMessage());
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            long generation = decisionCache.generation();
+            List<ResolvedItem> resolved = Objects.requireNonNull(transactionTemplate.execute(status -> resolveBatch(pending, results)),
+                    "Batch authorization transaction returned no result");
+            for (ResolvedItem item : resolved) {
+                decisionCache.put(generation, item.pending().item().getApplicationName(), item.pending().item().getAuthenticatorName(),
+                        item.pending().hashedExternalUserId(), item.decision());
+            }
+        }
+
+        if (includePermissions) {
+            for (AuthorizationBatchItemResultDto result : results) {
+                if (result.getError() == null) {
+                    result.setPermissions(rolePermissionIndex.resolve(result.getRoles().keySet()));
+                }
+            }
+        }
+
+        int granted = (int) Arrays.stream(results).filter(result -> result.getError() == null).count();
+        log.info("[AUTH] Batch authorization: {} items, {} granted, {} failed", items.size(), granted, items.size() - granted);
+
+        return AuthorizationBatchResultDto.builder()
+                .granted(granted)
+                .failed(items.size() - granted)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    @Override
+    public PermissionCheckResultDto checkPermission(UUID userId, UUID applicationId, String permissionName) {
+        return PermissionCheckResultDto.builder()
+                .userId(userId)
+                .applicationId(applicationId)
+                .permission(permissionName)
+                .granted(permissionEvaluationEngine.hasPermission(userId, applicationId, permissionName))
+                .build();
+    }
+
+    @Override
+    public List<PermissionCheckResultDto> checkPermissions(List<PermissionCheckDto> checks) {
+        boolean[] granted = permissionEvaluationEngine.hasPermissions(checks.stream()
+                .map(check -> new PermissionEvaluationEngine.Check(check.getUserId(), check.getApplicationId(), check.getPermission()))
+                .toList());
+
+        List<PermissionCheckResultDto> results = new ArrayList<>(checks.size());
+        for (int i = 0; i < checks.size(); i++) {
+            PermissionCheckDto check = checks.get(i);
+            results.add(PermissionCheckResultDto.builder()
+                    .userId(check.getUserId())
+                    .applicationId(check.getApplicationId())
+                    .permission(check.getPermission())
+                    .granted(granted[i])
+                    .build());
+        }
+        return results;
+    }
+
+    /**
+     * Resolves every pending item with a constant number of statements: one lookup of the user mappings,
+     * one multi-row provisioning of the missing users, one lookup of the assigned roles and one multi-row
+     * insert of the default roles.
+     * <p>
+     * A missing user is provisioned only if one of its items targets an application with a default role: without
+     * one, a new user has no roles and is denied, and its items fail without leaving a user behind, as the rolled
+     * back transaction of {@link #authorizeAccess} would.
+     */
+    private List<ResolvedItem> resolveBatch(List<PendingItem> pending, AuthorizationBatchItemResultDto[] results) {
+        Set<ExternalIdentity> identities = new LinkedHashSet<>();
+        Set<ExternalIdentity> provisionable = new HashSet<>();
+        for (PendingItem item : pending) {
+            identities.add(item.identity());
+            if (item.application().getDefaultRole() != null) {
+                provisionable.add(item.identity());
+            }
+        }
+
+        long start = System.nanoTime();
+        Map<ExternalIdentity, UUID> userIds = userAuthMappingRepository.findUserIdsByIdentities(identities);
+        List<ExternalIdentity> missing = identities.stream()
+                .filter(identity -> !userIds.containsKey(identity) && provisionable.contains(identity))
+                .toList();
+        Set<ExternalIdentity> created = new HashSet<>();
+        if (!missing.isEmpty()) {
+            ProvisionedUsers provisioned = userAuthMappingRepository.provisionUsers(missing);
+            userIds.putAll(provisioned.userIds());
+            created.addAll(provisioned.created());
+            log.info("[AUTH] Created {} new users and mappings in batch", created.size());
+        }
+        metrics.record(AuthorizationStageEnum.USER, start);
+
+        start = System.nanoTime();
+        Set<UserApplication> keys = new LinkedHashSet<>();
+        for (PendingItem item : pending) {
+            UUID userId = userIds.get(item.identity());
+            if (userId != null) {
+                keys.add(new UserApplication(userId, item.application().getId()));
+            }
+        }
+        Map<UserApplication, Map<UUID, String>> roles = userRoleApplicationRepository.findRoleNamesByUserApplications(keys);
+
+        Map<UserApplication, UUID> defaultRoles = new HashMap<>();
+        for (PendingItem item : pending) {
+            UUID userId = userIds.get(item.identity());
+            if (userId == null) {
+                continue;
+            }
+            UserApplication key = new UserApplication(userId, item.application().getId());
+            Role defaultRole = item.application().getDefaultRole();
+            if (!roles.containsKey(key) && defaultRole != null) {
+                defaultRoles.put(key, defaultRole.getId());
+                roles.put(key, new HashMap<>(Map.of(defaultRole.getId(), defaultRole.getName())));
+            }
+        }
+        userRoleApplicationRepository.assignRoles(defaultRoles);
+        defaultRoles.keySet().forEach(key -> permissionEvaluationEngine.invalidate(key.userId(), key.applicationId()));
+        metrics.record(AuthorizationStageEnum.ROLES, start);
+
+        List<ResolvedItem> resolved = new ArrayList<>(pending.size());
+        for (PendingItem item : pending) {
+            UUID userId = userIds.get(item.identity());
+            String appName = item.item().getApplicationName();
+            Map<String, Object> metadata = item.metadata();
+            if (userId == null) {
+                authorizationHelper.logAccessDenied(null, appName, "Access denied: no assigned role and no default role.", metadata);
+                metrics.denied(appName);
+                results[item.index()] = failed(item.index(), item.item(), "Access denied: no assigned role.");
+                continue;
+            }
+            User user = userRepository.getReferenceById(userId);
+            UserApplication key = new UserApplication(userId, item.application().getId());
+            metadata.put("userId", userId);
+
+            if (created.remove(item.identity())) {
+                authorizationHelper.logAccessGranted(user, appName, "User created and mapped on login.", metadata);
+                metrics.usersCreated(appName, 1);
+            }
+            if (defaultRoles.remove(key) != null) {
+                log.info("[AUTH] Assigned default role {} to user {} for application {}", item.application().getDefaultRole().getName(), userId, appName);
+                authorizationHelper.logAccessGranted(user, appName, "Assigned default role to user on first login.", metadata);
+            }
+
+            Map<UUID, String> roleMap = roles.get(key);
+            if (roleMap == null) {
+                authorizationHelper.logAccessDenied(user, appName, "Access denied: no assigned role and no default role.", metadata);
+                metrics.denied(appName);
+                results[item.index()] = failed(item.index(), item.item(), "Access denied: no assigned role.");
+                continue;
+            }
+
+            metadata.put("roles", roleMap);
+            authorizationHelper.logAccessGranted(user, appName, "Access granted with assigned roles.", metadata);
+            metrics.granted(appName, false);
+
+            AuthorizationResultDto result = AuthorizationResultDto.builder()
+                    .userId(userId)
+                    .roles(roleMap)
+                    .build();
+            results[item.index()] = granted(item.index(), item.item(), result);
+            resolved.add(new ResolvedItem(item, new AuthorizationDecisionCache.Decision(userId, item.application().getId(), item.authenticator().getId(), result)));
+        }
+        return resolved;
+    }
+
+    private static AuthorizationBatchItemResultDto granted(int index, AuthorizationBatchItemDto item, AuthorizationResultDto result) {
+        return AuthorizationBatchItemResultDto.builder()
+                .index(index)
+                .applicationName(item.getApplicationName())
+                .authenticatorName(item.getAuthenticatorName())
+                .externalUserId(item.getExternalUserId())
+                .userId(result.getUserId())
+                .roles(result.getRoles())
+                .build();
+    }
+
+    private static AuthorizationBatchItemResultDto failed(int index, AuthorizationBatchItemDto item, String error) {
+        return AuthorizationBatchItemResultDto.builder()
+                .index(index)
+                .applicationName(item.getApplicationName())
+                .authenticatorName(item.getAuthenticatorName())
+                .externalUserId(item.getExternalUserId())
+                .error(error)
+                .build();
+    }
+
+    private AuthorizationDecisionCache.Decision resolveDecision(String applicationName, String authenticatorName,
+                                                                String hashedExternalUserId, Map<String, Object> metadata) {
+        long start = System.nanoTime();
+        Authenticator authenticator = getActiveAuthenticator(authenticatorName);
+        metrics.record(AuthorizationStageEnum.AUTHENTICATOR, start);
+
+        start = System.nanoTime();
+        Application application = getApplication(applicationName);
         validateApplicationAuthenticator(application, authenticator);
-        User user = getOrCreateUser(authenticator, hashedExternalUserId, applicationName, metadata);
+        metrics.record(AuthorizationStageEnum.APPLICATION, start);
+
+        start = System.nanoTime();
+        Provisioning provisioning = getOrProvisionUser(authenticator, application, hashedExternalUserId);
+        User user = userRepository.getReferenceById(provisioning.userId());
         metadata.put("userId", user.getId());
+        if (provisioning.created()) {
+            log.info("[AUTH] Created new user {} and mapping for externalId {}", user.getId(), hashedExternalUserId);
+            authorizationHelper.logAccessGranted(user, applicationName, "User created and mapped on login.", metadata);
+            metrics.usersCreated(applicationName, 1);
+        }
+        metrics.record(AuthorizationStageEnum.USER, start);
 
-        List<Role> roles = getUserRolesOrAssignDefault(user, application, applicationName, metadata);
+        start = System.nanoTime();
+        List<Role> roles = getUserRolesOrAssignDefault(user, provisioning, application, applicationName, metadata);
+        metrics.record(AuthorizationStageEnum.ROLES, start);
         Map<UUID, String> roleMap = roles.stream().collect(Collectors.toMap(Role::getId, Role::getName));
         metadata.put("roles", roleMap);
 
         log.info("[AUTH] Authorized user {} with roles {} on app {}", user.getId(), roleMap.values(), applicationName);
         authorizationHelper.logAccessGranted(user, applicationName, "Access granted with assigned roles.", metadata);
+        metrics.granted(applicationName, false);
 
-        return AuthorizationResultDto.builder()
+        AuthorizationResultDto result = AuthorizationResultDto.builder()
                 .userId(user.getId())
                 .roles(roleMap)
                 .build();
+
+        return new AuthorizationDecisionCache.Decision(user.getId(), application.getId(), authenticator.getId(), result);
     }
 
-    private Authenticator getActiveAuthenticator(String name, Map<String, Object> metadata) {
-        authorizationHelper.validateAuthenticatorExists(name);
-        return authenticatorRepository.findByName(name)
+    private Authenticator getActiveAuthenticator(String name) {
+        return referenceDataRegistry.current().findAuthenticator(name)
+                .or(() -> referenceDataRegistry.reloadOnMiss().findAuthenticator(name))
                 .filter(Authenticator::isActive)
                 .orElseThrow(() -> new NotFoundException("Authenticator not found or inactive"));
     }
 
-    private Application getApplication(String name, Map<String, Object> metadata) {
-        authorizationHelper.validateApplicationExists(name);
-        return applicationRepository.findByName(name)
+    private Application getApplication(String name) {
+        return referenceDataRegistry.current().findApplication(name)
+                .or(() -> referenceDataRegistry.reloadOnMiss().findApplication(name))
                 .orElseThrow(() -> new NotFoundException("Application not found"));
     }
 
     private void validateApplicationAuthenticator(Application application, Authenticator authenticator) {
-        appAuthRepository.findByApplicationIdAndAuthenticatorId(application.getId(), authenticator.getId())
+        referenceDataRegistry.current().findLink(application.getId(), authenticator.getId())
                 .filter(ApplicationAuthenticator::isActive)
                 .orElseThrow(() -> new NotFoundException("Auth provider not active for this application"));
     }
 
-    private User getOrCreateUser(Authenticator authenticator, String externalUserId, String appName, Map<String, Object> metadata) {
-        return userAuthMappingRepository.findByAuthenticatorIdAndExternalUserId(authenticator.getId(), externalUserId)
-                .map(UserAuthMapping::getUser)
-                .orElseGet(() -> {
-                    User user = userRepository.save(User.builder().build());
-                    UserAuthMapping mapping = UserAuthMapping.builder()
-                            .user(user)
-                            .authenticator(authenticator)
-                            .externalUserId(externalUserId)
-                            .build();
-                    userAuthMappingRepository.save(mapping);
-                    log.info("[AUTH] Created new user {} and mapping for externalId {}", user.getId(), externalUserId);
-                    authorizationHelper.logAccessGranted(user, appName, "User created and mapped on login.", metadata);
-                    return user;
-                });
+    /**
+     * Resolves the user mapped to an external identity. On a first login the user, its mapping and the default
+     * role of the application are created with a single statement, which is safe against concurrent first logins
+     * of the same identity.
+     */
+    private Provisioning getOrProvisionUser(Authenticator authenticator, Application application, String externalUserId) {
+        Optional<UserAuthMapping> mapping = userAuthMappingRepository.findByAuthenticatorIdAndExternalUserId(authenticator.getId(), externalUserId);
+        if (mapping.isPresent()) {
+            return new Provisioning(mapping.get().getUser().getId(), false, false);
+        }
+
+        Role defaultRole = application.getDefaultRole();
+        return userAuthMappingRepository.provisionUser(new ExternalIdentity(authenticator.getId(), externalUserId),
+                application.getId(), defaultRole != null ? defaultRole.getId() : null);
     }
 
-    private List<Role> getUserRolesOrAssignDefault(User user, Application application, String appName, Map<String, Object> metadata) {
-        List<UserRoleApplication> uraList = userRoleApplicationRepository.findAllByUserIdAndApplicationId(user.getId(), application.getId());
+    private List<Role> getUserRolesOrAssignDefault(User user, Provisioning provisioning, Application application, String appName,
+                                                   Map<String, Object> metadata) {
+        Role defaultRole = application.getDefaultRole();
+        if (provisioning.defaultRoleAssigned()) {
+            permissionEvaluationEngine.invalidate(user.getId(), application.getId());
+            log.info("[AUTH] Assigned default role {} to user {} for application {}", defaultRole.getName(), user.getId(), appName);
+            authorizationHelper.logAccessGranted(user, appName, "Assigned default role to user on first login.", metadata);
+            return List.of(defaultRole);
+        }
+
+        // A user created just now has no roles: skip the lookup
+        List<UserRoleApplication> uraList = provisioning.created()
+                ? List.of()
+                : userRoleApplicationRepository.findAllByUserIdAndApplicationId(user.getId(), application.getId());
 
         if (!uraList.isEmpty()) {
             return uraList.stream().map(UserRoleApplication::getRole).collect(Collectors.toList());
-        } else if (application.getDefaultRole() != null) {
-            Role defaultRole = application.getDefaultRole();
-            UserRoleApplication newURA = UserRoleApplication.builder()
-                    .user(user)
-                    .application(application)
-                    .role(defaultRole)
-                    .build();
-            userRoleApplicationRepository.save(newURA);
+        } else if (defaultRole != null) {
+            userRoleApplicationRepository.assignRoles(Map.of(new UserApplication(user.getId(), application.getId()), defaultRole.getId()));
+            permissionEvaluationEngine.invalidate(user.getId(), application.getId());
             log.info("[AUTH] Assigned default role {} to user {} for application {}", defaultRole.getName(), user.getId(), appName);
             authorizationHelper.logAccessGranted(user, appName, "Assigned default role to user on first login.", metadata);
             return List.of(defaultRole);
         } else {
             authorizationHelper.logAccessDenied(user, appName, "Access denied: no assigned role and no default role.", metadata);
+            metrics.denied(appName);
             throw new NotFoundException("Access denied: no assigned role.");
         }
     }
+
+    private record PendingItem(int index, AuthorizationBatchItemDto item, String hashedExternalUserId,
+                               Authenticator authenticator, Application application, Map<String, Object> metadata) {
+
+        ExternalIdentity identity() {
+            return new ExternalIdentity(authenticator.getId(), hashedExternalUserId);
+        }
+    }
+
+    private record ResolvedItem(PendingItem pending, AuthorizationDecisionCache.Decision decision) {
+    }
 }
@@ -0,0 +1,160 @@
+package it.aredegalli.auctoritas.service.authorization;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepository;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepositoryCustom.UserApplication;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Answers "does user U hold permission P in application A" from memory.
+ * <p>
+ * The role ids of each (user, application) pair are loaded lazily from {@code users_roles_application} and
+ * kept in a size-bounded cache together with their effective permission bitset, computed against a
+ * {@link RolePermissionIndex} snapshot. When the index changes the bitset is recomputed from the cached
+ * role ids without touching the database; role assignment changes evict the pair.
+ */
+@Slf4j
+@Component
+public class PermissionEvaluationEngine implements MeterBinder {
+
+    private final UserRoleApplicationRepository userRoleApplicationRepository;
+    private final RolePermissionIndex rolePermissionIndex;
+    private final Cache<UserApplication, Grant> grants;
+
+    public PermissionEvaluationEngine(UserRoleApplicationRepository userRoleApplicationRepository,
+                                      RolePermissionIndex rolePermissionIndex,
+                                      @Value("${auctoritas.authorization.permission-cache.maximum-size:100000}") long maximumSize,
+                                      @Value("${auctoritas.authorization.permission-cache.ttl:PT5M}") Duration ttl) {
+        this.userRoleApplicationRepository = userRoleApplicationRepository;
+        this.rolePermissionIndex = rolePermissionIndex;
+        this.grants = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, grants, "authorization.grants");
+    }
+
+    /**
+     * Checks a single permission.
+     *
+     * @param userId         the user id
+     * @param applicationId  the application id
+     * @param permissionName the permission name
+     * @return true if any role of the user in the application grants the permission
+     */
+    public boolean hasPermission(UUID userId, UUID applicationId, String permissionName) {
+        RolePermissionIndex.Snapshot snapshot = rolePermissionIndex.snapshot();
+        int slot = snapshot.slotOf(permissionName);
+        if (slot < 0) {
+            return false;
+        }
+        UserApplication key = new UserApplication(userId, applicationId);
+        Grant grant = grants.get(key, k -> load(Set.of(k), snapshot).get(k));
+        return current(key, grant, snapshot).permissions().get(slot);
+    }
+
+    /**
+     * Checks many permissions, loading the role ids of all uncached pairs with a single query.
+     *
+     * @param checks the (user, application, permission) checks
+     * @return one answer per check, in order
+     */
+    public boolean[] hasPermissions(List<Check> checks) {
+        RolePermissionIndex.Snapshot snapshot = rolePermissionIndex.snapshot();
+
+        Set<UserApplication> keys = new HashSet<>();
+        for (Check check : checks) {
+            keys.add(new UserApplication(check.userId(), check.applicationId()));
+        }
+        Map<UserApplication, Grant> resolved = new HashMap<>(grants.getAll(keys, missing -> load(missing, snapshot)));
+
+        boolean[] answers = new boolean[checks.size()];
+        for (int i = 0; i < checks.size(); i++) {
+            Check check = checks.get(i);
+            int slot = snapshot.slotOf(check.permissionName());
+            if (slot < 0) {
+                continue;
+            }
+            UserApplication key = new UserApplication(check.userId(), check.applicationId());
+            Grant grant = current(key, resolved.get(key), snapshot);
+            resolved.put(key, grant);
+            answers[i] = grant.permissions().get(slot);
+        }
+        return answers;
+    }
+
+    /**
+     * Evicts a (user, application) pair after its role assignments changed.
+     *
+     * @param userId        the user id
+     * @param applicationId the application id
+     */
+    public void invalidate(UUID userId, UUID applicationId) {
+        grants.invalidate(new UserApplication(userId, applicationId));
+    }
+
+    public void invalidate(Collection<UserApplication> keys) {
+        grants.invalidateAll(keys);
+    }
+
+    public void invalidateAll() {
+        grants.invalidateAll();
+    }
+
+    public long size() {
+        return grants.estimatedSize();
+    }
+
+    private Grant current(UserApplication key, Grant grant, RolePermissionIndex.Snapshot snapshot) {
+        if (grant.indexVersion() == snapshot.version()) {
+            return grant;
+        }
+        Grant recomputed = new Grant(grant.roleIds(), snapshot.version(), snapshot.union(grant.roleIds()));
+        grants.asMap().replace(key, grant, recomputed);
+        return recomputed;
+    }
+
+    private Map<UserApplication, Grant> load(Set<? extends UserApplication> keys, RolePermissionIndex.Snapshot snapshot) {
+        Map<UserApplication, Map<UUID, String>> roles = userRoleApplicationRepository.findRoleNamesByUserApplications(Set.copyOf(keys));
+
+        Map<UserApplication, Grant> loaded = new HashMap<>();
+        for (UserApplication key : keys) {
+            Set<UUID> roleIds = Set.copyOf(roles.getOrDefault(key, Map.of()).keySet());
+            loaded.put(key, new Grant(roleIds, snapshot.version(), snapshot.union(roleIds)));
+        }
+        log.debug("[AUTH] Loaded role assignments for {} user/application pairs", keys.size());
+        return loaded;
+    }
+
+    /**
+     * Role ids of a pair and the permission bitset computed from them at {@code indexVersion}.
+     * The bitset is never mutated once published.
+     */
+    private record Grant(Collection<UUID> roleIds, long indexVersion, BitSet permissions) {
+    }
+
+    public record Check(UUID userId, UUID applicationId, String permissionName) {
+    }
+}
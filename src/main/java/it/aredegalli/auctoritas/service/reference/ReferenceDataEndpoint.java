@@ -0,0 +1,34 @@
+package it.aredegalli.auctoritas.service.reference;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "referencedata")
+@RequiredArgsConstructor
+public class ReferenceDataEndpoint {
+
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final RolePermissionIndex rolePermissionIndex;
+
+    @ReadOperation
+    public Map<String, Object> referenceData() {
+        ReferenceDataSnapshot snapshot = referenceDataRegistry.current();
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("version", snapshot.getVersion());
+        details.put("loadedAt", snapshot.getLoadedAt());
+        details.put("applications", snapshot.applicationCount());
+        details.put("authenticators", snapshot.authenticatorCount());
+        details.put("applicationAuthenticators", snapshot.linkCount());
+        details.put("rolePermissionIndexVersion", rolePermissionIndex.version());
+        details.put("indexedRoles", rolePermissionIndex.roleCount());
+        details.put("indexedPermissions", rolePermissionIndex.permissionCount());
+        return details;
+    }
+}
@@ -0,0 +1,96 @@
+package it.aredegalli.auctoritas.service.reference;
+
+import it.aredegalli.auctoritas.repository.application.ApplicationRepository;
+import it.aredegalli.auctoritas.repository.authenticator.ApplicationAuthenticatorRepository;
+import it.aredegalli.auctoritas.repository.authenticator.AuthenticatorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link ReferenceDataSnapshot}.
+ * <p>
+ * Reads are plain volatile loads. Writers rebuild a complete snapshot and swap it in, so readers never
+ * observe a partially updated view.
+ */
+@Slf4j
+@Component
+public class ReferenceDataRegistry {
+
+    private final AuthenticatorRepository authenticatorRepository;
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationAuthenticatorRepository applicationAuthenticatorRepository;
+    private final Duration missReloadInterval;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile ReferenceDataSnapshot snapshot = ReferenceDataSnapshot.EMPTY;
+
+    public ReferenceDataRegistry(AuthenticatorRepository authenticatorRepository,
+                                 ApplicationRepository applicationRepository,
+                                 ApplicationAuthenticatorRepository applicationAuthenticatorRepository,
+                                 @Value("${auctoritas.reference-data.miss-reload-interval:PT10S}") Duration missReloadInterval) {
+        this.authenticatorRepository = authenticatorRepository;
+        this.applicationRepository = applicationRepository;
+        this.applicationAuthenticatorRepository = applicationAuthenticatorRepository;
+        this.missReloadInterval = missReloadInterval;
+    }
+
+    /**
+     * Returns the snapshot currently in use.
+     *
+     * @return the current snapshot
+     */
+    public ReferenceDataSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Reloads the snapshot after a lookup miss, unless the current one is younger than the configured
+     * miss-reload interval. Bounds the reload rate when clients ask for names that do not exist.
+     *
+     * @return the snapshot to retry the lookup against
+     */
+    public ReferenceDataSnapshot reloadOnMiss() {
+        ReferenceDataSnapshot current = snapshot;
+        if (current.getLoadedAt().plus(missReloadInterval).isAfter(Instant.now())) {
+            return current;
+        }
+        lock.lock();
+        try {
+            return snapshot != current ? snapshot : reload();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the three reference tables and atomically publishes a new snapshot.
+     *
+     * @return the new snapshot
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public ReferenceDataSnapshot reload() {
+        lock.lock();
+        try {
+            ReferenceDataSnapshot next = new ReferenceDataSnapshot(
+                    snapshot.getVersion() + 1,
+                    Instant.now(),
+                    authenticatorRepository.findAll(),
+                    applicationRepository.findAllWithDefaultRole(),
+                    applicationAuthenticatorRepository.findAllWithApplicationAndAuthenticator());
+            snapshot = next;
+
+            log.info("[REFERENCE] Snapshot v{} loaded: {} applications, {} authenticators, {} links",
+                    next.getVersion(), next.applicationCount(), next.authenticatorCount(), next.linkCount());
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package it.aredegalli.auctoritas.service.reference;
+
+import it.aredegalli.auctoritas.model.application.Application;
+import it.aredegalli.auctoritas.model.authenticator.ApplicationAuthenticator;
+import it.aredegalli.auctoritas.model.authenticator.Authenticator;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable, versioned view of the applications, authenticators and application-authenticator links.
+ * <p>
+ * Entities held here are detached: only their columns and the eagerly fetched associations may be read.
+ */
+public final class ReferenceDataSnapshot {
+
+    static final ReferenceDataSnapshot EMPTY = new ReferenceDataSnapshot(0, Instant.EPOCH, List.of(), List.of(), List.of());
+
+    private final long version;
+    private final Instant loadedAt;
+    private final Map<String, Authenticator> authenticatorsByName;
+    private final Map<String, Application> applicationsByName;
+    private final Map<LinkKey, ApplicationAuthenticator> links;
+
+    ReferenceDataSnapshot(long version, Instant loadedAt, List<Authenticator> authenticators,
+                          List<Application> applications, List<ApplicationAuthenticator> applicationAuthenticators) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+
+        Map<String, Authenticator> authenticatorMap = new HashMap<>(authenticators.size() * 2);
+        authenticators.forEach(authenticator -> authenticatorMap.put(authenticator.getName(), authenticator));
+        this.authenticatorsByName = Map.copyOf(authenticatorMap);
+
+        Map<String, Application> applicationMap = new HashMap<>(applications.size() * 2);
+        applications.forEach(application -> applicationMap.put(application.getName(), application));
+        this.applicationsByName = Map.copyOf(applicationMap);
+
+        Map<LinkKey, ApplicationAuthenticator> linkMap = new HashMap<>(applicationAuthenticators.size() * 2);
+        applicationAuthenticators.forEach(link -> linkMap.put(
+                new LinkKey(link.getApplication().getId(), link.getAuthenticator().getId()), link));
+        this.links = Map.copyOf(linkMap);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public Optional<Authenticator> findAuthenticator(String name) {
+        return Optional.ofNullable(authenticatorsByName.get(name));
+    }
+
+    public Optional<Application> findApplication(String name) {
+        return Optional.ofNullable(applicationsByName.get(name));
+    }
+
+    public Optional<ApplicationAuthenticator> findLink(UUID applicationId, UUID authenticatorId) {
+        return Optional.ofNullable(links.get(new LinkKey(applicationId, authenticatorId)));
+    }
+
+    public int authenticatorCount() {
+        return authenticatorsByName.size();
+    }
+
+    public int applicationCount() {
+        return applicationsByName.size();
+    }
+
+    public int linkCount() {
+        return links.size();
+    }
+
+    private record LinkKey(UUID applicationId, UUID authenticatorId) {
+    }
+}
@@ -0,0 +1,278 @@
+package it.aredegalli.auctoritas.service.reference;
+
+import it.aredegalli.auctoritas.model.role.Permission;
+import it.aredegalli.auctoritas.model.role.PermissionRole;
+import it.aredegalli.auctoritas.repository.role.PermissionRoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory role to permission index.
+ * <p>
+ * Permissions are interned to dense integer slots and every role maps to a {@link BitSet} over those slots,
+ * so the effective permissions of a set of roles are a handful of word-wide ORs. The index is immutable
+ * once published: {@link #grant} and {@link #revoke} copy only the affected role and swap the index in,
+ * while {@link #reload()} rebuilds it from the database and compacts revoked slots.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RolePermissionIndex {
+
+    private final PermissionRoleRepository permissionRoleRepository;
+
+    // Not a monitor: reload() queries the database, which would pin a virtual thread holding a monitor
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Snapshot index = Snapshot.EMPTY;
+
+    /**
+     * Returns the index currently in use. Slots and bitsets obtained from the same snapshot are consistent
+     * with each other.
+     *
+     * @return the current snapshot
+     */
+    public Snapshot snapshot() {
+        return index;
+    }
+
+    /**
+     * Returns the version of the index in use. It changes on every grant, revoke, rename or reload.
+     *
+     * @return the current version
+     */
+    public long version() {
+        return index.version;
+    }
+
+    /**
+     * Resolves the effective permissions of a set of roles.
+     *
+     * @param roleIds the role ids
+     * @return permission id to permission name, in slot order
+     */
+    public Map<UUID, String> resolve(Collection<UUID> roleIds) {
+        Snapshot current = index;
+        return current.resolve(current.union(roleIds));
+    }
+
+    /**
+     * Records that a role has been granted a permission. Must be called after the change is committed.
+     *
+     * @param roleId     the role id
+     * @param permission the granted permission
+     */
+    public void grant(UUID roleId, Permission permission) {
+        lock.lock();
+        try {
+            Snapshot current = index;
+            Integer slot = current.slots.get(permission.getId());
+            UUID[] ids = current.ids;
+            String[] names = current.names;
+            Map<UUID, Integer> slots = current.slots;
+            Map<String, Integer> slotsByName = current.slotsByName;
+            if (slot == null) {
+                slot = ids.length;
+                ids = Arrays.copyOf(ids, slot + 1);
+                names = Arrays.copyOf(names, slot + 1);
+                ids[slot] = permission.getId();
+                names[slot] = permission.getName();
+                slots = new HashMap<>(slots);
+                slots.put(permission.getId(), slot);
+                slotsByName = new HashMap<>(slotsByName);
+                slotsByName.put(permission.getName(), slot);
+            }
+
+            Map<UUID, BitSet> roles = new HashMap<>(current.roles);
+            BitSet bits = roles.containsKey(roleId) ? (BitSet) roles.get(roleId).clone() : new BitSet();
+            bits.set(slot);
+            roles.put(roleId, bits);
+
+            index = new Snapshot(current.version + 1, ids, names, slots, slotsByName, roles);
+            log.debug("[REFERENCE] Permission {} granted to role {}", permission.getId(), roleId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that a permission has been removed from a role. Must be called after the change is committed.
+     *
+     * @param roleId       the role id
+     * @param permissionId the removed permission id
+     */
+    public void revoke(UUID roleId, UUID permissionId) {
+        lock.lock();
+        try {
+            Snapshot current = index;
+            Integer slot = current.slots.get(permissionId);
+            BitSet existing = current.roles.get(roleId);
+            if (slot == null || existing == null || !existing.get(slot)) {
+                return;
+            }
+
+            Map<UUID, BitSet> roles = new HashMap<>(current.roles);
+            BitSet bits = (BitSet) existing.clone();
+            bits.clear(slot);
+            roles.put(roleId, bits);
+
+            index = new Snapshot(current.version + 1, current.ids, current.names, current.slots, current.slotsByName, roles);
+            log.debug("[REFERENCE] Permission {} revoked from role {}", permissionId, roleId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Picks up a permission rename.
+     *
+     * @param permission the updated permission
+     */
+    public void rename(Permission permission) {
+        lock.lock();
+        try {
+            Snapshot current = index;
+            Integer slot = current.slots.get(permission.getId());
+            if (slot == null) {
+                return;
+            }
+            String[] names = current.names.clone();
+            Map<String, Integer> slotsByName = new HashMap<>(current.slotsByName);
+            slotsByName.remove(names[slot]);
+            names[slot] = permission.getName();
+            slotsByName.put(permission.getName(), slot);
+            index = new Snapshot(current.version + 1, current.ids, names, current.slots, slotsByName, current.roles);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index from {@code permissions_role}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        lock.lock();
+        try {
+            List<PermissionRole> assignments = permissionRoleRepository.findAllWithPermission();
+
+            Map<UUID, Integer> slots = new HashMap<>();
+            Map<String, Integer> slotsByName = new HashMap<>();
+            Map<UUID, BitSet> roles = new HashMap<>();
+            UUID[] ids = new UUID[assignments.size()];
+            String[] names = new String[assignments.size()];
+            for (PermissionRole assignment : assignments) {
+                Permission permission = assignment.getPermission();
+                Integer slot = slots.get(permission.getId());
+                if (slot == null) {
+                    slot = slots.size();
+                    slots.put(permission.getId(), slot);
+                    slotsByName.put(permission.getName(), slot);
+                    ids[slot] = permission.getId();
+                    names[slot] = permission.getName();
+                }
+                roles.computeIfAbsent(assignment.getRole().getId(), k -> new BitSet()).set(slot);
+            }
+
+            Snapshot next = new Snapshot(index.version + 1, Arrays.copyOf(ids, slots.size()), Arrays.copyOf(names, slots.size()),
+                    slots, slotsByName, roles);
+            index = next;
+            log.info("[REFERENCE] Role permission index v{} loaded: {} roles, {} permissions", next.version, roles.size(), slots.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int roleCount() {
+        return index.roles.size();
+    }
+
+    public int permissionCount() {
+        return index.ids.length;
+    }
+
+    /**
+     * Immutable view of the index. Bitsets returned by {@link #union} must not be shared across snapshots,
+     * since a reload may reassign slots.
+     */
+    public static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(0, new UUID[0], new String[0], Map.of(), Map.of(), Map.of());
+
+        private final long version;
+        private final UUID[] ids;
+        private final String[] names;
+        private final Map<UUID, Integer> slots;
+        private final Map<String, Integer> slotsByName;
+        private final Map<UUID, BitSet> roles;
+
+        private Snapshot(long version, UUID[] ids, String[] names, Map<UUID, Integer> slots,
+                         Map<String, Integer> slotsByName, Map<UUID, BitSet> roles) {
+            this.version = version;
+            this.ids = ids;
+            this.names = names;
+            this.slots = slots;
+            this.slotsByName = slotsByName;
+            this.roles = roles;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        /**
+         * Returns the slot of a permission name.
+         *
+         * @param permissionName the permission name
+         * @return the slot, or -1 if no role holds that permission
+         */
+        public int slotOf(String permissionName) {
+            Integer slot = slotsByName.get(permissionName);
+            return slot != null ? slot : -1;
+        }
+
+        /**
+         * Computes the effective permission bitset of a set of roles.
+         *
+         * @param roleIds the role ids
+         * @return a new bitset owned by the caller
+         */
+        public BitSet union(Collection<UUID> roleIds) {
+            BitSet union = new BitSet(ids.length);
+            for (UUID roleId : roleIds) {
+                BitSet bits = roles.get(roleId);
+                if (bits != null) {
+                    union.or(bits);
+                }
+            }
+            return union;
+        }
+
+        /**
+         * Maps a bitset computed from this snapshot back to permission ids and names.
+         *
+         * @param bits the bitset
+         * @return permission id to permission name, in slot order
+         */
+        public Map<UUID, String> resolve(BitSet bits) {
+            Map<UUID, String> permissions = new LinkedHashMap<>();
+            for (int slot = bits.nextSetBit(0); slot >= 0; slot = bits.nextSetBit(slot + 1)) {
+                permissions.put(ids[slot], names[slot]);
+            }
+            return permissions;
+        }
+    }
+}
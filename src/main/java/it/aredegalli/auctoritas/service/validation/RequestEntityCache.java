@@ -0,0 +1,99 @@
+package it.aredegalli.auctoritas.service.validation;
+
+import it.aredegalli.auctoritas.repository.UUIDRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Entities loaded during the current HTTP request, by repository and lookup.
+ * <p>
+ * {@code @EntityExistence(fetch = true)} stores the entity it checked here, so the annotated method reads it back
+ * with {@link #findById} instead of querying it a second time. Outside of a request nothing is cached and
+ * every lookup goes to the repository. Methods deleting entities {@link #evict} their repository, so later lookups
+ * of the same request do not find them.
+ */
+@Component
+public class RequestEntityCache {
+
+    public static final String FIND_BY_ID = "findById";
+
+    private static final String ATTRIBUTE = RequestEntityCache.class.getName();
+
+    /**
+     * Finds an entity by id, loading it only if it was not loaded yet in this request.
+     *
+     * @param repository the repository of the entity
+     * @param id         the entity id
+     * @return the entity, if it exists
+     */
+    public <T> Optional<T> findById(UUIDRepository<T> repository, UUID id) {
+        return find(repository, FIND_BY_ID, id, () -> repository.findById(id));
+    }
+
+    /**
+     * Finds an entity with a repository lookup, loading it only if the same lookup already ran in this request.
+     *
+     * @param repository the repository of the entity
+     * @param finder     the name of the lookup method
+     * @param value      the lookup argument
+     * @param loader     runs the lookup on a cache miss
+     * @return the entity, if it exists
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> find(Object repository, String finder, Object value, Supplier<? extends Optional<? extends T>> loader) {
+        Map<Object, Map<Lookup, Object>> entities = entities();
+        if (entities == null) {
+            return (Optional<T>) loader.get();
+        }
+
+        Map<Lookup, Object> byLookup = entities.computeIfAbsent(repository, r -> new HashMap<>());
+        Lookup lookup = new Lookup(finder, value);
+        Object entity = byLookup.get(lookup);
+        if (entity != null) {
+            return Optional.of((T) entity);
+        }
+
+        // Only hits are kept: a missing entity may be created later in the same request
+        Optional<? extends T> loaded = loader.get();
+        loaded.ifPresent(e -> byLookup.put(lookup, e));
+        return (Optional<T>) loaded;
+    }
+
+    /**
+     * Forgets the entities loaded through a repository in this request, after some of them were deleted.
+     *
+     * @param repository the repository of the entities
+     */
+    public void evict(Object repository) {
+        Map<Object, Map<Lookup, Object>> entities = entities();
+        if (entities != null) {
+            entities.remove(repository);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Map<Lookup, Object>> entities() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object entities = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (entities == null) {
+            // Repository proxies are compared by identity, not through their proxied equals
+            entities = new IdentityHashMap<Object, Map<Lookup, Object>>();
+            attributes.setAttribute(ATTRIBUTE, entities, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<Object, Map<Lookup, Object>>) entities;
+    }
+
+    private record Lookup(String finder, Object value) {
+    }
+}
@@ -33,6 +33,17 @@ public @interface EntityExistence {
      */
     String method() default "existsById";
 
+    /**
+     * Whether to load the entity instead of only checking that it exists.
+     * The entity is kept in {@link it.aredegalli.auctoritas.service.validation.RequestEntityCache} for the rest
+     * of the request, so the method can read it back without a second query. With the default method the
+     * entity is loaded with {@code findById}; a custom method must return the entity or an {@code Optional}.
+     * Defaults to false.
+     *
+     * @return true if the entity should be fetched
+     */
+    boolean fetch() default false;
+
     /**
      * Whether to perform the existence check.
      * Defaults to true.
@@ -1,6 +1,6 @@
 package it.aredegalli.auctoritas.service.validation.annotation;
 
-import it.aredegalli.auctoritas.repository.UUIDRepository;
+import it.aredegalli.auctoritas.service.validation.RequestEntityCache;
 import it.aredegalli.common.exception.ConflictException;
 import it.aredegalli.common.exception.NotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -9,14 +9,26 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.UUID;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Aspect for checking the existence of an entity before executing a method.
+ * <p>
+ * Each annotated method is compiled once into its checks: the repository bean, the index of the checked
+ * argument and a method handle bound to the repository. Checks with {@code fetch = true} load the entity
+ * into the {@link RequestEntityCache} instead of only checking it.
  */
 @Aspect
 @Component
@@ -24,62 +36,103 @@ import java.util.UUID;
 @Slf4j
 public class ExistenceAspect {
 
+    private static final MethodType LOOKUP_TYPE = MethodType.methodType(Object.class, Object.class);
+
     private final ApplicationContext context;
+    private final RequestEntityCache entityCache;
+    private final Map<Method, Check[]> checks = new ConcurrentHashMap<>();
 
     /**
-     * Checks the existence of an entity based on the provided annotation.
+     * Checks the existence of the entities declared by the {@link EntityExistence} annotations of the method.
      *
-     * @param joinPoint       the join point representing the method execution
-     * @param entityExistence the annotation containing the existence check configuration
+     * @param joinPoint the join point representing the method execution
      * @throws Throwable if an error occurs during the existence check
      */
-    @Before("@annotation(entityExistence)")
-    public void checkExistence(JoinPoint joinPoint, EntityExistence entityExistence) throws Throwable {
-        Object paramValue = getParamValue(joinPoint, entityExistence);
-
-        Object repoBean = context.getBean(entityExistence.repository());
-
-        boolean exists;
-
-        if (entityExistence.method().equals("existsById")) {
-            if (!(repoBean instanceof UUIDRepository<?> repository)) {
-                throw new RuntimeException("Invalid repository: " + entityExistence.repository().getName());
-            }
-            exists = repository.existsById((UUID) paramValue);
-        } else {
-            Method method = entityExistence.repository().getMethod(entityExistence.method(), paramValue.getClass());
-            exists = (boolean) method.invoke(repoBean, paramValue);
-        }
-
-        logWithLevel(entityExistence.logLevel(),
-                entityExistence.repository().getSimpleName(), entityExistence.idParam(), paramValue, exists);
-
-        if (entityExistence.check() && !exists) {
-            throw new NotFoundException(entityExistence.notFoundMessage());
-        } else if (!entityExistence.check() && exists) {
-            throw new ConflictException(entityExistence.conflictMessage());
+    @Before("@annotation(it.aredegalli.auctoritas.service.validation.annotation.EntityExistence)"
+            + " || @annotation(it.aredegalli.auctoritas.service.validation.annotation.EntityExistences)")
+    public void checkExistence(JoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        for (Check check : checksOf(joinPoint)) {
+            check.run(args[check.argIndex()]);
         }
     }
 
     /**
-     * Retrieves the value of the parameter specified in the annotation.
+     * Returns the checks of the executed method, compiling them on first use.
      *
-     * @param joinPoint       the join point representing the method execution
-     * @param entityExistence the annotation containing the parameter configuration
-     * @return the value of the specified parameter
+     * @param joinPoint the join point representing the method execution
+     * @return the cached checks
      */
-    private Object getParamValue(JoinPoint joinPoint, EntityExistence entityExistence) {
-        Object[] args = joinPoint.getArgs();
+    private Check[] checksOf(JoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Check[] compiled = checks.get(method);
+        if (compiled == null) {
+            compiled = checks.computeIfAbsent(method, m -> compile(joinPoint));
+        }
+        return compiled;
+    }
+
+    private Check[] compile(JoinPoint joinPoint) {
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        String[] paramNames = signature.getParameterNames();
+        Class<?> targetClass = joinPoint.getTarget() != null ? AopUtils.getTargetClass(joinPoint.getTarget()) : null;
+        Method method = AopUtils.getMostSpecificMethod(signature.getMethod(), targetClass);
 
-        for (int i = 0; i < paramNames.length; i++) {
+        EntityExistence[] annotations = method.getAnnotationsByType(EntityExistence.class);
+        Check[] compiled = new Check[annotations.length];
+        for (int i = 0; i < annotations.length; i++) {
+            compiled[i] = compile(annotations[i], method, signature.getParameterNames());
+        }
+        return compiled;
+    }
+
+    private Check compile(EntityExistence entityExistence, Method method, String[] paramNames) {
+        int argIndex = -1;
+        for (int i = 0; paramNames != null && i < paramNames.length; i++) {
             if (paramNames[i].equals(entityExistence.idParam())) {
-                return args[i];
+                argIndex = i;
+                break;
             }
         }
+        if (argIndex < 0) {
+            throw new RuntimeException("Parameter '" + entityExistence.idParam() + "' not found or null");
+        }
+
+        Class<?> repositoryType = entityExistence.repository();
+        Object repoBean = context.getBean(repositoryType);
+        String finder = entityExistence.fetch() && entityExistence.method().equals("existsById")
+                ? RequestEntityCache.FIND_BY_ID
+                : entityExistence.method();
+        Method lookup = findLookup(repositoryType, finder, method.getParameterTypes()[argIndex]);
+        if (entityExistence.fetch() && (lookup.getReturnType() == boolean.class || lookup.getReturnType() == Boolean.class)) {
+            throw new IllegalStateException("@EntityExistence(fetch = true) on " + method
+                    + " needs a method returning the entity, not " + lookup.getName());
+        }
 
-        throw new RuntimeException("Parameter '" + entityExistence.idParam() + "' not found or null");
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(lookup).bindTo(repoBean).asType(LOOKUP_TYPE);
+            return new Check(entityExistence, argIndex, repoBean, finder, handle);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access " + lookup, e);
+        }
+    }
+
+    private static Method findLookup(Class<?> repositoryType, String name, Class<?> paramType) {
+        Class<?> argumentType = ClassUtils.resolvePrimitiveIfNecessary(paramType);
+        Method candidate = null;
+        for (Method method : repositoryType.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())
+                    && method.getParameterTypes()[0].isAssignableFrom(argumentType)) {
+                if (method.getParameterTypes()[0] == argumentType) {
+                    return method;
+                }
+                candidate = candidate != null ? candidate : method;
+            }
+        }
+        if (candidate == null) {
+            throw new RuntimeException("Invalid repository: " + repositoryType.getName() + " has no method "
+                    + name + "(" + paramType.getSimpleName() + ")");
+        }
+        return candidate;
     }
 
     /**
@@ -88,7 +141,7 @@ public class ExistenceAspect {
      * @param level the log level
      * @param args  the arguments to be included in the log message
      */
-    private void logWithLevel(String level, Object... args) {
+    private static void logWithLevel(String level, Object... args) {
         switch (level.toLowerCase()) {
             case "info":
                 log.info("[API] Entity in {} with {}={} existence: {}", args);
@@ -103,4 +156,69 @@ public class ExistenceAspect {
                 log.warn("[API] Entity in {} with {}={} existence: {}", args);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * One compiled {@link EntityExistence} annotation.
+     */
+    private final class Check {
+
+        private final EntityExistence entityExistence;
+        private final int argIndex;
+        private final Object repository;
+        private final String finder;
+        private final MethodHandle lookup;
+
+        private Check(EntityExistence entityExistence, int argIndex, Object repository, String finder, MethodHandle lookup) {
+            this.entityExistence = entityExistence;
+            this.argIndex = argIndex;
+            this.repository = repository;
+            this.finder = finder;
+            this.lookup = lookup;
+        }
+
+        int argIndex() {
+            return argIndex;
+        }
+
+        void run(Object paramValue) throws Throwable {
+            boolean exists = entityExistence.fetch()
+                    ? entityCache.find(repository, finder, paramValue, () -> load(paramValue)).isPresent()
+                    : exists(invoke(paramValue));
+
+            logWithLevel(entityExistence.logLevel(),
+                    entityExistence.repository().getSimpleName(), entityExistence.idParam(), paramValue, exists);
+
+            if (entityExistence.check() && !exists) {
+                throw new NotFoundException(entityExistence.notFoundMessage());
+            } else if (!entityExistence.check() && exists) {
+                throw new ConflictException(entityExistence.conflictMessage());
+            }
+        }
+
+        private Optional<?> load(Object paramValue) {
+            Object result;
+            try {
+                result = invoke(paramValue);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+            return result instanceof Optional<?> optional ? optional : Optional.ofNullable(result);
+        }
+
+        private Object invoke(Object paramValue) throws Throwable {
+            return (Object) lookup.invokeExact(paramValue);
+        }
+
+        private static boolean exists(Object result) {
+            if (result instanceof Boolean found) {
+                return found;
+            }
+            if (result instanceof Optional<?> optional) {
+                return optional.isPresent();
+            }
+            return result != null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package it.aredegalli.auctoritas.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free pool of reusable, non thread-safe objects such as {@code Mac} or {@code Cipher} instances.
+ * <p>
+ * Unlike a {@code ThreadLocal}, the number of pooled objects is bounded by the pool size rather than by the
+ * number of threads, which matters once requests run on virtual threads. Idle objects sit in a fixed slot
+ * array; {@link #acquire()} scans it starting from a slot derived from the calling thread and falls back to the
+ * factory when every slot is empty, and {@link #release(Object)} drops the object when every slot is full.
+ * Neither operation allocates on the fast path.
+ *
+ * @param <T> the pooled type
+ */
+public final class BoundedObjectPool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final Supplier<T> factory;
+
+    public BoundedObjectPool(int requestedSize, Supplier<T> factory) {
+        if (requestedSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        int size = requestedSize == 1 ? 1 : Integer.highestOneBit(requestedSize - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.factory = factory;
+    }
+
+    /**
+     * Takes an idle object, or creates one if none is available.
+     *
+     * @return an object owned by the caller until {@link #release(Object)}
+     */
+    public T acquire() {
+        int start = (int) Thread.currentThread().threadId();
+        for (int i = 0; i <= mask; i++) {
+            int index = (start + i) & mask;
+            T candidate = slots.getPlain(index);
+            if (candidate != null && slots.compareAndSet(index, candidate, null)) {
+                return candidate;
+            }
+        }
+        return factory.get();
+    }
+
+    /**
+     * Returns an object to the pool. The caller must not use it afterwards.
+     *
+     * @param object the object to return
+     */
+    public void release(T object) {
+        int start = (int) Thread.currentThread().threadId();
+        for (int i = 0; i <= mask; i++) {
+            int index = (start + i) & mask;
+            if (slots.getPlain(index) == null && slots.compareAndSet(index, null, object)) {
+                return;
+            }
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -4,28 +4,111 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Base64;
 
+/**
+ * Hashing helpers.
+ * <p>
+ * The HMAC key is decoded and a {@link Mac} initialized once; per call, an initialized clone is borrowed from a
+ * {@link BoundedObjectPool} together with reusable input and output buffers, so hashing an ASCII id allocates
+ * nothing but the returned value. A context whose call failed is dropped rather than released, so no {@link Mac}
+ * goes back to the pool holding the input of an unfinished computation.
+ */
 @Component
 public class HashUtil {
 
-    @Value("${hmac.secret.key}")
-    private String secretKey;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int HMAC_LENGTH = 32;
+    private static final int BASE64_LENGTH = 44;
+    private static final int MAX_POOLED_INPUT = 1024;
 
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final BoundedObjectPool<HmacContext> pool;
+
+    public HashUtil(@Value("${hmac.secret.key}") String secretKey) {
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(secretKey), HMAC_ALGORITHM);
+        try {
+            this.prototype = Mac.getInstance(HMAC_ALGORITHM);
+            this.prototype.init(key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 initialization error", e);
+        }
+        this.pool = new BoundedObjectPool<>(Runtime.getRuntime().availableProcessors() * 2, this::newContext);
+    }
+
+    /**
+     * Computes the Base64 encoded HMAC-SHA256 of a string.
+     *
+     * @param data the UTF-8 input
+     * @return the Base64 encoded MAC
+     */
     public String hmacSha256(String data) {
+        HmacContext context = pool.acquire();
         try {
-            byte[] keyBytes = Base64.getDecoder().decode(secretKey);
-            Mac mac = Mac.getInstance("HmacSHA256");
-            SecretKeySpec secretKeySpec = new SecretKeySpec(keyBytes, "HmacSHA256");
-            mac.init(secretKeySpec);
-            byte[] hashBytes = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hashBytes);
-        } catch (Exception e) {
-            throw new RuntimeException("HMAC-SHA256 error", e);
+            Mac mac = context.mac;
+            int length = context.encodeAscii(data);
+            if (length >= 0) {
+                mac.update(context.input, 0, length);
+            } else {
+                mac.update(data.getBytes(StandardCharsets.UTF_8));
+            }
+            mac.doFinal(context.digest, 0);
+            Base64.getEncoder().encode(context.digest, context.base64);
+            String result = new String(context.base64, 0, BASE64_LENGTH, StandardCharsets.ISO_8859_1);
+            pool.release(context);
+            return result;
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("HMAC-SHA256 error", e);
+        }
+    }
+
+    /**
+     * Computes the raw HMAC-SHA256 of a byte array.
+     *
+     * @param data the input
+     * @return a new 32-byte array
+     */
+    public byte[] hmacSha256(byte[] data) {
+        HmacContext context = pool.acquire();
+        byte[] result = context.mac.doFinal(data);
+        pool.release(context);
+        return result;
+    }
+
+    /**
+     * Computes the raw HMAC-SHA256 of the remaining bytes of {@code input} and writes it to {@code output}.
+     * Both buffers' positions advance; nothing is allocated.
+     *
+     * @param input  the input, consumed up to its limit
+     * @param output receives 32 bytes
+     */
+    public void hmacSha256(ByteBuffer input, ByteBuffer output) {
+        if (output.remaining() < HMAC_LENGTH) {
+            throw new IllegalArgumentException("Output buffer needs " + HMAC_LENGTH + " bytes");
+        }
+        HmacContext context = pool.acquire();
+        try {
+            Mac mac = context.mac;
+            mac.update(input);
+            if (output.hasArray()) {
+                mac.doFinal(output.array(), output.arrayOffset() + output.position());
+                output.position(output.position() + HMAC_LENGTH);
+            } else {
+                mac.doFinal(context.digest, 0);
+                output.put(context.digest, 0, HMAC_LENGTH);
+            }
+            pool.release(context);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("HMAC-SHA256 error", e);
         }
     }
 
@@ -46,4 +129,58 @@ public class HashUtil {
             throw new RuntimeException("SHA-256 not supported", e);
         }
     }
+
+    private HmacContext newContext() {
+        try {
+            return new HmacContext((Mac) prototype.clone());
+        } catch (CloneNotSupportedException e) {
+            // Providers without cloneable MACs pay the provider lookup once per pooled instance
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM, prototype.getProvider());
+                mac.init(key);
+                return new HmacContext(mac);
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("HMAC-SHA256 initialization error", ex);
+            }
+        }
+    }
+
+    /**
+     * An initialized {@link Mac} with the scratch buffers used around it. Confined to one thread between
+     * acquire and release.
+     */
+    private static final class HmacContext {
+
+        private final Mac mac;
+        private final byte[] digest = new byte[HMAC_LENGTH];
+        private final byte[] base64 = new byte[BASE64_LENGTH];
+        private byte[] input = new byte[64];
+
+        private HmacContext(Mac mac) {
+            this.mac = mac;
+        }
+
+        /**
+         * Copies an ASCII string into the input buffer.
+         *
+         * @return the number of bytes written, or -1 if the string is not ASCII or too long to pool
+         */
+        private int encodeAscii(String data) {
+            int length = data.length();
+            if (length > MAX_POOLED_INPUT) {
+                return -1;
+            }
+            if (input.length < length) {
+                input = Arrays.copyOf(input, Integer.highestOneBit(length) << 1);
+            }
+            for (int i = 0; i < length; i++) {
+                char c = data.charAt(i);
+                if (c >= 0x80) {
+                    return -1;
+                }
+                input[i] = (byte) c;
+            }
+            return length;
+        }
+    }
 }
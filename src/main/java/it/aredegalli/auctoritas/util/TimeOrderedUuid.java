@@ -0,0 +1,23 @@
+package it.aredegalli.auctoritas.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version 7 UUIDs: a millisecond timestamp followed by random bits.
+ * <p>
+ * Ids generated in time order are inserted at the right edge of their index instead of at random pages,
+ * which keeps append-only tables such as audit_logs compact.
+ */
+public final class TimeOrderedUuid {
+
+    private TimeOrderedUuid() {
+    }
+
+    public static UUID generate(long epochMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (epochMillis << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -0,0 +1,170 @@
+package it.aredegalli.auctoritas.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ReplicaRoutingDataSource dataSource;
+
+    ReplicaRoutingDataSourceTest() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        dataSource = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(5), List.of("/api/**"), registry);
+    }
+
+    @AfterEach
+    void endRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void routesReadOnlyTransactionsOfGetRequestsToReplica() throws SQLException {
+        lag(0.5);
+        request("GET", "/api/role/all");
+
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+        assertThat(registry.get("auctoritas.datasource.read.connections").tag("pool", "replica-1").counter().count()).isEqualTo(1);
+        assertThat(registry.get("auctoritas.datasource.replica.lag").tag("pool", "replica-1").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void keepsOtherRequestsOnPrimary() throws SQLException {
+        lag(0);
+
+        request("POST", "/api/role/user/bulk");
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        request("GET", "/authorization");
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        RequestContextHolder.resetRequestAttributes();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(registry.get("auctoritas.datasource.replica.fallbacks").counter().count()).isZero();
+    }
+
+    @Test
+    void fallsBackToPrimaryWhileReplicaLags() throws SQLException {
+        request("GET", "/api/role/all");
+        assertThat(dataSource.getConnection()).as("not checked yet").isSameAs(primaryConnection);
+
+        lag(12);
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+
+        lag(1);
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+        assertThat(registry.get("auctoritas.datasource.replica.fallbacks").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void skipsUnreachableReplicaUntilNextCheck() throws SQLException {
+        lag(0);
+        request("GET", "/api/role/all");
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        dataSource.checkReplicas();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(registry.get("auctoritas.datasource.replica.lag").tag("pool", "replica-1").gauge().value()).isNaN();
+    }
+
+    @Test
+    void explicitCredentialsGoToTheRoutedTarget() throws SQLException {
+        Connection replicaAsUser = mock(Connection.class);
+        Connection primaryAsUser = mock(Connection.class);
+        when(replica.getConnection("reader", "secret")).thenReturn(replicaAsUser);
+        when(primary.getConnection("reader", "secret")).thenReturn(primaryAsUser);
+        lag(0);
+
+        request("GET", "/api/role/all");
+        assertThat(dataSource.getConnection("reader", "secret")).isSameAs(replicaAsUser);
+        request("POST", "/api/role/all");
+        assertThat(dataSource.getConnection("reader", "secret")).isSameAs(primaryAsUser);
+    }
+
+    @Test
+    void unsupportedExplicitCredentialsLeaveTheReplicaUsable() throws SQLException {
+        HikariDataSource pool = new HikariDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return replica.getConnection();
+            }
+        };
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", pool),
+                Duration.ofSeconds(5), List.of("/api/**"), new SimpleMeterRegistry());
+        lag(routing, 0);
+
+        request("GET", "/api/role/all");
+        assertThatThrownBy(() -> routing.getConnection("reader", "secret")).isInstanceOf(SQLFeatureNotSupportedException.class);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void onlyReadOnlyConnectionsOfTheProxyAreRouted() throws SQLException {
+        lag(0);
+        request("GET", "/api/role/all");
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.setReadOnlyDataSource(dataSource);
+
+        Connection readWrite = proxy.getConnection();
+        readWrite.createStatement();
+        Connection readOnly = proxy.getConnection();
+        readOnly.setReadOnly(true);
+        readOnly.createStatement();
+
+        assertThat(((ConnectionProxy) readWrite).getTargetConnection()).isSameAs(primaryConnection);
+        assertThat(((ConnectionProxy) readOnly).getTargetConnection()).isSameAs(replicaConnection);
+    }
+
+    private void lag(double seconds) throws SQLException {
+        lag(dataSource, seconds);
+    }
+
+    private void lag(ReplicaRoutingDataSource target, double seconds) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection, replicaConnection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getDouble(1)).thenReturn(seconds);
+        target.checkReplicas();
+    }
+
+    private static void request(String method, String uri) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(method, uri)));
+    }
+}
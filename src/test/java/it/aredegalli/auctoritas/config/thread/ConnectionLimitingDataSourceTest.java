@@ -0,0 +1,90 @@
+package it.aredegalli.auctoritas.config.thread;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectionLimitingDataSourceTest {
+
+    @Test
+    void admitsOneThreadPerConnectionAndReleasesOnClose() throws SQLException {
+        DataSource pool = mock(DataSource.class);
+        Connection physical = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(physical);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 1, Duration.ofMillis(50));
+
+        Connection connection = dataSource.getConnection();
+        assertThat(dataSource.availablePermits()).isZero();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        connection.close();
+        connection.close();
+        verify(physical, times(2)).close();
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+        assertThat(connection.unwrap(Connection.class)).isSameAs(connection);
+    }
+
+    @Test
+    void releasesThePermitWhenThePoolFails() throws SQLException {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 2, Duration.ofMillis(50));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+        assertThat(dataSource.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void closesThePoolWithTheContext() {
+        HikariDataSource pool;
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(PoolConfig.class)) {
+            assertThat(context.getBean(DataSource.class)).isInstanceOf(ConnectionLimitingDataSource.class);
+            pool = context.getBean(PoolConfig.class).pool;
+            assertThat(pool.isClosed()).isFalse();
+        }
+
+        assertThat(pool.isClosed()).isTrue();
+    }
+
+    @Test
+    void closesThePoolItWraps() throws Exception {
+        HikariDataSource pool = new HikariDataSource();
+
+        new ConnectionLimitingDataSource(pool, 1, Duration.ofMillis(50)).close();
+
+        assertThat(pool.isClosed()).isTrue();
+    }
+
+    @Configuration
+    static class PoolConfig {
+
+        private final HikariDataSource pool = new HikariDataSource();
+
+        @Bean
+        static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+            return VirtualThreadConfig.connectionLimitingDataSourcePostProcessor();
+        }
+
+        @Bean
+        DataSource dataSource() {
+            pool.setJdbcUrl("jdbc:postgresql://localhost/unused");
+            return pool;
+        }
+    }
+}
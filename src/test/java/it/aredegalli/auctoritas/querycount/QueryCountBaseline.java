@@ -0,0 +1,140 @@
+package it.aredegalli.auctoritas.querycount;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.QueryCount;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Expected statement counts per scenario, read from {@code query-count-baseline.properties}.
+ * <p>
+ * A scenario fails when it issues more statements of any kind than its baseline. Fewer statements pass and are
+ * logged, so the baseline can be lowered. Running the tests with {@code -Dquerycount.update=true} rewrites the
+ * baseline with the observed counts instead of asserting them.
+ */
+@Slf4j
+final class QueryCountBaseline {
+
+    static final String RESOURCE = "query-count-baseline.properties";
+    static final Path SOURCE = Path.of("src", "test", "resources", RESOURCE);
+
+    private static final boolean UPDATE = Boolean.getBoolean("querycount.update");
+
+    private final Map<String, Counts> expected = new TreeMap<>();
+    private final Map<String, Counts> observed = new TreeMap<>();
+
+    private QueryCountBaseline() {
+    }
+
+    static QueryCountBaseline load() {
+        QueryCountBaseline baseline = new QueryCountBaseline();
+        try (InputStream in = QueryCountBaseline.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                return baseline;
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            properties.stringPropertyNames().forEach(scenario ->
+                    baseline.expected.put(scenario, Counts.parse(properties.getProperty(scenario))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return baseline;
+    }
+
+    /**
+     * Checks the statements counted for a scenario against its baseline.
+     *
+     * @param scenario the scenario name, a key of the baseline file
+     * @param count    the statements counted while it ran
+     */
+    void verify(String scenario, QueryCount count) {
+        Counts actual = Counts.of(count);
+        observed.put(scenario, actual);
+        if (UPDATE) {
+            return;
+        }
+
+        Counts baseline = expected.get(scenario);
+        if (baseline == null) {
+            fail("No query count baseline for %s, observed %s. Run with -Dquerycount.update=true to record it.",
+                    scenario, actual);
+        }
+        assertThat(actual.exceeding(baseline))
+                .as("%s issued %s, baseline is %s", scenario, actual, baseline)
+                .isEmpty();
+        if (!actual.equals(baseline)) {
+            log.warn("[TEST] {} issued {}, fewer than its baseline {}: lower {}", scenario, actual, baseline, SOURCE);
+        }
+    }
+
+    /**
+     * Writes the observed counts to the baseline source file, when running in update mode.
+     */
+    void store() throws IOException {
+        if (!UPDATE || observed.isEmpty()) {
+            return;
+        }
+        Map<String, Counts> merged = new TreeMap<>(expected);
+        merged.putAll(observed);
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# Statements issued per service call, written by QueryCountTest with -Dquerycount.update=true.");
+        lines.add("# The build fails when a scenario issues more statements of any kind than listed here.");
+        merged.forEach((scenario, counts) -> lines.add(scenario + "=" + counts));
+        Files.write(SOURCE, lines, StandardCharsets.UTF_8);
+        log.info("[TEST] Query count baseline written to {}", SOURCE);
+    }
+
+    record Counts(long select, long insert, long update, long delete) {
+
+        static Counts of(QueryCount count) {
+            return new Counts(count.getSelect(), count.getInsert(), count.getUpdate(), count.getDelete());
+        }
+
+        static Counts parse(String value) {
+            Map<String, Long> parts = new TreeMap<>();
+            for (String part : value.split(",")) {
+                String[] pair = part.trim().split(":");
+                parts.put(pair[0].trim(), Long.parseLong(pair[1].trim()));
+            }
+            return new Counts(parts.getOrDefault("select", 0L), parts.getOrDefault("insert", 0L),
+                    parts.getOrDefault("update", 0L), parts.getOrDefault("delete", 0L));
+        }
+
+        List<String> exceeding(Counts baseline) {
+            List<String> exceeding = new ArrayList<>();
+            if (select > baseline.select) {
+                exceeding.add("select");
+            }
+            if (insert > baseline.insert) {
+                exceeding.add("insert");
+            }
+            if (update > baseline.update) {
+                exceeding.add("update");
+            }
+            if (delete > baseline.delete) {
+                exceeding.add("delete");
+            }
+            return exceeding;
+        }
+
+        @Override
+        public String toString() {
+            return "select:" + select + ", insert:" + insert + ", update:" + update + ", delete:" + delete;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package it.aredegalli.auctoritas.querycount;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes every statement of the test context through a datasource-proxy that counts them per thread, by kind,
+ * in {@link net.ttddyy.dsproxy.QueryCountHolder}. JPA and JdbcTemplate statements are both counted.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+class QueryCountConfiguration {
+
+    static final String DATA_SOURCE_NAME = "auctoritas";
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(DATA_SOURCE_NAME)
+                            .countQuery()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,261 @@
+package it.aredegalli.auctoritas.querycount;
+
+import it.aredegalli.auctoritas.model.application.Application;
+import it.aredegalli.auctoritas.model.application.UserRoleApplication;
+import it.aredegalli.auctoritas.model.authenticator.ApplicationAuthenticator;
+import it.aredegalli.auctoritas.model.authenticator.Authenticator;
+import it.aredegalli.auctoritas.model.authenticator.UserAuthMapping;
+import it.aredegalli.auctoritas.model.role.Permission;
+import it.aredegalli.auctoritas.model.role.PermissionRole;
+import it.aredegalli.auctoritas.model.role.Role;
+import it.aredegalli.auctoritas.model.user.User;
+import it.aredegalli.auctoritas.security.encryption.EncryptionService;
+import it.aredegalli.auctoritas.service.api.authenticator.AuthenticatorServiceImpl;
+import it.aredegalli.auctoritas.service.api.role.RoleServiceImpl;
+import it.aredegalli.auctoritas.service.audit.AuditService;
+import it.aredegalli.auctoritas.service.authorization.AuthorizationDecisionCache;
+import it.aredegalli.auctoritas.service.authorization.AuthorizationHelper;
+import it.aredegalli.auctoritas.service.authorization.AuthorizationMetrics;
+import it.aredegalli.auctoritas.service.authorization.AuthorizationServiceImpl;
+import it.aredegalli.auctoritas.service.authorization.PermissionEvaluationEngine;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
+import it.aredegalli.auctoritas.service.validation.RequestEntityCache;
+import it.aredegalli.auctoritas.service.validation.annotation.ExistenceAspect;
+import it.aredegalli.auctoritas.util.HashUtil;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements issued by the main service operations against an in-memory H2 database and fails
+ * when a scenario issues more than its entry in {@code query-count-baseline.properties}.
+ * <p>
+ * Every call runs inside a simulated HTTP request, like the request-scoped entity cache sees it in production,
+ * starting from an empty persistence context. Pending writes are flushed before counting. Audit events are
+ * written asynchronously by the audit writer and are not counted. First logins run a PostgreSQL-only statement
+ * and are covered by {@code UserAuthMappingProvisioningTest} instead.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.schema-locations=classpath:query-count-schema.sql",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql=WARN",
+        "hmac.secret.key=cXVlcnktY291bnQtdGVzdC1obWFjLWtleS0zMi1ieXRlcw==",
+        "security.crypto.aes-secret-key=AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=",
+        "security.crypto.legacy-key=AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8="
+})
+@ImportAutoConfiguration({AopAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({QueryCountConfiguration.class, ExistenceAspect.class, RequestEntityCache.class, HashUtil.class,
+        EncryptionService.class, ReferenceDataRegistry.class, RolePermissionIndex.class, AuthorizationDecisionCache.class,
+        PermissionEvaluationEngine.class, AuthorizationMetrics.class, AuthorizationHelper.class,
+        AuthorizationServiceImpl.class, RoleServiceImpl.class, AuthenticatorServiceImpl.class})
+class QueryCountTest {
+
+    private static final String APPLICATION = "query-count-app";
+    private static final String AUTHENTICATOR = "query-count-auth";
+    private static final String EXTERNAL_USER_ID = "existing-user";
+
+    private static QueryCountBaseline baseline;
+
+    @MockitoBean
+    private AuditService auditService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EncryptionService encryptionService;
+    @Autowired
+    private HashUtil hashUtil;
+    @Autowired
+    private ReferenceDataRegistry referenceDataRegistry;
+    @Autowired
+    private AuthorizationDecisionCache decisionCache;
+    @Autowired
+    private AuthorizationServiceImpl authorizationService;
+    @Autowired
+    private RoleServiceImpl roleService;
+    @Autowired
+    private AuthenticatorServiceImpl authenticatorService;
+
+    private User user;
+    private Role viewer;
+    private Role editor;
+    private Role admin;
+    private Permission permission;
+    private Application application;
+    private Application otherApplication;
+    private Authenticator authenticator;
+
+    @BeforeAll
+    static void loadBaseline() {
+        baseline = QueryCountBaseline.load();
+    }
+
+    @AfterAll
+    static void storeBaseline() throws IOException {
+        baseline.store();
+    }
+
+    @BeforeEach
+    void persistFixtures() {
+        viewer = entityManager.persist(Role.builder().name("viewer").description("Viewer").build());
+        editor = entityManager.persist(Role.builder().name("editor").description("Editor").build());
+        admin = entityManager.persist(Role.builder().name("admin").description("Admin").build());
+        permission = entityManager.persist(Permission.builder().name("documents:read").description("Read").build());
+        entityManager.persist(PermissionRole.builder().role(viewer).permission(permission).build());
+
+        application = entityManager.persist(Application.builder().name(APPLICATION).defaultRole(viewer).build());
+        otherApplication = entityManager.persist(Application.builder().name("query-count-other").build());
+        authenticator = entityManager.persist(Authenticator.builder().name(AUTHENTICATOR).authType("OIDC")
+                .config(encryptionService.encrypt("{}")).isActive(true).build());
+        entityManager.persist(ApplicationAuthenticator.builder().application(application).authenticator(authenticator)
+                .config(encryptionService.encrypt("{}")).displayOrder(1).isActive(true).build());
+
+        user = entityManager.persist(User.builder().build());
+        entityManager.persist(UserAuthMapping.builder().user(user).authenticator(authenticator)
+                .externalUserId(hashUtil.hmacSha256(EXTERNAL_USER_ID)).build());
+        entityManager.persist(UserRoleApplication.builder().user(user).application(application).role(viewer).build());
+        entityManager.persist(UserRoleApplication.builder().user(user).application(application).role(editor).build());
+
+        entityManager.flush();
+        referenceDataRegistry.reload();
+        decisionCache.invalidateAll();
+        entityManager.clear();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void endRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void authorizeAccessExistingUser() {
+        var result = measure("authorizeAccess.existingUser",
+                () -> authorizationService.authorizeAccess(APPLICATION, AUTHENTICATOR, EXTERNAL_USER_ID));
+
+        assertThat(result.getRoles()).containsOnlyKeys(viewer.getId(), editor.getId());
+    }
+
+    @Test
+    void authorizeAccessCached() {
+        authorizationService.authorizeAccess(APPLICATION, AUTHENTICATOR, EXTERNAL_USER_ID);
+        entityManager.clear();
+
+        measure("authorizeAccess.cached",
+                () -> authorizationService.authorizeAccess(APPLICATION, AUTHENTICATOR, EXTERNAL_USER_ID));
+    }
+
+    @Test
+    void getRoleById() {
+        measure("role.getRoleById", () -> roleService.getRoleById(viewer.getId()));
+    }
+
+    @Test
+    void getRolesByUserIdAndApplicationId() {
+        var roles = measure("role.getRolesByUserIdAndApplicationId",
+                () -> roleService.getRolesByUserIdAndApplicationId(user.getId(), application.getId()));
+
+        assertThat(roles).hasSize(2);
+    }
+
+    @Test
+    void getPermissionsByRoleId() {
+        measure("role.getPermissionsByRoleId", () -> roleService.getPermissionsByRoleId(viewer.getId()));
+    }
+
+    @Test
+    void getPermissionsPage() {
+        var page = measure("role.getPermissionsPage", () -> roleService.getPermissionsPage("documents", null, null, 50));
+
+        assertThat(page.getItems()).extracting("name").containsExactly("documents:read");
+    }
+
+    @Test
+    void addRoleToUser() {
+        measure("role.addRoleToUser", () -> roleService.addRoleToUser(user.getId(), admin.getId(), application.getId()));
+    }
+
+    @Test
+    void removeRoleFromUser() {
+        measure("role.removeRoleFromUser",
+                () -> roleService.removeRoleFromUser(user.getId(), editor.getId(), application.getId()));
+    }
+
+    @Test
+    void addPermissionToRole() {
+        measure("role.addPermissionToRole", () -> roleService.addPermissionToRole(editor.getId(), permission.getId()));
+    }
+
+    @Test
+    void addRoleToApplication() {
+        measure("role.addRoleToApplication", () -> roleService.addRoleToApplication(admin.getId(), application.getId()));
+    }
+
+    @Test
+    void getAuthenticatorByName() {
+        measure("authenticator.getAuthenticatorByName", () -> authenticatorService.getAuthenticatorByName(AUTHENTICATOR));
+    }
+
+    @Test
+    void getAllAuthenticators() {
+        measure("authenticator.getAllAuthenticators", () -> authenticatorService.getAllAuthenticators());
+    }
+
+    @Test
+    void getAuthenticatorsPage() {
+        var page = measure("authenticator.getAuthenticatorsPage",
+                () -> authenticatorService.getAuthenticatorsPage(null, "OIDC", true, true, null, null, 50));
+
+        assertThat(page.getItems()).extracting("config").containsExactly("{}");
+    }
+
+    @Test
+    void getAppAuthenticators() {
+        measure("authenticator.getAppAuthenticators", () -> authenticatorService.getAppAuthenticators(application.getId()));
+    }
+
+    @Test
+    void createMapping() {
+        measure("authenticator.createMapping",
+                () -> authenticatorService.createMapping(user.getId(), authenticator.getId(), "second-identity"));
+    }
+
+    @Test
+    void createAppAuthenticator() {
+        measure("authenticator.createAppAuthenticator",
+                () -> authenticatorService.createAppAuthenticator(otherApplication.getId(), authenticator.getId(), "{}", 1));
+    }
+
+    private <T> T measure(String scenario, Supplier<T> call) {
+        QueryCountHolder.clear();
+        T result = call.get();
+        entityManager.flush();
+        QueryCount count = Optional.ofNullable(QueryCountHolder.get(QueryCountConfiguration.DATA_SOURCE_NAME))
+                .orElseGet(QueryCount::new);
+        baseline.verify(scenario, count);
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package it.aredegalli.auctoritas.repository;
+
+import it.aredegalli.auctoritas.dto.page.PageDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NamePageTest {
+
+    @Test
+    void queriesAfterLastNameWithEscapedPrefix() {
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("auth_type", "OIDC");
+        filters.put("is_active", null);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        String sql = NamePage.query("id, name", "authenticators",
+                new NamePage.Request("a_b%", Sort.Direction.DESC, "m", 11), filters, params);
+
+        assertThat(sql).isEqualTo("SELECT id, name FROM authenticators WHERE TRUE AND name LIKE :prefix ESCAPE '\\'"
+                + " AND name < :after AND auth_type = :auth_type ORDER BY name DESC LIMIT :limit");
+        assertThat(params.getValues()).containsExactlyInAnyOrderEntriesOf(
+                Map.of("prefix", "a\\_b\\%%", "after", "m", "auth_type", "OIDC", "limit", 11));
+    }
+
+    @Test
+    void returnsCursorOfLastItemWhenMoreRowsExist() {
+        NamePage.Request request = NamePage.request(null, null, null, 2);
+        assertThat(request.limit()).isEqualTo(3);
+        assertThat(request.direction()).isEqualTo(Sort.Direction.ASC);
+
+        PageDto<String> page = NamePage.page(List.of("admin", "editor", "viewer"), 2, Function.identity());
+
+        assertThat(page.getItems()).containsExactly("admin", "editor");
+        assertThat(NamePage.request(null, null, page.getNextCursor(), 2).after()).isEqualTo("editor");
+        assertThat(NamePage.page(List.of("viewer"), 2, Function.identity()).getNextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> NamePage.request(null, null, "not a cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
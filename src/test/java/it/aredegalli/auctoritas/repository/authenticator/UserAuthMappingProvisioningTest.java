@@ -0,0 +1,168 @@
+package it.aredegalli.auctoritas.repository.authenticator;
+
+import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingRepositoryCustom.ExternalIdentity;
+import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingRepositoryCustom.Provisioning;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the provisioning statement of {@link UserAuthMappingRepositoryCustomImpl#provisionUser} against
+ * PostgreSQL, which the H2 database of the query-count test cannot stand in for. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class UserAuthMappingProvisioningTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private final UserAuthMappingRepositoryCustomImpl repository = new UserAuthMappingRepositoryCustomImpl(
+            new JdbcTemplate(ProxyDataSourceBuilder.create(dataSource)
+                    .afterQuery((execution, queries) -> statements.addAndGet(queries.size()))
+                    .build()));
+
+    private UUID authenticatorId;
+    private UUID applicationId;
+    private UUID defaultRoleId;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(Files.readString(Path.of("database", "tables.sql")));
+        }
+    }
+
+    @BeforeEach
+    void persistFixtures() {
+        String suffix = UUID.randomUUID().toString();
+        authenticatorId = jdbcTemplate.queryForObject(
+                "INSERT INTO authenticators (name, auth_type, config) VALUES (?, 'OIDC', '{}') RETURNING id",
+                UUID.class, "auth-" + suffix.substring(0, 8));
+        defaultRoleId = jdbcTemplate.queryForObject("INSERT INTO roles (name) VALUES (?) RETURNING id",
+                UUID.class, "viewer-" + suffix);
+        applicationId = jdbcTemplate.queryForObject(
+                "INSERT INTO applications (name, default_role_id) VALUES (?, ?) RETURNING id",
+                UUID.class, "app-" + suffix, defaultRoleId);
+    }
+
+    @Test
+    void firstLoginCreatesUserMappingAndDefaultRoleInOneStatement() {
+        Provisioning provisioning = repository.provisionUser(identity("first"), applicationId, defaultRoleId);
+
+        assertThat(provisioning.created()).isTrue();
+        assertThat(provisioning.defaultRoleAssigned()).isTrue();
+        assertThat(statements).hasValue(1);
+        assertThat(mappedUser("first")).isEqualTo(provisioning.userId());
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT role_id FROM users_roles_application WHERE user_id = ? AND application_id = ?",
+                UUID.class, provisioning.userId(), applicationId)).isEqualTo(defaultRoleId);
+    }
+
+    @Test
+    void firstLoginWithoutDefaultRoleAssignsNone() {
+        Provisioning provisioning = repository.provisionUser(identity("no-role"), applicationId, null);
+
+        assertThat(provisioning.created()).isTrue();
+        assertThat(provisioning.defaultRoleAssigned()).isFalse();
+        assertThat(roleCount(provisioning.userId())).isZero();
+    }
+
+    @Test
+    void existingMappingReturnsItsUser() {
+        UUID userId = repository.provisionUser(identity("existing"), applicationId, defaultRoleId).userId();
+        statements.set(0);
+
+        Provisioning provisioning = repository.provisionUser(identity("existing"), applicationId, defaultRoleId);
+
+        assertThat(provisioning).isEqualTo(new Provisioning(userId, false, false));
+        assertThat(statements).hasValue(1);
+        assertThat(roleCount(userId)).isEqualTo(1);
+        assertThat(orphanUsers()).isZero();
+    }
+
+    @Test
+    void concurrentFirstLoginAdoptsTheWinnersUser() throws Exception {
+        UUID winner = UUID.randomUUID();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement user = connection.prepareStatement("INSERT INTO users (id) VALUES (?)");
+                 PreparedStatement mapping = connection.prepareStatement(
+                         "INSERT INTO user_auth_mappings (user_id, authenticator_id, external_user_id) VALUES (?, ?, ?)")) {
+                user.setObject(1, winner);
+                user.executeUpdate();
+                mapping.setObject(1, winner);
+                mapping.setObject(2, authenticatorId);
+                mapping.setString(3, "concurrent");
+                mapping.executeUpdate();
+            }
+
+            // Blocks on the unique index until the winner commits, after its statement snapshot was taken
+            CompletableFuture<Provisioning> loser = CompletableFuture.supplyAsync(
+                    () -> repository.provisionUser(identity("concurrent"), applicationId, defaultRoleId));
+            awaitLockWait();
+            connection.commit();
+
+            assertThat(loser.get(10, TimeUnit.SECONDS)).isEqualTo(new Provisioning(winner, false, false));
+        }
+
+        assertThat(statements).as("the first attempt cannot see the winner").hasValue(2);
+        assertThat(roleCount(winner)).isZero();
+        assertThat(orphanUsers()).isZero();
+    }
+
+    private ExternalIdentity identity(String externalUserId) {
+        return new ExternalIdentity(authenticatorId, externalUserId);
+    }
+
+    private UUID mappedUser(String externalUserId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT user_id FROM user_auth_mappings WHERE authenticator_id = ? AND external_user_id = ?",
+                UUID.class, authenticatorId, externalUserId);
+    }
+
+    private Integer roleCount(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM users_roles_application WHERE user_id = ?",
+                Integer.class, userId);
+    }
+
+    private static Integer orphanUsers() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users u WHERE NOT EXISTS (SELECT 1 FROM user_auth_mappings m WHERE m.user_id = u.id)",
+                Integer.class);
+    }
+
+    private static void awaitLockWait() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject("SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'",
+                Integer.class) == 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Provisioning never waited for the concurrent first login");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package it.aredegalli.auctoritas.security.encryption;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EncryptionServiceTest {
+
+    private static final String KEY_1 = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String KEY_2 = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+
+    private static EncryptionService service(String key, int keyId, String retiredKeys) {
+        return new EncryptionService(key, keyId, retiredKeys, KEY_1, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void roundTripsWithRandomNonces() {
+        EncryptionService service = service(KEY_1, 1, "");
+
+        String first = service.encrypt("{\"clientId\":\"abc\"}");
+        String second = service.encrypt("{\"clientId\":\"abc\"}");
+
+        assertThat(first).isNotEqualTo(second);
+        assertThat(service(KEY_1, 1, "").decrypt(first)).isEqualTo("{\"clientId\":\"abc\"}");
+        assertThat(service.needsReEncryption(first)).isFalse();
+    }
+
+    @Test
+    void readsLegacyEcbValues() throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(Base64.getDecoder().decode(KEY_1), "AES"));
+        String legacy = Base64.getEncoder().encodeToString(cipher.doFinal("legacy".getBytes(StandardCharsets.UTF_8)));
+
+        EncryptionService service = service(KEY_2, 2, "1:" + KEY_1);
+
+        assertThat(service.decrypt(legacy)).isEqualTo("legacy");
+        assertThat(service.needsReEncryption(legacy)).isTrue();
+    }
+
+    @Test
+    void readsValuesOfRetiredKeysAfterRotation() {
+        String old = service(KEY_1, 1, "").encrypt("secret");
+
+        EncryptionService rotated = service(KEY_2, 2, "1:" + KEY_1);
+
+        assertThat(rotated.decrypt(old)).isEqualTo("secret");
+        assertThat(rotated.needsReEncryption(old)).isTrue();
+        assertThat(rotated.needsReEncryption(rotated.encrypt("secret"))).isFalse();
+    }
+
+    @Test
+    void rejectsTamperedValues() {
+        byte[] value = Base64.getDecoder().decode(service(KEY_1, 1, "").encrypt("secret!"));
+        value[value.length - 1] ^= 1;
+
+        EncryptionService service = service(KEY_1, 1, "");
+        String tampered = Base64.getEncoder().encodeToString(value);
+
+        assertThatThrownBy(() -> service.decrypt(tampered))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Decryption failed");
+    }
+}
@@ -0,0 +1,85 @@
+package it.aredegalli.auctoritas.security.whitelist;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpWhitelistMatcherTest {
+
+    @Test
+    void matchesIpv4CidrAndExactRules() {
+        IpWhitelistMatcher matcher = IpWhitelistMatcher.compile("10.0.0.0/8, 192.168.1.10,172.16.0.0/12");
+
+        assertThat(matcher.ruleCount()).isEqualTo(3);
+        assertThat(matcher.matches("10.255.3.4")).isTrue();
+        assertThat(matcher.matches("192.168.1.10")).isTrue();
+        assertThat(matcher.matches("172.31.255.255")).isTrue();
+        assertThat(matcher.matches("172.32.0.1")).isFalse();
+        assertThat(matcher.matches("192.168.1.11")).isFalse();
+        assertThat(matcher.matches("11.0.0.1")).isFalse();
+        assertThat(matcher.matches("10.0.0")).isFalse();
+        assertThat(matcher.matches("10.0.0.256")).isFalse();
+    }
+
+    @Test
+    void matchesIpv6InAnyTextualForm() {
+        IpWhitelistMatcher matcher = IpWhitelistMatcher.compile("::1,fd00::/8,2001:db8:0:0:1::/80");
+
+        assertThat(matcher.matches("::1")).isTrue();
+        assertThat(matcher.matches("0:0:0:0:0:0:0:1")).isTrue();
+        assertThat(matcher.matches("fd12:3456::abcd")).isTrue();
+        assertThat(matcher.matches("2001:db8::1:0:0:42")).isTrue();
+        assertThat(matcher.matches("2001:db8::2:0:0:42")).isFalse();
+        assertThat(matcher.matches("fe80::1%eth0")).isFalse();
+        assertThat(matcher.matches("1::2::3")).isFalse();
+    }
+
+    @Test
+    void checksIpv4MappedAddressesAgainstIpv4Rules() {
+        IpWhitelistMatcher matcher = IpWhitelistMatcher.compile("127.0.0.0/8");
+
+        assertThat(matcher.matches("::ffff:127.0.0.1")).isTrue();
+        assertThat(matcher.matches("::ffff:128.0.0.1")).isFalse();
+    }
+
+    @Test
+    void acceptsIpv4MappedCidrRules() {
+        IpWhitelistMatcher matcher = IpWhitelistMatcher.compile("::ffff:10.0.0.0/104,::ffff:0.0.0.0/95");
+
+        assertThat(matcher.ruleCount()).isEqualTo(2);
+        assertThat(matcher.matches("::ffff:10.1.2.3")).isTrue();
+        assertThat(matcher.matches("10.1.2.3")).isTrue();
+        assertThat(matcher.matches("::ffff:11.1.2.3")).isTrue();
+        assertThat(matcher.matches("11.1.2.3")).isFalse();
+        assertThat(matcher.matches("::fffe:11.1.2.3")).isTrue();
+        assertThat(matcher.matches("::1:0:11.1.2.3")).isFalse();
+    }
+
+    @Test
+    void matchesWildcardsAndVerbatimRules() {
+        IpWhitelistMatcher matcher = IpWhitelistMatcher.compile("192.168.*.1,10.1.*,localhost");
+
+        assertThat(matcher.matches("192.168.40.1")).isTrue();
+        assertThat(matcher.matches("192.168.40.2")).isFalse();
+        assertThat(matcher.matches("10.1.2.3")).isTrue();
+        assertThat(matcher.matches("10.10.2.3")).isFalse();
+        assertThat(matcher.matches("localhost")).isTrue();
+        assertThat(IpWhitelistMatcher.compile("*").matches("203.0.113.9")).isTrue();
+    }
+
+    @Test
+    void rejectsEverythingWhenEmpty() {
+        assertThat(IpWhitelistMatcher.compile("").matches("127.0.0.1")).isFalse();
+        assertThat(IpWhitelistMatcher.compile(null).matches("127.0.0.1")).isFalse();
+    }
+
+    @Test
+    void skipsInvalidCidrRules() {
+        IpWhitelistMatcher matcher = IpWhitelistMatcher.compile("10.0.0.0/33,intranet/8,10.0.0.0/x,192.168.0.0/16");
+
+        assertThat(matcher.ruleCount()).isEqualTo(1);
+        assertThat(matcher.matches("192.168.3.4")).isTrue();
+        assertThat(matcher.matches("10.0.0.1")).isFalse();
+        assertThat(matcher.matches("10.0.0.0/33")).isFalse();
+    }
+}
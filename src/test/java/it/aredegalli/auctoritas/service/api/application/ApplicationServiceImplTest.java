@@ -0,0 +1,108 @@
+package it.aredegalli.auctoritas.service.api.application;
+
+import it.aredegalli.auctoritas.dto.application.ApplicationCatalogDto;
+import it.aredegalli.auctoritas.dto.application.ApplicationCatalogRoleDto;
+import it.aredegalli.auctoritas.dto.application.ApplicationCatalogSyncDto;
+import it.aredegalli.auctoritas.repository.application.ApplicationRepository;
+import it.aredegalli.auctoritas.repository.role.ApplicationRoleRepository;
+import it.aredegalli.auctoritas.repository.role.ApplicationRoleRepositoryCustom.CatalogState;
+import it.aredegalli.auctoritas.repository.role.PermissionRoleRepository;
+import it.aredegalli.auctoritas.repository.role.PermissionRoleRepositoryCustom.RolePermission;
+import it.aredegalli.auctoritas.service.authorization.AuthorizationDecisionCache;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
+import it.aredegalli.auctoritas.service.validation.EntityValidationHelper;
+import it.aredegalli.auctoritas.service.validation.RequestEntityCache;
+import it.aredegalli.common.exception.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ApplicationServiceImplTest {
+
+    private static final UUID APPLICATION = UUID.randomUUID();
+    private static final UUID VIEWER = UUID.randomUUID();
+    private static final UUID EDITOR = UUID.randomUUID();
+    private static final UUID LEGACY = UUID.randomUUID();
+    private static final UUID READ = UUID.randomUUID();
+    private static final UUID WRITE = UUID.randomUUID();
+
+    private final ApplicationRepository applicationRepository = mock(ApplicationRepository.class);
+    private final ApplicationRoleRepository applicationRoleRepository = mock(ApplicationRoleRepository.class);
+    private final PermissionRoleRepository permissionRoleRepository = mock(PermissionRoleRepository.class);
+    private final RolePermissionIndex rolePermissionIndex = mock(RolePermissionIndex.class);
+    private final ApplicationServiceImpl service = new ApplicationServiceImpl(applicationRepository,
+            mock(EntityValidationHelper.class), mock(AuthorizationDecisionCache.class), mock(ReferenceDataRegistry.class),
+            mock(RequestEntityCache.class), applicationRoleRepository, permissionRoleRepository, rolePermissionIndex,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Test
+    void appliesOnlyTheDifference() {
+        when(applicationRepository.lockById(APPLICATION)).thenReturn(true);
+        when(applicationRoleRepository.findCatalogState(eq(APPLICATION), anyCollection(), anyCollection()))
+                .thenReturn(new CatalogState(Map.of("viewer", VIEWER, "editor", EDITOR), Map.of("read", READ, "write", WRITE),
+                        Set.of(VIEWER, LEGACY), Set.of(new RolePermission(VIEWER, READ), new RolePermission(VIEWER, WRITE))));
+        when(applicationRoleRepository.insertApplicationRoles(APPLICATION, Set.of(EDITOR))).thenReturn(1);
+        when(applicationRoleRepository.deleteApplicationRoles(APPLICATION, Set.of(LEGACY))).thenReturn(1);
+        when(permissionRoleRepository.insertGrants(Set.of(new RolePermission(EDITOR, READ), new RolePermission(EDITOR, WRITE))))
+                .thenReturn(2);
+        when(permissionRoleRepository.deleteGrants(Set.of(new RolePermission(VIEWER, WRITE)))).thenReturn(1);
+
+        ApplicationCatalogSyncDto result = service.syncCatalog(APPLICATION, catalog(
+                role("viewer", "read"),
+                role("editor", "read"),
+                role("editor", "write")));
+
+        assertThat(result).isEqualTo(new ApplicationCatalogSyncDto(1, 1, 2, 1));
+        verify(rolePermissionIndex).reload();
+    }
+
+    @Test
+    void leavesIndexAloneWhenPermissionsAreUnchanged() {
+        when(applicationRepository.lockById(APPLICATION)).thenReturn(true);
+        when(applicationRoleRepository.findCatalogState(eq(APPLICATION), anyCollection(), anyCollection()))
+                .thenReturn(new CatalogState(Map.of("viewer", VIEWER), Map.of("read", READ), Set.of(VIEWER),
+                        Set.of(new RolePermission(VIEWER, READ))));
+
+        ApplicationCatalogSyncDto result = service.syncCatalog(APPLICATION, catalog(role("viewer", "read")));
+
+        assertThat(result).isEqualTo(new ApplicationCatalogSyncDto(0, 0, 0, 0));
+        verify(rolePermissionIndex, never()).reload();
+    }
+
+    @Test
+    void rejectsUnknownNamesBeforeWriting() {
+        when(applicationRepository.lockById(APPLICATION)).thenReturn(true);
+        when(applicationRoleRepository.findCatalogState(eq(APPLICATION), anyCollection(), anyCollection()))
+                .thenReturn(new CatalogState(Map.of("viewer", VIEWER), Map.of(), Set.of(), Set.of()));
+
+        assertThatThrownBy(() -> service.syncCatalog(APPLICATION, catalog(role("viewer", "read"))))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("[read]");
+        verify(applicationRoleRepository, never()).insertApplicationRoles(any(), anyCollection());
+        verify(permissionRoleRepository, never()).insertGrants(anyCollection());
+    }
+
+    private static ApplicationCatalogDto catalog(ApplicationCatalogRoleDto... roles) {
+        return new ApplicationCatalogDto(List.of(roles));
+    }
+
+    private static ApplicationCatalogRoleDto role(String name, String permission) {
+        return new ApplicationCatalogRoleDto(name, Set.of(permission));
+    }
+}
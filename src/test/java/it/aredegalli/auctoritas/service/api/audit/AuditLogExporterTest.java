@@ -0,0 +1,80 @@
+package it.aredegalli.auctoritas.service.api.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.aredegalli.auctoritas.enums.AuditExportFormatEnum;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepository;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepositoryCustom.AuditLogFilter;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepositoryCustom.ExportRow;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepositoryCustom.ExportRowHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditLogExporterTest {
+
+    private static final UUID ID = UUID.fromString("0192f0c4-9a00-7000-8000-000000000001");
+    private static final AuditLogFilter ALL = new AuditLogFilter(null, null, null, null, null, null);
+
+    private final AuditLogRepository repository = mock(AuditLogRepository.class);
+    private final AuditLogExporter exporter = new AuditLogExporter(repository, new ObjectMapper(),
+            mock(PlatformTransactionManager.class), 100);
+
+    @BeforeEach
+    void streamRows() {
+        when(repository.export(eq(ALL), eq(100), any())).thenAnswer(invocation -> {
+            ExportRowHandler handler = invocation.getArgument(2);
+            handler.handle(new ExportRow(ID, Instant.parse("2026-10-18T10:00:00Z"), "ACCESS_GRANTED", null,
+                    "app", "Access, granted", "{\"ip\": \"10.0.0.1\"}"));
+            handler.handle(new ExportRow(ID, Instant.parse("2026-10-18T11:00:00Z"), "ACCESS_DENIED", null,
+                    "app", "Access \"denied\"", null));
+            return 2L;
+        });
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws Exception {
+        String ndjson = export(AuditExportFormatEnum.NDJSON, false);
+
+        assertThat(ndjson.split("\n")).containsExactly(
+                "{\"id\":\"" + ID + "\",\"timestamp\":\"2026-10-18T10:00:00Z\",\"eventType\":\"ACCESS_GRANTED\",\"userId\":null,"
+                        + "\"applicationName\":\"app\",\"description\":\"Access, granted\",\"metadata\":{\"ip\": \"10.0.0.1\"}}",
+                "{\"id\":\"" + ID + "\",\"timestamp\":\"2026-10-18T11:00:00Z\",\"eventType\":\"ACCESS_DENIED\",\"userId\":null,"
+                        + "\"applicationName\":\"app\",\"description\":\"Access \\\"denied\\\"\",\"metadata\":null}");
+        assertThat(ndjson).endsWith("}\n");
+    }
+
+    @Test
+    void writesQuotedCsvBehindGzip() throws Exception {
+        String csv = export(AuditExportFormatEnum.CSV, true);
+
+        assertThat(csv.split("\r\n")).containsExactly(
+                "id,timestamp,event_type,user_id,application_name,description,metadata",
+                ID + ",2026-10-18T10:00:00Z,ACCESS_GRANTED,,app,\"Access, granted\",\"{\"\"ip\"\": \"\"10.0.0.1\"\"}\"",
+                ID + ",2026-10-18T11:00:00Z,ACCESS_DENIED,,app,\"Access \"\"denied\"\"\",");
+    }
+
+    private String export(AuditExportFormatEnum format, boolean gzip) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(ALL, format, gzip, out);
+        byte[] bytes = out.toByteArray();
+        if (gzip) {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                bytes = in.readAllBytes();
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
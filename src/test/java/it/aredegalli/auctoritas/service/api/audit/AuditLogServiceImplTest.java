@@ -0,0 +1,82 @@
+package it.aredegalli.auctoritas.service.api.audit;
+
+import it.aredegalli.auctoritas.dto.audit.AuditLogDto;
+import it.aredegalli.auctoritas.dto.audit.AuditLogPageDto;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepository;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepositoryCustom.AuditLogFilter;
+import it.aredegalli.auctoritas.repository.audit.AuditLogRepositoryCustom.Position;
+import it.aredegalli.auctoritas.service.audit.AuditDictionary;
+import it.aredegalli.auctoritas.service.audit.AuditEventTypeRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditLogServiceImplTest {
+
+    private final AuditLogRepository repository = mock(AuditLogRepository.class);
+    private final AuditDictionary dictionary = mock(AuditDictionary.class);
+    private final AuditLogServiceImpl service = new AuditLogServiceImpl(repository, mock(AuditEventTypeRegistry.class),
+            dictionary, mock(AuditLogExporter.class));
+
+    @Test
+    void returnsCursorOfLastRowWhenMoreRowsExist() {
+        AuditLogDto first = row(Instant.parse("2026-10-18T10:00:00.123456Z"));
+        AuditLogDto second = row(Instant.parse("2026-10-18T09:00:00Z"));
+        when(repository.search(any(), isNull(), eq(2))).thenReturn(List.of(first, second));
+
+        AuditLogPageDto page = service.searchAuditLogs(null, null, null, null, null, Map.of(), null, 1);
+
+        assertThat(page.getItems()).containsExactly(first);
+        assertThat(AuditLogServiceImpl.decodeCursor(page.getNextCursor()))
+                .isEqualTo(new Position(first.getTimestamp(), first.getId()));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        Position position = new Position(Instant.parse("2026-10-18T10:00:00Z"), UUID.randomUUID());
+        when(repository.search(any(), eq(position), eq(51))).thenReturn(List.of(row(Instant.EPOCH)));
+
+        AuditLogPageDto page = service.searchAuditLogs(null, null, null, null, null, Map.of(),
+                AuditLogServiceImpl.encodeCursor(position), 50);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+        verify(repository).search(any(), eq(position), eq(51));
+    }
+
+    @Test
+    void encodesFilterWithDictionaryIds() {
+        when(dictionary.find("app")).thenReturn(3);
+        when(dictionary.find("ip")).thenReturn(7);
+        when(dictionary.find("user-agent")).thenReturn(9);
+        when(dictionary.find("unknown")).thenReturn(null);
+
+        service.searchAuditLogs(null, "app", null, null, null,
+                Map.of("ip", "10.0.0.1", "user-agent", "curl", "unknown", "x"), null, 10);
+
+        verify(repository).search(eq(new AuditLogFilter(null, 3, null, null, null,
+                Map.of("7", "10.0.0.1", "9", "curl", "~unknown", "x"))), isNull(), eq(11));
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> AuditLogServiceImpl.decodeCursor("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AuditLogDto row(Instant timestamp) {
+        return AuditLogDto.builder().id(UUID.randomUUID()).timestamp(timestamp).build();
+    }
+}
@@ -0,0 +1,67 @@
+package it.aredegalli.auctoritas.service.api.authenticator;
+
+import it.aredegalli.auctoritas.model.authenticator.ApplicationAuthenticator;
+import it.aredegalli.auctoritas.model.authenticator.Authenticator;
+import it.aredegalli.auctoritas.repository.authenticator.ApplicationAuthenticatorRepository;
+import it.aredegalli.auctoritas.repository.authenticator.AuthenticatorRepository;
+import it.aredegalli.auctoritas.security.encryption.EncryptionService;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthenticatorConfigReEncryptorTest {
+
+    private static final String KEY_1 = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String KEY_2 = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+
+    private final AuthenticatorRepository authenticatorRepository = mock(AuthenticatorRepository.class);
+    private final ApplicationAuthenticatorRepository applicationAuthenticatorRepository = mock(ApplicationAuthenticatorRepository.class);
+    private final ReferenceDataRegistry referenceDataRegistry = mock(ReferenceDataRegistry.class);
+    private final EncryptionService rotated = new EncryptionService(KEY_2, 2, "1:" + KEY_1, KEY_1, 100, Duration.ofMinutes(10));
+    private final AuthenticatorConfigReEncryptor reEncryptor = new AuthenticatorConfigReEncryptor(authenticatorRepository,
+            applicationAuthenticatorRepository, rotated,
+            referenceDataRegistry, mock(PlatformTransactionManager.class), true);
+
+    @Test
+    void rewritesConfigsOfRetiredKeys() {
+        String old = new EncryptionService(KEY_1, 1, "", KEY_1, 100, Duration.ofMinutes(10)).encrypt("{\"clientId\":\"old\"}");
+        String current = rotated.encrypt("{\"clientId\":\"current\"}");
+        Authenticator stale = Authenticator.builder().name("stale").config(old).build();
+        Authenticator upToDate = Authenticator.builder().name("current").config(current).build();
+        ApplicationAuthenticator staleLink = ApplicationAuthenticator.builder().config(old).build();
+        when(authenticatorRepository.findAll()).thenReturn(List.of(stale, upToDate));
+        when(applicationAuthenticatorRepository.findAll()).thenReturn(List.of(staleLink));
+
+        assertThat(reEncryptor.reEncrypt()).isEqualTo(2);
+
+        assertThat(rotated.needsReEncryption(stale.getConfig())).isFalse();
+        assertThat(rotated.decrypt(stale.getConfig())).isEqualTo("{\"clientId\":\"old\"}");
+        assertThat(upToDate.getConfig()).isEqualTo(current);
+        assertThat(rotated.needsReEncryption(staleLink.getConfig())).isFalse();
+        verify(authenticatorRepository).saveAll(List.of(stale));
+        verify(applicationAuthenticatorRepository).saveAll(List.of(staleLink));
+        verify(referenceDataRegistry).reload();
+    }
+
+    @Test
+    void leavesCurrentConfigsAlone() {
+        when(authenticatorRepository.findAll()).thenReturn(List.of(Authenticator.builder().config(rotated.encrypt("{}")).build()));
+
+        assertThat(reEncryptor.reEncrypt()).isZero();
+
+        verify(authenticatorRepository).saveAll(anyList());
+        verify(referenceDataRegistry, never()).reload();
+    }
+}
@@ -0,0 +1,118 @@
+package it.aredegalli.auctoritas.service.api.role;
+
+import it.aredegalli.auctoritas.dto.role.UserRoleBulkItemDto;
+import it.aredegalli.auctoritas.dto.role.UserRoleBulkItemResultDto;
+import it.aredegalli.auctoritas.dto.role.UserRoleBulkResultDto;
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import it.aredegalli.auctoritas.enums.UserRoleBulkActionEnum;
+import it.aredegalli.auctoritas.enums.UserRoleBulkOutcomeEnum;
+import it.aredegalli.auctoritas.repository.application.ApplicationRepository;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepository;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepositoryCustom.Assignment;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepositoryCustom.ExistingIds;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepositoryCustom.UserApplication;
+import it.aredegalli.auctoritas.repository.role.ApplicationRoleRepository;
+import it.aredegalli.auctoritas.repository.role.PermissionRepository;
+import it.aredegalli.auctoritas.repository.role.PermissionRoleRepository;
+import it.aredegalli.auctoritas.repository.role.RoleRepository;
+import it.aredegalli.auctoritas.repository.user.UserRepository;
+import it.aredegalli.auctoritas.service.audit.AuditService;
+import it.aredegalli.auctoritas.service.authorization.AuthorizationDecisionCache;
+import it.aredegalli.auctoritas.service.authorization.PermissionEvaluationEngine;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
+import it.aredegalli.auctoritas.service.validation.RequestEntityCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoleServiceImplTest {
+
+    private static final UUID USER = UUID.randomUUID();
+    private static final UUID ROLE = UUID.randomUUID();
+    private static final UUID OTHER_ROLE = UUID.randomUUID();
+    private static final UUID APPLICATION = UUID.randomUUID();
+
+    private final UserRoleApplicationRepository userRoleApplicationRepository = mock(UserRoleApplicationRepository.class);
+    private final AuthorizationDecisionCache decisionCache = mock(AuthorizationDecisionCache.class);
+    private final PermissionEvaluationEngine permissionEvaluationEngine = mock(PermissionEvaluationEngine.class);
+    private final AuditService auditService = mock(AuditService.class);
+    private final RoleServiceImpl service = new RoleServiceImpl(mock(RoleRepository.class), mock(PermissionRepository.class),
+            mock(PermissionRoleRepository.class), userRoleApplicationRepository, mock(UserRepository.class),
+            mock(ApplicationRepository.class), mock(ApplicationRoleRepository.class), decisionCache,
+            permissionEvaluationEngine, mock(ReferenceDataRegistry.class), mock(RolePermissionIndex.class),
+            mock(RequestEntityCache.class), auditService, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Test
+    void reportsOutcomeOfEveryItem() {
+        UUID missingUser = UUID.randomUUID();
+        existing(Set.of(USER), Set.of(ROLE, OTHER_ROLE), Set.of(APPLICATION));
+        Assignment added = new Assignment(USER, ROLE, APPLICATION);
+        Assignment removed = new Assignment(USER, OTHER_ROLE, APPLICATION);
+        when(userRoleApplicationRepository.insertAssignments(anyCollection())).thenReturn(Set.of(added));
+        when(userRoleApplicationRepository.deleteAssignments(anyCollection())).thenReturn(Set.of(removed));
+
+        UserRoleBulkResultDto result = service.bulkUpdateUserRoles(List.of(
+                item(UserRoleBulkActionEnum.ADD, USER, ROLE),
+                item(UserRoleBulkActionEnum.ADD, USER, ROLE),
+                item(UserRoleBulkActionEnum.REMOVE, USER, OTHER_ROLE),
+                item(UserRoleBulkActionEnum.REMOVE, USER, ROLE),
+                item(UserRoleBulkActionEnum.ADD, missingUser, ROLE),
+                item(UserRoleBulkActionEnum.ADD, USER, UUID.randomUUID())));
+
+        assertThat(result.getResults()).extracting(UserRoleBulkItemResultDto::getOutcome).containsExactly(
+                UserRoleBulkOutcomeEnum.ADDED,
+                UserRoleBulkOutcomeEnum.ALREADY_ASSIGNED,
+                UserRoleBulkOutcomeEnum.REMOVED,
+                UserRoleBulkOutcomeEnum.NOT_ASSIGNED,
+                UserRoleBulkOutcomeEnum.USER_NOT_FOUND,
+                UserRoleBulkOutcomeEnum.ROLE_NOT_FOUND);
+        assertThat(result.getResults()).extracting(UserRoleBulkItemResultDto::getIndex).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(List.of(result.getAdded(), result.getRemoved(), result.getUnchanged(), result.getFailed()))
+                .containsExactly(1, 1, 2, 2);
+
+        verify(userRoleApplicationRepository).insertAssignments(Set.of(added));
+        verify(userRoleApplicationRepository).deleteAssignments(Set.of(removed, added));
+        verify(decisionCache).invalidateUserApplications(Set.of(new UserApplication(USER, APPLICATION)));
+        verify(permissionEvaluationEngine).invalidate(Set.of(new UserApplication(USER, APPLICATION)));
+    }
+
+    @Test
+    void logsSingleSummaryEvent() {
+        existing(Set.of(USER), Set.of(ROLE), Set.of());
+        when(auditService.buildMetadata(anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserRoleBulkResultDto result = service.bulkUpdateUserRoles(List.of(item(UserRoleBulkActionEnum.ADD, USER, ROLE)));
+
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getResults().getFirst().getOutcome()).isEqualTo(UserRoleBulkOutcomeEnum.APPLICATION_NOT_FOUND);
+        verify(auditService).logEvent(isNull(), eq(AuditEventTypeEnum.USER_ROLE_BULK), eq("Auctoritas"), any(),
+                eq(Map.of("items", 1, "added", 0, "removed", 0, "unchanged", 0, "failed", 1)));
+        verify(decisionCache, never()).invalidateUserApplications(any());
+    }
+
+    private void existing(Set<UUID> userIds, Set<UUID> roleIds, Set<UUID> applicationIds) {
+        when(userRoleApplicationRepository.findExistingIds(anyCollection(), anyCollection(), anyCollection()))
+                .thenReturn(new ExistingIds(userIds, roleIds, applicationIds));
+    }
+
+    private static UserRoleBulkItemDto item(UserRoleBulkActionEnum action, UUID userId, UUID roleId) {
+        return new UserRoleBulkItemDto(action, userId, roleId, APPLICATION);
+    }
+}
@@ -0,0 +1,115 @@
+package it.aredegalli.auctoritas.service.api.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.aredegalli.auctoritas.dto.snapshot.SnapshotImportDto;
+import it.aredegalli.auctoritas.service.api.snapshot.SnapshotSchema.Table;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class SnapshotImporterTest {
+
+    private static final String ROLES = """
+            {"table":"roles","rows":[["00000000-0000-0000-0000-000000000001","admin",null],["00000000-0000-0000-0000-000000000002","say \\"hi\\"",""]]}
+            {"table":"roles","rows":[["00000000-0000-0000-0000-000000000003","viewer","multi\\nline"]]}
+            """;
+    private static final String AUTHENTICATORS = """
+            {"table":"authenticators","rows":[["00000000-0000-0000-0000-000000000004","oidc","OIDC","{\\"issuer\\": \\"x\\"}",true]]}
+            """;
+
+    private final SnapshotImporter importer = new SnapshotImporter(mock(JdbcTemplate.class), new ObjectMapper(),
+            mock(PlatformTransactionManager.class));
+    private final Map<String, StringWriter> copies = new LinkedHashMap<>();
+
+    @Test
+    void writesEveryTableAsCopyCsv() throws IOException {
+        SnapshotImportDto report = read(snapshot(Map.of("roles", ROLES, "authenticators", AUTHENTICATORS),
+                Map.of("roles", 3L, "authenticators", 1L)));
+
+        assertThat(report.getVersion()).isEqualTo(SnapshotSchema.VERSION);
+        assertThat(report.getChunks()).isEqualTo(3);
+        assertThat(report.getRows()).containsEntry("roles", 3L).containsEntry("authenticators", 1L).containsEntry("users", 0L);
+        assertThat(copies.keySet()).containsExactlyElementsOf(SnapshotSchema.TABLES.stream().map(Table::name).toList());
+        assertThat(copies.get("roles")).hasToString(
+                "\"00000000-0000-0000-0000-000000000001\",\"admin\",\n"
+                        + "\"00000000-0000-0000-0000-000000000002\",\"say \"\"hi\"\"\",\"\"\n"
+                        + "\"00000000-0000-0000-0000-000000000003\",\"viewer\",\"multi\nline\"\n");
+        assertThat(copies.get("authenticators")).hasToString(
+                "\"00000000-0000-0000-0000-000000000004\",\"oidc\",\"OIDC\",\"{\"\"issuer\"\": \"\"x\"\"}\",true\n");
+    }
+
+    @Test
+    void rejectsTruncatedSnapshot() {
+        String snapshot = snapshot(Map.of("roles", ROLES), Map.of("roles", 3L));
+        String truncated = snapshot.substring(0, snapshot.indexOf("{\"end\""));
+
+        assertThatThrownBy(() -> read(truncated))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("trailer");
+    }
+
+    @Test
+    void rejectsRowCountsDifferentFromTrailer() {
+        assertThatThrownBy(() -> read(snapshot(Map.of("roles", ROLES), Map.of("roles", 4L))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("trailer expects");
+    }
+
+    @Test
+    void rejectsColumnsOfAnotherSchema() {
+        String snapshot = snapshot(Map.of(), Map.of()).replace("\"description\"]}", "\"label\"]}");
+
+        assertThatThrownBy(() -> read(snapshot))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("columns of roles");
+    }
+
+    @Test
+    void rejectsOtherVersions() {
+        String snapshot = snapshot(Map.of(), Map.of()).replace("\"version\":1", "\"version\":2");
+
+        assertThatThrownBy(() -> read(snapshot))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version 2");
+    }
+
+    private SnapshotImportDto read(String snapshot) throws IOException {
+        return importer.read(new ByteArrayInputStream(snapshot.getBytes(StandardCharsets.UTF_8)), table -> {
+            StringWriter writer = new StringWriter();
+            copies.put(table.name(), writer);
+            return writer;
+        });
+    }
+
+    /**
+     * Builds a snapshot with every table, the given chunk lines and a trailer with the given row counts, 0 for
+     * tables without one.
+     */
+    private static String snapshot(Map<String, String> chunks, Map<String, Long> counts) {
+        StringBuilder snapshot = new StringBuilder("{\"format\":\"auctoritas-snapshot\",\"version\":1,\"createdAt\":\"2026-10-18T10:00:00Z\"}\n");
+        Map<String, Long> rows = new LinkedHashMap<>();
+        for (Table table : SnapshotSchema.TABLES) {
+            snapshot.append("{\"table\":\"").append(table.name()).append("\",\"columns\":[")
+                    .append(table.columnNames().stream().map(column -> "\"" + column + "\"").collect(Collectors.joining(",")))
+                    .append("]}\n");
+            snapshot.append(chunks.getOrDefault(table.name(), ""));
+            rows.put(table.name(), counts.getOrDefault(table.name(), 0L));
+        }
+        snapshot.append("{\"end\":true,\"rows\":{")
+                .append(rows.entrySet().stream().map(e -> "\"" + e.getKey() + "\":" + e.getValue()).collect(Collectors.joining(",")))
+                .append("}}\n");
+        return snapshot.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package it.aredegalli.auctoritas.service.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditMetadataCodecTest {
+
+    @Test
+    void replacesKeysWithTheirDictionaryIds() {
+        assertThat(AuditMetadataCodec.encode(Map.of("ip", "10.0.0.1"), Map.of("ip", 7)))
+                .isEqualTo(Map.of("7", "10.0.0.1"));
+        assertThat(AuditMetadataCodec.encode(null, Map.of())).isNull();
+    }
+
+    @Test
+    void keepsEveryKeyWithoutIdDistinct() {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("ip", "10.0.0.1");
+        metadata.put("first", 1);
+        metadata.put("second", 2);
+
+        assertThat(AuditMetadataCodec.encode(metadata, Map.of("ip", 7)))
+                .containsExactly(Map.entry("7", "10.0.0.1"), Map.entry("~first", 1), Map.entry("~second", 2));
+    }
+}
@@ -0,0 +1,63 @@
+package it.aredegalli.auctoritas.service.audit.annotation;
+
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditPlanTest {
+
+    @Audit(event = AuditEventTypeEnum.API_ACCESS_GRANTED, description = "Audited")
+    @AuditMetadata(key = "target", value = "#{args[1]}")
+    @AuditMetadata(key = "from", value = "#{clientIp}")
+    @AuditMetadata(key = "agent", value = "#{userAgent}")
+    @AuditMetadata(key = "kind", value = "constant")
+    @AuditMetadata(key = "broken", value = "#{args[7]}")
+    void audited(String name, UUID id) {
+    }
+
+    @Audit(event = AuditEventTypeEnum.API_ACCESS_DENIED, description = "Without params", callParams = false)
+    void withoutParams(String name) {
+    }
+
+    @Test
+    void resolvesExpressionsAndParameters() throws Exception {
+        UUID id = UUID.randomUUID();
+        AuditPlan plan = compile("audited", String.class, UUID.class);
+
+        Map<String, Object> metadata = plan.execute(new Object[]{null, id}, "10.0.0.1", "203.0.113.7", "curl");
+
+        assertThat(plan.event()).isEqualTo(AuditEventTypeEnum.API_ACCESS_GRANTED);
+        assertThat(plan.description()).isEqualTo("Audited");
+        assertThat(metadata)
+                .containsEntry("target", id.toString())
+                .containsEntry("from", "10.0.0.1")
+                .containsEntry("agent", "curl")
+                .containsEntry("kind", "constant")
+                .containsEntry("broken", "error")
+                .containsEntry("param_name", "null")
+                .containsEntry("param_id", id.toString())
+                .containsEntry("ip", "203.0.113.7")
+                .containsEntry("user-agent", "curl")
+                .containsEntry("event", "API_ACCESS_GRANTED")
+                .hasSize(10);
+    }
+
+    @Test
+    void skipsParametersWhenDisabled() throws Exception {
+        AuditPlan plan = compile("withoutParams", String.class);
+
+        assertThat(plan.execute(new Object[]{"x"}, "10.0.0.1", "10.0.0.1", null))
+                .containsOnlyKeys("ip", "user-agent", "event");
+    }
+
+    private static AuditPlan compile(String name, Class<?>... parameterTypes) throws Exception {
+        Method method = AuditPlanTest.class.getDeclaredMethod(name, parameterTypes);
+        String[] paramNames = {"name", "id"};
+        return AuditPlan.compile(method, paramNames, method.getAnnotation(Audit.class));
+    }
+}
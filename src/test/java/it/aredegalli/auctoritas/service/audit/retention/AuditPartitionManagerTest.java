@@ -0,0 +1,119 @@
+package it.aredegalli.auctoritas.service.audit.retention;
+
+import it.aredegalli.auctoritas.enums.AuditPartitionIntervalEnum;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditPartitionManagerTest {
+
+    private static final String EXISTS_SQL = "SELECT to_regclass(?) IS NOT NULL";
+
+    private final JdbcTemplate session = mock(JdbcTemplate.class);
+    private final AuditRetentionPolicy retentionPolicy = mock(AuditRetentionPolicy.class);
+    private final AuditPartitionManager manager = new AuditPartitionManager(mock(JdbcTemplate.class), retentionPolicy,
+            AuditPartitionIntervalEnum.MONTHLY, 0, Clock.fixed(Instant.parse("2026-10-18T12:00:00Z"), ZoneOffset.UTC));
+
+    AuditPartitionManagerTest() {
+        Map<String, Duration> retentions = new LinkedHashMap<>();
+        retentions.put("short", Duration.ofDays(30));
+        retentions.put("standard", Duration.ofDays(365));
+        when(retentionPolicy.retentions()).thenReturn(retentions);
+    }
+
+    @Test
+    void parsesPartitionUpperBounds() {
+        assertThat(AuditPartitionManager.upperBoundOf(
+                "FOR VALUES FROM ('2026-09-01 00:00:00') TO ('2026-10-01 00:00:00')"))
+                .isEqualTo(LocalDateTime.of(2026, 10, 1, 0, 0));
+        assertThat(AuditPartitionManager.upperBoundOf(
+                "FOR VALUES FROM (MINVALUE) TO ('2026-10-01 00:00:00.5')"))
+                .isEqualTo(LocalDateTime.of(2026, 10, 1, 0, 0));
+        assertThat(AuditPartitionManager.upperBoundOf("FOR VALUES FROM ('2026-09-01 00:00:00') TO (MAXVALUE)")).isNull();
+        assertThat(AuditPartitionManager.upperBoundOf("FOR VALUES IN ('standard')")).isNull();
+        assertThat(AuditPartitionManager.upperBoundOf("DEFAULT")).isNull();
+        assertThat(AuditPartitionManager.upperBoundOf(null)).isNull();
+    }
+
+    @Test
+    void dropsOnlyPartitionsEntirelyPastTheRetentionOfTheirClass() {
+        children("audit_logs_short",
+                Map.entry("audit_logs_short_p202608", "FOR VALUES FROM ('2026-08-01 00:00:00') TO ('2026-09-01 00:00:00')"),
+                Map.entry("audit_logs_short_p202609", "FOR VALUES FROM ('2026-09-01 00:00:00') TO ('2026-10-01 00:00:00')"),
+                Map.entry("audit_logs_short_default", "DEFAULT"));
+        children("audit_logs_standard",
+                Map.entry("audit_logs_legacy", "FOR VALUES FROM (MINVALUE) TO ('2025-10-01 00:00:00')"),
+                Map.entry("audit_logs_standard_p202510", "FOR VALUES FROM ('2025-10-01 00:00:00') TO ('2025-11-01 00:00:00')"),
+                Map.entry("audit_logs_standard_default", "DEFAULT"));
+
+        assertThat(manager.dropExpiredPartitions(session)).isEqualTo(2);
+
+        verify(session).execute("ALTER TABLE audit_logs_short DETACH PARTITION audit_logs_short_p202608");
+        verify(session).execute("DROP TABLE audit_logs_short_p202608");
+        verify(session).execute("ALTER TABLE audit_logs_standard DETACH PARTITION audit_logs_legacy");
+        verify(session).execute("DROP TABLE audit_logs_legacy");
+        verify(session, never()).execute("DROP TABLE audit_logs_short_p202609");
+        verify(session, never()).execute("DROP TABLE audit_logs_standard_p202510");
+        verify(session, never()).execute("DROP TABLE audit_logs_short_default");
+        verify(session, never()).execute("DROP TABLE audit_logs_standard_default");
+    }
+
+    @Test
+    void deletesExpiredRowsOfTheDefaultPartitions() {
+        when(session.queryForObject(EXISTS_SQL, Boolean.class, "audit_logs_short_default")).thenReturn(true);
+
+        manager.dropExpiredPartitions(session);
+
+        verify(session).update("DELETE FROM audit_logs_short_default WHERE timestamp < ?", LocalDateTime.of(2026, 9, 18, 12, 0));
+        verify(session, never()).update(eq("DELETE FROM audit_logs_standard_default WHERE timestamp < ?"), any(Object[].class));
+    }
+
+    @Test
+    void createsTheDefaultPartitionOfEveryClass() {
+        manager.createPartitions(session);
+
+        verify(session).execute("CREATE TABLE IF NOT EXISTS audit_logs_short_default PARTITION OF audit_logs_short DEFAULT");
+        verify(session).execute("CREATE TABLE IF NOT EXISTS audit_logs_standard_default PARTITION OF audit_logs_standard DEFAULT");
+        verify(session).execute("CREATE TABLE audit_logs_standard_p202610 PARTITION OF audit_logs_standard"
+                + " FOR VALUES FROM ('2026-10-01 00:00:00') TO ('2026-11-01 00:00:00')");
+        verify(session, never()).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    void movesRowsOutOfTheDefaultPartitionWhenCreatingTheirPartition() {
+        when(session.queryForObject(startsWith("SELECT EXISTS (SELECT 1 FROM audit_logs_standard_default"), eq(Boolean.class)))
+                .thenReturn(true);
+
+        manager.createPartitions(session);
+
+        verify(session).execute(any(ConnectionCallback.class));
+        verify(session, never()).execute("CREATE TABLE audit_logs_standard_p202610 PARTITION OF audit_logs_standard"
+                + " FOR VALUES FROM ('2026-10-01 00:00:00') TO ('2026-11-01 00:00:00')");
+        verify(session).execute(startsWith("CREATE TABLE audit_logs_short_p202610 PARTITION OF"));
+    }
+
+    @SafeVarargs
+    private void children(String classTable, Map.Entry<String, String>... children) {
+        when(session.query(anyString(), any(RowMapper.class), eq(classTable))).thenReturn(List.of(children));
+    }
+}
@@ -0,0 +1,33 @@
+package it.aredegalli.auctoritas.service.audit.retention;
+
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditRetentionPolicyTest {
+
+    @Test
+    void mapsEventTypesToTheirClass() {
+        AuditRetentionPolicy policy = new AuditRetentionPolicy("short=P30D, standard=P365D",
+                "ACCESS_GRANTED=short", "standard");
+
+        assertThat(policy.classOf(AuditEventTypeEnum.ACCESS_GRANTED)).isEqualTo("short");
+        assertThat(policy.classOf(AuditEventTypeEnum.ROLE_CREATE)).isEqualTo("standard");
+        assertThat(policy.classOf(null)).isEqualTo("standard");
+        assertThat(policy.retentions()).containsEntry("short", Duration.ofDays(30));
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new AuditRetentionPolicy("Bad-Name=P1D,standard=P1D", "", "standard"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AuditRetentionPolicy("short=P1D", "", "standard"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AuditRetentionPolicy("standard=P1D", "ACCESS_GRANTED=short", "standard"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,98 @@
+package it.aredegalli.auctoritas.service.audit.writer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import it.aredegalli.auctoritas.enums.AuditBackpressurePolicyEnum;
+import it.aredegalli.auctoritas.enums.AuditEventTypeEnum;
+import it.aredegalli.auctoritas.service.audit.AuditDictionary;
+import it.aredegalli.auctoritas.service.audit.AuditEventTypeRegistry;
+import it.aredegalli.auctoritas.service.audit.retention.AuditRetentionPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditBatchWriterTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final AuditDictionary dictionary = mock(AuditDictionary.class);
+
+    @TempDir
+    private Path spillDirectory;
+
+    private AuditBatchWriter writer;
+
+    @AfterEach
+    void stopWriter() {
+        writer.stop();
+    }
+
+    @Test
+    void keepsWritingAfterAnUnexpectedFailure() throws InterruptedException {
+        when(dictionary.intern(anyCollection()))
+                .thenThrow(new IllegalStateException("boom"), new IllegalStateException("boom"))
+                .thenReturn(Map.of());
+        writer = writer();
+        writer.start();
+
+        writer.enqueue(event("first"));
+        await(writer::getDroppedCount, 1);
+        writer.enqueue(event("second"));
+        await(writer::getWrittenCount, 1);
+
+        assertThat(writer.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void replaySkipsUnreadableLinesAndEveryFileIsReplayed() throws Exception {
+        when(dictionary.intern(anyCollection())).thenReturn(Map.of());
+        Path corrupt = spillDirectory.resolve("audit-spill.ndjson.1.replay");
+        Files.write(corrupt, List.of(json(event("before")), "{\"timestamp\":", json(event("after"))));
+        Path intact = spillDirectory.resolve("audit-spill.ndjson.2.replay");
+        Files.write(intact, List.of(json(event("other"))));
+        writer = writer();
+        writer.start();
+
+        await(writer::getWrittenCount, 3);
+
+        assertThat(writer.getDroppedCount()).isEqualTo(1);
+        assertThat(corrupt).doesNotExist();
+        assertThat(intact).doesNotExist();
+    }
+
+    private AuditBatchWriter writer() {
+        return new AuditBatchWriter(mock(JdbcTemplate.class), objectMapper, mock(AuditEventTypeRegistry.class), dictionary,
+                mock(AuditRetentionPolicy.class), 16, 10, Duration.ofMillis(10), AuditBackpressurePolicyEnum.DROP,
+                spillDirectory, Duration.ofSeconds(5));
+    }
+
+    private String json(AuditEvent event) throws Exception {
+        return objectMapper.writeValueAsString(event);
+    }
+
+    private static AuditEvent event(String description) {
+        return new AuditEvent(Instant.now(), null, AuditEventTypeEnum.ACCESS_GRANTED, "app", description, Map.of());
+    }
+
+    private static void await(LongSupplier count, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(count.getAsLong()).isEqualTo(expected);
+    }
+}
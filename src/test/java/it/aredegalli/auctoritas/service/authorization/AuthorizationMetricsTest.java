@@ -0,0 +1,54 @@
+package it.aredegalli.auctoritas.service.authorization;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.aredegalli.auctoritas.enums.AuthorizationStageEnum;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthorizationMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AuthorizationMetrics metrics = new AuthorizationMetrics(registry);
+
+    @Test
+    void registersOneTimerPerStage() {
+        metrics.record(AuthorizationStageEnum.HMAC, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(2));
+
+        assertThat(registry.find("auctoritas.authorization.stage").timers()).hasSize(AuthorizationStageEnum.values().length);
+        assertThat(registry.get("auctoritas.authorization.stage").tag("stage", "hmac").timer().count()).isEqualTo(1);
+        assertThat(registry.get("auctoritas.authorization.stage").tag("stage", "roles").timer().count()).isZero();
+    }
+
+    @Test
+    void countsOutcomesPerApplication() {
+        metrics.granted("app", false);
+        metrics.granted("app", false);
+        metrics.granted("app", true);
+        metrics.denied("other");
+        metrics.usersCreated("app", 3);
+
+        assertThat(registry.get("auctoritas.authorization.decisions").tags("application", "app", "outcome", "granted").counter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("auctoritas.authorization.decisions").tags("application", "app", "outcome", "granted_cached").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("auctoritas.authorization.decisions").tags("application", "other", "outcome", "denied").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("auctoritas.authorization.users.created").tag("application", "app").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void exposesDecisionCacheStatistics() {
+        AuthorizationDecisionCache cache = new AuthorizationDecisionCache(100, Duration.ofMinutes(1));
+        cache.bindTo(registry);
+
+        cache.get("app", "auth", "user");
+
+        assertThat(registry.get("cache.gets").tags("cache", "authorization.decisions", "result", "miss").functionCounter().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,167 @@
+package it.aredegalli.auctoritas.service.authorization;
+
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationBatchItemDto;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationBatchItemResultDto;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationBatchResultDto;
+import it.aredegalli.auctoritas.dto.authorization.AuthorizationResultDto;
+import it.aredegalli.auctoritas.model.application.Application;
+import it.aredegalli.auctoritas.model.application.UserRoleApplication;
+import it.aredegalli.auctoritas.model.authenticator.ApplicationAuthenticator;
+import it.aredegalli.auctoritas.model.authenticator.Authenticator;
+import it.aredegalli.auctoritas.model.role.Role;
+import it.aredegalli.auctoritas.model.user.User;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepository;
+import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingRepository;
+import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingRepositoryCustom.ExternalIdentity;
+import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingRepositoryCustom.ProvisionedUsers;
+import it.aredegalli.auctoritas.repository.authenticator.UserAuthMappingRepositoryCustom.Provisioning;
+import it.aredegalli.auctoritas.repository.user.UserRepository;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataRegistry;
+import it.aredegalli.auctoritas.service.reference.ReferenceDataSnapshot;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
+import it.aredegalli.auctoritas.util.HashUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthorizationServiceImplTest {
+
+    private static final String EXTERNAL_USER_ID = "hashed";
+    private static final UUID USER = UUID.randomUUID();
+
+    private final Role defaultRole = Role.builder().id(UUID.randomUUID()).name("viewer").build();
+    private final Authenticator authenticator = Authenticator.builder().id(UUID.randomUUID()).name("oidc").isActive(true).build();
+    private final Application application = Application.builder().id(UUID.randomUUID()).name("app").defaultRole(defaultRole).build();
+    private final Application closed = Application.builder().id(UUID.randomUUID()).name("closed").build();
+    private final ExternalIdentity identity = new ExternalIdentity(authenticator.getId(), EXTERNAL_USER_ID);
+
+    private final UserAuthMappingRepository userAuthMappingRepository = mock(UserAuthMappingRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserRoleApplicationRepository userRoleApplicationRepository = mock(UserRoleApplicationRepository.class);
+    private final AuthorizationHelper authorizationHelper = mock(AuthorizationHelper.class);
+    private final AuthorizationMetrics metrics = mock(AuthorizationMetrics.class);
+    private final HashUtil hashUtil = mock(HashUtil.class);
+    private final AuthorizationServiceImpl service;
+
+    AuthorizationServiceImplTest() {
+        ReferenceDataRegistry referenceDataRegistry = mock(ReferenceDataRegistry.class);
+        ReferenceDataSnapshot snapshot = mock(ReferenceDataSnapshot.class);
+        when(referenceDataRegistry.current()).thenReturn(snapshot);
+        when(snapshot.findAuthenticator("oidc")).thenReturn(Optional.of(authenticator));
+        when(snapshot.findApplication("app")).thenReturn(Optional.of(application));
+        when(snapshot.findApplication("closed")).thenReturn(Optional.of(closed));
+        when(snapshot.findLink(application.getId(), authenticator.getId()))
+                .thenReturn(Optional.of(ApplicationAuthenticator.builder().isActive(true).build()));
+        when(snapshot.findLink(closed.getId(), authenticator.getId()))
+                .thenReturn(Optional.of(ApplicationAuthenticator.builder().isActive(true).build()));
+
+        when(hashUtil.hmacSha256(anyString())).thenReturn(EXTERNAL_USER_ID);
+
+        service = new AuthorizationServiceImpl(referenceDataRegistry, mock(RolePermissionIndex.class), userAuthMappingRepository,
+                userRepository, userRoleApplicationRepository, hashUtil, authorizationHelper, mock(AuthorizationDecisionCache.class),
+                mock(PermissionEvaluationEngine.class), new TransactionTemplate(mock(PlatformTransactionManager.class)), metrics);
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.getReferenceById(USER)).thenReturn(User.builder().id(USER).build());
+        when(userAuthMappingRepository.findByAuthenticatorIdAndExternalUserId(authenticator.getId(), EXTERNAL_USER_ID))
+                .thenReturn(Optional.empty());
+    }
+
+    @Test
+    void provisionsFirstLoginWithSingleStatement() {
+        when(userAuthMappingRepository.provisionUser(identity, application.getId(), defaultRole.getId()))
+                .thenReturn(new Provisioning(USER, true, true));
+
+        AuthorizationResultDto result = service.authorizeAccess("app", "oidc", "external");
+
+        assertThat(result.getUserId()).isEqualTo(USER);
+        assertThat(result.getRoles()).isEqualTo(Map.of(defaultRole.getId(), "viewer"));
+        verify(metrics).usersCreated("app", 1);
+        verify(userRepository, never()).save(any());
+        verify(userAuthMappingRepository, never()).save(any());
+        verify(userRoleApplicationRepository, never()).findAllByUserIdAndApplicationId(any(), any());
+        verify(userRoleApplicationRepository, never()).assignRoles(anyMap());
+    }
+
+    @Test
+    void adoptsUserOfConcurrentFirstLogin() {
+        Role editor = Role.builder().id(UUID.randomUUID()).name("editor").build();
+        when(userAuthMappingRepository.provisionUser(identity, application.getId(), defaultRole.getId()))
+                .thenReturn(new Provisioning(USER, false, false));
+        when(userRoleApplicationRepository.findAllByUserIdAndApplicationId(USER, application.getId()))
+                .thenReturn(List.of(UserRoleApplication.builder().role(editor).build()));
+
+        AuthorizationResultDto result = service.authorizeAccess("app", "oidc", "external");
+
+        assertThat(result.getUserId()).isEqualTo(USER);
+        assertThat(result.getRoles()).isEqualTo(Map.of(editor.getId(), "editor"));
+        verify(metrics, never()).usersCreated(anyString(), eq(1));
+        verify(userRoleApplicationRepository, never()).assignRoles(anyMap());
+    }
+
+    @Test
+    void reportsOnlyUsersTheBatchCreated() {
+        UUID adopted = UUID.randomUUID();
+        ExternalIdentity other = new ExternalIdentity(authenticator.getId(), "other");
+        when(hashUtil.hmacSha256("external")).thenReturn(EXTERNAL_USER_ID);
+        when(hashUtil.hmacSha256("concurrent")).thenReturn("other");
+        when(userAuthMappingRepository.findUserIdsByIdentities(anyCollection())).thenReturn(new HashMap<>());
+        when(userAuthMappingRepository.provisionUsers(anyCollection()))
+                .thenReturn(new ProvisionedUsers(Map.of(identity, USER, other, adopted), Set.of(identity)));
+        when(userRepository.getReferenceById(adopted)).thenReturn(User.builder().id(adopted).build());
+
+        AuthorizationBatchResultDto result = service.authorizeBatch(List.of(
+                new AuthorizationBatchItemDto("app", "oidc", "external"),
+                new AuthorizationBatchItemDto("app", "oidc", "concurrent")), false);
+
+        assertThat(result.getGranted()).isEqualTo(2);
+        verify(metrics, times(1)).usersCreated("app", 1);
+        verify(authorizationHelper, times(1)).logAccessGranted(any(), eq("app"), eq("User created and mapped on login."), anyMap());
+    }
+
+    @Test
+    void batchDoesNotProvisionUsersItWouldDeny() {
+        ExternalIdentity other = new ExternalIdentity(authenticator.getId(), "other");
+        when(hashUtil.hmacSha256("external")).thenReturn(EXTERNAL_USER_ID);
+        when(hashUtil.hmacSha256("stranger")).thenReturn("other");
+        when(userAuthMappingRepository.findUserIdsByIdentities(anyCollection())).thenReturn(new HashMap<>());
+        when(userAuthMappingRepository.provisionUsers(List.of(identity)))
+                .thenReturn(new ProvisionedUsers(Map.of(identity, USER), Set.of(identity)));
+
+        AuthorizationBatchResultDto result = service.authorizeBatch(List.of(
+                new AuthorizationBatchItemDto("app", "oidc", "external"),
+                new AuthorizationBatchItemDto("closed", "oidc", "external"),
+                new AuthorizationBatchItemDto("closed", "oidc", "stranger")), false);
+
+        assertThat(result.getGranted()).isEqualTo(1);
+        assertThat(result.getResults()).extracting(AuthorizationBatchItemResultDto::getError)
+                .containsExactly(null, "Access denied: no assigned role.", "Access denied: no assigned role.");
+        verify(userAuthMappingRepository).provisionUsers(List.of(identity));
+        verify(userAuthMappingRepository, never()).provisionUsers(argThat(identities -> identities.contains(other)));
+        verify(authorizationHelper, times(2)).logAccessDenied(any(), eq("closed"), anyString(), anyMap());
+        verify(authorizationHelper).logAccessDenied(eq(null), eq("closed"), anyString(), anyMap());
+    }
+}
@@ -0,0 +1,87 @@
+package it.aredegalli.auctoritas.service.authorization;
+
+import it.aredegalli.auctoritas.model.role.Permission;
+import it.aredegalli.auctoritas.model.role.PermissionRole;
+import it.aredegalli.auctoritas.model.role.Role;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepository;
+import it.aredegalli.auctoritas.repository.application.UserRoleApplicationRepositoryCustom.UserApplication;
+import it.aredegalli.auctoritas.repository.role.PermissionRoleRepository;
+import it.aredegalli.auctoritas.service.reference.RolePermissionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PermissionEvaluationEngineTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+    private final UUID applicationId = UUID.randomUUID();
+    private final Role editor = Role.builder().id(UUID.randomUUID()).name("EDITOR").build();
+    private final Permission read = Permission.builder().id(UUID.randomUUID()).name("read").build();
+    private final Permission write = Permission.builder().id(UUID.randomUUID()).name("write").build();
+
+    private UserRoleApplicationRepository userRoleApplicationRepository;
+    private RolePermissionIndex index;
+    private PermissionEvaluationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        PermissionRoleRepository permissionRoleRepository = mock(PermissionRoleRepository.class);
+        when(permissionRoleRepository.findAllWithPermission())
+                .thenReturn(List.of(PermissionRole.builder().role(editor).permission(read).build()));
+        index = new RolePermissionIndex(permissionRoleRepository);
+        index.reload();
+
+        userRoleApplicationRepository = mock(UserRoleApplicationRepository.class);
+        when(userRoleApplicationRepository.findRoleNamesByUserApplications(anyCollection()))
+                .thenReturn(Map.of(new UserApplication(userId, applicationId), Map.of(editor.getId(), editor.getName())));
+
+        engine = new PermissionEvaluationEngine(userRoleApplicationRepository, index, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void loadsRolesOnceAndFollowsIndexChangesWithoutReloading() {
+        assertThat(engine.hasPermission(userId, applicationId, "read")).isTrue();
+        assertThat(engine.hasPermission(userId, applicationId, "write")).isFalse();
+        assertThat(engine.hasPermission(userId, applicationId, "unknown")).isFalse();
+
+        index.grant(editor.getId(), write);
+        assertThat(engine.hasPermission(userId, applicationId, "write")).isTrue();
+
+        index.revoke(editor.getId(), read.getId());
+        assertThat(engine.hasPermission(userId, applicationId, "read")).isFalse();
+
+        verify(userRoleApplicationRepository, times(1)).findRoleNamesByUserApplications(anyCollection());
+    }
+
+    @Test
+    void reloadsAfterInvalidation() {
+        engine.hasPermission(userId, applicationId, "read");
+        engine.invalidate(userId, applicationId);
+        engine.hasPermission(userId, applicationId, "read");
+
+        verify(userRoleApplicationRepository, times(2)).findRoleNamesByUserApplications(anyCollection());
+    }
+
+    @Test
+    void evaluatesBulkChecksWithOneQuery() {
+        boolean[] answers = engine.hasPermissions(List.of(
+                new PermissionEvaluationEngine.Check(userId, applicationId, "read"),
+                new PermissionEvaluationEngine.Check(otherUserId, applicationId, "read"),
+                new PermissionEvaluationEngine.Check(userId, applicationId, "write")));
+
+        assertThat(answers).containsExactly(true, false, false);
+        verify(userRoleApplicationRepository, times(1)).findRoleNamesByUserApplications(anyCollection());
+    }
+}
@@ -0,0 +1,64 @@
+package it.aredegalli.auctoritas.service.reference;
+
+import it.aredegalli.auctoritas.model.role.Permission;
+import it.aredegalli.auctoritas.model.role.PermissionRole;
+import it.aredegalli.auctoritas.model.role.Role;
+import it.aredegalli.auctoritas.repository.role.PermissionRoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RolePermissionIndexTest {
+
+    private final Role admin = Role.builder().id(UUID.randomUUID()).name("ADMIN").build();
+    private final Role viewer = Role.builder().id(UUID.randomUUID()).name("VIEWER").build();
+    private final Permission read = Permission.builder().id(UUID.randomUUID()).name("read").build();
+    private final Permission write = Permission.builder().id(UUID.randomUUID()).name("write").build();
+
+    private RolePermissionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        PermissionRoleRepository repository = mock(PermissionRoleRepository.class);
+        when(repository.findAllWithPermission()).thenReturn(List.of(
+                PermissionRole.builder().role(admin).permission(read).build(),
+                PermissionRole.builder().role(admin).permission(write).build(),
+                PermissionRole.builder().role(viewer).permission(read).build()));
+
+        index = new RolePermissionIndex(repository);
+        index.reload();
+    }
+
+    @Test
+    void resolvesTheUnionOfRolePermissions() {
+        assertThat(index.resolve(Set.of(viewer.getId()))).containsExactly(Map.entry(read.getId(), "read"));
+        assertThat(index.resolve(Set.of(admin.getId(), viewer.getId())))
+                .containsOnlyKeys(read.getId(), write.getId());
+        assertThat(index.resolve(Set.of(UUID.randomUUID()))).isEmpty();
+    }
+
+    @Test
+    void appliesGrantsRevokesAndRenamesIncrementally() {
+        Permission delete = Permission.builder().id(UUID.randomUUID()).name("delete").build();
+        long version = index.version();
+
+        index.grant(viewer.getId(), delete);
+        assertThat(index.resolve(Set.of(viewer.getId()))).containsOnlyKeys(read.getId(), delete.getId());
+        assertThat(index.resolve(Set.of(admin.getId()))).containsOnlyKeys(read.getId(), write.getId());
+
+        index.revoke(admin.getId(), write.getId());
+        assertThat(index.resolve(Set.of(admin.getId()))).containsOnlyKeys(read.getId());
+
+        index.rename(Permission.builder().id(read.getId()).name("read-all").build());
+        assertThat(index.resolve(Set.of(admin.getId()))).containsEntry(read.getId(), "read-all");
+        assertThat(index.version()).isEqualTo(version + 3);
+    }
+}
@@ -0,0 +1,138 @@
+package it.aredegalli.auctoritas.service.validation.annotation;
+
+import it.aredegalli.auctoritas.model.application.Application;
+import it.aredegalli.auctoritas.model.role.Role;
+import it.aredegalli.auctoritas.repository.application.ApplicationRepository;
+import it.aredegalli.auctoritas.repository.role.RoleRepository;
+import it.aredegalli.auctoritas.service.validation.RequestEntityCache;
+import it.aredegalli.common.exception.ConflictException;
+import it.aredegalli.common.exception.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExistenceAspectTest {
+
+    private final Role role = Role.builder().id(UUID.randomUUID()).name("EDITOR").build();
+    private final Application application = Application.builder().id(UUID.randomUUID()).name("app").build();
+
+    private RoleRepository roleRepository;
+    private ApplicationRepository applicationRepository;
+    private RequestEntityCache entityCache;
+    private Target target;
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        roleRepository = mock(RoleRepository.class);
+        applicationRepository = mock(ApplicationRepository.class);
+        when(roleRepository.findById(role.getId())).thenReturn(Optional.of(role));
+        when(applicationRepository.findById(application.getId())).thenReturn(Optional.of(application));
+        when(applicationRepository.findByName(any())).thenReturn(Optional.empty());
+        when(applicationRepository.existsByName("app")).thenReturn(true);
+
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getBean(RoleRepository.class)).thenReturn(roleRepository);
+        when(context.getBean(ApplicationRepository.class)).thenReturn(applicationRepository);
+
+        entityCache = new RequestEntityCache();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Target(entityCache, roleRepository, applicationRepository));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ExistenceAspect(context, entityCache));
+        target = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void fetchesEachEntityOnceAndHandsItToTheMethod() {
+        assertThat(target.link(role.getId(), application.getId())).isEqualTo("EDITOR@app");
+        assertThat(target.link(role.getId(), application.getId())).isEqualTo("EDITOR@app");
+
+        verify(roleRepository, times(1)).findById(role.getId());
+        verify(applicationRepository, times(1)).findById(application.getId());
+        verify(roleRepository, never()).existsById(any());
+    }
+
+    @Test
+    void checksEveryRepeatedAnnotation() {
+        UUID missing = UUID.randomUUID();
+        when(applicationRepository.findById(missing)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> target.link(role.getId(), missing)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void supportsFindersReturningOptionalAndConflictChecks() {
+        assertThatThrownBy(() -> target.byName("missing")).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> target.create("app")).isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void deletedEntitiesAreNotFoundLaterInTheRequest() {
+        target.delete(application.getId());
+        when(applicationRepository.findById(application.getId())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> target.link(role.getId(), application.getId())).isInstanceOf(NotFoundException.class);
+        verify(applicationRepository, times(2)).findById(application.getId());
+    }
+
+    public static class Target {
+
+        private final RequestEntityCache entityCache;
+        private final RoleRepository roleRepository;
+        private final ApplicationRepository applicationRepository;
+
+        public Target() {
+            this(null, null, null);
+        }
+
+        Target(RequestEntityCache entityCache, RoleRepository roleRepository, ApplicationRepository applicationRepository) {
+            this.entityCache = entityCache;
+            this.roleRepository = roleRepository;
+            this.applicationRepository = applicationRepository;
+        }
+
+        @EntityExistence(repository = RoleRepository.class, idParam = "roleId", fetch = true)
+        @EntityExistence(repository = ApplicationRepository.class, idParam = "applicationId", fetch = true)
+        public String link(UUID roleId, UUID applicationId) {
+            Role role = entityCache.findById(roleRepository, roleId).orElseThrow();
+            Application application = entityCache.findById(applicationRepository, applicationId).orElseThrow();
+            return role.getName() + "@" + application.getName();
+        }
+
+        @EntityExistence(repository = ApplicationRepository.class, idParam = "applicationId", fetch = true)
+        public void delete(UUID applicationId) {
+            entityCache.evict(applicationRepository);
+        }
+
+        @EntityExistence(repository = ApplicationRepository.class, idParam = "name", method = "findByName")
+        public void byName(String name) {
+        }
+
+        @EntityExistence(repository = ApplicationRepository.class, idParam = "name", method = "existsByName", check = false)
+        public void create(String name) {
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package it.aredegalli.auctoritas.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashUtilTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final HashUtil hashUtil = new HashUtil(Base64.getEncoder().encodeToString(KEY));
+
+    @Test
+    void matchesAFreshMacForAsciiAndNonAsciiInput() throws Exception {
+        for (String input : List.of("", "user-42", "utente-àèìòù-用户", "x".repeat(5000))) {
+            byte[] expected = reference(input.getBytes(StandardCharsets.UTF_8));
+
+            assertThat(hashUtil.hmacSha256(input)).isEqualTo(Base64.getEncoder().encodeToString(expected));
+            assertThat(hashUtil.hmacSha256(input.getBytes(StandardCharsets.UTF_8))).isEqualTo(expected);
+
+            ByteBuffer output = ByteBuffer.allocateDirect(32);
+            hashUtil.hmacSha256(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)), output);
+            byte[] actual = new byte[32];
+            output.flip().get(actual);
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void staysCorrectUnderConcurrentUse() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Callable<Boolean>> tasks = IntStream.range(0, 2000)
+                    .mapToObj(i -> (Callable<Boolean>) () -> {
+                        String input = "external-" + i;
+                        byte[] expected = reference(input.getBytes(StandardCharsets.UTF_8));
+                        return hashUtil.hmacSha256(input).equals(Base64.getEncoder().encodeToString(expected));
+                    })
+                    .toList();
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertThat(result.get()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void failedCallDoesNotAffectTheNextOne() throws Exception {
+        ByteBuffer readOnly = ByteBuffer.allocate(32).asReadOnlyBuffer();
+        assertThatThrownBy(() -> hashUtil.hmacSha256(ByteBuffer.wrap(new byte[]{1, 2, 3}), readOnly))
+                .isInstanceOf(ReadOnlyBufferException.class);
+
+        assertThat(hashUtil.hmacSha256("user-42"))
+                .isEqualTo(Base64.getEncoder().encodeToString(reference("user-42".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static byte[] reference(byte[] input) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY, "HmacSHA256"));
+        return mac.doFinal(input);
+    }
+}
@@ -0,0 +1,75 @@
+package it.aredegalli.auctoritas.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new MpscRingBuffer<Integer>(1000).capacity()).isEqualTo(1024);
+        assertThat(new MpscRingBuffer<Integer>(1024).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void rejectsOffersWhenFullAndPreservesOrder() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isZero();
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.poll()).isEqualTo(1);
+        assertThat(buffer.poll()).isEqualTo(2);
+        assertThat(buffer.poll()).isEqualTo(3);
+        assertThat(buffer.poll()).isEqualTo(4);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void deliversEveryElementFromConcurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(256);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        Set<Integer> received = new HashSet<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+            Integer value = buffer.poll();
+            if (value != null) {
+                assertThat(received.add(value)).isTrue();
+            }
+        }
+        executor.shutdownNow();
+
+        assertThat(received).hasSize(producers * perProducer);
+        assertThat(buffer.poll()).isNull();
+    }
+}
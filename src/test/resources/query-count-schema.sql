@@ -0,0 +1,2 @@
+-- PostgreSQL column types used by the entities, for the in-memory H2 database of QueryCountTest
+CREATE DOMAIN IF NOT EXISTS jsonb AS JSON;